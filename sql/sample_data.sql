@@ -123,6 +123,16 @@ INSERT INTO borrow_records (book_id, member_id, user_id, borrow_date, due_date,
 -- Overdue book
 (4, 4, 2, NOW() - INTERVAL 20 DAY, DATE(NOW() - INTERVAL 20 DAY) + INTERVAL 14 DAY, NULL, 6.0, 'OVERDUE');
 
+-- Initialize circulation counters from the borrow records above
+UPDATE books b
+LEFT JOIN (SELECT book_id, COUNT(*) AS total,
+                  SUM(CASE WHEN return_date IS NULL THEN 1 ELSE 0 END) AS open_count,
+                  MAX(borrow_date) AS last_at
+           FROM borrow_records GROUP BY book_id) s ON s.book_id = b.book_id
+SET b.total_borrows = COALESCE(s.total, 0),
+    b.open_loans = COALESCE(s.open_count, 0),
+    b.last_borrowed_at = s.last_at;
+
 -- Insert User Activities (sample audit log)
 INSERT INTO user_activities (user_id, action, entity_type, entity_id, description, ip_address, user_agent, timestamp) VALUES
 (1, 'LOGIN', 'User', 1, 'User logged into system', '192.168.1.100', 'Mozilla/5.0', NOW() - INTERVAL 2 HOUR),
@@ -0,0 +1,79 @@
+package com.library.management.audit;
+
+import com.library.management.event.ActivityEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One entry of the audit log: the activity as captured on the request thread, plus the
+ * position in the log it was given on append. {@code recordedAt} never decreases along
+ * the log, {@code timestamp} is when the activity happened.
+ */
+public record AuditRecord(long sequence, LocalDateTime recordedAt, LocalDateTime timestamp, String username,
+                          String action, String entityType, Long entityId, String description,
+                          String ipAddress, String userAgent) {
+
+    static final String CSV_HEADER = "sequence,recordedAt,timestamp,username,action,entityType,entityId," +
+            "description,ipAddress,userAgent";
+
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Payload bytes of a record: the time it happened in microseconds, the entity id behind a
+     * presence byte, then each text field as a length-prefixed UTF-8 string.
+     */
+    static byte[] encode(ActivityEvent event) {
+        byte[][] texts = {utf8(event.getUsername()), utf8(event.getAction()), utf8(event.getEntityType()),
+                utf8(event.getDescription()), utf8(event.getIpAddress()), utf8(event.getUserAgent())};
+        int size = Long.BYTES + 1 + Long.BYTES;
+        for (byte[] text : texts) {
+            size += Integer.BYTES + (text == null ? 0 : text.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(micros(event.getTimestamp()));
+        buffer.put((byte) (event.getEntityId() == null ? 0 : 1));
+        buffer.putLong(event.getEntityId() == null ? 0 : event.getEntityId());
+        for (byte[] text : texts) {
+            buffer.putInt(text == null ? NULL_LENGTH : text.length);
+            if (text != null) {
+                buffer.put(text);
+            }
+        }
+        return buffer.array();
+    }
+
+    static AuditRecord decode(long sequence, long recordedAtMicros, ByteBuffer payload) {
+        LocalDateTime timestamp = time(payload.getLong());
+        boolean hasEntityId = payload.get() != 0;
+        long entityId = payload.getLong();
+        return new AuditRecord(sequence, time(recordedAtMicros), timestamp, text(payload), text(payload),
+                text(payload), hasEntityId ? entityId : null, text(payload), text(payload), text(payload));
+    }
+
+    static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime time(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,456 @@
+package com.library.management.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * One file of the audit log, preallocated to {@code segment-bytes} and memory-mapped while
+ * it is being appended to, then sealed and truncated to its used length.
+ *
+ * <pre>
+ * header : magic, version, first sequence, hash before the first record,
+ *          sealed flag, end position, last sequence, last hash    (96 bytes)
+ * record : payload length, sequence, recorded-at micros, payload, SHA-256
+ * </pre>
+ *
+ * Every record's hash covers the previous record's hash, its sequence, its time and its
+ * payload, so changing, removing or reordering any record breaks every hash after it. The
+ * length is written last, and a zero length marks the end of an unsealed segment; after
+ * a crash the segment is rescanned and cut at the first record that does not check out.
+ *
+ * Every {@code index-interval}-th record also goes to a sparse index, kept in memory and in
+ * a {@code .idx} file next to the segment, so a read by sequence or time starts close to
+ * the record it wants.
+ */
+final class AuditSegment {
+
+    static final int MAGIC = 0x41554454; // "AUDT"
+    static final int FORMAT_VERSION = 1;
+    static final int HASH_BYTES = 32;
+    static final byte[] GENESIS = new byte[HASH_BYTES];
+
+    static final int HEADER_BYTES = 96;
+    static final int RECORD_OVERHEAD = Integer.BYTES + 2 * Long.BYTES + HASH_BYTES;
+
+    private static final int FIRST_SEQUENCE_AT = 8;
+    private static final int PREVIOUS_HASH_AT = 16;
+    private static final int SEALED_AT = 48;
+    private static final int END_AT = 52;
+    private static final int LAST_SEQUENCE_AT = 56;
+    private static final int LAST_HASH_AT = 64;
+    private static final int INDEX_ENTRY_BYTES = 2 * Long.BYTES + Integer.BYTES;
+
+    /** Outcome of rehashing a segment: where the chain ends, or the first problem found. */
+    record Check(long records, long lastSequence, byte[] lastHash, String problem) {
+    }
+
+    final Path file;
+    final long firstSequence;
+    final byte[] previousHash;
+    private final int indexInterval;
+
+    private MappedByteBuffer buffer;
+    private FileChannel indexChannel;
+    private boolean sealed;
+    private volatile int end;
+    private int forcedUpTo;
+    private long lastSequence;
+    private byte[] lastHash;
+    private long lastRecordedAt;
+
+    private long[] indexTimes = new long[16];
+    private long[] indexSequences = new long[16];
+    private int[] indexPositions = new int[16];
+    private int indexSize;
+
+    private AuditSegment(Path file, long firstSequence, byte[] previousHash, int indexInterval) {
+        this.file = file;
+        this.firstSequence = firstSequence;
+        this.previousHash = previousHash;
+        this.indexInterval = indexInterval;
+    }
+
+    static String fileName(long firstSequence) {
+        return String.format("audit-%020d.seg", firstSequence);
+    }
+
+    static Path indexFile(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - ".seg".length()) + ".idx");
+    }
+
+    static AuditSegment create(Path dir, long firstSequence, byte[] previousHash, int capacity,
+                               int indexInterval) throws IOException {
+        AuditSegment segment = new AuditSegment(dir.resolve(fileName(firstSequence)), firstSequence,
+                previousHash, indexInterval);
+        try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, FORMAT_VERSION);
+        segment.buffer.putLong(FIRST_SEQUENCE_AT, firstSequence);
+        segment.buffer.put(PREVIOUS_HASH_AT, previousHash);
+        segment.buffer.force(0, HEADER_BYTES);
+        segment.end = HEADER_BYTES;
+        segment.forcedUpTo = HEADER_BYTES;
+        segment.lastSequence = firstSequence - 1;
+        segment.lastHash = previousHash;
+        segment.indexChannel = FileChannel.open(indexFile(segment.file), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment. A sealed one is read from its header and index file; an
+     * unsealed one is rescanned, and when {@code writable} it is mapped at {@code capacity}
+     * to be appended to, with any torn record after the last good one cleared.
+     */
+    static AuditSegment open(Path file, boolean writable, int capacity, int indexInterval) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Header is read whole
+            }
+        }
+        if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not an audit segment: " + file);
+        }
+        if (header.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported audit segment version " + header.getInt(4) + ": " + file);
+        }
+
+        byte[] previousHash = new byte[HASH_BYTES];
+        header.get(PREVIOUS_HASH_AT, previousHash);
+        AuditSegment segment = new AuditSegment(file, header.getLong(FIRST_SEQUENCE_AT), previousHash, indexInterval);
+        if (header.get(SEALED_AT) != 0) {
+            segment.sealed = true;
+            segment.end = header.getInt(END_AT);
+            segment.lastSequence = header.getLong(LAST_SEQUENCE_AT);
+            segment.lastHash = new byte[HASH_BYTES];
+            header.get(LAST_HASH_AT, segment.lastHash);
+            if (!segment.loadIndex()) {
+                segment.lastSequence = segment.firstSequence - 1;
+                segment.lastHash = previousHash;
+                segment.scan(segment.view(), HEADER_BYTES, segment.end, true);
+                if (writable) {
+                    segment.writeIndex();
+                }
+            }
+            return segment;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ})) {
+            segment.buffer = writable
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(capacity, channel.size()))
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        segment.lastSequence = segment.firstSequence - 1;
+        segment.lastHash = previousHash;
+        segment.scan(segment.buffer, HEADER_BYTES, segment.buffer.capacity(), true);
+        if (writable) {
+            segment.forcedUpTo = segment.end;
+            if (segment.end + Integer.BYTES <= segment.buffer.capacity() && segment.buffer.getInt(segment.end) != 0) {
+                // A record torn by a crash: clear it so the next append starts from zeros
+                byte[] zeros = new byte[64 * 1024];
+                for (int position = segment.end; position < segment.buffer.capacity(); position += zeros.length) {
+                    segment.buffer.put(position, zeros, 0, Math.min(zeros.length, segment.buffer.capacity() - position));
+                }
+                segment.buffer.force();
+            }
+            segment.writeIndex();
+            segment.indexChannel = FileChannel.open(indexFile(file), StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return segment;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    byte[] lastHash() {
+        return lastHash;
+    }
+
+    long lastRecordedAt() {
+        return lastRecordedAt;
+    }
+
+    int end() {
+        return end;
+    }
+
+    /**
+     * Recorded time of the first record, which is always indexed; MAX_VALUE while empty.
+     */
+    synchronized long firstRecordedAt() {
+        return indexSize == 0 ? Long.MAX_VALUE : indexTimes[0];
+    }
+
+    /**
+     * Writes the record and returns its hash, or null when it does not fit; only the
+     * store's appending thread calls this.
+     */
+    byte[] append(long sequence, long recordedAtMicros, byte[] payload, MessageDigest digest) throws IOException {
+        int position = end;
+        int size = RECORD_OVERHEAD + payload.length;
+        if ((long) position + size > buffer.capacity()) {
+            return null;
+        }
+        byte[] hash = hash(digest, lastHash, sequence, recordedAtMicros, payload);
+        buffer.putLong(position + Integer.BYTES, sequence);
+        buffer.putLong(position + Integer.BYTES + Long.BYTES, recordedAtMicros);
+        buffer.put(position + Integer.BYTES + 2 * Long.BYTES, payload);
+        buffer.put(position + Integer.BYTES + 2 * Long.BYTES + payload.length, hash);
+        buffer.putInt(position, payload.length);
+
+        lastSequence = sequence;
+        lastHash = hash;
+        lastRecordedAt = recordedAtMicros;
+        if ((sequence - firstSequence) % indexInterval == 0) {
+            addIndexEntry(recordedAtMicros, sequence, position);
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES)
+                    .putLong(recordedAtMicros).putLong(sequence).putInt(position).flip();
+            while (entry.hasRemaining()) {
+                indexChannel.write(entry);
+            }
+        }
+        end = position + size;
+        return hash;
+    }
+
+    /**
+     * Flushes records appended since the last call to the file.
+     */
+    synchronized void force() {
+        int upTo = end;
+        if (buffer != null && !sealed && upTo > forcedUpTo) {
+            buffer.force(forcedUpTo, upTo - forcedUpTo);
+            forcedUpTo = upTo;
+        }
+    }
+
+    /**
+     * Records the end of the chain in the header, flushes everything and gives back the
+     * unused preallocated space.
+     */
+    synchronized void seal() throws IOException {
+        buffer.put(SEALED_AT, (byte) 1);
+        buffer.putInt(END_AT, end);
+        buffer.putLong(LAST_SEQUENCE_AT, lastSequence);
+        buffer.put(LAST_HASH_AT, lastHash);
+        buffer.force();
+        indexChannel.force(true);
+        indexChannel.close();
+        indexChannel = null;
+        sealed = true;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(end);
+            channel.force(true);
+        }
+        buffer = null;
+    }
+
+    void close() throws IOException {
+        force();
+        if (indexChannel != null) {
+            indexChannel.close();
+            indexChannel = null;
+        }
+    }
+
+    /**
+     * Position to start reading from for records after {@code afterSequence} recorded at or
+     * after {@code fromMicros}: the later of the last index entries before either bound.
+     */
+    synchronized int startPosition(long afterSequence, long fromMicros) {
+        int position = HEADER_BYTES;
+        for (int low = 0, high = indexSize - 1; low <= high; ) {
+            int mid = (low + high) >>> 1;
+            if (indexSequences[mid] <= afterSequence + 1) {
+                position = Math.max(position, indexPositions[mid]);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        for (int low = 0, high = indexSize - 1; low <= high; ) {
+            int mid = (low + high) >>> 1;
+            if (indexTimes[mid] < fromMicros) {
+                position = Math.max(position, indexPositions[mid]);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Visits records from {@code position} with a sequence after {@code afterSequence} and a
+     * recorded time within [fromMicros, toMicros]; returns false once the visitor stops or a
+     * record past {@code toMicros} is reached.
+     */
+    boolean read(int position, long afterSequence, long fromMicros, long toMicros,
+                 Predicate<AuditRecord> visitor) throws IOException {
+        ByteBuffer view = view();
+        int limit = end;
+        while (position < limit) {
+            int length = view.getInt(position);
+            long sequence = view.getLong(position + Integer.BYTES);
+            long recordedAt = view.getLong(position + Integer.BYTES + Long.BYTES);
+            if (recordedAt > toMicros) {
+                return false;
+            }
+            if (sequence > afterSequence && recordedAt >= fromMicros) {
+                ByteBuffer payload = view.slice(position + Integer.BYTES + 2 * Long.BYTES, length);
+                if (!visitor.test(AuditRecord.decode(sequence, recordedAt, payload))) {
+                    return false;
+                }
+            }
+            position += RECORD_OVERHEAD + length;
+        }
+        return true;
+    }
+
+    /**
+     * Rehashes every record from {@code previous}, the hash the chain must continue from.
+     */
+    Check verify(byte[] previous) throws IOException {
+        if (!Arrays.equals(previous, previousHash)) {
+            return new Check(0, firstSequence - 1, previousHash,
+                    "chain broken before sequence " + firstSequence);
+        }
+        AuditSegment copy = new AuditSegment(file, firstSequence, previousHash, Integer.MAX_VALUE);
+        copy.lastSequence = firstSequence - 1;
+        copy.lastHash = previousHash;
+        int limit = end;
+        ByteBuffer view = view();
+        String problem = copy.scan(view, HEADER_BYTES, limit, false);
+        long records = copy.lastSequence - firstSequence + 1;
+        if (problem == null && copy.end != limit) {
+            problem = "records missing after sequence " + copy.lastSequence;
+        }
+        if (problem == null && sealed && (copy.lastSequence != lastSequence || !Arrays.equals(copy.lastHash, lastHash))) {
+            problem = "sealed header does not match its records";
+        }
+        return new Check(records, copy.lastSequence, copy.lastHash, problem);
+    }
+
+    private synchronized ByteBuffer view() throws IOException {
+        if (buffer == null) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Walks the chain from {@code position} and stops at the end marker or the first record
+     * that is cut short, out of sequence or fails its hash; returns why it stopped early.
+     */
+    private String scan(ByteBuffer view, int position, int limit, boolean index) {
+        MessageDigest digest = sha256();
+        limit = Math.min(limit, view.capacity());
+        String problem = null;
+        while (position + RECORD_OVERHEAD <= limit) {
+            int length = view.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || (long) position + RECORD_OVERHEAD + length > limit) {
+                problem = "record cut short at position " + position;
+                break;
+            }
+            long sequence = view.getLong(position + Integer.BYTES);
+            long recordedAt = view.getLong(position + Integer.BYTES + Long.BYTES);
+            if (sequence != lastSequence + 1) {
+                problem = "expected sequence " + (lastSequence + 1) + " but found " + sequence;
+                break;
+            }
+            byte[] payload = new byte[length];
+            view.get(position + Integer.BYTES + 2 * Long.BYTES, payload);
+            byte[] stored = new byte[HASH_BYTES];
+            view.get(position + Integer.BYTES + 2 * Long.BYTES + length, stored);
+            byte[] hash = hash(digest, lastHash, sequence, recordedAt, payload);
+            if (!MessageDigest.isEqual(hash, stored)) {
+                problem = "hash mismatch at sequence " + sequence;
+                break;
+            }
+            if (index && (sequence - firstSequence) % indexInterval == 0) {
+                addIndexEntry(recordedAt, sequence, position);
+            }
+            lastSequence = sequence;
+            lastHash = hash;
+            lastRecordedAt = recordedAt;
+            position += RECORD_OVERHEAD + length;
+        }
+        end = position;
+        return problem;
+    }
+
+    private boolean loadIndex() throws IOException {
+        Path indexFile = indexFile(file);
+        if (!Files.exists(indexFile) || Files.size(indexFile) % INDEX_ENTRY_BYTES != 0) {
+            return false;
+        }
+        ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        while (entries.hasRemaining()) {
+            addIndexEntry(entries.getLong(), entries.getLong(), entries.getInt());
+        }
+        lastRecordedAt = indexSize == 0 ? 0 : indexTimes[indexSize - 1];
+        return true;
+    }
+
+    private synchronized void writeIndex() throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate(indexSize * INDEX_ENTRY_BYTES);
+        for (int i = 0; i < indexSize; i++) {
+            entries.putLong(indexTimes[i]).putLong(indexSequences[i]).putInt(indexPositions[i]);
+        }
+        Files.write(indexFile(file), entries.array());
+    }
+
+    private synchronized void addIndexEntry(long recordedAt, long sequence, int position) {
+        if (indexSize == indexTimes.length) {
+            indexTimes = Arrays.copyOf(indexTimes, indexSize * 2);
+            indexSequences = Arrays.copyOf(indexSequences, indexSize * 2);
+            indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+        }
+        indexTimes[indexSize] = recordedAt;
+        indexSequences[indexSize] = sequence;
+        indexPositions[indexSize] = position;
+        indexSize++;
+    }
+
+    private static byte[] hash(MessageDigest digest, byte[] previous, long sequence, long recordedAt, byte[] payload) {
+        digest.update(previous);
+        digest.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(sequence).putLong(recordedAt).array());
+        digest.update(payload);
+        return digest.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.library.management.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.event.ActivityEvent;
+import com.library.management.service.BookExportService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, hash-chained audit log in a directory of {@link AuditSegment} files. Appends
+ * go to the memory-mapped active segment under one lock, so an audit write is a hash and a
+ * copy into the page cache; {@link #force()} makes them durable. When the active segment is
+ * full it is sealed and a new one continues the chain from its last hash.
+ *
+ * Compaction removes whole sealed segments older than a cutoff and appends the hash the
+ * remaining chain starts from to {@code anchors.log}, so {@link #verify()} can still tell a
+ * compacted log from one whose oldest segments were deleted by hand.
+ *
+ * Only one process may open a directory for writing; readers may open it while it is
+ * being written and see the records appended up to that moment.
+ */
+public final class AuditSegmentStore implements Closeable {
+
+    private static final String LOCK_FILE = "audit.lock";
+    private static final String ANCHORS_FILE = "anchors.log";
+    // Sparse index spacing for an unsealed segment opened by a reader
+    private static final int READ_INDEX_INTERVAL = 1024;
+
+    /** Result of {@link #verify()}; {@code problem} is null when the whole chain checks out. */
+    public record Verification(boolean valid, int segments, long records, long firstSequence, long lastSequence,
+                               String anchorHash, String headHash, String problem) {
+    }
+
+    /** Result of {@link #compact(LocalDateTime)}. */
+    public record Compaction(int segmentsRemoved, long recordsRemoved, long bytesFreed, String anchorHash) {
+    }
+
+    private final Path dir;
+    private final boolean writable;
+    private final int segmentBytes;
+    private final int indexInterval;
+    private final MessageDigest digest = AuditSegment.sha256();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    private volatile List<AuditSegment> segments = List.of();
+    private volatile AuditSegment active;
+
+    private AuditSegmentStore(Path dir, boolean writable, int segmentBytes, int indexInterval) {
+        this.dir = dir;
+        this.writable = writable;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+    }
+
+    /**
+     * Opens {@code dir} for appending, creating it if needed and recovering the last segment.
+     */
+    public static AuditSegmentStore open(Path dir, int segmentBytes, int indexInterval) throws IOException {
+        if (segmentBytes < AuditSegment.HEADER_BYTES + 4096 || indexInterval < 1) {
+            throw new IllegalArgumentException("Invalid audit segment settings: " + segmentBytes + " bytes, index every "
+                    + indexInterval + " records");
+        }
+        Files.createDirectories(dir);
+        AuditSegmentStore store = new AuditSegmentStore(dir, true, segmentBytes, indexInterval);
+        store.lock();
+        try {
+            store.load();
+            AuditSegment last = store.segments.isEmpty() ? null : store.segments.get(store.segments.size() - 1);
+            if (last == null || last.isSealed()) {
+                store.active = AuditSegment.create(dir, last == null ? 1 : last.lastSequence() + 1,
+                        last == null ? AuditSegment.GENESIS : last.lastHash(), segmentBytes, indexInterval);
+                store.segments = append(store.segments, store.active);
+            } else {
+                store.active = last;
+            }
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Opens {@code dir} for reading only, without taking the writer's lock.
+     */
+    public static AuditSegmentStore openReadOnly(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new IOException("No audit log at " + dir);
+        }
+        AuditSegmentStore store = new AuditSegmentStore(dir, false, 0, READ_INDEX_INTERVAL);
+        store.load();
+        return store;
+    }
+
+    /**
+     * Compacts {@code dir} while no other process has it open for writing.
+     */
+    public static Compaction compact(Path dir, LocalDateTime before) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new IOException("No audit log at " + dir);
+        }
+        try (AuditSegmentStore store = new AuditSegmentStore(dir, false, 0, READ_INDEX_INTERVAL)) {
+            store.lock();
+            store.load();
+            return store.removeBefore(before);
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IOException("Audit log " + dir + " is already open for writing by another process");
+        }
+    }
+
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(path -> path.getFileName().toString().matches("audit-\\d{20}\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+        List<AuditSegment> opened = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            boolean last = i == files.size() - 1;
+            opened.add(AuditSegment.open(files.get(i), writable && last, segmentBytes, indexInterval));
+        }
+        segments = List.copyOf(opened);
+    }
+
+    /**
+     * Appends the activity and returns its sequence number.
+     */
+    public long append(ActivityEvent event) throws IOException {
+        requireWritable();
+        byte[] payload = AuditRecord.encode(event);
+        if (AuditSegment.HEADER_BYTES + AuditSegment.RECORD_OVERHEAD + payload.length > segmentBytes) {
+            throw new IllegalArgumentException("Audit record of " + payload.length + " bytes exceeds the segment size");
+        }
+        appendLock.lock();
+        try {
+            long sequence = active.lastSequence() + 1;
+            // Never goes back, so reading by time can stop at the first record past the range
+            long recordedAt = Math.max(AuditRecord.micros(LocalDateTime.now()), active.lastRecordedAt());
+            if (active.append(sequence, recordedAt, payload, digest) == null) {
+                active.seal();
+                active = AuditSegment.create(dir, sequence, active.lastHash(), segmentBytes, indexInterval);
+                segments = append(segments, active);
+                active.append(sequence, recordedAt, payload, digest);
+            }
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes appended records to disk.
+     */
+    public void force() {
+        AuditSegment current = active;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    /**
+     * Visits records in log order with a sequence after {@code afterSequence}, recorded
+     * within [from, to] (either may be null), until the visitor returns false.
+     */
+    public void scan(long afterSequence, LocalDateTime from, LocalDateTime to,
+                     Predicate<AuditRecord> visitor) throws IOException {
+        long fromMicros = from == null ? Long.MIN_VALUE : AuditRecord.micros(from);
+        long toMicros = to == null ? Long.MAX_VALUE : AuditRecord.micros(to);
+        List<AuditSegment> current = segments;
+        // Earlier segments hold only records before the start, by sequence or by time
+        int first = 0;
+        for (int i = 1; i < current.size(); i++) {
+            AuditSegment segment = current.get(i);
+            if (segment.firstSequence <= afterSequence + 1 || segment.firstRecordedAt() < fromMicros) {
+                first = i;
+            }
+        }
+        for (int i = first; i < current.size(); i++) {
+            AuditSegment segment = current.get(i);
+            if (segment.lastSequence() <= afterSequence) {
+                continue;
+            }
+            if (!segment.read(segment.startPosition(afterSequence, fromMicros), afterSequence, fromMicros, toMicros,
+                    visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the records recorded within [from, to] as NDJSON or CSV and returns how many.
+     */
+    public long export(LocalDateTime from, LocalDateTime to, BookExportService.Format format, Writer writer,
+                       ObjectMapper objectMapper) throws IOException {
+        if (format == BookExportService.Format.CSV) {
+            writer.write(AuditRecord.CSV_HEADER);
+            writer.write('\n');
+        }
+        long[] count = {0};
+        try {
+            scan(0, from, to, record -> {
+                try {
+                    if (format == BookExportService.Format.CSV) {
+                        writer.write(Stream.of(record.sequence(), record.recordedAt(), record.timestamp(),
+                                        record.username(), record.action(), record.entityType(), record.entityId(),
+                                        record.description(), record.ipAddress(), record.userAgent())
+                                .map(BookExportService::csv)
+                                .collect(Collectors.joining(",")));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(record));
+                    }
+                    writer.write('\n');
+                    count[0]++;
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count[0];
+    }
+
+    /**
+     * Rehashes the whole chain, checking that every segment continues where the previous one
+     * ended and the oldest one from the last compaction anchor, or from the start.
+     */
+    public Verification verify() throws IOException {
+        List<AuditSegment> current = segments;
+        byte[] anchor = lastAnchor();
+        byte[] previous = anchor;
+        long records = 0;
+        long lastSequence = current.isEmpty() ? 0 : current.get(0).firstSequence - 1;
+        String problem = null;
+        for (AuditSegment segment : current) {
+            if (segment.firstSequence != lastSequence + 1) {
+                problem = "expected segment starting at sequence " + (lastSequence + 1) + " but found "
+                        + segment.file.getFileName();
+                break;
+            }
+            AuditSegment.Check check = segment.verify(previous);
+            records += check.records();
+            lastSequence = check.lastSequence();
+            previous = check.lastHash();
+            if (check.problem() != null) {
+                problem = segment.file.getFileName() + ": " + check.problem();
+                break;
+            }
+        }
+        if (problem == null && !current.isEmpty() && anchor == AuditSegment.GENESIS && current.get(0).firstSequence != 1) {
+            problem = "log starts at sequence " + current.get(0).firstSequence + " without a compaction anchor";
+        }
+        HexFormat hex = HexFormat.of();
+        return new Verification(problem == null, current.size(), records,
+                current.isEmpty() ? 0 : current.get(0).firstSequence, lastSequence, hex.formatHex(anchor),
+                hex.formatHex(previous), problem);
+    }
+
+    /**
+     * Removes sealed segments whose newest record was recorded before {@code before}.
+     */
+    public Compaction compact(LocalDateTime before) throws IOException {
+        requireWritable();
+        return removeBefore(before);
+    }
+
+    private Compaction removeBefore(LocalDateTime before) throws IOException {
+        long cutoff = AuditRecord.micros(before);
+        appendLock.lock();
+        try {
+            List<AuditSegment> current = segments;
+            int removable = 0;
+            // A segment's records are all older than the next segment's first one
+            while (removable + 1 < current.size() && current.get(removable).isSealed()
+                    && current.get(removable + 1).firstRecordedAt() < cutoff) {
+                removable++;
+            }
+            if (removable == 0) {
+                return new Compaction(0, 0, 0, HexFormat.of().formatHex(lastAnchor()));
+            }
+
+            AuditSegment kept = current.get(removable);
+            String anchor = HexFormat.of().formatHex(kept.previousHash);
+            Files.writeString(dir.resolve(ANCHORS_FILE), LocalDateTime.now() + " " + kept.firstSequence + " " + anchor
+                    + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                    StandardOpenOption.SYNC);
+            segments = List.copyOf(current.subList(removable, current.size()));
+
+            long bytes = 0;
+            for (AuditSegment segment : current.subList(0, removable)) {
+                bytes += Files.size(segment.file);
+                Files.delete(segment.file);
+                Files.deleteIfExists(AuditSegment.indexFile(segment.file));
+            }
+            return new Compaction(removable, kept.firstSequence - current.get(0).firstSequence, bytes, anchor);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        List<AuditSegment> current = segments;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dir", dir.toString());
+        stats.put("segments", current.size());
+        stats.put("firstSequence", current.isEmpty() ? 0 : current.get(0).firstSequence);
+        stats.put("lastSequence", current.isEmpty() ? 0 : current.get(current.size() - 1).lastSequence());
+        stats.put("activeSegment", active == null ? null : active.file.getFileName().toString());
+        stats.put("activeBytes", active == null ? 0 : active.end());
+        stats.put("segmentBytes", segmentBytes);
+        return stats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (active != null) {
+                active.close();
+                active = null;
+            }
+            if (lock != null) {
+                lock.release();
+                lock = null;
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+                lockChannel = null;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private byte[] lastAnchor() throws IOException {
+        Path anchors = dir.resolve(ANCHORS_FILE);
+        if (!Files.exists(anchors)) {
+            return AuditSegment.GENESIS;
+        }
+        List<String> lines = Files.readAllLines(anchors, StandardCharsets.UTF_8);
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            String[] fields = lines.get(i).trim().split(" ");
+            if (fields.length == 3) {
+                return HexFormat.of().parseHex(fields[2]);
+            }
+        }
+        return AuditSegment.GENESIS;
+    }
+
+    private void requireWritable() {
+        if (!writable || active == null) {
+            throw new IllegalStateException("Audit log " + dir + " is not open for writing");
+        }
+    }
+
+    private static List<AuditSegment> append(List<AuditSegment> segments, AuditSegment segment) {
+        List<AuditSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        return List.copyOf(updated);
+    }
+}
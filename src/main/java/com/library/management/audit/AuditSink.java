@@ -0,0 +1,166 @@
+package com.library.management.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.CursorPage;
+import com.library.management.event.ActivityEvent;
+import com.library.management.service.BookExportService;
+import com.library.management.util.Cursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional second copy of the activity log, kept outside MySQL: when {@code library.audit.enabled}
+ * is set, every activity is appended to the local {@link AuditSegmentStore} after its
+ * transaction commits, in the same order on this node as it was committed. Appends are
+ * flushed to disk every {@code force-interval-ms}, and segments older than
+ * {@code retention-days} are compacted away by {@code compact-cron}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditSink {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.audit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.audit.dir:${user.home}/library-management/audit}")
+    private String dir;
+
+    @Value("${library.audit.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${library.audit.index-interval:256}")
+    private int indexInterval;
+
+    @Value("${library.audit.retention-days:0}")
+    private int retentionDays;
+
+    private AuditSegmentStore store;
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        store = AuditSegmentStore.open(Paths.get(dir), segmentBytes, indexInterval);
+        log.info("Audit log open at {}: {}", dir, store.getStats());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(ActivityEvent event) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.append(event);
+            appended.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.error("Failed to append {} {} to the audit log", event.getAction(), event.getEntityType(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.audit.force-interval-ms:1000}")
+    public void force() {
+        if (store != null) {
+            store.force();
+        }
+    }
+
+    @Scheduled(cron = "${library.audit.compact-cron:0 20 4 * * *}")
+    public void compactExpired() {
+        if (store == null || retentionDays <= 0) {
+            return;
+        }
+        AuditSegmentStore.Compaction compaction = compact(LocalDateTime.now().minusDays(retentionDays));
+        if (compaction.segmentsRemoved() > 0) {
+            log.info("Compacted audit log: {}", compaction);
+        }
+    }
+
+    public AuditSegmentStore.Compaction compact(LocalDateTime before) {
+        try {
+            return requireStore().compact(before);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records in log order, oldest first, recorded within [from, to].
+     */
+    public CursorPage<AuditRecord> findPage(LocalDateTime from, LocalDateTime to, String after, int size) {
+        Cursor cursor = Cursor.decode(after);
+        List<AuditRecord> rows = new ArrayList<>(size + 1);
+        try {
+            requireStore().scan(cursor == null ? 0 : cursor.id(), from, to, record -> {
+                rows.add(record);
+                return rows.size() <= size;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Cursor.page(rows, size, record -> Cursor.of(record.recordedAt(), record.sequence()), slice -> slice);
+    }
+
+    public void export(LocalDateTime from, LocalDateTime to, BookExportService.Format format,
+                       OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long rows = requireStore().export(from, to, format,
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), objectMapper);
+        log.info("Exported {} audit records as {} in {} ms", rows, format, System.currentTimeMillis() - started);
+    }
+
+    public AuditSegmentStore.Verification verify() {
+        try {
+            return requireStore().verify();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = requireStore().getStats();
+        stats.put("appended", appended.sum());
+        stats.put("failed", failed.sum());
+        stats.put("retentionDays", retentionDays);
+        return stats;
+    }
+
+    private AuditSegmentStore requireStore() {
+        if (store == null) {
+            throw new RuntimeException("Audit log is disabled (library.audit.enabled)");
+        }
+        return store;
+    }
+}
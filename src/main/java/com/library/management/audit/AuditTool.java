@@ -0,0 +1,100 @@
+package com.library.management.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.management.service.BookExportService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line access to an audit log directory, without starting the application:
+ *
+ * <pre>
+ * verify  DIR                                                    rehash the whole chain
+ * export  DIR [--from T] [--to T] [--format ndjson|csv] [--out F] write records, oldest first
+ * compact DIR --before T                                         drop segments recorded before T
+ * </pre>
+ *
+ * Times are ISO local date-times. verify and export may run while the application is
+ * appending; compact needs the writer's lock, so run it through the API while the
+ * application owns the directory.
+ */
+public final class AuditTool {
+
+    private AuditTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            usage();
+            return;
+        }
+        Path dir = Paths.get(args[1]);
+        Map<String, String> options = options(args);
+        switch (args[0]) {
+            case "verify" -> {
+                try (AuditSegmentStore store = AuditSegmentStore.openReadOnly(dir)) {
+                    AuditSegmentStore.Verification verification = store.verify();
+                    System.out.println(verification);
+                    if (!verification.valid()) {
+                        System.exit(1);
+                    }
+                }
+            }
+            case "export" -> {
+                BookExportService.Format format = BookExportService.Format.of(options.getOrDefault("format", "ndjson"));
+                ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                try (AuditSegmentStore store = AuditSegmentStore.openReadOnly(dir);
+                     Writer writer = options.containsKey("out")
+                             ? Files.newBufferedWriter(Paths.get(options.get("out")), StandardCharsets.UTF_8)
+                             : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+                    long rows = store.export(time(options.get("from")), time(options.get("to")), format, writer,
+                            objectMapper);
+                    System.err.println("Exported " + rows + " audit records");
+                }
+            }
+            case "compact" -> {
+                LocalDateTime before = time(options.get("before"));
+                if (before == null) {
+                    usage();
+                    return;
+                }
+                System.out.println(AuditSegmentStore.compact(dir, before));
+            }
+            default -> usage();
+        }
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static LocalDateTime time(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    private static void usage() {
+        System.err.println("Usage: AuditTool verify DIR");
+        System.err.println("       AuditTool export DIR [--from T] [--to T] [--format ndjson|csv] [--out FILE]");
+        System.err.println("       AuditTool compact DIR --before T");
+        System.exit(2);
+    }
+}
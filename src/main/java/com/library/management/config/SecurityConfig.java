@@ -3,6 +3,7 @@ package com.library.management.config;
 import com.library.management.exception.CustomAccessDeniedHandler;
 import com.library.management.exception.CustomAuthenticationEntryPoint;
 import com.library.management.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -78,10 +79,16 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streaming responses finish on an async dispatch of a request already authorized above
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers("/api/auth/login", "/api/auth/refresh").permitAll()
                         .requestMatchers("/actuator/health", "/actuator/info").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Covers are loaded by <img> tags, which cannot send a bearer token
+                        .requestMatchers("GET", "/uploads/book-covers/**").permitAll()
+                        .requestMatchers("HEAD", "/uploads/book-covers/**").permitAll()
 
                         // Admin only endpoints
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
@@ -0,0 +1,48 @@
+package com.library.management.controller;
+
+import com.library.management.dto.ActivityDTO;
+import com.library.management.dto.ActivityFilter;
+import com.library.management.dto.CursorPage;
+import com.library.management.service.ActivityLogService;
+import com.library.management.service.ActivityLogWriter;
+import com.library.management.service.ActivityPartitionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/activities")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ActivityController {
+
+    private final ActivityLogService activityLogService;
+    private final ActivityLogWriter activityLogWriter;
+    private final ActivityPartitionService activityPartitionService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<ActivityDTO>> getActivities(
+            @ModelAttribute ActivityFilter filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPage<ActivityDTO> activities = activityLogService.search(
+                filter, after, Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok(activities);
+    }
+
+    @GetMapping("/writer")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getWriterStats() {
+        return ResponseEntity.ok(activityLogWriter.getStats());
+    }
+
+    @GetMapping("/tables")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTables() {
+        return ResponseEntity.ok(activityPartitionService.getBuckets());
+    }
+}
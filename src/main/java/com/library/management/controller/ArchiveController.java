@@ -0,0 +1,64 @@
+package com.library.management.controller;
+
+import com.library.management.dto.BorrowDTO;
+import com.library.management.dto.BorrowFilter;
+import com.library.management.dto.CursorPage;
+import com.library.management.service.BookExportService;
+import com.library.management.service.LoanArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ArchiveController {
+
+    private final LoanArchiveService loanArchiveService;
+
+    @GetMapping("/loans")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<CursorPage<BorrowDTO>> getArchivedLoans(
+            @ModelAttribute BorrowFilter filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(loanArchiveService.findPage(filter, after, Math.min(Math.max(size, 1), 100)));
+    }
+
+    @GetMapping("/loans/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<StreamingResponseBody> exportArchivedLoans(
+            @ModelAttribute BorrowFilter filter,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        BookExportService.Format exportFormat = BookExportService.Format.of(format);
+        StreamingResponseBody body = out -> loanArchiveService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"archived-loans." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/segments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<Map<String, Object>> getSegments() {
+        return ResponseEntity.ok(loanArchiveService.getSegments());
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        long archived = loanArchiveService.archive();
+        if (archived < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Loan archiving is already running on another node"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Loan archiving completed", "archived", archived));
+    }
+}
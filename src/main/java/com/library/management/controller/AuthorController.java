@@ -1,6 +1,7 @@
 package com.library.management.controller;
 
 import com.library.management.dto.AuthorDTO;
+import com.library.management.dto.CursorPage;
 import com.library.management.service.AuthorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,16 @@ public class AuthorController {
         return ResponseEntity.ok(authors);
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
+    public ResponseEntity<CursorPage<AuthorDTO>> getAuthorsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        CursorPage<AuthorDTO> authors = authorService.getAuthorsAfter(after, Math.min(Math.max(size, 1), 100));
+        return ResponseEntity.ok(authors);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
     public ResponseEntity<AuthorDTO> getAuthorById(@PathVariable Long id) {
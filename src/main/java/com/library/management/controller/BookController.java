@@ -1,18 +1,31 @@
 package com.library.management.controller;
 
 import com.library.management.dto.BookDTO;
+import com.library.management.dto.BookImportReport;
+import com.library.management.dto.FacetedSearchResultDTO;
+import com.library.management.search.FacetFilter;
+import com.library.management.dto.CursorPage;
+import com.library.management.service.BookExportService;
+import com.library.management.service.BookImportService;
 import com.library.management.service.BookService;
+import com.library.management.service.CatalogStatisticsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +36,9 @@ import java.util.Map;
 public class BookController {
 
     private final BookService bookService;
+    private final BookExportService bookExportService;
+    private final BookImportService bookImportService;
+    private final CatalogStatisticsService catalogStatisticsService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
@@ -30,14 +46,37 @@ public class BookController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "ASC") String sortDirection) {
+            @RequestParam(defaultValue = "ASC") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeSummary) {
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<BookDTO> books = bookService.getAllBooks(pageable);
+        Page<BookDTO> books = bookService.getAllBooks(pageable, includeSummary);
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
+    public ResponseEntity<CursorPage<BookDTO>> getBooksAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeSummary) {
+
+        CursorPage<BookDTO> books = bookService.getBooksAfter(after, Math.min(Math.max(size, 1), 100), includeSummary);
+        return ResponseEntity.ok(books);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format) {
+        BookExportService.Format exportFormat = BookExportService.Format.of(format);
+        StreamingResponseBody body = out -> bookExportService.export(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
     public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
@@ -52,6 +91,15 @@ public class BookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
 
+    @PostMapping("/import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<BookImportReport> importBooks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        BookImportReport report = bookImportService.importBooks(BookExportService.Format.of(format), body);
+        return ResponseEntity.ok(report);
+    }
+
     @PostMapping("/{id}/upload-cover")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<Map<String, String>> uploadBookCover(
@@ -87,14 +135,40 @@ public class BookController {
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping("/faceted-search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
+    public ResponseEntity<FacetedSearchResultDTO> facetedSearch(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) List<Long> publisherId,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "20") int facetLimit,
+            @RequestParam(defaultValue = "false") boolean includeSummary) {
+
+        FacetFilter filter = new FacetFilter(
+                categoryId != null ? new HashSet<>(categoryId) : null,
+                language != null ? new HashSet<>(language) : null,
+                yearFrom, yearTo,
+                publisherId != null ? new HashSet<>(publisherId) : null,
+                available);
+        Pageable pageable = PageRequest.of(page, size);
+        FacetedSearchResultDTO result = bookService.facetedSearch(filter, pageable, includeSummary, facetLimit);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/available")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
     public ResponseEntity<Page<BookDTO>> getAvailableBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeSummary) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.getAvailableBooks(pageable);
+        Page<BookDTO> books = bookService.getAvailableBooks(pageable, includeSummary);
         return ResponseEntity.ok(books);
     }
 
@@ -103,10 +177,11 @@ public class BookController {
     public ResponseEntity<Page<BookDTO>> getBooksByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeSummary) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.getBooksByCategory(categoryId, pageable);
+        Page<BookDTO> books = bookService.getBooksByCategory(categoryId, pageable, includeSummary);
         return ResponseEntity.ok(books);
     }
 
@@ -115,17 +190,18 @@ public class BookController {
     public ResponseEntity<Page<BookDTO>> getBooksByAuthor(
             @PathVariable Long authorId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeSummary) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<BookDTO> books = bookService.getBooksByAuthor(authorId, pageable);
+        Page<BookDTO> books = bookService.getBooksByAuthor(authorId, pageable, includeSummary);
         return ResponseEntity.ok(books);
     }
 
     @GetMapping("/statistics")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<Map<String, Object>> getBookStatistics() {
-        Map<String, Object> statistics = bookService.getBookStatistics();
+        Map<String, Object> statistics = catalogStatisticsService.getSnapshot();
         return ResponseEntity.ok(statistics);
     }
 }
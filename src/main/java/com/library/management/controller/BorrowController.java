@@ -1,14 +1,27 @@
 package com.library.management.controller;
 
+import com.library.management.dto.BorrowBatchRequestDTO;
+import com.library.management.dto.BorrowBatchResultDTO;
 import com.library.management.dto.BorrowDTO;
+import com.library.management.dto.BorrowFilter;
 import com.library.management.dto.BorrowRequestDTO;
+import com.library.management.dto.CursorPage;
+import com.library.management.dto.ReturnBatchRequestDTO;
+import com.library.management.entity.BorrowStatus;
+import com.library.management.service.BookExportService;
+import com.library.management.service.BorrowQueryService;
 import com.library.management.service.BorrowService;
+import com.library.management.service.OverdueSweepService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -19,31 +32,69 @@ import java.util.Map;
 public class BorrowController {
 
     private final BorrowService borrowService;
+    private final BorrowQueryService borrowQueryService;
+    private final OverdueSweepService overdueSweepService;
+
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<List<BorrowDTO>> getAllBorrowRecords() {
-        List<BorrowDTO> records = borrowService.getAllBorrowRecords();
+    public ResponseEntity<CursorPage<BorrowDTO>> getBorrowRecords(
+            @ModelAttribute BorrowFilter filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeNames) {
+        CursorPage<BorrowDTO> records = borrowQueryService.findPage(filter, after, Math.min(Math.max(size, 1), 100),
+                includeNames);
         return ResponseEntity.ok(records);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<StreamingResponseBody> exportBorrowRecords(
+            @ModelAttribute BorrowFilter filter,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean includeNames) {
+        BookExportService.Format exportFormat = BookExportService.Format.of(format);
+        StreamingResponseBody body = out -> borrowQueryService.export(filter, includeNames, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"borrow-records." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<BorrowDTO> getBorrowRecordById(@PathVariable Long id) {
-        BorrowDTO record = borrowService.getBorrowRecordById(id);
+    public ResponseEntity<BorrowDTO> getBorrowRecordById(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "false") boolean includeNames) {
+        BorrowDTO record = borrowQueryService.findById(id, includeNames);
         return ResponseEntity.ok(record);
     }
 
     @GetMapping("/member/{memberId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<List<BorrowDTO>> getBorrowRecordsByMember(@PathVariable Long memberId) {
-        List<BorrowDTO> records = borrowService.getBorrowRecordsByMember(memberId);
+    public ResponseEntity<CursorPage<BorrowDTO>> getBorrowRecordsByMember(
+            @PathVariable Long memberId,
+            @ModelAttribute BorrowFilter filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeNames) {
+        filter.setMemberId(memberId);
+        CursorPage<BorrowDTO> records = borrowQueryService.findPage(filter, after, Math.min(Math.max(size, 1), 100),
+                includeNames);
         return ResponseEntity.ok(records);
     }
 
+    // Open loans due before today, whether or not the sweep has marked them yet
     @GetMapping("/overdue")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
-    public ResponseEntity<List<BorrowDTO>> getOverdueRecords() {
-        List<BorrowDTO> records = borrowService.getOverdueRecords();
+    public ResponseEntity<CursorPage<BorrowDTO>> getOverdueRecords(
+            @ModelAttribute BorrowFilter filter,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeNames) {
+        filter.setStatus(List.of(BorrowStatus.BORROWED, BorrowStatus.OVERDUE));
+        filter.setDueTo(LocalDate.now().minusDays(1));
+        CursorPage<BorrowDTO> records = borrowQueryService.findPage(filter, after, Math.min(Math.max(size, 1), 100),
+                includeNames);
         return ResponseEntity.ok(records);
     }
 
@@ -68,6 +119,21 @@ public class BorrowController {
         return ResponseEntity.status(HttpStatus.CREATED).body(record);
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<BorrowBatchResultDTO> borrowBooks(@Valid @RequestBody BorrowBatchRequestDTO request) {
+        BorrowBatchResultDTO result = borrowService.borrowBooks(request.getBookIds(), request.getMemberId(),
+                request.getUserId(), request.getDays());
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("/return/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<BorrowBatchResultDTO> returnBooks(@Valid @RequestBody ReturnBatchRequestDTO request) {
+        BorrowBatchResultDTO result = borrowService.returnBooks(request.getBorrowIds());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{borrowId}/return")
     @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
     public ResponseEntity<BorrowDTO> returnBook(@PathVariable Long borrowId) {
@@ -77,9 +143,19 @@ public class BorrowController {
 
     @PostMapping("/update-overdue")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, String>> updateOverdueStatus() {
-        borrowService.updateOverdueStatus();
-        return ResponseEntity.ok(Map.of("message", "Overdue status updated successfully"));
+    public ResponseEntity<Map<String, Object>> updateOverdueStatus() {
+        long marked = overdueSweepService.sweep();
+        if (marked < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "An overdue sweep is already running on another node"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Overdue status updated successfully", "marked", marked));
+    }
+
+    @GetMapping("/overdue-sweep")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<Map<String, Object>> getOverdueSweepStats() {
+        return ResponseEntity.ok(overdueSweepService.getStats());
     }
 
 }
\ No newline at end of file
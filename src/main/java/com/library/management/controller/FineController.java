@@ -0,0 +1,73 @@
+package com.library.management.controller;
+
+import com.library.management.dto.FinePolicyDTO;
+import com.library.management.dto.MemberBalanceDTO;
+import com.library.management.service.FineAccrualService;
+import com.library.management.service.FinePolicyService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/fines")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class FineController {
+
+    private final FinePolicyService finePolicyService;
+    private final FineAccrualService fineAccrualService;
+
+    @GetMapping("/policies")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<List<FinePolicyDTO>> getAllPolicies() {
+        return ResponseEntity.ok(finePolicyService.getAllPolicies());
+    }
+
+    @PostMapping("/policies")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FinePolicyDTO> createPolicy(@Valid @RequestBody FinePolicyDTO policyDTO) {
+        FinePolicyDTO created = finePolicyService.createPolicy(policyDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    @PutMapping("/policies/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FinePolicyDTO> updatePolicy(@PathVariable Long id, @Valid @RequestBody FinePolicyDTO policyDTO) {
+        return ResponseEntity.ok(finePolicyService.updatePolicy(id, policyDTO));
+    }
+
+    @DeleteMapping("/policies/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> deletePolicy(@PathVariable Long id) {
+        finePolicyService.deletePolicy(id);
+        return ResponseEntity.ok(Map.of("message", "Fine policy deleted successfully"));
+    }
+
+    @GetMapping("/members/{memberId}/balance")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<MemberBalanceDTO> getMemberBalance(@PathVariable Long memberId) {
+        return ResponseEntity.ok(fineAccrualService.getBalance(memberId));
+    }
+
+    @PostMapping("/accrue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> accrueFines() {
+        long priced = fineAccrualService.accrue();
+        if (priced < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "Fine accrual is already running on another node"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Fines accrued successfully", "loans", priced));
+    }
+
+    @GetMapping("/accrual")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<Map<String, Object>> getAccrualStats() {
+        return ResponseEntity.ok(fineAccrualService.getStats());
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.management.controller;
+
+import com.library.management.dto.HoldDTO;
+import com.library.management.dto.HoldRequestDTO;
+import com.library.management.service.HoldService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<HoldDTO> placeHold(@Valid @RequestBody HoldRequestDTO request) {
+        HoldDTO hold = holdService.placeHold(request.getBookId(), request.getMemberId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @PutMapping("/{id}/cancel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<HoldDTO> cancelHold(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.cancelHold(id));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<HoldDTO> getHoldById(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.getHoldById(id));
+    }
+
+    @GetMapping("/book/{bookId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<List<HoldDTO>> getHoldsForBook(@PathVariable Long bookId) {
+        return ResponseEntity.ok(holdService.getHoldsForBook(bookId));
+    }
+
+    @GetMapping("/member/{memberId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<List<HoldDTO>> getHoldsForMember(@PathVariable Long memberId) {
+        return ResponseEntity.ok(holdService.getHoldsForMember(memberId));
+    }
+}
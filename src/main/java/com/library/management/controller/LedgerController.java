@@ -0,0 +1,57 @@
+package com.library.management.controller;
+
+import com.library.management.dto.CirculationEventDTO;
+import com.library.management.dto.CursorPage;
+import com.library.management.service.CirculationLedgerService;
+import com.library.management.service.CirculationSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ledger")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class LedgerController {
+
+    private final CirculationLedgerService circulationLedgerService;
+    private final CirculationSnapshotService circulationSnapshotService;
+
+    @GetMapping("/events")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<CursorPage<CirculationEventDTO>> getEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Long borrowId,
+            @RequestParam(required = false) Long memberId,
+            @RequestParam(required = false) Long bookId,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(circulationLedgerService.getEvents(after, borrowId, memberId, bookId,
+                Math.min(Math.max(size, 1), 1000)));
+    }
+
+    @GetMapping("/state")
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN')")
+    public ResponseEntity<Map<String, Object>> getState(@RequestParam(defaultValue = "10") int top) {
+        return ResponseEntity.ok(circulationSnapshotService.getState(Math.min(Math.max(top, 0), 100)));
+    }
+
+    @GetMapping("/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> verify(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(circulationSnapshotService.verify(Math.min(Math.max(limit, 1), 1000)));
+    }
+
+    @PostMapping("/snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> takeSnapshot() {
+        long lastSeq = circulationSnapshotService.snapshot();
+        if (lastSeq < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", "A circulation snapshot is already running on another node"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Circulation snapshot is up to date", "lastSeq", lastSeq));
+    }
+}
@@ -0,0 +1,30 @@
+package com.library.management.controller;
+
+import com.library.management.dto.SuggestionDTO;
+import com.library.management.search.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/suggest")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class SuggestController {
+
+    private final SuggestionIndex suggestionIndex;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'LIBRARIAN', 'STAFF')")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Set<String> types) {
+
+        List<SuggestionDTO> suggestions = suggestionIndex.suggest(prefix, Math.min(Math.max(limit, 1), 50), types);
+        return ResponseEntity.ok(suggestions);
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class ActivityDTO {
+    private Long activityId;
+    private Long userId;
+    private String username;
+    private String action;
+    private String entityType;
+    private Long entityId;
+    private String description;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime timestamp;
+}
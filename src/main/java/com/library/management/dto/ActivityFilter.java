@@ -0,0 +1,23 @@
+package com.library.management.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of the activity search. Every criterion is optional and the time range
+ * is inclusive; {@code entityId} needs {@code entityType}, e.g. {@code entityType=Book&entityId=123}.
+ */
+@Data
+public class ActivityFilter {
+    private Long userId;
+    private String action;
+    private String entityType;
+    private Long entityId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
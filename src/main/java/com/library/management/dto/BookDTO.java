@@ -31,6 +31,8 @@ public class BookDTO {
     private Integer pageCount;
 
     private String coverImageUrl;
+    private String coverThumbnailUrl;
+    private String coverMediumUrl;
 
     @NotNull(message = "Availability status is required")
     private Boolean isAvailable = true;
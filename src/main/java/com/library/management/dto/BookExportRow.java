@@ -0,0 +1,58 @@
+package com.library.management.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of the catalog export. Built by a JPQL constructor expression, so the
+ * constructor parameter order must match {@code BookExportService.EXPORT_SELECT}.
+ */
+@Data
+@NoArgsConstructor
+public class BookExportRow {
+    private Long bookId;
+    private String title;
+    private String isbn;
+    private Integer publicationYear;
+    private String edition;
+    private String language;
+    private Integer pageCount;
+    private String coverImageUrl;
+    private Boolean isAvailable;
+    private Long totalBorrows;
+    private Integer openLoans;
+    private Long publisherId;
+    private String publisherName;
+    private List<String> authors = List.of();
+    private List<String> categories = List.of();
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+
+    public BookExportRow(Long bookId, String title, String isbn, Integer publicationYear, String edition,
+                         String language, Integer pageCount, String coverImageUrl, Boolean isAvailable,
+                         Long totalBorrows, Integer openLoans, Long publisherId, String publisherName,
+                         LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.bookId = bookId;
+        this.title = title;
+        this.isbn = isbn;
+        this.publicationYear = publicationYear;
+        this.edition = edition;
+        this.language = language;
+        this.pageCount = pageCount;
+        this.coverImageUrl = coverImageUrl;
+        this.isAvailable = isAvailable;
+        this.totalBorrows = totalBorrows;
+        this.openLoans = openLoans;
+        this.publisherId = publisherId;
+        this.publisherName = publisherName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.library.management.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One book in a bulk import. Authors, categories and the publisher are referenced by
+ * name so a file exported from one branch can be loaded into another.
+ */
+@Data
+public class BookImportRow {
+    private String title;
+    private String isbn;
+    private Integer publicationYear;
+    private String edition;
+    private String summary;
+    private String language;
+    private Integer pageCount;
+    private String coverImageUrl;
+    private Boolean isAvailable = true;
+    private String publisherName;
+    private List<String> authors = new ArrayList<>();
+    private List<String> categories = new ArrayList<>();
+}
@@ -0,0 +1,26 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BorrowBatchRequestDTO {
+    @NotEmpty(message = "At least one book ID is required")
+    @Size(max = 50, message = "A batch cannot exceed 50 books")
+    private List<@NotNull Long> bookIds;
+
+    @NotNull(message = "Member ID is required")
+    private Long memberId;
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @Min(value = 1, message = "Days must be at least 1")
+    @Max(value = 30, message = "Days cannot exceed 30")
+    private int days = 14;
+}
@@ -0,0 +1,23 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BorrowBatchResultDTO {
+    private int succeeded;
+    private int failed;
+    private List<Item> items = new ArrayList<>();
+
+    /** One entry per requested id, in request order; {@code id} is the book id for checkouts, the borrow id for returns. */
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private boolean success;
+        private BorrowDTO record;
+        private String error;
+    }
+}
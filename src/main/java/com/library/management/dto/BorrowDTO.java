@@ -1,11 +1,14 @@
 package com.library.management.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.library.management.entity.BorrowStatus;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class BorrowDTO {
     private Long borrowId;
     private Long bookId;
@@ -16,4 +19,32 @@ public class BorrowDTO {
     private LocalDateTime returnDate;
     private Double fineAmount;
     private BorrowStatus status;
-}
\ No newline at end of file
+
+    // Only filled by listings that ask for names (includeNames=true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String bookTitle;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String memberName;
+
+    public BorrowDTO(Long borrowId, Long bookId, Long memberId, Long userId, LocalDateTime borrowDate,
+                     LocalDate dueDate, LocalDateTime returnDate, Double fineAmount, BorrowStatus status) {
+        this.borrowId = borrowId;
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.userId = userId;
+        this.borrowDate = borrowDate;
+        this.dueDate = dueDate;
+        this.returnDate = returnDate;
+        this.fineAmount = fineAmount;
+        this.status = status;
+    }
+
+    public BorrowDTO(Long borrowId, Long bookId, Long memberId, Long userId, LocalDateTime borrowDate,
+                     LocalDate dueDate, LocalDateTime returnDate, Double fineAmount, BorrowStatus status,
+                     String bookTitle, String memberName) {
+        this(borrowId, bookId, memberId, userId, borrowDate, dueDate, returnDate, fineAmount, status);
+        this.bookTitle = bookTitle;
+        this.memberName = memberName;
+    }
+}
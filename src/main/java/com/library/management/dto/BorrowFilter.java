@@ -0,0 +1,34 @@
+package com.library.management.dto;
+
+import com.library.management.entity.BorrowStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Query parameters of the borrow-record listing and export. Every criterion is optional;
+ * date ranges are inclusive. {@code sort} is {@code borrowDate} or {@code dueDate},
+ * prefixed with {@code -} for descending.
+ */
+@Data
+public class BorrowFilter {
+    private List<BorrowStatus> status;
+    private Long memberId;
+    private Long bookId;
+    private Long userId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate borrowedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate borrowedTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+
+    private String sort = "-borrowDate";
+}
@@ -0,0 +1,18 @@
+package com.library.management.dto;
+
+import com.library.management.entity.CirculationEventType;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class CirculationEventDTO {
+    private Long seq;
+    private CirculationEventType type;
+    private Long borrowId;
+    private Long bookId;
+    private Long memberId;
+    private Long holdId;
+    private Double amount;
+    private LocalDateTime occurredAt;
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,12 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FacetCountDTO {
+    private String value;
+    private String label;
+    private long count;
+}
@@ -0,0 +1,14 @@
+package com.library.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class FacetedSearchResultDTO {
+    private Page<BookDTO> books;
+    private Map<String, List<FacetCountDTO>> facets;
+}
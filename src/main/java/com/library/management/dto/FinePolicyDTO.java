@@ -0,0 +1,30 @@
+package com.library.management.dto;
+
+import com.library.management.entity.MemberType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class FinePolicyDTO {
+    private Long policyId;
+
+    // Leave empty to apply to every member type / every category
+    private MemberType memberType;
+    private Long categoryId;
+    private String categoryName;
+
+    @NotNull(message = "Daily rate is required")
+    @PositiveOrZero(message = "Daily rate cannot be negative")
+    private Double dailyRate;
+
+    @Min(value = 0, message = "Grace days cannot be negative")
+    private Integer graceDays = 0;
+
+    @PositiveOrZero(message = "Maximum fine cannot be negative")
+    private Double maxFine;
+
+    private LocalDateTime updatedAt;
+}
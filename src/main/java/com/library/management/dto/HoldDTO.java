@@ -0,0 +1,21 @@
+package com.library.management.dto;
+
+import com.library.management.entity.HoldStatus;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class HoldDTO {
+    private Long holdId;
+    private Long bookId;
+    private String bookTitle;
+    private Long memberId;
+    private String memberName;
+    private HoldStatus status;
+    // 1 = next in line; only set while WAITING
+    private Long position;
+    private LocalDateTime placedAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime closedAt;
+}
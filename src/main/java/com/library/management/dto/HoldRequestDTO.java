@@ -0,0 +1,13 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class HoldRequestDTO {
+    @NotNull(message = "Book ID is required")
+    private Long bookId;
+
+    @NotNull(message = "Member ID is required")
+    private Long memberId;
+}
@@ -0,0 +1,13 @@
+package com.library.management.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+public class MemberBalanceDTO {
+    private Long memberId;
+    private Double assessedFines;
+    private Double accruedFines;
+    private Double totalFines;
+    private LocalDate accruedAsOf;
+}
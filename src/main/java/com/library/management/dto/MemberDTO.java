@@ -1,5 +1,6 @@
 package com.library.management.dto;
 
+import com.library.management.entity.MemberType;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -21,4 +22,5 @@ public class MemberDTO {
     private String phone;
     private String address;
     private Boolean isActive = true;
+    private MemberType memberType = MemberType.STANDARD;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.library.management.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ReturnBatchRequestDTO {
+    @NotEmpty(message = "At least one borrow ID is required")
+    @Size(max = 50, message = "A batch cannot exceed 50 returns")
+    private List<@NotNull Long> borrowIds;
+}
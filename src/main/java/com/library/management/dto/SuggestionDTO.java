@@ -0,0 +1,11 @@
+package com.library.management.dto;
+
+import lombok.Data;
+
+@Data
+public class SuggestionDTO {
+    private String type;
+    private Long id;
+    private String label;
+    private Long popularity;
+}
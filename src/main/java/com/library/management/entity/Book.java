@@ -49,6 +49,25 @@ public class Book {
     @Column(name = "is_available", nullable = false)
     private Boolean isAvailable = true;
 
+    // Circulation counters, maintained by BorrowService and rebuilt by CirculationCounterService
+    @Column(name = "total_borrows", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long totalBorrows = 0L;
+
+    @Column(name = "open_loans", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer openLoans = 0;
+
+    @Column(name = "last_borrowed_at")
+    private LocalDateTime lastBorrowedAt;
+
+    // Loans moved to the archive; still part of totalBorrows
+    @Column(name = "archived_borrows", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long archivedBorrows = 0L;
+
+    // Bumped by the conditional checkout/return updates too, so an edit based on a stale read fails
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
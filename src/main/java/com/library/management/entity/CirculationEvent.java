@@ -0,0 +1,51 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only circulation ledger. {@code seq} orders the ledger; rows
+ * are only ever inserted, and they hold plain ids rather than associations so they
+ * outlive the records they describe. {@code occurredAt} is when it happened (backfilled
+ * history keeps its original dates), {@code recordedAt} when the row was written.
+ */
+@Entity
+@Immutable
+@Table(name = "circulation_events", indexes = {
+        @Index(name = "idx_circ_borrow_type", columnList = "borrow_id, type"),
+        @Index(name = "idx_circ_member_seq", columnList = "member_id, seq"),
+        @Index(name = "idx_circ_book_seq", columnList = "book_id, seq"),
+        @Index(name = "idx_circ_hold", columnList = "hold_id")
+})
+@Data
+public class CirculationEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CirculationEventType type;
+
+    @Column(name = "borrow_id")
+    private Long borrowId;
+
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "hold_id")
+    private Long holdId;
+
+    private Double amount;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,9 @@
+package com.library.management.entity;
+
+public enum CirculationEventType {
+    BORROWED,
+    RETURNED,
+    OVERDUE,
+    FINE_ASSESSED,
+    HOLD_PLACED
+}
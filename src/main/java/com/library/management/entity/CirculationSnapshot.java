@@ -0,0 +1,34 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Circulation read models (see CirculationState) as of ledger entry {@code lastSeq},
+ * gzip-compressed. Rebuilding loads the newest snapshot and replays only later entries.
+ */
+@Entity
+@Table(name = "circulation_snapshots")
+@Data
+public class CirculationSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long snapshotId;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+    @Column(name = "book_count", nullable = false)
+    private Integer bookCount;
+
+    @Column(name = "member_count", nullable = false)
+    private Integer memberCount;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,51 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * A fine rate for one member type, one category, or one member type within one category.
+ * An empty member type or category matches any; loans no policy matches fall back to the
+ * {@code library.fines.*} defaults.
+ */
+@Entity
+@Table(name = "fine_policies", uniqueConstraints =
+        @UniqueConstraint(name = "uk_fine_policy_scope", columnNames = {"member_type", "category_id"}))
+@Data
+@EqualsAndHashCode(exclude = "category")
+@ToString(exclude = "category")
+public class FinePolicy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long policyId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "member_type", length = 20)
+    private MemberType memberType;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
+
+    @Column(name = "daily_rate", nullable = false)
+    private Double dailyRate;
+
+    @Column(name = "grace_days", nullable = false)
+    private Integer graceDays = 0;
+
+    // Null means uncapped
+    @Column(name = "max_fine")
+    private Double maxFine;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+}
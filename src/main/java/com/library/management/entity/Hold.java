@@ -0,0 +1,58 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * A member's place in a book's hold queue. Holds are served in hold id order: on return
+ * the oldest WAITING hold becomes READY and the copy stays off the shelf until it is
+ * picked up or {@code expiresAt} passes.
+ */
+@Entity
+@Table(name = "holds", indexes = {
+        // Queue head per book is one index seek however long the queue is
+        @Index(name = "idx_hold_queue", columnList = "book_id, status, hold_id"),
+        @Index(name = "idx_hold_member", columnList = "member_id, status"),
+        @Index(name = "idx_hold_status_expires", columnList = "status, expires_at")
+})
+@Data
+@EqualsAndHashCode(exclude = {"book", "member"})
+@ToString(exclude = {"book", "member"})
+public class Hold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "hold_id")
+    private Long holdId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id", nullable = false)
+    private Member member;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HoldStatus status = HoldStatus.WAITING;
+
+    @Column(name = "placed_at", nullable = false)
+    private LocalDateTime placedAt;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        placedAt = LocalDateTime.now();
+    }
+}
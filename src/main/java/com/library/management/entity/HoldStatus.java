@@ -0,0 +1,5 @@
+package com.library.management.entity;
+
+public enum HoldStatus {
+    WAITING, READY, FULFILLED, CANCELLED, EXPIRED
+}
@@ -0,0 +1,70 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry of one immutable archive segment file of closed loans (see LoanArchiveService).
+ * The min/max columns let a scan skip segments that cannot match without opening them.
+ */
+@Entity
+@Table(name = "loan_archive_segments")
+@Data
+public class LoanArchiveSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long segmentId;
+
+    @Column(name = "file_name", nullable = false, unique = true, length = 100)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    @Column(name = "file_bytes", nullable = false)
+    private Long fileBytes;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "min_borrow_id", nullable = false)
+    private Long minBorrowId;
+
+    @Column(name = "max_borrow_id", nullable = false)
+    private Long maxBorrowId;
+
+    @Column(name = "min_book_id", nullable = false)
+    private Long minBookId;
+
+    @Column(name = "max_book_id", nullable = false)
+    private Long maxBookId;
+
+    @Column(name = "min_member_id", nullable = false)
+    private Long minMemberId;
+
+    @Column(name = "max_member_id", nullable = false)
+    private Long maxMemberId;
+
+    @Column(name = "min_borrow_date", nullable = false)
+    private LocalDateTime minBorrowDate;
+
+    @Column(name = "max_borrow_date", nullable = false)
+    private LocalDateTime maxBorrowDate;
+
+    @Column(name = "min_due_date", nullable = false)
+    private LocalDate minDueDate;
+
+    @Column(name = "max_due_date", nullable = false)
+    private LocalDate maxDueDate;
+
+    @Column(name = "min_return_date", nullable = false)
+    private LocalDateTime minReturnDate;
+
+    @Column(name = "max_return_date", nullable = false)
+    private LocalDateTime maxReturnDate;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
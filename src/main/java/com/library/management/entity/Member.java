@@ -24,6 +24,14 @@ public class Member {
     private LocalDateTime createdAt;
     private Boolean isActive = true;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "member_type", nullable = false, length = 20, columnDefinition = "VARCHAR(20) DEFAULT 'STANDARD'")
+    private MemberType memberType = MemberType.STANDARD;
+
+    // Open loans, only ever written by BorrowService's conditional updates and CirculationCounterService
+    @Column(name = "active_loans", nullable = false, updatable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer activeLoans = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,32 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running fine totals per member, so a balance lookup reads one row instead of summing
+ * the member's loan history. {@code assessedFines} grows as loans are returned with a
+ * fine; {@code accruedFines} is what the member's open overdue loans have run up, as of
+ * the last nightly accrual run.
+ */
+@Entity
+@Table(name = "member_balances")
+@Data
+public class MemberBalance {
+    @Id
+    private Long memberId;
+
+    @Column(name = "assessed_fines", nullable = false)
+    private Double assessedFines = 0.0;
+
+    @Column(name = "accrued_fines", nullable = false)
+    private Double accruedFines = 0.0;
+
+    @Column(name = "accrued_as_of")
+    private LocalDate accruedAsOf;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,5 @@
+package com.library.management.entity;
+
+public enum MemberType {
+    STANDARD, STUDENT, SENIOR, STAFF
+}
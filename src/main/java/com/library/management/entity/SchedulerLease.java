@@ -0,0 +1,24 @@
+package com.library.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * One row per scheduled job that must run on a single node at a time. A node owns the
+ * job while {@code lockedUntil} is in the future; a crashed owner's lease simply expires.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+@Data
+public class SchedulerLease {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(length = 200)
+    private String owner;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+}
@@ -4,11 +4,18 @@ import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
 
+/**
+ * Activity entries written before monthly tables; new entries go to user_activities_YYYYMM
+ * (see ActivityPartitionService), which read this table as their oldest month.
+ */
 @Entity
 @Table(name = "user_activities", indexes = {
         @Index(name = "idx_activity_user", columnList = "user_id"),
+        @Index(name = "idx_activity_user_time", columnList = "user_id, timestamp"),
         @Index(name = "idx_activity_timestamp", columnList = "timestamp"),
-        @Index(name = "idx_activity_action", columnList = "action")
+        @Index(name = "idx_activity_action", columnList = "action"),
+        @Index(name = "idx_activity_action_time", columnList = "action, timestamp"),
+        @Index(name = "idx_activity_entity_time", columnList = "entity_type, entity_id, timestamp")
 })
 @Data
 public class UserActivity {
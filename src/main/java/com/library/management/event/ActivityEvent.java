@@ -0,0 +1,24 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by ActivityLogService with everything captured on the request thread; the
+ * user is resolved from the username when the entry is written.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ActivityEvent {
+
+    private final String username;
+    private final String action;
+    private final String entityType;
+    private final Long entityId;
+    private final String description;
+    private final String ipAddress;
+    private final String userAgent;
+    private final LocalDateTime timestamp;
+}
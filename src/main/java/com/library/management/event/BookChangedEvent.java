@@ -0,0 +1,22 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by BookService whenever a book is created, updated or deleted.
+ * {@code previous} is null for CREATED, {@code current} is null for DELETED.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BookChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long bookId;
+    private final BookSnapshot previous;
+    private final BookSnapshot current;
+}
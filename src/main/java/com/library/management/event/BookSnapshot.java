@@ -0,0 +1,59 @@
+package com.library.management.event;
+
+import com.library.management.entity.Author;
+import com.library.management.entity.Book;
+import com.library.management.entity.Category;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of the searchable and countable parts of a book, taken inside the
+ * transaction that changed it so listeners can run after commit without touching
+ * the (by then detached) entity.
+ */
+@Value
+@Builder
+public class BookSnapshot {
+    Long bookId;
+    String title;
+    String isbn;
+    String summary;
+    String language;
+    Integer publicationYear;
+    Long publisherId;
+    String publisherName;
+    Boolean isAvailable;
+    Long totalBorrows;
+    Map<Long, String> authors;
+    Map<Long, String> categories;
+
+    public static BookSnapshot from(Book book) {
+        Map<Long, String> authors = new LinkedHashMap<>();
+        for (Author author : book.getAuthors()) {
+            authors.put(author.getAuthorId(), author.getFullName());
+        }
+
+        Map<Long, String> categories = new LinkedHashMap<>();
+        for (Category category : book.getCategories()) {
+            categories.put(category.getCategoryId(), category.getName());
+        }
+
+        return BookSnapshot.builder()
+                .bookId(book.getBookId())
+                .title(book.getTitle())
+                .isbn(book.getIsbn())
+                .summary(book.getSummary())
+                .language(book.getLanguage())
+                .publicationYear(book.getPublicationYear())
+                .publisherId(book.getPublisher() != null ? book.getPublisher().getPublisherId() : null)
+                .publisherName(book.getPublisher() != null ? book.getPublisher().getName() : null)
+                .isAvailable(book.getIsAvailable())
+                .totalBorrows(book.getTotalBorrows())
+                .authors(authors)
+                .categories(categories)
+                .build();
+    }
+}
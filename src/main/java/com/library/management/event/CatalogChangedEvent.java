@@ -0,0 +1,25 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when an author, publisher or category is created, renamed or deleted.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CatalogChangedEvent {
+
+    public enum EntityType {
+        AUTHOR, PUBLISHER, CATEGORY
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final EntityType entityType;
+    private final Long entityId;
+    private final String name;
+}
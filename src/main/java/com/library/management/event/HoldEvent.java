@@ -0,0 +1,23 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published by HoldService when a copy moves onto the hold shelf for a member (ALLOCATED)
+ * or leaves it because the hold was picked up, cancelled or expired (RELEASED). Together
+ * with LoanEvent this tells listeners whether the copy is on the open shelf.
+ */
+@Getter
+@RequiredArgsConstructor
+public class HoldEvent {
+
+    public enum Type {
+        ALLOCATED, RELEASED
+    }
+
+    private final Type type;
+    private final Long holdId;
+    private final Long bookId;
+    private final Long memberId;
+}
@@ -0,0 +1,24 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Published by BorrowService for every checkout and return.
+ */
+@Getter
+@RequiredArgsConstructor
+public class LoanEvent {
+
+    public enum Type {
+        BORROWED, RETURNED
+    }
+
+    private final Type type;
+    private final Long borrowId;
+    private final Long bookId;
+    private final Long memberId;
+    private final LocalDate dueDate;
+}
@@ -0,0 +1,18 @@
+package com.library.management.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Published by DueDateWheel when loans pass their due date, one event per batch of
+ * loans that were moved from BORROWED to OVERDUE.
+ */
+@Getter
+@RequiredArgsConstructor
+public class OverdueEvent {
+
+    private final long[] borrowIds;
+    private final LocalDate asOf;
+}
@@ -1,10 +1,14 @@
 package com.library.management.repository;
 
 import com.library.management.entity.Author;
+import com.library.management.repository.projection.IdCountView;
+import com.library.management.repository.projection.NamedPopularityView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +18,9 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     List<Author> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
             String firstName, String lastName);
 
+    @Query("SELECT a FROM Author a WHERE CONCAT(a.firstName, ' ', a.lastName) IN :names")
+    List<Author> findByFullNameIn(@Param("names") Collection<String> names);
+
 //
 //    List<Author> findByFirstNameIgnoreCaseAndLastNameIgnoreCase(String firstName, String lastName);
 //
@@ -30,4 +37,21 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
 //
 //
 //    List<Author> findByBiographyContainingIgnoreCase(String biography);
+
+
+    @Query("SELECT a.authorId AS id, CONCAT(a.firstName, ' ', a.lastName) AS name, " +
+            "COALESCE(SUM(b.totalBorrows), 0) AS popularity " +
+            "FROM Author a LEFT JOIN a.books b GROUP BY a.authorId, a.firstName, a.lastName")
+    List<NamedPopularityView> findSuggestionEntries();
+
+
+    // Keyset page ordered by (lastName, authorId), served by idx_author_last_name
+    @Query("SELECT a FROM Author a WHERE a.lastName > :lastName OR " +
+            "(a.lastName = :lastName AND a.authorId > :authorId) ORDER BY a.lastName, a.authorId")
+    List<Author> findPageAfter(@Param("lastName") String lastName, @Param("authorId") Long authorId, Limit limit);
+
+
+    @Query("SELECT a.authorId AS id, COUNT(b) AS count FROM Author a LEFT JOIN a.books b " +
+            "WHERE a.authorId IN :authorIds GROUP BY a.authorId")
+    List<IdCountView> countBooksByAuthor(@Param("authorIds") Collection<Long> authorIds);
 }
\ No newline at end of file
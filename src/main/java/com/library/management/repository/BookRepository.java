@@ -1,13 +1,24 @@
 package com.library.management.repository;
 
 import com.library.management.entity.Book;
+import com.library.management.repository.projection.BookAssociationView;
+import com.library.management.repository.projection.BookAvailabilityView;
+import com.library.management.repository.projection.BookListView;
+import com.library.management.repository.projection.BookSummaryView;
+import com.library.management.repository.projection.LabelCountView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -15,6 +26,18 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     boolean existsByIsbn(String isbn);
 
+    @Query("SELECT b.language AS label, COUNT(b) AS count FROM Book b GROUP BY b.language")
+    List<LabelCountView> countBooksByLanguage();
+
+    @Query("SELECT COALESCE(SUM(b.openLoans), 0) FROM Book b")
+    long sumOpenLoans();
+
+    @Query("SELECT DISTINCT b.coverImageUrl FROM Book b WHERE b.coverImageUrl IS NOT NULL")
+    List<String> findCoverImageUrls();
+
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
 
     Page<Book> findByIsAvailable(boolean isAvailable, Pageable pageable);
 
@@ -35,8 +58,150 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> searchBooks(@Param("query") String query);
 
 
-    @Query("SELECT b FROM Book b WHERE b.isAvailable = true")
-    List<Book> findAvailableBooks();
+    // List-view read path: one narrow row per book (publisher flattened in), no TEXT columns.
+    String LIST_VIEW_SELECT = "SELECT b.bookId AS bookId, b.title AS title, b.isbn AS isbn, " +
+            "b.publicationYear AS publicationYear, b.edition AS edition, b.language AS language, " +
+            "b.pageCount AS pageCount, b.coverImageUrl AS coverImageUrl, b.isAvailable AS isAvailable, " +
+            "b.totalBorrows AS totalBorrows, b.openLoans AS openLoans, " +
+            "b.createdAt AS createdAt, b.updatedAt AS updatedAt, " +
+            "p.publisherId AS publisherId, p.name AS publisherName " +
+            "FROM Book b LEFT JOIN b.publisher p ";
+
+
+    @Query(value = LIST_VIEW_SELECT,
+            countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<BookListView> findListViews(Pageable pageable);
+
+
+    @Query(value = LIST_VIEW_SELECT + "WHERE b.isAvailable = :isAvailable",
+            countQuery = "SELECT COUNT(b) FROM Book b WHERE b.isAvailable = :isAvailable")
+    Page<BookListView> findListViewsByAvailability(@Param("isAvailable") boolean isAvailable, Pageable pageable);
+
+
+    @Query(value = LIST_VIEW_SELECT + "JOIN b.categories c WHERE c.categoryId = :categoryId",
+            countQuery = "SELECT COUNT(b) FROM Book b JOIN b.categories c WHERE c.categoryId = :categoryId")
+    Page<BookListView> findListViewsByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+
+    @Query(value = LIST_VIEW_SELECT + "JOIN b.authors a WHERE a.authorId = :authorId",
+            countQuery = "SELECT COUNT(b) FROM Book b JOIN b.authors a WHERE a.authorId = :authorId")
+    Page<BookListView> findListViewsByAuthor(@Param("authorId") Long authorId, Pageable pageable);
+
+
+    @Query(LIST_VIEW_SELECT + "WHERE b.bookId IN :bookIds")
+    List<BookListView> findListViewsByIds(@Param("bookIds") Collection<Long> bookIds);
+
+
+    // Keyset page ordered by (title, bookId); idx_book_title carries the primary key as its suffix
+    @Query(LIST_VIEW_SELECT + "WHERE b.title > :title OR (b.title = :title AND b.bookId > :bookId) " +
+            "ORDER BY b.title, b.bookId")
+    List<BookListView> findListViewsAfterTitle(@Param("title") String title, @Param("bookId") Long bookId,
+                                               Limit limit);
+
+
+    // Walks the whole catalog in id order, one bounded batch at a time (index rebuilds)
+    @Query(LIST_VIEW_SELECT + "WHERE b.bookId > :afterId ORDER BY b.bookId")
+    List<BookListView> findListViewsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+
+    @Query("SELECT b.bookId AS bookId, a.authorId AS id, CONCAT(a.firstName, ' ', a.lastName) AS name " +
+            "FROM Book b JOIN b.authors a WHERE b.bookId IN :bookIds")
+    List<BookAssociationView> findAuthorsForBooks(@Param("bookIds") Collection<Long> bookIds);
+
+
+    @Query("SELECT b.bookId AS bookId, c.categoryId AS id, c.name AS name " +
+            "FROM Book b JOIN b.categories c WHERE b.bookId IN :bookIds")
+    List<BookAssociationView> findCategoriesForBooks(@Param("bookIds") Collection<Long> bookIds);
+
+
+    @Query("SELECT b.bookId FROM Book b JOIN b.authors a WHERE a.authorId = :authorId")
+    List<Long> findBookIdsByAuthor(@Param("authorId") Long authorId);
+
+    @Query("SELECT b.bookId FROM Book b JOIN b.categories c WHERE c.categoryId = :categoryId")
+    List<Long> findBookIdsByCategory(@Param("categoryId") Long categoryId);
+
+
+    @Query("SELECT b.bookId AS bookId, b.summary AS summary FROM Book b WHERE b.bookId IN :bookIds")
+    List<BookSummaryView> findSummariesForBooks(@Param("bookIds") Collection<Long> bookIds);
+
+
+    @Query("SELECT b.isAvailable FROM Book b WHERE b.bookId = :bookId")
+    Optional<Boolean> findAvailability(@Param("bookId") Long bookId);
+
+
+    // Checkout claim: succeeds for exactly one of any number of concurrent callers
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = false, b.totalBorrows = b.totalBorrows + 1, " +
+            "b.openLoans = b.openLoans + 1, b.lastBorrowedAt = :now, b.updatedAt = :now, " +
+            "b.version = b.version + 1 WHERE b.bookId = :bookId AND b.isAvailable = true")
+    int claimForLoan(@Param("bookId") Long bookId, @Param("now") LocalDateTime now);
+
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = true, " +
+            "b.openLoans = CASE WHEN b.openLoans > 0 THEN b.openLoans - 1 ELSE 0 END, " +
+            "b.updatedAt = :now, b.version = b.version + 1 WHERE b.bookId IN :bookIds")
+    int releaseLoans(@Param("bookIds") Collection<Long> bookIds, @Param("now") LocalDateTime now);
+
+
+    // Return or expiry that hands the copy to the next hold: the loan closes, the copy stays off the shelf
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.openLoans = CASE WHEN b.openLoans > 0 THEN b.openLoans - 1 ELSE 0 END, " +
+            "b.updatedAt = :now, b.version = b.version + 1 WHERE b.bookId IN :bookIds")
+    int releaseLoansToHoldShelf(@Param("bookIds") Collection<Long> bookIds, @Param("now") LocalDateTime now);
+
+
+    // Hold pickup: the copy is already off the shelf for this member
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.totalBorrows = b.totalBorrows + 1, b.openLoans = b.openLoans + 1, " +
+            "b.lastBorrowedAt = :now, b.updatedAt = :now, b.version = b.version + 1 " +
+            "WHERE b.bookId = :bookId AND b.isAvailable = false")
+    int claimFromHoldShelf(@Param("bookId") Long bookId, @Param("now") LocalDateTime now);
+
+
+    // A held copy nobody is waiting for any more goes back on the shelf, unless it is out on loan
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = true, b.updatedAt = :now, b.version = b.version + 1 " +
+            "WHERE b.bookId = :bookId AND b.openLoans = 0 AND b.isAvailable = false")
+    int returnToShelf(@Param("bookId") Long bookId, @Param("now") LocalDateTime now);
+
+
+    // Batch checkout: locks the rows in id order, so concurrent batches queue instead of deadlocking
+    @Query(value = "SELECT b.book_id AS bookId, b.is_available AS isAvailable FROM books b " +
+            "WHERE b.book_id IN :bookIds ORDER BY b.book_id FOR UPDATE", nativeQuery = true)
+    List<BookAvailabilityView> lockAvailability(@Param("bookIds") Collection<Long> bookIds);
+
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.isAvailable = false, b.totalBorrows = b.totalBorrows + 1, " +
+            "b.openLoans = b.openLoans + 1, b.lastBorrowedAt = :now, b.updatedAt = :now, " +
+            "b.version = b.version + 1 WHERE b.bookId IN :bookIds AND b.isAvailable = true")
+    int claimAllForLoan(@Param("bookIds") Collection<Long> bookIds, @Param("now") LocalDateTime now);
+
+
+    @Query("SELECT COALESCE(MIN(b.bookId), 0) FROM Book b")
+    long findMinBookId();
+
+
+    @Query("SELECT COALESCE(MAX(b.bookId), 0) FROM Book b")
+    long findMaxBookId();
+
+
+    // Rebuilds the circulation counters of one id range from borrow_records plus the archived count;
+    // archived loans are older than every live one, so they never hold the latest borrow date
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE books b LEFT JOIN (" +
+            "SELECT br.book_id, COUNT(*) AS total, " +
+            "SUM(CASE WHEN br.return_date IS NULL THEN 1 ELSE 0 END) AS open_count, " +
+            "MAX(br.borrow_date) AS last_at " +
+            "FROM borrow_records br WHERE br.book_id BETWEEN :fromId AND :toId GROUP BY br.book_id" +
+            ") s ON s.book_id = b.book_id " +
+            "SET b.total_borrows = b.archived_borrows + COALESCE(s.total, 0), " +
+            "b.open_loans = COALESCE(s.open_count, 0), " +
+            "b.last_borrowed_at = COALESCE(s.last_at, b.last_borrowed_at) " +
+            "WHERE b.book_id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int reconcileCirculationCounters(@Param("fromId") long fromId, @Param("toId") long toId);
 
 //
 //    @Query("SELECT b FROM Book b WHERE " +
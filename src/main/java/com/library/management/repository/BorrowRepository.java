@@ -2,21 +2,66 @@ package com.library.management.repository;
 
 import com.library.management.entity.BorrowRecord;
 import com.library.management.entity.BorrowStatus;
+import com.library.management.repository.projection.BorrowListView;
+import com.library.management.repository.projection.LoanDueView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BorrowRepository extends JpaRepository<BorrowRecord, Long> {
-    List<BorrowRecord> findByMemberMemberId(Long memberId);
+    boolean existsByBookBookIdAndMemberMemberIdAndStatusNot(Long bookId, Long memberId, BorrowStatus status);
 
-    @Query("SELECT br FROM BorrowRecord br WHERE br.dueDate < :currentDate AND br.status = 'BORROWED'")
-    List<BorrowRecord> findOverdueRecords(@Param("currentDate") LocalDate currentDate);
+    // One chunk of the overdue sweep, locked so exactly these loans are marked and recorded;
+    // served by idx_borrow_status_due
+    @Query(value = "SELECT borrow_id FROM borrow_records WHERE status = 'BORROWED' AND due_date < :today " +
+            "LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockOverdue(@Param("today") LocalDate today, @Param("limit") int limit);
 
-    @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.member.memberId = :memberId AND br.status = 'BORROWED'")
-    long countActiveBorrowsByMember(@Param("memberId") Long memberId);
+    // Closes a loan once; a concurrent second return matches no row
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BorrowRecord br SET br.status = 'RETURNED', br.returnDate = :returnDate, br.fineAmount = :fine " +
+            "WHERE br.borrowId = :borrowId AND br.status <> 'RETURNED'")
+    int markReturned(@Param("borrowId") Long borrowId, @Param("returnDate") LocalDateTime returnDate,
+                     @Param("fine") Double fine);
+
+    // Open loans in id order, one bounded batch at a time (due-date wheel load)
+    @Query("SELECT br.borrowId AS borrowId, br.dueDate AS dueDate FROM BorrowRecord br " +
+            "WHERE br.status = 'BORROWED' AND br.borrowId > :afterId ORDER BY br.borrowId")
+    List<LoanDueView> findOpenLoansAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(value = "SELECT borrow_id FROM borrow_records WHERE borrow_id IN :borrowIds " +
+            "AND status = 'BORROWED' ORDER BY borrow_id FOR UPDATE", nativeQuery = true)
+    List<Long> lockBorrowed(@Param("borrowIds") Collection<Long> borrowIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BorrowRecord br SET br.status = 'OVERDUE' WHERE br.borrowId IN :borrowIds AND br.status = 'BORROWED'")
+    int markOverdueByIds(@Param("borrowIds") Collection<Long> borrowIds);
+
+    // Flat row per record; foreign keys are read as plain ids
+    String LIST_VIEW_SELECT = "SELECT br.borrowId AS borrowId, br.book.bookId AS bookId, br.member.memberId AS memberId, " +
+            "br.user.userId AS userId, br.borrowDate AS borrowDate, br.dueDate AS dueDate, " +
+            "br.returnDate AS returnDate, br.fineAmount AS fineAmount, br.status AS status " +
+            "FROM BorrowRecord br ";
+
+    @Query(LIST_VIEW_SELECT + "WHERE br.borrowId IN :borrowIds")
+    List<BorrowListView> findListViewsByIds(@Param("borrowIds") Collection<Long> borrowIds);
+
+    // Next loans to archive: returned before the cutoff, in id order after the last batch
+    @Query(LIST_VIEW_SELECT + "WHERE br.status = 'RETURNED' AND br.returnDate < :cutoff AND br.borrowId > :afterId " +
+            "ORDER BY br.borrowId")
+    List<BorrowListView> findArchivable(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM BorrowRecord br WHERE br.borrowId IN :borrowIds AND br.status = 'RETURNED'")
+    int deleteReturned(@Param("borrowIds") Collection<Long> borrowIds);
 
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.library.management.repository;
 
 import com.library.management.entity.Category;
+import com.library.management.repository.projection.CategoryNodeView;
+import com.library.management.repository.projection.NamedCountView;
+import com.library.management.repository.projection.NamedPopularityView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +18,16 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
+    List<Category> findByNameIn(Collection<String> names);
 
+    @Query("SELECT c.categoryId AS id, c.name AS name, COALESCE(SUM(b.totalBorrows), 0) AS popularity " +
+            "FROM Category c LEFT JOIN c.books b GROUP BY c.categoryId, c.name")
+    List<NamedPopularityView> findSuggestionEntries();
+
+    @Query("SELECT c.categoryId AS id, c.name AS name, COUNT(b) AS count " +
+            "FROM Category c LEFT JOIN c.books b GROUP BY c.categoryId, c.name")
+    List<NamedCountView> countBooksByCategory();
+
+    @Query("SELECT c.categoryId AS id, p.categoryId AS parentId, c.name AS name FROM Category c LEFT JOIN c.parent p")
+    List<CategoryNodeView> findCategoryNodes();
 }
\ No newline at end of file
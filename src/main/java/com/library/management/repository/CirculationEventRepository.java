@@ -0,0 +1,71 @@
+package com.library.management.repository;
+
+import com.library.management.entity.CirculationEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CirculationEventRepository extends JpaRepository<CirculationEvent, Long> {
+
+    // Ledger order after a sequence number, optionally narrowed to one loan, member or book
+    @Query("SELECT e FROM CirculationEvent e WHERE e.seq > :afterSeq " +
+            "AND (:borrowId IS NULL OR e.borrowId = :borrowId) " +
+            "AND (:memberId IS NULL OR e.memberId = :memberId) " +
+            "AND (:bookId IS NULL OR e.bookId = :bookId) ORDER BY e.seq")
+    List<CirculationEvent> findPage(@Param("afterSeq") long afterSeq, @Param("borrowId") Long borrowId,
+                                    @Param("memberId") Long memberId, @Param("bookId") Long bookId, Limit limit);
+
+    // OVERDUE entries for loans just marked, with their book and member read in the same statement
+    @Modifying
+    @Query(value = "INSERT INTO circulation_events (type, borrow_id, book_id, member_id, occurred_at, recorded_at) " +
+            "SELECT 'OVERDUE', borrow_id, book_id, member_id, :now, :now FROM borrow_records " +
+            "WHERE borrow_id IN :borrowIds", nativeQuery = true)
+    int appendOverdue(@Param("borrowIds") Collection<Long> borrowIds, @Param("now") LocalDateTime now);
+
+    // Backfill of loans that predate the ledger, one borrow_id range at a time. Each statement
+    // skips loans that already have the entry, so a rerun (or a live write racing it) never doubles one.
+    @Modifying
+    @Query(value = "INSERT INTO circulation_events (type, borrow_id, book_id, member_id, occurred_at, recorded_at) " +
+            "SELECT 'BORROWED', br.borrow_id, br.book_id, br.member_id, br.borrow_date, :now FROM borrow_records br " +
+            "WHERE br.borrow_id > :afterId AND br.borrow_id <= :toId AND NOT EXISTS (SELECT 1 FROM circulation_events e " +
+            "WHERE e.borrow_id = br.borrow_id AND e.type = 'BORROWED') ORDER BY br.borrow_id", nativeQuery = true)
+    int backfillBorrowed(@Param("afterId") long afterId, @Param("toId") long toId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO circulation_events (type, borrow_id, book_id, member_id, amount, occurred_at, recorded_at) " +
+            "SELECT 'RETURNED', br.borrow_id, br.book_id, br.member_id, br.fine_amount, br.return_date, :now " +
+            "FROM borrow_records br WHERE br.borrow_id > :afterId AND br.borrow_id <= :toId AND br.status = 'RETURNED' " +
+            "AND NOT EXISTS (SELECT 1 FROM circulation_events e " +
+            "WHERE e.borrow_id = br.borrow_id AND e.type = 'RETURNED') ORDER BY br.borrow_id", nativeQuery = true)
+    int backfillReturned(@Param("afterId") long afterId, @Param("toId") long toId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO circulation_events (type, borrow_id, book_id, member_id, amount, occurred_at, recorded_at) " +
+            "SELECT 'FINE_ASSESSED', br.borrow_id, br.book_id, br.member_id, br.fine_amount, br.return_date, :now " +
+            "FROM borrow_records br WHERE br.borrow_id > :afterId AND br.borrow_id <= :toId AND br.status = 'RETURNED' " +
+            "AND br.fine_amount > 0 AND NOT EXISTS (SELECT 1 FROM circulation_events e " +
+            "WHERE e.borrow_id = br.borrow_id AND e.type = 'FINE_ASSESSED') ORDER BY br.borrow_id", nativeQuery = true)
+    int backfillFines(@Param("afterId") long afterId, @Param("toId") long toId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO circulation_events (type, borrow_id, book_id, member_id, occurred_at, recorded_at) " +
+            "SELECT 'OVERDUE', br.borrow_id, br.book_id, br.member_id, br.due_date, :now FROM borrow_records br " +
+            "WHERE br.borrow_id > :afterId AND br.borrow_id <= :toId AND br.status = 'OVERDUE' " +
+            "AND NOT EXISTS (SELECT 1 FROM circulation_events e " +
+            "WHERE e.borrow_id = br.borrow_id AND e.type = 'OVERDUE') ORDER BY br.borrow_id", nativeQuery = true)
+    int backfillOverdue(@Param("afterId") long afterId, @Param("toId") long toId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO circulation_events (type, hold_id, book_id, member_id, occurred_at, recorded_at) " +
+            "SELECT 'HOLD_PLACED', h.hold_id, h.book_id, h.member_id, h.placed_at, :now FROM holds h " +
+            "WHERE NOT EXISTS (SELECT 1 FROM circulation_events e " +
+            "WHERE e.hold_id = h.hold_id AND e.type = 'HOLD_PLACED') ORDER BY h.hold_id", nativeQuery = true)
+    int backfillHolds(@Param("now") LocalDateTime now);
+}
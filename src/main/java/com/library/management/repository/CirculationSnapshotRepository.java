@@ -0,0 +1,17 @@
+package com.library.management.repository;
+
+import com.library.management.entity.CirculationSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CirculationSnapshotRepository extends JpaRepository<CirculationSnapshot, Long> {
+
+    Optional<CirculationSnapshot> findFirstByOrderByLastSeqDesc();
+
+    @Query("SELECT s.snapshotId FROM CirculationSnapshot s ORDER BY s.lastSeq DESC")
+    List<Long> findIdsNewestFirst();
+}
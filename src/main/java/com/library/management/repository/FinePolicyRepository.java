@@ -0,0 +1,19 @@
+package com.library.management.repository;
+
+import com.library.management.entity.FinePolicy;
+import com.library.management.entity.MemberType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FinePolicyRepository extends JpaRepository<FinePolicy, Long> {
+
+    @Query("SELECT p FROM FinePolicy p LEFT JOIN FETCH p.category ORDER BY p.policyId")
+    List<FinePolicy> findAllWithCategory();
+
+    // A null argument matches a null column, so this also finds the type-only and category-only rows
+    Optional<FinePolicy> findByMemberTypeAndCategoryCategoryId(MemberType memberType, Long categoryId);
+}
@@ -0,0 +1,69 @@
+package com.library.management.repository;
+
+import com.library.management.entity.Hold;
+import com.library.management.entity.HoldStatus;
+import com.library.management.repository.projection.HoldQueueView;
+import com.library.management.repository.projection.HoldRefView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // Head of a book's queue; served by idx_hold_queue
+    @Query("SELECT h.holdId AS holdId, m.memberId AS memberId, m.isActive AS isActive FROM Hold h JOIN h.member m " +
+            "WHERE h.book.bookId = :bookId AND h.status = 'WAITING' ORDER BY h.holdId")
+    List<HoldQueueView> findQueueHead(@Param("bookId") Long bookId, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = 'READY', h.readyAt = :now, h.expiresAt = :expiresAt " +
+            "WHERE h.holdId = :holdId AND h.status = 'WAITING'")
+    int markReady(@Param("holdId") Long holdId, @Param("now") LocalDateTime now,
+                  @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Moves a hold out of one open status; a racing cancel, pickup or expiry matches no row
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = :to, h.closedAt = :now WHERE h.holdId = :holdId AND h.status = :from")
+    int close(@Param("holdId") Long holdId, @Param("from") HoldStatus from, @Param("to") HoldStatus to,
+              @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(h) > 0 FROM Hold h WHERE h.book.bookId = :bookId AND h.member.memberId = :memberId " +
+            "AND h.status = 'READY' AND h.expiresAt >= :now")
+    boolean existsReady(@Param("bookId") Long bookId, @Param("memberId") Long memberId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT h.holdId AS holdId, h.book.bookId AS bookId, h.member.memberId AS memberId FROM Hold h " +
+            "WHERE h.book.bookId = :bookId AND h.member.memberId = :memberId AND h.status = 'READY' AND h.expiresAt >= :now")
+    Optional<HoldRefView> findReady(@Param("bookId") Long bookId, @Param("memberId") Long memberId,
+                                    @Param("now") LocalDateTime now);
+
+    // Pickups past their window; served by idx_hold_status_expires
+    @Query("SELECT h.holdId AS holdId, h.book.bookId AS bookId, h.member.memberId AS memberId FROM Hold h " +
+            "WHERE h.status = 'READY' AND h.expiresAt < :now ORDER BY h.expiresAt")
+    List<HoldRefView> findExpired(@Param("now") LocalDateTime now, Limit limit);
+
+    boolean existsByBookBookIdAndMemberMemberIdAndStatusIn(Long bookId, Long memberId, Collection<HoldStatus> statuses);
+
+    long countByMemberMemberIdAndStatusIn(Long memberId, Collection<HoldStatus> statuses);
+
+    @Query("SELECT COUNT(h) FROM Hold h WHERE h.book.bookId = :bookId AND h.status = 'WAITING' AND h.holdId < :holdId")
+    long countWaitingAhead(@Param("bookId") Long bookId, @Param("holdId") Long holdId);
+
+    @Query("SELECT h FROM Hold h JOIN FETCH h.book JOIN FETCH h.member " +
+            "WHERE h.book.bookId = :bookId AND h.status IN ('WAITING', 'READY') ORDER BY h.holdId")
+    List<Hold> findOpenByBook(@Param("bookId") Long bookId);
+
+    @Query("SELECT h FROM Hold h JOIN FETCH h.book JOIN FETCH h.member " +
+            "WHERE h.member.memberId = :memberId ORDER BY h.holdId DESC")
+    List<Hold> findByMember(@Param("memberId") Long memberId);
+
+    @Query("SELECT h FROM Hold h JOIN FETCH h.book JOIN FETCH h.member WHERE h.holdId = :holdId")
+    Optional<Hold> findWithBookAndMember(@Param("holdId") Long holdId);
+}
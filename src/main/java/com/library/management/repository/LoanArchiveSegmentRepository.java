@@ -0,0 +1,36 @@
+package com.library.management.repository;
+
+import com.library.management.entity.LoanArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LoanArchiveSegmentRepository extends JpaRepository<LoanArchiveSegment, Long> {
+
+    List<LoanArchiveSegment> findAllByOrderBySegmentId();
+
+    // Segments whose min/max stats overlap every given criterion, from fromSegment on
+    @Query("SELECT s FROM LoanArchiveSegment s WHERE s.segmentId >= :fromSegment " +
+            "AND (:bookId IS NULL OR :bookId BETWEEN s.minBookId AND s.maxBookId) " +
+            "AND (:memberId IS NULL OR :memberId BETWEEN s.minMemberId AND s.maxMemberId) " +
+            "AND (:borrowedFrom IS NULL OR s.maxBorrowDate >= :borrowedFrom) " +
+            "AND (:borrowedBefore IS NULL OR s.minBorrowDate < :borrowedBefore) " +
+            "AND (:dueFrom IS NULL OR s.maxDueDate >= :dueFrom) " +
+            "AND (:dueTo IS NULL OR s.minDueDate <= :dueTo) " +
+            "ORDER BY s.segmentId")
+    List<LoanArchiveSegment> findCandidates(@Param("fromSegment") long fromSegment,
+                                            @Param("bookId") Long bookId,
+                                            @Param("memberId") Long memberId,
+                                            @Param("borrowedFrom") LocalDateTime borrowedFrom,
+                                            @Param("borrowedBefore") LocalDateTime borrowedBefore,
+                                            @Param("dueFrom") LocalDate dueFrom,
+                                            @Param("dueTo") LocalDate dueTo);
+
+    @Query("SELECT s.fileName FROM LoanArchiveSegment s")
+    List<String> findAllFileNames();
+}
@@ -0,0 +1,31 @@
+package com.library.management.repository;
+
+import com.library.management.entity.MemberBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+public interface MemberBalanceRepository extends JpaRepository<MemberBalance, Long> {
+
+    // A returned loan's fine moves from accrued (what the last accrual run put there) to assessed
+    @Modifying
+    @Query(value = "INSERT INTO member_balances (member_id, assessed_fines, accrued_fines, updated_at) " +
+            "VALUES (:memberId, :fine, 0, :now) " +
+            "ON DUPLICATE KEY UPDATE assessed_fines = assessed_fines + :fine, " +
+            "accrued_fines = GREATEST(accrued_fines - :accrued, 0), updated_at = :now", nativeQuery = true)
+    int applyReturn(@Param("memberId") Long memberId, @Param("fine") double fine,
+                    @Param("accrued") double accrued, @Param("now") LocalDateTime now);
+
+    // Members the latest accrual run found no overdue loans for
+    @Modifying
+    @Transactional
+    @Query("UPDATE MemberBalance b SET b.accruedFines = 0, b.accruedAsOf = :asOf " +
+            "WHERE b.accruedAsOf IS NULL OR b.accruedAsOf < :asOf")
+    int clearAccruedBefore(@Param("asOf") LocalDate asOf);
+}
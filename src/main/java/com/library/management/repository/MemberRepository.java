@@ -1,11 +1,52 @@
 package com.library.management.repository;
 
 import com.library.management.entity.Member;
+import com.library.management.repository.projection.MemberTypeView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface MemberRepository extends JpaRepository<Member, Long> {
     Boolean existsByEmail(String email);
     long countByIsActiveTrue();
-}
\ No newline at end of file
+
+    @Query("SELECT m.memberId AS memberId, m.memberType AS memberType FROM Member m WHERE m.memberId IN :memberIds")
+    List<MemberTypeView> findMemberTypes(@Param("memberIds") Collection<Long> memberIds);
+
+    // Takes loan slots only while the member is active and stays within the limit.
+    // The casts keep Hibernate from typing :count with the column's DEFAULT clause.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Member m SET m.activeLoans = m.activeLoans + CAST(:count AS Integer) " +
+            "WHERE m.memberId = :memberId AND m.isActive = true " +
+            "AND m.activeLoans <= CAST(:maxLoans AS Integer) - CAST(:count AS Integer)")
+    int reserveLoanSlots(@Param("memberId") Long memberId, @Param("count") int count, @Param("maxLoans") int maxLoans);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Member m SET m.activeLoans = CASE WHEN m.activeLoans > CAST(:count AS Integer) " +
+            "THEN m.activeLoans - CAST(:count AS Integer) ELSE 0 END " +
+            "WHERE m.memberId = :memberId")
+    int releaseLoanSlots(@Param("memberId") Long memberId, @Param("count") int count);
+
+    @Query("SELECT COALESCE(MIN(m.memberId), 0) FROM Member m")
+    long findMinMemberId();
+
+    @Query("SELECT COALESCE(MAX(m.memberId), 0) FROM Member m")
+    long findMaxMemberId();
+
+    // Rebuilds active_loans of one id range from borrow_records
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE members m LEFT JOIN (" +
+            "SELECT br.member_id, COUNT(*) AS open_count FROM borrow_records br " +
+            "WHERE br.return_date IS NULL AND br.member_id BETWEEN :fromId AND :toId GROUP BY br.member_id" +
+            ") s ON s.member_id = m.member_id " +
+            "SET m.active_loans = COALESCE(s.open_count, 0) " +
+            "WHERE m.member_id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int reconcileActiveLoans(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -1,9 +1,11 @@
 package com.library.management.repository;
 
 import com.library.management.entity.Publisher;
+import com.library.management.repository.projection.NamedPopularityView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +15,10 @@ public interface PublisherRepository extends JpaRepository<Publisher, Long> {
     Optional<Publisher> findByNameIgnoreCase(String name);
     boolean existsByNameIgnoreCase(String name);
     List<Publisher> findByNameContainingIgnoreCase(String name);
+    List<Publisher> findByNameIn(Collection<String> names);
+
+
+    @Query("SELECT p.publisherId AS id, p.name AS name, COALESCE(SUM(b.totalBorrows), 0) AS popularity " +
+            "FROM Publisher p LEFT JOIN p.books b GROUP BY p.publisherId, p.name")
+    List<NamedPopularityView> findSuggestionEntries();
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.library.management.repository.projection;
+
+/**
+ * One (book, associated entity) pair, used to load the authors or categories
+ * of a whole page of books in a single query.
+ */
+public interface BookAssociationView {
+    Long getBookId();
+    Long getId();
+    String getName();
+}
@@ -0,0 +1,25 @@
+package com.library.management.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Narrow, list-view shape of a book row. Leaves out TEXT columns such as
+ * {@code summary} and flattens the publisher into the same row.
+ */
+public interface BookListView {
+    Long getBookId();
+    String getTitle();
+    String getIsbn();
+    Integer getPublicationYear();
+    String getEdition();
+    String getLanguage();
+    Integer getPageCount();
+    String getCoverImageUrl();
+    Boolean getIsAvailable();
+    Long getTotalBorrows();
+    Integer getOpenLoans();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    Long getPublisherId();
+    String getPublisherName();
+}
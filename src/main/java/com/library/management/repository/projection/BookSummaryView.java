@@ -0,0 +1,6 @@
+package com.library.management.repository.projection;
+
+public interface BookSummaryView {
+    Long getBookId();
+    String getSummary();
+}
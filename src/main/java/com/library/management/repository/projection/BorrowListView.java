@@ -0,0 +1,22 @@
+package com.library.management.repository.projection;
+
+import com.library.management.entity.BorrowStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Borrow record row with foreign keys as plain ids, so listings never hydrate
+ * the book, member or user entities.
+ */
+public interface BorrowListView {
+    Long getBorrowId();
+    Long getBookId();
+    Long getMemberId();
+    Long getUserId();
+    LocalDateTime getBorrowDate();
+    LocalDate getDueDate();
+    LocalDateTime getReturnDate();
+    Double getFineAmount();
+    BorrowStatus getStatus();
+}
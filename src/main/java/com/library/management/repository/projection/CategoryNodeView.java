@@ -0,0 +1,7 @@
+package com.library.management.repository.projection;
+
+public interface CategoryNodeView {
+    Long getId();
+    Long getParentId();
+    String getName();
+}
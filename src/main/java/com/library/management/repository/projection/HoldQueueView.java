@@ -0,0 +1,7 @@
+package com.library.management.repository.projection;
+
+public interface HoldQueueView {
+    Long getHoldId();
+    Long getMemberId();
+    Boolean getIsActive();
+}
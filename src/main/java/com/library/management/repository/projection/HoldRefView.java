@@ -0,0 +1,7 @@
+package com.library.management.repository.projection;
+
+public interface HoldRefView {
+    Long getHoldId();
+    Long getBookId();
+    Long getMemberId();
+}
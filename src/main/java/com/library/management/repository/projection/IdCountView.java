@@ -0,0 +1,6 @@
+package com.library.management.repository.projection;
+
+public interface IdCountView {
+    Long getId();
+    Long getCount();
+}
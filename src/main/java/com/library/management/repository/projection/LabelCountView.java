@@ -0,0 +1,6 @@
+package com.library.management.repository.projection;
+
+public interface LabelCountView {
+    String getLabel();
+    Long getCount();
+}
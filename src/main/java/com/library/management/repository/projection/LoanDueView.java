@@ -0,0 +1,8 @@
+package com.library.management.repository.projection;
+
+import java.time.LocalDate;
+
+public interface LoanDueView {
+    Long getBorrowId();
+    LocalDate getDueDate();
+}
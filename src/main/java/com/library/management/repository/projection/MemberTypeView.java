@@ -0,0 +1,8 @@
+package com.library.management.repository.projection;
+
+import com.library.management.entity.MemberType;
+
+public interface MemberTypeView {
+    Long getMemberId();
+    MemberType getMemberType();
+}
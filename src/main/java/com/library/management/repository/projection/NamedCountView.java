@@ -0,0 +1,7 @@
+package com.library.management.repository.projection;
+
+public interface NamedCountView {
+    Long getId();
+    String getName();
+    Long getCount();
+}
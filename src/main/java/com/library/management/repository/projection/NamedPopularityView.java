@@ -0,0 +1,7 @@
+package com.library.management.repository.projection;
+
+public interface NamedPopularityView {
+    Long getId();
+    String getName();
+    Long getPopularity();
+}
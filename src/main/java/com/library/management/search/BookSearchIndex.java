@@ -0,0 +1,138 @@
+package com.library.management.search;
+
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.CatalogChangedEvent;
+import com.library.management.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Embedded full-text index over title, ISBN, summary, author names and category names.
+ * Built in the background at startup, then kept current from {@link BookChangedEvent}s
+ * once the changing transaction has committed; renaming an author or category re-indexes
+ * its books. Until the first build finishes
+ * {@link #isReady()} is false and callers fall back to the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchIndex {
+
+    private final BookSnapshotLoader snapshotLoader;
+    private final BookRepository bookRepository;
+
+    @Value("${library.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+
+    // Changes that arrive while a rebuild is running; replayed onto the new index before it is swapped in
+    private List<Consumer<InvertedIndex>> pendingDuringRebuild;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread.ofPlatform().name("book-search-index-rebuild").daemon().start(this::rebuild);
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        InvertedIndex rebuilt = new InvertedIndex();
+        try {
+            snapshotLoader.forEachBatch(rebuildBatchSize, true, batch -> batch.forEach(rebuilt::put));
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild book search index", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(change -> change.accept(rebuilt));
+            pendingDuringRebuild = null;
+            index = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book search index built: {} books in {} ms", rebuilt.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            apply(target -> target.remove(event.getBookId()));
+        } else {
+            apply(target -> target.put(event.getCurrent()));
+        }
+    }
+
+    /**
+     * Author and category names are indexed with each book. Deletes need nothing: an author
+     * or category that still has books cannot be deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getType() != CatalogChangedEvent.Type.UPDATED) {
+            return;
+        }
+        List<Long> bookIds = switch (event.getEntityType()) {
+            case AUTHOR -> bookRepository.findBookIdsByAuthor(event.getEntityId());
+            case CATEGORY -> bookRepository.findBookIdsByCategory(event.getEntityId());
+            case PUBLISHER -> List.of();
+        };
+        snapshotLoader.forEachBatch(bookIds, rebuildBatchSize, true,
+                batch -> apply(target -> batch.forEach(target::put)));
+    }
+
+    public SearchHits search(String query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<InvertedIndex> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.library.management.search;
+
+import com.library.management.event.BookSnapshot;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.projection.BookAssociationView;
+import com.library.management.repository.projection.BookListView;
+import com.library.management.repository.projection.BookSummaryView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams the catalog out of the database as {@link BookSnapshot} batches for the
+ * in-memory indexes. Each batch costs four queries (books, authors, categories and,
+ * when asked for, summaries) regardless of how many books it holds.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookSnapshotLoader {
+
+    private final BookRepository bookRepository;
+
+    public long forEachBatch(int batchSize, boolean includeSummary, Consumer<List<BookSnapshot>> consumer) {
+        long afterId = 0;
+        long loaded = 0;
+
+        while (true) {
+            List<BookListView> views = bookRepository.findListViewsAfterId(afterId, PageRequest.of(0, batchSize));
+            if (views.isEmpty()) {
+                return loaded;
+            }
+
+            consumer.accept(toSnapshots(views, includeSummary));
+            loaded += views.size();
+            afterId = views.get(views.size() - 1).getBookId();
+        }
+    }
+
+    /**
+     * Current snapshots of the given books, loaded in batches of {@code batchSize}.
+     */
+    public void forEachBatch(List<Long> bookIds, int batchSize, boolean includeSummary,
+                             Consumer<List<BookSnapshot>> consumer) {
+        for (int from = 0; from < bookIds.size(); from += batchSize) {
+            List<BookListView> views = bookRepository.findListViewsByIds(
+                    bookIds.subList(from, Math.min(from + batchSize, bookIds.size())));
+            if (!views.isEmpty()) {
+                consumer.accept(toSnapshots(views, includeSummary));
+            }
+        }
+    }
+
+    private List<BookSnapshot> toSnapshots(List<BookListView> views, boolean includeSummary) {
+        List<Long> bookIds = views.stream().map(BookListView::getBookId).toList();
+        Map<Long, Map<Long, String>> authors = groupByBook(bookRepository.findAuthorsForBooks(bookIds));
+        Map<Long, Map<Long, String>> categories = groupByBook(bookRepository.findCategoriesForBooks(bookIds));
+
+        Map<Long, String> summaries = new HashMap<>();
+        if (includeSummary) {
+            for (BookSummaryView row : bookRepository.findSummariesForBooks(bookIds)) {
+                summaries.put(row.getBookId(), row.getSummary());
+            }
+        }
+
+        List<BookSnapshot> snapshots = new ArrayList<>(views.size());
+        for (BookListView view : views) {
+            snapshots.add(BookSnapshot.builder()
+                    .bookId(view.getBookId())
+                    .title(view.getTitle())
+                    .isbn(view.getIsbn())
+                    .summary(summaries.get(view.getBookId()))
+                    .language(view.getLanguage())
+                    .publicationYear(view.getPublicationYear())
+                    .publisherId(view.getPublisherId())
+                    .publisherName(view.getPublisherName())
+                    .isAvailable(view.getIsAvailable())
+                    .totalBorrows(view.getTotalBorrows())
+                    .authors(authors.getOrDefault(view.getBookId(), Map.of()))
+                    .categories(categories.getOrDefault(view.getBookId(), Map.of()))
+                    .build());
+        }
+        return snapshots;
+    }
+
+    private Map<Long, Map<Long, String>> groupByBook(List<BookAssociationView> rows) {
+        Map<Long, Map<Long, String>> grouped = new HashMap<>();
+        for (BookAssociationView row : rows) {
+            grouped.computeIfAbsent(row.getBookId(), id -> new LinkedHashMap<>()).put(row.getId(), row.getName());
+        }
+        return grouped;
+    }
+}
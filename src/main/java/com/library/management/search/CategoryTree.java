@@ -0,0 +1,48 @@
+package com.library.management.search;
+
+import com.library.management.repository.projection.CategoryNodeView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable parent links and names of the category hierarchy.
+ */
+final class CategoryTree {
+
+    // Guards against a parent cycle in bad data
+    private static final int MAX_DEPTH = 64;
+
+    static final CategoryTree EMPTY = new CategoryTree(List.of());
+
+    private final Map<Long, Long> parents = new HashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+
+    CategoryTree(List<CategoryNodeView> nodes) {
+        for (CategoryNodeView node : nodes) {
+            names.put(node.getId(), node.getName());
+            if (node.getParentId() != null) {
+                parents.put(node.getId(), node.getParentId());
+            }
+        }
+    }
+
+    String name(long categoryId) {
+        return names.get(categoryId);
+    }
+
+    /**
+     * The category itself followed by its ancestors up to the root.
+     */
+    List<Long> selfAndAncestors(long categoryId) {
+        List<Long> path = new ArrayList<>(4);
+        Long current = categoryId;
+        while (current != null && path.size() < MAX_DEPTH && !path.contains(current)) {
+            path.add(current);
+            current = parents.get(current);
+        }
+        return path;
+    }
+}
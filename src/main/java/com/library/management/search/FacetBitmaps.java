@@ -0,0 +1,118 @@
+package com.library.management.search;
+
+import com.library.management.event.BookSnapshot;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One compressed bitmap of book ids per facet value. Not thread-safe; {@link FacetIndex}
+ * guards it. Category bitmaps are rolled up: a book filed under a subcategory is also
+ * set in every ancestor's bitmap, so a category filter includes its subcategories.
+ */
+final class FacetBitmaps {
+
+    final RoaringBitmap all = new RoaringBitmap();
+    final RoaringBitmap available = new RoaringBitmap();
+    final Map<String, RoaringBitmap> byLanguage = new HashMap<>();
+    final Map<String, String> languageLabels = new HashMap<>();
+    final TreeMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    final Map<Long, RoaringBitmap> byPublisher = new HashMap<>();
+    final Map<Long, String> publisherNames = new HashMap<>();
+    final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byCategoryDirect = new HashMap<>();
+    CategoryTree categories = CategoryTree.EMPTY;
+
+    void add(BookSnapshot book) {
+        int id = bookId(book.getBookId());
+        all.add(id);
+        if (Boolean.TRUE.equals(book.getIsAvailable())) {
+            available.add(id);
+        }
+        if (book.getLanguage() != null && !book.getLanguage().isBlank()) {
+            String key = languageKey(book.getLanguage());
+            languageLabels.putIfAbsent(key, book.getLanguage().trim());
+            byLanguage.computeIfAbsent(key, k -> new RoaringBitmap()).add(id);
+        }
+        if (book.getPublicationYear() != null) {
+            byYear.computeIfAbsent(book.getPublicationYear(), y -> new RoaringBitmap()).add(id);
+        }
+        if (book.getPublisherId() != null) {
+            publisherNames.put(book.getPublisherId(), book.getPublisherName());
+            byPublisher.computeIfAbsent(book.getPublisherId(), p -> new RoaringBitmap()).add(id);
+        }
+        for (Long categoryId : book.getCategories().keySet()) {
+            byCategoryDirect.computeIfAbsent(categoryId, c -> new RoaringBitmap()).add(id);
+            for (Long rollup : categories.selfAndAncestors(categoryId)) {
+                byCategory.computeIfAbsent(rollup, c -> new RoaringBitmap()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Clears every bit the given (previous) state of the book set.
+     */
+    void remove(BookSnapshot book) {
+        int id = bookId(book.getBookId());
+        all.remove(id);
+        available.remove(id);
+        if (book.getLanguage() != null && !book.getLanguage().isBlank()) {
+            clear(byLanguage, languageKey(book.getLanguage()), id);
+        }
+        if (book.getPublicationYear() != null) {
+            clear(byYear, book.getPublicationYear(), id);
+        }
+        if (book.getPublisherId() != null) {
+            clear(byPublisher, book.getPublisherId(), id);
+        }
+        for (Long categoryId : book.getCategories().keySet()) {
+            clear(byCategoryDirect, categoryId, id);
+            for (Long rollup : categories.selfAndAncestors(categoryId)) {
+                clear(byCategory, rollup, id);
+            }
+        }
+    }
+
+    void setAvailable(long bookId, boolean isAvailable) {
+        int id = bookId(bookId);
+        if (!all.contains(id)) {
+            return;
+        }
+        if (isAvailable) {
+            available.add(id);
+        } else {
+            available.remove(id);
+        }
+    }
+
+    void setCategories(CategoryTree tree) {
+        categories = tree;
+        byCategory.clear();
+        byCategoryDirect.forEach((categoryId, books) -> {
+            for (Long rollup : tree.selfAndAncestors(categoryId)) {
+                byCategory.computeIfAbsent(rollup, c -> new RoaringBitmap()).or(books);
+            }
+        });
+    }
+
+    static String languageKey(String language) {
+        return language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static <K> void clear(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static int bookId(Long bookId) {
+        return Math.toIntExact(bookId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.management.search;
+
+import java.util.Set;
+
+/**
+ * Faceted search filters. Values within one dimension are OR-ed, dimensions are AND-ed;
+ * an empty set or null bound leaves that dimension unfiltered.
+ */
+public record FacetFilter(Set<Long> categoryIds, Set<String> languages, Integer yearFrom, Integer yearTo,
+                          Set<Long> publisherIds, Boolean available) {
+}
@@ -0,0 +1,270 @@
+package com.library.management.search;
+
+import com.library.management.dto.FacetCountDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.CatalogChangedEvent;
+import com.library.management.event.HoldEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory faceted search over category (with subcategories), language, publication
+ * year, publisher and availability. Each facet value holds a Roaring bitmap of book ids:
+ * filters are bitmap unions and intersections, and facet counts are intersection
+ * cardinalities, so a query costs the same few bitmap operations at any catalog size.
+ *
+ * Facet counts for a dimension apply every filter except that dimension's own, so the
+ * client can show how many books each alternative value would give.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String LANGUAGE = "language";
+    public static final String YEAR = "year";
+    public static final String PUBLISHER = "publisher";
+    public static final String AVAILABILITY = "availability";
+
+    private static final List<String> DIMENSIONS = List.of(CATEGORY, LANGUAGE, YEAR, PUBLISHER, AVAILABILITY);
+
+    private final BookSnapshotLoader snapshotLoader;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${library.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FacetBitmaps bitmaps = new FacetBitmaps();
+    private volatile boolean ready;
+    private List<Consumer<FacetBitmaps>> pendingDuringRebuild;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread.ofPlatform().name("facet-index-rebuild").daemon().start(this::rebuild);
+    }
+
+    @Scheduled(cron = "${library.facets.rebuild-cron:0 15 4 * * *}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        FacetBitmaps rebuilt = new FacetBitmaps();
+        try {
+            rebuilt.setCategories(new CategoryTree(categoryRepository.findCategoryNodes()));
+            snapshotLoader.forEachBatch(rebuildBatchSize, false, batch -> batch.forEach(rebuilt::add));
+            rebuilt.all.runOptimize();
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild facet index", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(change -> change.accept(rebuilt));
+            pendingDuringRebuild = null;
+            bitmaps = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index built: {} books in {} ms", rebuilt.all.getLongCardinality(),
+                System.currentTimeMillis() - startedAt);
+    }
+
+    public FacetResult search(FacetFilter filter, int offset, int limit, int facetLimit) {
+        lock.readLock().lock();
+        try {
+            Map<String, RoaringBitmap> filters = new LinkedHashMap<>();
+            filters.put(CATEGORY, union(filter.categoryIds(), bitmaps.byCategory::get));
+            filters.put(LANGUAGE, union(filter.languages(),
+                    language -> bitmaps.byLanguage.get(FacetBitmaps.languageKey(language))));
+            filters.put(YEAR, yearRange(filter.yearFrom(), filter.yearTo()));
+            filters.put(PUBLISHER, union(filter.publisherIds(), bitmaps.byPublisher::get));
+            filters.put(AVAILABILITY, filter.available() == null ? null
+                    : filter.available() ? bitmaps.available : RoaringBitmap.andNot(bitmaps.all, bitmaps.available));
+
+            RoaringBitmap matches = intersect(filters, null);
+            Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+            for (String dimension : DIMENSIONS) {
+                facets.put(dimension, counts(dimension, intersect(filters, dimension), facetLimit));
+            }
+            return new FacetResult(page(matches, offset, limit), matches.getLongCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        apply(target -> {
+            if (event.getPrevious() != null) {
+                target.remove(event.getPrevious());
+            }
+            if (event.getCurrent() != null) {
+                target.add(event.getCurrent());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        boolean available = event.getType() == LoanEvent.Type.RETURNED;
+        apply(target -> target.setAvailable(event.getBookId(), available));
+    }
+
+    // A copy on the hold shelf is not available to anyone else
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHold(HoldEvent event) {
+        boolean available = event.getType() == HoldEvent.Type.RELEASED;
+        apply(target -> target.setAvailable(event.getBookId(), available));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getEntityType() == CatalogChangedEvent.EntityType.CATEGORY) {
+            CategoryTree tree = new CategoryTree(categoryRepository.findCategoryNodes());
+            apply(target -> target.setCategories(tree));
+        } else if (event.getEntityType() == CatalogChangedEvent.EntityType.PUBLISHER
+                && event.getType() == CatalogChangedEvent.Type.UPDATED) {
+            apply(target -> target.publisherNames.computeIfPresent(event.getEntityId(), (id, name) -> event.getName()));
+        }
+    }
+
+    private void apply(Consumer<FacetBitmaps> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(bitmaps);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <K> RoaringBitmap union(Collection<K> values, Function<K, RoaringBitmap> lookup) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> selected = values.stream().map(lookup).filter(Objects::nonNull).toList();
+        return selected.isEmpty() ? new RoaringBitmap() : FastAggregation.or(selected.iterator());
+    }
+
+    private RoaringBitmap yearRange(Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        Collection<RoaringBitmap> years = bitmaps.byYear.subMap(
+                from != null ? from : Integer.MIN_VALUE, true, to != null ? to : Integer.MAX_VALUE, true).values();
+        return years.isEmpty() ? new RoaringBitmap() : FastAggregation.or(years.iterator());
+    }
+
+    /**
+     * Intersection of every active filter except {@code skip}; the whole catalog when none apply.
+     */
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> filters, String skip) {
+        List<RoaringBitmap> active = new ArrayList<>(filters.size());
+        filters.forEach((dimension, bitmap) -> {
+            if (bitmap != null && !dimension.equals(skip)) {
+                active.add(bitmap);
+            }
+        });
+        if (active.isEmpty()) {
+            return bitmaps.all;
+        }
+        return active.size() == 1 ? active.get(0) : FastAggregation.and(active.iterator());
+    }
+
+    private List<FacetCountDTO> counts(String dimension, RoaringBitmap base, int facetLimit) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        switch (dimension) {
+            case CATEGORY -> bitmaps.byCategory.forEach((id, books) ->
+                    addCount(counts, String.valueOf(id), bitmaps.categories.name(id), base, books));
+            case LANGUAGE -> bitmaps.byLanguage.forEach((key, books) ->
+                    addCount(counts, bitmaps.languageLabels.get(key), bitmaps.languageLabels.get(key), base, books));
+            case PUBLISHER -> bitmaps.byPublisher.forEach((id, books) ->
+                    addCount(counts, String.valueOf(id), bitmaps.publisherNames.get(id), base, books));
+            case YEAR -> {
+                // Years stay in calendar order and are not truncated, so clients can draw a histogram
+                bitmaps.byYear.forEach((year, books) ->
+                        addCount(counts, String.valueOf(year), String.valueOf(year), base, books));
+                return counts;
+            }
+            case AVAILABILITY -> {
+                long available = RoaringBitmap.andCardinality(base, bitmaps.available);
+                counts.add(new FacetCountDTO("true", "Available", available));
+                counts.add(new FacetCountDTO("false", "Borrowed", base.getLongCardinality() - available));
+                return counts;
+            }
+            default -> throw new IllegalArgumentException(dimension);
+        }
+        counts.sort(Comparator.comparingLong(FacetCountDTO::getCount).reversed()
+                .thenComparing(FacetCountDTO::getValue));
+        return counts.size() > facetLimit ? new ArrayList<>(counts.subList(0, facetLimit)) : counts;
+    }
+
+    private void addCount(List<FacetCountDTO> counts, String value, String label, RoaringBitmap base,
+                          RoaringBitmap books) {
+        long count = RoaringBitmap.andCardinality(base, books);
+        if (count > 0) {
+            counts.add(new FacetCountDTO(value, label, count));
+        }
+    }
+
+    private List<Long> page(RoaringBitmap matches, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        if (offset >= matches.getLongCardinality()) {
+            return ids;
+        }
+        PeekableIntIterator iterator = matches.getIntIterator();
+        if (offset > 0) {
+            iterator.advanceIfNeeded(matches.select(offset));
+        }
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,9 @@
+package com.library.management.search;
+
+import com.library.management.dto.FacetCountDTO;
+
+import java.util.List;
+import java.util.Map;
+
+public record FacetResult(List<Long> bookIds, long totalHits, Map<String, List<FacetCountDTO>> facets) {
+}
@@ -0,0 +1,179 @@
+package com.library.management.search;
+
+import com.library.management.event.BookSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Field-weighted inverted index over books, ranked with BM25. Not thread-safe;
+ * BookSearchIndex guards it with a read/write lock.
+ */
+final class InvertedIndex {
+
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float ISBN_BOOST = 4.0f;
+    private static final float AUTHOR_BOOST = 2.0f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float SUMMARY_BOOST = 1.0f;
+
+    // Partial last word ("harr" -> "harry") is matched against at most this many terms
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float PREFIX_MATCH_FACTOR = 0.7f;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final NavigableMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, DocEntry> docs = new HashMap<>();
+    private double totalLength;
+
+    private record DocEntry(String[] terms, float length) {
+    }
+
+    private static final class Candidate {
+        final long docId;
+        float score;
+        int matchedTokens;
+
+        Candidate(long docId) {
+            this.docId = docId;
+        }
+    }
+
+    void put(BookSnapshot book) {
+        long docId = book.getBookId();
+        remove(docId);
+
+        Map<String, Float> weighted = new HashMap<>();
+        addField(weighted, book.getTitle(), TITLE_BOOST);
+        addField(weighted, book.getIsbn(), ISBN_BOOST);
+        addField(weighted, book.getSummary(), SUMMARY_BOOST);
+        if (book.getAuthors() != null) {
+            book.getAuthors().values().forEach(name -> addField(weighted, name, AUTHOR_BOOST));
+        }
+        if (book.getCategories() != null) {
+            book.getCategories().values().forEach(name -> addField(weighted, name, CATEGORY_BOOST));
+        }
+        if (weighted.isEmpty()) {
+            return;
+        }
+
+        float length = 0;
+        for (Map.Entry<String, Float> entry : weighted.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), term -> new PostingList()).put(docId, entry.getValue());
+            length += entry.getValue();
+        }
+        docs.put(docId, new DocEntry(weighted.keySet().toArray(new String[0]), length));
+        totalLength += length;
+    }
+
+    void remove(long docId) {
+        DocEntry entry = docs.remove(docId);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms()) {
+            PostingList postings = terms.get(term);
+            if (postings != null) {
+                postings.remove(docId);
+                if (postings.size() == 0) {
+                    terms.remove(term);
+                }
+            }
+        }
+        totalLength -= entry.length();
+    }
+
+    int size() {
+        return docs.size();
+    }
+
+    SearchHits search(String query, int offset, int limit) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || docs.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+
+        Map<Long, Candidate> candidates = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            int tokenBit = 1 << Math.min(i, 30);
+
+            PostingList exact = terms.get(token);
+            if (exact != null) {
+                accumulate(candidates, exact, 1.0f, tokenBit);
+            }
+
+            if (i == tokens.size() - 1) {
+                int expansions = 0;
+                for (PostingList postings : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    accumulate(candidates, postings, PREFIX_MATCH_FACTOR, tokenBit);
+                }
+            }
+        }
+
+        int wanted = offset + limit;
+        if (candidates.isEmpty() || limit <= 0) {
+            return new SearchHits(List.of(), candidates.size());
+        }
+
+        // Keep only the best offset + limit candidates; coordination favours books matching every word
+        Comparator<Candidate> byRank = Comparator.<Candidate>comparingDouble(c -> rankScore(c, tokens.size()))
+                .thenComparing(c -> -c.docId);
+        PriorityQueue<Candidate> top = new PriorityQueue<>(wanted + 1, byRank);
+        for (Candidate candidate : candidates.values()) {
+            top.offer(candidate);
+            if (top.size() > wanted) {
+                top.poll();
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(top);
+        ranked.sort(Collections.reverseOrder(byRank));
+        List<Long> bookIds = new ArrayList<>(limit);
+        for (int i = offset; i < ranked.size(); i++) {
+            bookIds.add(ranked.get(i).docId);
+        }
+        return new SearchHits(bookIds, candidates.size());
+    }
+
+    private void accumulate(Map<Long, Candidate> candidates, PostingList postings, float factor, int tokenBit) {
+        double avgLength = totalLength / docs.size();
+        int df = postings.size();
+        double idf = Math.log(1 + (docs.size() - df + 0.5) / (df + 0.5));
+
+        for (int i = 0; i < df; i++) {
+            long docId = postings.docId(i);
+            float tf = postings.weight(i);
+            DocEntry doc = docs.get(docId);
+            double norm = K1 * (1 - B + B * (doc.length() / avgLength));
+            double score = idf * (tf * (K1 + 1)) / (tf + norm);
+
+            Candidate candidate = candidates.computeIfAbsent(docId, Candidate::new);
+            candidate.score += (float) (score * factor);
+            candidate.matchedTokens |= tokenBit;
+        }
+    }
+
+    private static double rankScore(Candidate candidate, int tokenCount) {
+        double coordination = (double) Integer.bitCount(candidate.matchedTokens) / Math.min(tokenCount, 31);
+        return candidate.score * coordination;
+    }
+
+    private static void addField(Map<String, Float> weighted, String text, float boost) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            weighted.merge(token, boost, Float::sum);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.library.management.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, primitive-array posting list: book ids and their field-weighted term
+ * frequency. New books arrive with increasing ids, so the common insert is an append.
+ */
+final class PostingList {
+
+    private long[] docIds = new long[2];
+    private float[] weights = new float[2];
+    private int size;
+
+    void put(long docId, float weight) {
+        if (size == 0 || docId > docIds[size - 1]) {
+            ensureCapacity();
+            docIds[size] = docId;
+            weights[size] = weight;
+            size++;
+            return;
+        }
+
+        int pos = Arrays.binarySearch(docIds, 0, size, docId);
+        if (pos >= 0) {
+            weights[pos] = weight;
+            return;
+        }
+
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        docIds[insertAt] = docId;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(long docId) {
+        int pos = Arrays.binarySearch(docIds, 0, size, docId);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(docIds, pos + 1, docIds, pos, size - pos - 1);
+        System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long docId(int i) {
+        return docIds[i];
+    }
+
+    float weight(int i) {
+        return weights[i];
+    }
+
+    private void ensureCapacity() {
+        if (size == docIds.length) {
+            int newCapacity = docIds.length + (docIds.length >> 1) + 1;
+            docIds = Arrays.copyOf(docIds, newCapacity);
+            weights = Arrays.copyOf(weights, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.library.management.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Path-compressed prefix tree of {@link Suggestion}s. Every node caches the highest
+ * popularity found in its subtree, so a top-k lookup is a best-first walk that stops
+ * as soon as k results have been taken; its cost depends on k and the prefix length,
+ * not on how many entries share the prefix. Not thread-safe.
+ */
+final class RadixTree {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Suggestion[] NO_ENTRIES = new Suggestion[0];
+
+    private static final class Node {
+        String edge;
+        Node[] children = NO_CHILDREN;
+        Suggestion[] entries = NO_ENTRIES;
+        long maxPopularity = -1;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+
+    private final Node root = new Node("");
+
+    void insert(String key, Suggestion suggestion) {
+        insert(root, key, 0, suggestion);
+    }
+
+    void remove(String key, Suggestion suggestion) {
+        remove(root, key, 0, suggestion);
+    }
+
+    List<Suggestion> top(String prefix, int limit, Predicate<Suggestion> filter) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = findChild(node, prefix.charAt(pos));
+            if (child == null) {
+                return List.of();
+            }
+            int overlap = Math.min(child.edge.length(), prefix.length() - pos);
+            if (!child.edge.regionMatches(0, prefix, pos, overlap)) {
+                return List.of();
+            }
+            pos += overlap;
+            node = child;
+        }
+
+        // Queue holds nodes (ranked by subtree max) and entries (ranked by their own popularity)
+        PriorityQueue<Object> queue = new PriorityQueue<>((a, b) -> {
+            int byScore = Long.compare(score(b), score(a));
+            if (byScore != 0) {
+                return byScore;
+            }
+            if (a instanceof Suggestion sa && b instanceof Suggestion sb) {
+                return Integer.compare(sa.label.length(), sb.label.length());
+            }
+            return a instanceof Node ? -1 : (b instanceof Node ? 1 : 0);
+        });
+        queue.add(node);
+
+        Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Suggestion> results = new ArrayList<>(limit);
+        while (!queue.isEmpty() && results.size() < limit) {
+            Object next = queue.poll();
+            if (next instanceof Suggestion suggestion) {
+                if (filter.test(suggestion) && seen.add(suggestion)) {
+                    results.add(suggestion);
+                }
+            } else {
+                Node current = (Node) next;
+                Collections.addAll(queue, current.entries);
+                Collections.addAll(queue, current.children);
+            }
+        }
+        return results;
+    }
+
+    private static long score(Object item) {
+        return item instanceof Suggestion suggestion ? suggestion.popularity : ((Node) item).maxPopularity;
+    }
+
+    private void insert(Node node, String key, int pos, Suggestion suggestion) {
+        if (pos == key.length()) {
+            for (Suggestion entry : node.entries) {
+                if (entry == suggestion) {
+                    return;
+                }
+            }
+            node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            node.entries[node.entries.length - 1] = suggestion;
+            recompute(node);
+            return;
+        }
+
+        Node child = findChild(node, key.charAt(pos));
+        if (child == null) {
+            Node leaf = new Node(key.substring(pos));
+            leaf.entries = new Suggestion[]{suggestion};
+            recompute(leaf);
+            addChild(node, leaf);
+            recompute(node);
+            return;
+        }
+
+        int common = commonPrefixLength(child.edge, key, pos);
+        if (common < child.edge.length()) {
+            Node split = new Node(child.edge.substring(0, common));
+            child.edge = child.edge.substring(common);
+            split.children = new Node[]{child};
+            recompute(split);
+            replaceChild(node, child, split);
+            child = split;
+        }
+        insert(child, key, pos + common, suggestion);
+        recompute(node);
+    }
+
+    private boolean remove(Node node, String key, int pos, Suggestion suggestion) {
+        if (pos == key.length()) {
+            int index = -1;
+            for (int i = 0; i < node.entries.length; i++) {
+                if (node.entries[i] == suggestion) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            Suggestion[] entries = new Suggestion[node.entries.length - 1];
+            System.arraycopy(node.entries, 0, entries, 0, index);
+            System.arraycopy(node.entries, index + 1, entries, index, entries.length - index);
+            node.entries = entries.length == 0 ? NO_ENTRIES : entries;
+            recompute(node);
+            return true;
+        }
+
+        Node child = findChild(node, key.charAt(pos));
+        if (child == null || !key.startsWith(child.edge, pos)) {
+            return false;
+        }
+        if (!remove(child, key, pos + child.edge.length(), suggestion)) {
+            return false;
+        }
+
+        if (child.entries.length == 0 && child.children.length == 0) {
+            removeChild(node, child);
+        } else if (child.entries.length == 0 && child.children.length == 1) {
+            // Re-compress: a pass-through node is folded into its only child
+            Node grandChild = child.children[0];
+            grandChild.edge = child.edge + grandChild.edge;
+            replaceChild(node, child, grandChild);
+        }
+        recompute(node);
+        return true;
+    }
+
+    private static void recompute(Node node) {
+        long max = -1;
+        for (Suggestion entry : node.entries) {
+            max = Math.max(max, entry.popularity);
+        }
+        for (Node child : node.children) {
+            max = Math.max(max, child.maxPopularity);
+        }
+        node.maxPopularity = max;
+    }
+
+    private static Node findChild(Node node, char c) {
+        Node[] children = node.children;
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = children[mid].edge.charAt(0);
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return children[mid];
+            }
+        }
+        return null;
+    }
+
+    private static void addChild(Node node, Node child) {
+        char c = child.edge.charAt(0);
+        int insertAt = 0;
+        while (insertAt < node.children.length && node.children[insertAt].edge.charAt(0) < c) {
+            insertAt++;
+        }
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, insertAt);
+        children[insertAt] = child;
+        System.arraycopy(node.children, insertAt, children, insertAt + 1, node.children.length - insertAt);
+        node.children = children;
+    }
+
+    private static void replaceChild(Node node, Node oldChild, Node newChild) {
+        for (int i = 0; i < node.children.length; i++) {
+            if (node.children[i] == oldChild) {
+                node.children[i] = newChild;
+                return;
+            }
+        }
+    }
+
+    private static void removeChild(Node node, Node child) {
+        Node[] children = new Node[node.children.length - 1];
+        int j = 0;
+        for (Node existing : node.children) {
+            if (existing != child) {
+                children[j++] = existing;
+            }
+        }
+        node.children = children.length == 0 ? NO_CHILDREN : children;
+    }
+
+    private static int commonPrefixLength(String edge, String key, int pos) {
+        int max = Math.min(edge.length(), key.length() - pos);
+        int i = 0;
+        while (i < max && edge.charAt(i) == key.charAt(pos + i)) {
+            i++;
+        }
+        return i;
+    }
+}
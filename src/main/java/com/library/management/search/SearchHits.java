@@ -0,0 +1,11 @@
+package com.library.management.search;
+
+import java.util.List;
+
+/**
+ * One page of ranked book ids plus the total number of matching books.
+ */
+public record SearchHits(List<Long> bookIds, long totalHits) {
+
+    public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+}
@@ -0,0 +1,25 @@
+package com.library.management.search;
+
+/**
+ * One typeahead entry. Identity matters: the same instance is stored under several
+ * keys of the radix tree (the full label and each word start), and results are
+ * de-duplicated by instance.
+ */
+final class Suggestion {
+
+    enum Type {
+        BOOK, AUTHOR, PUBLISHER, CATEGORY
+    }
+
+    final Type type;
+    final long id;
+    final String label;
+    long popularity;
+
+    Suggestion(Type type, long id, String label, long popularity) {
+        this.type = type;
+        this.id = id;
+        this.label = label;
+        this.popularity = popularity;
+    }
+}
@@ -0,0 +1,236 @@
+package com.library.management.search;
+
+import com.library.management.dto.SuggestionDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.BookSnapshot;
+import com.library.management.event.CatalogChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.PublisherRepository;
+import com.library.management.repository.projection.NamedPopularityView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Typeahead over book titles, author full names, publisher names and category names,
+ * ranked by borrow popularity. Books carry their own borrow count; authors, publishers
+ * and categories carry the sum over their books, which is refreshed by the periodic
+ * rebuild (book counts themselves move on every checkout).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionIndex {
+
+    // Each label is reachable from its start and from the start of up to this many following words
+    private static final int MAX_WORD_KEYS = 8;
+
+    private final BookSnapshotLoader snapshotLoader;
+    private final AuthorRepository authorRepository;
+    private final PublisherRepository publisherRepository;
+    private final CategoryRepository categoryRepository;
+
+    @Value("${library.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Entries entries = new Entries();
+    private List<Consumer<Entries>> pendingDuringRebuild;
+
+    private static final class Entries {
+        final RadixTree tree = new RadixTree();
+        final Map<Suggestion.Type, Map<Long, Suggestion>> byId = new HashMap<>();
+
+        void upsert(Suggestion.Type type, long id, String label, Long popularity) {
+            Suggestion existing = byId.computeIfAbsent(type, t -> new HashMap<>()).get(id);
+            long newPopularity = popularity != null ? popularity : (existing != null ? existing.popularity : 0);
+            if (existing != null) {
+                if (existing.label.equals(label) && existing.popularity == newPopularity) {
+                    return;
+                }
+                remove(type, id);
+            }
+            if (label == null || label.isBlank()) {
+                return;
+            }
+            Suggestion suggestion = new Suggestion(type, id, label, newPopularity);
+            keysFor(label).forEach(key -> tree.insert(key, suggestion));
+            byId.get(type).put(id, suggestion);
+        }
+
+        void remove(Suggestion.Type type, long id) {
+            Suggestion existing = byId.computeIfAbsent(type, t -> new HashMap<>()).remove(id);
+            if (existing != null) {
+                keysFor(existing.label).forEach(key -> tree.remove(key, existing));
+            }
+        }
+
+        void addPopularity(Suggestion.Type type, long id, long delta) {
+            Suggestion existing = byId.computeIfAbsent(type, t -> new HashMap<>()).get(id);
+            if (existing != null) {
+                upsert(type, id, existing.label, existing.popularity + delta);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread.ofPlatform().name("suggestion-index-rebuild").daemon().start(this::rebuild);
+    }
+
+    @Scheduled(cron = "${library.suggest.refresh-cron:0 0 * * * *}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Entries rebuilt = new Entries();
+        try {
+            snapshotLoader.forEachBatch(rebuildBatchSize, false, batch -> batch.forEach(book ->
+                    rebuilt.upsert(Suggestion.Type.BOOK, book.getBookId(), book.getTitle(), book.getTotalBorrows())));
+            load(rebuilt, Suggestion.Type.AUTHOR, authorRepository.findSuggestionEntries());
+            load(rebuilt, Suggestion.Type.PUBLISHER, publisherRepository.findSuggestionEntries());
+            load(rebuilt, Suggestion.Type.CATEGORY, categoryRepository.findSuggestionEntries());
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild suggestion index", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(change -> change.accept(rebuilt));
+            pendingDuringRebuild = null;
+            entries = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Suggestion index built in {} ms", System.currentTimeMillis() - startedAt);
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, int limit, Set<String> types) {
+        String normalized = TextAnalyzer.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> wantedTypes = new HashSet<>();
+        if (types != null) {
+            types.forEach(type -> wantedTypes.add(type.toUpperCase(Locale.ROOT)));
+        }
+
+        List<Suggestion> matches;
+        lock.readLock().lock();
+        try {
+            matches = entries.tree.top(normalized, limit,
+                    suggestion -> wantedTypes.isEmpty() || wantedTypes.contains(suggestion.type.name()));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SuggestionDTO> results = new ArrayList<>(matches.size());
+        for (Suggestion match : matches) {
+            SuggestionDTO dto = new SuggestionDTO();
+            dto.setType(match.type.name());
+            dto.setId(match.id);
+            dto.setLabel(match.label);
+            dto.setPopularity(match.popularity);
+            results.add(dto);
+        }
+        return results;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        BookSnapshot current = event.getCurrent();
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            apply(target -> target.remove(Suggestion.Type.BOOK, event.getBookId()));
+        } else {
+            apply(target -> target.upsert(Suggestion.Type.BOOK, current.getBookId(), current.getTitle(), null));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Suggestion.Type type = Suggestion.Type.valueOf(event.getEntityType().name());
+        if (event.getType() == CatalogChangedEvent.Type.DELETED) {
+            apply(target -> target.remove(type, event.getEntityId()));
+        } else {
+            apply(target -> target.upsert(type, event.getEntityId(), event.getName(), null));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        if (event.getType() == LoanEvent.Type.BORROWED) {
+            apply(target -> target.addPopularity(Suggestion.Type.BOOK, event.getBookId(), 1));
+        }
+    }
+
+    private void apply(Consumer<Entries> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(entries);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void load(Entries target, Suggestion.Type type, List<NamedPopularityView> rows) {
+        for (NamedPopularityView row : rows) {
+            target.upsert(type, row.getId(), row.getName(), row.getPopularity());
+        }
+    }
+
+    private static Set<String> keysFor(String label) {
+        String normalized = TextAnalyzer.normalize(label);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        int from = 0;
+        for (int i = 0; i < MAX_WORD_KEYS; i++) {
+            int space = normalized.indexOf(' ', from);
+            if (space < 0) {
+                break;
+            }
+            keys.add(normalized.substring(space + 1));
+            from = space + 1;
+        }
+        return keys;
+    }
+}
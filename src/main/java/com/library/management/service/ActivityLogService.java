@@ -1,70 +1,74 @@
 package com.library.management.service;
 
-import com.library.management.entity.User;
-import com.library.management.entity.UserActivity;
-import com.library.management.repository.UserActivityRepository;
-import com.library.management.repository.UserRepository;
+import com.library.management.dto.ActivityDTO;
+import com.library.management.dto.ActivityFilter;
+import com.library.management.dto.CursorPage;
+import com.library.management.event.ActivityEvent;
+import com.library.management.util.Cursor;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class ActivityLogService {
 
-    private final UserActivityRepository activityRepository;
-    private final UserRepository userRepository;
+    private final ActivityPartitionService activityPartitionService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
+    /**
+     * Captures the entry on the calling thread and hands it to ActivityLogWriter, which
+     * writes it after the caller's transaction commits; nothing is written on rollback.
+     */
     public void logActivity(String action, String entityType, Long entityId, String description) {
-        try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
-                return;
-            }
-
-            String username = auth.getName();
-            User user = userRepository.findByUsername(username)
-                    .orElse(null);
-
-            if (user == null) {
-                return;
-            }
-
-            UserActivity activity = new UserActivity();
-            activity.setAction(action);
-            activity.setEntityType(entityType);
-            activity.setEntityId(entityId);
-            activity.setDescription(description);
-            activity.setUser(user);
-
-            // Get request details
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                activity.setIpAddress(getClientIpAddress(request));
-                activity.setUserAgent(request.getHeader("User-Agent"));
-            }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
+            return;
+        }
 
-            activityRepository.save(activity);
-        } catch (Exception e) {
-            System.err.println("Failed to log activity: " + e.getMessage());
+        String ipAddress = null;
+        String userAgent = null;
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            HttpServletRequest request = attributes.getRequest();
+            ipAddress = getClientIpAddress(request);
+            userAgent = request.getHeader("User-Agent");
         }
+
+        // Column limits of user_activities, so one long header cannot fail a whole batch
+        eventPublisher.publishEvent(new ActivityEvent(auth.getName(), truncate(action, 100),
+                truncate(entityType, 100), entityId, description, truncate(ipAddress, 45), truncate(userAgent, 500),
+                LocalDateTime.now()));
     }
 
-    public Page<UserActivity> getUserActivities(Long userId, Pageable pageable) {
-        return activityRepository.findByUserUserIdOrderByTimestampDesc(userId, pageable);
+    /**
+     * Newest-first keyset search over (timestamp, activityId); every filter is optional.
+     * Reads the newest monthly table in range first and older ones only while the page is short.
+     */
+    public CursorPage<ActivityDTO> search(ActivityFilter filter, String after, int size) {
+        if (filter.getEntityId() != null && filter.getEntityType() == null) {
+            throw new RuntimeException("entityId requires entityType");
+        }
+        if (filter.getFrom() != null && filter.getTo() != null && filter.getFrom().isAfter(filter.getTo())) {
+            throw new RuntimeException("from must not be after to");
+        }
+        Cursor cursor = Cursor.decode(after);
+        LocalDateTime timestamp = cursor == null ? Cursor.LATEST : cursor.timestamp();
+        long activityId = cursor == null ? Long.MAX_VALUE : cursor.id();
+        List<ActivityDTO> rows = activityPartitionService.findPageBefore(filter, timestamp, activityId, size + 1);
+        return Cursor.page(rows, size, dto -> Cursor.of(dto.getTimestamp(), dto.getActivityId()), dtos -> dtos);
     }
 
-    public Page<UserActivity> getAllActivities(Pageable pageable) {
-        return activityRepository.findAllByOrderByTimestampDesc(pageable);
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
     }
 
     private String getClientIpAddress(HttpServletRequest request) {
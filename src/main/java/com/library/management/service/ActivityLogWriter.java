@@ -0,0 +1,423 @@
+package com.library.management.service;
+
+import com.library.management.event.ActivityEvent;
+import com.library.management.util.RingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes user activities off the request path, into the monthly tables of
+ * ActivityPartitionService. Entries reach the ring buffer only after the business
+ * transaction commits, and a single background thread drains it in JDBC batches of up to
+ * {@code batch-size}, at least every {@code flush-interval-ms}. Usernames are resolved to
+ * user ids once and cached on the writer thread.
+ *
+ * When the buffer is full, {@code overflow} decides: BLOCK waits up to {@code block-timeout-ms}
+ * and then drops, DROP drops at once, SPILL appends the entry to {@code spill-file}, which
+ * the writer replays whenever the buffer runs empty, also after a restart. A batch that
+ * still fails after {@code max-retries} is spilled under SPILL and dropped otherwise.
+ * Replaying a spill file is at-least-once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityLogWriter {
+
+    public enum Overflow {
+        BLOCK, DROP, SPILL
+    }
+
+    private static final String INSERT_ACTIVITY = "INSERT INTO %s (user_id, action, entity_type, " +
+            "entity_id, description, ip_address, user_agent, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_USER_IDS = "SELECT username, user_id FROM users WHERE username IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ActivityPartitionService partitionService;
+
+    @Value("${library.activity.buffer-capacity:8192}")
+    private int bufferCapacity;
+
+    @Value("${library.activity.batch-size:500}")
+    private int batchSize;
+
+    @Value("${library.activity.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${library.activity.overflow:SPILL}")
+    private Overflow overflow;
+
+    @Value("${library.activity.block-timeout-ms:1000}")
+    private long blockTimeoutMs;
+
+    @Value("${library.activity.spill-file:${user.home}/library-management/activity-spill.bin}")
+    private String spillFile;
+
+    @Value("${library.activity.max-retries:3}")
+    private int maxRetries;
+
+    private RingBuffer<ActivityEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private final Object spillLock = new Object();
+
+    // Writer thread only
+    private final Map<String, Long> userIds = new HashMap<>();
+
+    // Metrics
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder blockedOffers = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong unknownUsers = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong writerErrors = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+    private volatile int lastBatchSize;
+
+    @PostConstruct
+    void start() {
+        buffer = new RingBuffer<>(bufferCapacity);
+        running = true;
+        writer = Thread.ofPlatform().name("activity-writer").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (writer.isAlive()) {
+            log.warn("Activity writer did not drain within 10 s; {} entries still queued", buffer.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(ActivityEvent event) {
+        if (!running) {
+            overflow(event);
+            return;
+        }
+        if (buffer.offer(event)) {
+            enqueued.increment();
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        if (overflow == Overflow.BLOCK) {
+            blockedOffers.increment();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(100_000);
+                if (buffer.offer(event)) {
+                    enqueued.increment();
+                    return;
+                }
+            }
+        }
+        overflow(event);
+    }
+
+    public Map<String, Object> getStats() {
+        long flushCount = flushes.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", buffer.size());
+        stats.put("capacity", buffer.capacity());
+        stats.put("overflow", overflow);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.get());
+        stats.put("dropped", dropped.sum());
+        stats.put("spilled", spilled.sum());
+        stats.put("blockedOffers", blockedOffers.sum());
+        stats.put("unknownUsers", unknownUsers.get());
+        stats.put("expired", expired.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("writerErrors", writerErrors.get());
+        stats.put("flushes", flushCount);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("lastFlushMs", lastFlushNanos / 1_000_000.0);
+        stats.put("avgFlushMs", flushCount == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushCount);
+        stats.put("maxFlushMs", maxFlushNanos.get() / 1_000_000.0);
+        stats.put("spillBytes", spillBytes());
+        return stats;
+    }
+
+    private void run() {
+        List<ActivityEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                ActivityEvent event;
+                while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+                    batch.add(event);
+                }
+                boolean full = batch.size() == batchSize;
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+                if (full) {
+                    continue;
+                }
+                if (!running) {
+                    if (buffer.size() == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                drainSpill();
+            } catch (RuntimeException e) {
+                // Whatever went wrong, the writer thread must survive it; the batch in hand is lost
+                writerErrors.incrementAndGet();
+                dropped.add(batch.size());
+                batch.clear();
+                log.error("Activity writer failed; continuing", e);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+        }
+    }
+
+    private void flush(List<ActivityEvent> batch) {
+        long startedAt = System.nanoTime();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                // Resolved before the transaction: creating a month's table commits implicitly
+                Map<String, List<Object[]>> rows = rows(batch);
+                transaction.executeWithoutResult(status -> rows.forEach((table, tableRows) ->
+                        jdbcTemplate.batchUpdate(String.format(INSERT_ACTIVITY, table), tableRows)));
+                written.addAndGet(rows.values().stream().mapToLong(List::size).sum());
+                break;
+            } catch (RuntimeException e) {
+                // Not only DataAccessException: e.g. CannotCreateTransactionException while the
+                // database is down. A cached id may also belong to a deleted user.
+                userIds.clear();
+                if (attempt >= maxRetries) {
+                    failedBatches.incrementAndGet();
+                    log.error("Could not write {} activity entries after {} attempts", batch.size(), attempt + 1, e);
+                    if (overflow == Overflow.SPILL) {
+                        spill(batch);
+                    } else {
+                        dropped.add(batch.size());
+                    }
+                    break;
+                }
+                log.warn("Activity batch of {} failed (attempt {}), retrying: {}", batch.size(), attempt + 1,
+                        e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(500L * (attempt + 1)));
+            }
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        flushes.incrementAndGet();
+        totalFlushNanos.addAndGet(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        lastFlushNanos = elapsed;
+        lastBatchSize = batch.size();
+    }
+
+    // Rows per monthly table. Entries of users that no longer exist are skipped, as they were
+    // when written inline, and so are replayed entries whose month is past retention.
+    private Map<String, List<Object[]>> rows(List<ActivityEvent> batch) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (ActivityEvent event : batch) {
+            if (!userIds.containsKey(event.getUsername())) {
+                missing.add(event.getUsername());
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query(String.format(SELECT_USER_IDS, String.join(",", Collections.nCopies(missing.size(), "?"))),
+                    rs -> {
+                        userIds.put(rs.getString(1), rs.getLong(2));
+                    }, missing.toArray());
+        }
+
+        Map<String, List<Object[]>> rows = new HashMap<>();
+        for (ActivityEvent event : batch) {
+            Long userId = userIds.get(event.getUsername());
+            if (userId == null) {
+                unknownUsers.incrementAndGet();
+                continue;
+            }
+            String table = partitionService.tableFor(event.getTimestamp());
+            if (table == null) {
+                expired.incrementAndGet();
+                continue;
+            }
+            rows.computeIfAbsent(table, name -> new ArrayList<>()).add(new Object[]{userId, event.getAction(), event.getEntityType(), event.getEntityId(),
+                    event.getDescription(), event.getIpAddress(), event.getUserAgent(),
+                    Timestamp.valueOf(event.getTimestamp())});
+        }
+        return rows;
+    }
+
+    private void overflow(ActivityEvent event) {
+        if (overflow == Overflow.SPILL) {
+            spill(List.of(event));
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void spill(List<ActivityEvent> events) {
+        synchronized (spillLock) {
+            Path file = Paths.get(spillFile);
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+                    for (ActivityEvent event : events) {
+                        writeEvent(out, event);
+                    }
+                }
+                spilled.add(events.size());
+            } catch (IOException e) {
+                dropped.add(events.size());
+                log.error("Could not spill {} activity entries to {}", events.size(), file, e);
+            }
+        }
+    }
+
+    // Takes the spill file aside so new spills start a fresh one, then writes it in batches
+    private void drainSpill() {
+        Path file = Paths.get(spillFile);
+        Path draining = Paths.get(spillFile + ".draining");
+        try {
+            synchronized (spillLock) {
+                if (Files.notExists(draining)) {
+                    if (Files.notExists(file) || Files.size(file) == 0) {
+                        return;
+                    }
+                    Files.move(file, draining, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            long replayed = 0;
+            List<ActivityEvent> batch = new ArrayList<>(batchSize);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(draining)))) {
+                ActivityEvent event;
+                while ((event = readEvent(in)) != null) {
+                    batch.add(event);
+                    if (batch.size() == batchSize) {
+                        flush(batch);
+                        replayed += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                replayed += batch.size();
+            }
+            Files.delete(draining);
+            log.info("Replayed {} spilled activity entries", replayed);
+        } catch (IOException | RuntimeException e) {
+            // The draining file stays and is replayed again on the next pass
+            writerErrors.incrementAndGet();
+            log.error("Could not replay spilled activity entries from {}", draining, e);
+        }
+    }
+
+    private long spillBytes() {
+        long bytes = 0;
+        for (Path file : List.of(Paths.get(spillFile), Paths.get(spillFile + ".draining"))) {
+            try {
+                bytes += Files.exists(file) ? Files.size(file) : 0;
+            } catch (IOException e) {
+                // Raced with a drain; report what is left
+            }
+        }
+        return bytes;
+    }
+
+    private static void writeEvent(DataOutputStream out, ActivityEvent event) throws IOException {
+        writeString(out, event.getUsername());
+        writeString(out, event.getAction());
+        writeString(out, event.getEntityType());
+        out.writeLong(event.getEntityId() == null ? Long.MIN_VALUE : event.getEntityId());
+        writeString(out, event.getDescription());
+        writeString(out, event.getIpAddress());
+        writeString(out, event.getUserAgent());
+        out.writeLong(event.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(event.getTimestamp().getNano());
+    }
+
+    // Null at a clean end of file; a record cut short by a crash is ignored
+    private static ActivityEvent readEvent(DataInputStream in) throws IOException {
+        try {
+            String username = readString(in);
+            String action = readString(in);
+            String entityType = readString(in);
+            long entityId = in.readLong();
+            String description = readString(in);
+            String ipAddress = readString(in);
+            String userAgent = readString(in);
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            return new ActivityEvent(username, action, entityType, entityId == Long.MIN_VALUE ? null : entityId,
+                    description, ipAddress, userAgent, timestamp);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,330 @@
+package com.library.management.service;
+
+import com.library.management.dto.ActivityDTO;
+import com.library.management.dto.ActivityFilter;
+import com.library.management.util.Cursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routes user activities to one table per month, {@code user_activities_YYYYMM}, so retention
+ * drops a whole month with one DROP TABLE instead of deleting rows, and a newest-first page
+ * reads the current month's table first and only moves to older ones while the page is short.
+ *
+ * Each month's ids start at {@code YYYYMM * 10^10}, keeping activity ids unique and increasing
+ * across tables. The original {@code user_activities} table still holds entries written before
+ * monthly tables existed; it is read as the oldest bucket and truncated once all of it is past
+ * retention. Tables for the current and next month are created ahead of time, any other month
+ * on first write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityPartitionService {
+
+    private static final String LEGACY_TABLE = "user_activities";
+
+    private static final String PREFIX = "user_activities_";
+    private static final Pattern BUCKET = Pattern.compile("user_activities_(\\d{6})", Pattern.CASE_INSENSITIVE);
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final long ID_SPACE = 10_000_000_000L;
+
+    // Name suffix and columns of each index on a monthly table; every listing filter has one
+    // ending in (timestamp, activity_id), so the keyset scan reads only the index
+    private static final Map<String, String> BUCKET_INDEXES = Map.of(
+            "time", "timestamp, activity_id",
+            "user_time", "user_id, timestamp, activity_id",
+            "action_time", "action, timestamp, activity_id",
+            "entity_time", "entity_type, entity_id, timestamp, activity_id");
+
+    private static final String CREATE_BUCKET = "CREATE TABLE IF NOT EXISTS %s (" +
+            "activity_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+            "user_id BIGINT NOT NULL, " +
+            "action VARCHAR(100) NOT NULL, " +
+            "entity_type VARCHAR(100), " +
+            "entity_id BIGINT, " +
+            "description TEXT, " +
+            "ip_address VARCHAR(45), " +
+            "user_agent VARCHAR(500), " +
+            "timestamp DATETIME(6) NOT NULL%s, " +
+            "FOREIGN KEY (user_id) REFERENCES users(user_id)" +
+            ") AUTO_INCREMENT = %d";
+
+    private static final String SELECT_KEYS = "SELECT a.activity_id FROM %s a WHERE %s" +
+            "(a.timestamp < ? OR (a.timestamp = ? AND a.activity_id < ?)) " +
+            "ORDER BY a.timestamp DESC, a.activity_id DESC LIMIT ?";
+
+    private static final String SELECT_ROWS = "SELECT a.activity_id, a.user_id, u.username, a.action, a.entity_type, " +
+            "a.entity_id, a.description, a.ip_address, a.user_agent, a.timestamp " +
+            "FROM %s a JOIN users u ON u.user_id = a.user_id WHERE a.activity_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${library.activity.retention-months:12}")
+    private int retentionMonths;
+
+    private final NavigableSet<YearMonth> buckets = new ConcurrentSkipListSet<>();
+    private volatile LocalDateTime legacyNewest = Cursor.LATEST;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareOnStartup() {
+        maintain();
+    }
+
+    /**
+     * Creates the tables for this month and the next, then drops months past retention.
+     */
+    @Scheduled(cron = "${library.activity.partition-cron:0 10 0 * * *}")
+    public void maintain() {
+        refreshBuckets();
+        buckets.forEach(this::ensureIndexes);
+        YearMonth current = YearMonth.now();
+        ensureBucket(current);
+        ensureBucket(current.plusMonths(1));
+        if (retentionMonths <= 0) {
+            return;
+        }
+
+        YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+        for (YearMonth month : List.copyOf(buckets.headSet(oldestKept))) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + tableName(month));
+            buckets.remove(month);
+            log.info("Dropped activity table {} (retention {} months)", tableName(month), retentionMonths);
+        }
+        Timestamp newestLegacy = jdbcTemplate.queryForObject("SELECT MAX(timestamp) FROM " + LEGACY_TABLE,
+                Timestamp.class);
+        if (newestLegacy != null && newestLegacy.toLocalDateTime().isBefore(oldestKept.atDay(1).atStartOfDay())) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + LEGACY_TABLE);
+            log.info("Truncated {}: every entry is past retention", LEGACY_TABLE);
+            newestLegacy = null;
+        }
+        legacyNewest = newestLegacy == null ? null : newestLegacy.toLocalDateTime();
+    }
+
+    /**
+     * Table for entries written at {@code timestamp}, created if missing; null when that
+     * month is already past retention.
+     */
+    String tableFor(LocalDateTime timestamp) {
+        YearMonth month = YearMonth.from(timestamp);
+        if (retentionMonths > 0 && month.isBefore(YearMonth.now().minusMonths(retentionMonths - 1L))) {
+            return null;
+        }
+        ensureBucket(month);
+        return tableName(month);
+    }
+
+    /**
+     * Newest-first keyset page over (timestamp, activityId) matching {@code filter}, read table
+     * by table from the newest month in range backwards until the page is full.
+     *
+     * Each table is read in two steps: the ids of the page come from the filter's covering
+     * index alone, then only those rows are fetched by primary key with their username.
+     */
+    List<ActivityDTO> findPageBefore(ActivityFilter filter, LocalDateTime timestamp, long activityId, int limit) {
+        List<Object> filterArgs = new ArrayList<>();
+        String where = where(filter, filterArgs);
+        Timestamp before = Timestamp.valueOf(timestamp);
+
+        List<ActivityDTO> rows = new ArrayList<>(limit);
+        for (String table : tablesInRange(filter, timestamp)) {
+            List<Object> args = new ArrayList<>(filterArgs);
+            args.addAll(List.of(before, before, activityId, limit - rows.size()));
+            List<Long> ids = jdbcTemplate.queryForList(String.format(SELECT_KEYS, table, where), Long.class,
+                    args.toArray());
+            if (!ids.isEmpty()) {
+                rows.addAll(fetchRows(table, ids));
+            }
+            if (rows.size() >= limit) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    private List<String> tablesInRange(ActivityFilter filter, LocalDateTime timestamp) {
+        // Next month's table exists ahead of time but stays empty until then
+        YearMonth newest = YearMonth.from(timestamp);
+        if (newest.isAfter(YearMonth.now())) {
+            newest = YearMonth.now();
+        }
+        if (filter.getTo() != null && newest.isAfter(YearMonth.from(filter.getTo()))) {
+            newest = YearMonth.from(filter.getTo());
+        }
+        YearMonth oldest = filter.getFrom() == null ? null : YearMonth.from(filter.getFrom());
+        if (oldest != null && oldest.isAfter(newest)) {
+            return List.of();
+        }
+        NavigableSet<YearMonth> months = oldest == null
+                ? buckets.headSet(newest, true)
+                : buckets.subSet(oldest, true, newest, true);
+
+        List<String> tables = new ArrayList<>();
+        for (YearMonth month : months.descendingSet()) {
+            tables.add(tableName(month));
+        }
+        LocalDateTime legacy = legacyNewest;
+        if (legacy != null && (filter.getFrom() == null || !legacy.isBefore(filter.getFrom()))) {
+            tables.add(LEGACY_TABLE);
+        }
+        return tables;
+    }
+
+    private List<ActivityDTO> fetchRows(String table, List<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Map<Long, ActivityDTO> byId = new HashMap<>();
+        for (ActivityDTO row : jdbcTemplate.query(String.format(SELECT_ROWS, table, placeholders), this::mapRow,
+                ids.toArray())) {
+            byId.put(row.getActivityId(), row);
+        }
+        // Keep the index order; a row dropped by retention in between is skipped
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static String where(ActivityFilter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder();
+        if (filter.getUserId() != null) {
+            where.append("a.user_id = ? AND ");
+            args.add(filter.getUserId());
+        }
+        if (filter.getAction() != null) {
+            where.append("a.action = ? AND ");
+            args.add(filter.getAction());
+        }
+        if (filter.getEntityType() != null) {
+            where.append("a.entity_type = ? AND ");
+            args.add(filter.getEntityType());
+        }
+        if (filter.getEntityId() != null) {
+            where.append("a.entity_id = ? AND ");
+            args.add(filter.getEntityId());
+        }
+        if (filter.getFrom() != null) {
+            where.append("a.timestamp >= ? AND ");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            where.append("a.timestamp <= ? AND ");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        return where.toString();
+    }
+
+    public Map<String, Object> getBuckets() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("retentionMonths", retentionMonths);
+        result.put("tables", buckets.descendingSet().stream().map(ActivityPartitionService::tableName).toList());
+        result.put("legacyTableHasRows", legacyNewest != null);
+        return result;
+    }
+
+    private void ensureBucket(YearMonth month) {
+        if (buckets.contains(month)) {
+            return;
+        }
+        String table = tableName(month);
+        StringBuilder indexes = new StringBuilder();
+        BUCKET_INDEXES.forEach((suffix, columns) ->
+                indexes.append(", INDEX ").append(indexName(table, suffix)).append(" (").append(columns).append(')'));
+        long firstId = Long.parseLong(month.format(SUFFIX)) * ID_SPACE;
+        jdbcTemplate.execute(String.format(CREATE_BUCKET, table, indexes, firstId));
+        buckets.add(month);
+    }
+
+    /**
+     * Adds indexes missing from a table created by an earlier version.
+     */
+    private void ensureIndexes(YearMonth month) {
+        String table = tableName(month);
+        Set<String> existing = jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            Set<String> names = new HashSet<>();
+            try (ResultSet indexes = connection.getMetaData().getIndexInfo(connection.getCatalog(),
+                    connection.getSchema(), table, false, true)) {
+                while (indexes.next()) {
+                    String name = indexes.getString("INDEX_NAME");
+                    if (name != null) {
+                        names.add(name.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return names;
+        });
+        BUCKET_INDEXES.forEach((suffix, columns) -> {
+            String name = indexName(table, suffix);
+            if (!existing.contains(name)) {
+                jdbcTemplate.execute("CREATE INDEX " + name + " ON " + table + " (" + columns + ")");
+                log.info("Added index {} to {}", name, table);
+            }
+        });
+    }
+
+    private void refreshBuckets() {
+        List<YearMonth> found = jdbcTemplate.execute((ConnectionCallback<List<YearMonth>>) connection -> {
+            List<YearMonth> months = new ArrayList<>();
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(),
+                    PREFIX + "%", new String[]{"TABLE"})) {
+                while (tables.next()) {
+                    Matcher matcher = BUCKET.matcher(tables.getString("TABLE_NAME"));
+                    if (matcher.matches()) {
+                        months.add(YearMonth.parse(matcher.group(1), SUFFIX));
+                    }
+                }
+            }
+            return months;
+        });
+        buckets.retainAll(found);
+        buckets.addAll(found);
+    }
+
+    private static String indexName(String table, String suffix) {
+        return "idx_" + table + "_" + suffix;
+    }
+
+    private static String tableName(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+
+    private ActivityDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+        ActivityDTO dto = new ActivityDTO();
+        dto.setActivityId(rs.getLong(1));
+        dto.setUserId(rs.getLong(2));
+        dto.setUsername(rs.getString(3));
+        dto.setAction(rs.getString(4));
+        dto.setEntityType(rs.getString(5));
+        long entityId = rs.getLong(6);
+        dto.setEntityId(rs.wasNull() ? null : entityId);
+        dto.setDescription(rs.getString(7));
+        dto.setIpAddress(rs.getString(8));
+        dto.setUserAgent(rs.getString(9));
+        dto.setTimestamp(rs.getTimestamp(10).toLocalDateTime());
+        return dto;
+    }
+}
@@ -1,14 +1,21 @@
 package com.library.management.service;
 
 import com.library.management.dto.AuthorDTO;
+import com.library.management.dto.CursorPage;
 import com.library.management.entity.Author;
+import com.library.management.event.CatalogChangedEvent;
 import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.projection.IdCountView;
+import com.library.management.util.Cursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,11 +24,26 @@ public class AuthorService {
 
     private final AuthorRepository authorRepository;
     private final ActivityLogService activityLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Page<AuthorDTO> getAllAuthors(Pageable pageable) {
         return authorRepository.findAll(pageable).map(this::convertToDTO);
     }
 
+    /**
+     * Keyset listing ordered by (lastName, authorId). Book counts for the whole slice
+     * come from one grouped query instead of initialising each author's book set.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AuthorDTO> getAuthorsAfter(String after, int size) {
+        Cursor cursor = Cursor.decode(after);
+        List<Author> rows = cursor == null
+                ? authorRepository.findPageAfter("", 0L, Limit.of(size + 1))
+                : authorRepository.findPageAfter(cursor.key(), cursor.id(), Limit.of(size + 1));
+        return Cursor.page(rows, size, author -> new Cursor(author.getLastName(), author.getAuthorId()),
+                this::convertToDTOs);
+    }
+
     public AuthorDTO getAuthorById(Long id) {
         Author author = authorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Author not found with id: " + id));
@@ -35,6 +57,8 @@ public class AuthorService {
 
         activityLogService.logActivity("CREATE", "Author", savedAuthor.getAuthorId(),
                 "Created author: " + savedAuthor.getFirstName() + " " + savedAuthor.getLastName());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CREATED,
+                CatalogChangedEvent.EntityType.AUTHOR, savedAuthor.getAuthorId(), savedAuthor.getFullName()));
 
         return convertToDTO(savedAuthor);
     }
@@ -55,6 +79,8 @@ public class AuthorService {
 
         activityLogService.logActivity("UPDATE", "Author", id,
                 "Updated author: " + oldName + " -> " + updatedAuthor.getFirstName() + " " + updatedAuthor.getLastName());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.UPDATED,
+                CatalogChangedEvent.EntityType.AUTHOR, id, updatedAuthor.getFullName()));
 
         return convertToDTO(updatedAuthor);
     }
@@ -73,6 +99,8 @@ public class AuthorService {
 
         activityLogService.logActivity("DELETE", "Author", id,
                 "Deleted author: " + authorName);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.DELETED,
+                CatalogChangedEvent.EntityType.AUTHOR, id, authorName));
     }
 
     public List<AuthorDTO> searchAuthors(String query) {
@@ -82,7 +110,30 @@ public class AuthorService {
                 .collect(Collectors.toList());
     }
 
+    private List<AuthorDTO> convertToDTOs(List<Author> authors) {
+        if (authors.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Long> bookCounts = authorRepository.countBooksByAuthor(
+                        authors.stream().map(Author::getAuthorId).toList())
+                .stream()
+                .collect(Collectors.toMap(IdCountView::getId, IdCountView::getCount));
+        return authors.stream()
+                .map(author -> {
+                    AuthorDTO dto = toDTO(author);
+                    dto.setBookCount(bookCounts.getOrDefault(author.getAuthorId(), 0L));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
     private AuthorDTO convertToDTO(Author author) {
+        AuthorDTO dto = toDTO(author);
+        dto.setBookCount((long) author.getBooks().size());
+        return dto;
+    }
+
+    private AuthorDTO toDTO(Author author) {
         AuthorDTO dto = new AuthorDTO();
         dto.setAuthorId(author.getAuthorId());
         dto.setFirstName(author.getFirstName());
@@ -92,7 +143,6 @@ public class AuthorService {
         dto.setDeathDate(author.getDeathDate());
         dto.setCreatedAt(author.getCreatedAt());
         dto.setFullName(author.getFirstName() + " " + author.getLastName());
-        dto.setBookCount((long) author.getBooks().size());
         return dto;
     }
 
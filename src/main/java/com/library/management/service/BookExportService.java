@@ -0,0 +1,183 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookExportRow;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.projection.BookAssociationView;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the whole catalog to an output stream without holding it in memory.
+ *
+ * Rows come from a forward-only cursor ({@code useCursorFetch=true} on MySQL, so the
+ * driver fetches {@code fetch-size} rows at a time) as DTOs, never as managed entities.
+ * Authors and categories are looked up once per chunk, the chunk is written and
+ * flushed, and the persistence context is cleared before the next one. A slow client
+ * blocks the flush, which in turn stops the cursor from advancing; a disconnected
+ * client surfaces as an IOException that closes the cursor and ends the transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookExportService {
+
+    private static final String EXPORT_SELECT = "SELECT new com.library.management.dto.BookExportRow(" +
+            "b.bookId, b.title, b.isbn, b.publicationYear, b.edition, b.language, b.pageCount, " +
+            "b.coverImageUrl, b.isAvailable, b.totalBorrows, b.openLoans, p.publisherId, p.name, " +
+            "b.createdAt, b.updatedAt) FROM Book b LEFT JOIN b.publisher p ORDER BY b.bookId";
+
+    private static final String CSV_HEADER = "bookId,title,isbn,publicationYear,edition,language,pageCount," +
+            "coverImageUrl,isAvailable,totalBorrows,openLoans,publisherId,publisherName,authors,categories," +
+            "createdAt,updatedAt";
+
+    private final EntityManager entityManager;
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${library.export.chunk-size:500}")
+    private int chunkSize;
+
+    @Getter
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new RuntimeException("Unsupported export format: " + name);
+        }
+    }
+
+    public void export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        long started = System.currentTimeMillis();
+        try {
+            long rows = transaction.execute(status -> streamRows(format, writer));
+            log.info("Exported {} books as {} in {} ms", rows, format, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            log.info("Book export aborted after {} ms: {}", System.currentTimeMillis() - started,
+                    e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private long streamRows(Format format, Writer writer) {
+        Session session = entityManager.unwrap(Session.class);
+        long count = 0;
+        try (ScrollableResults<BookExportRow> rows = session.createSelectionQuery(EXPORT_SELECT, BookExportRow.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            List<BookExportRow> chunk = new ArrayList<>(chunkSize);
+            while (rows.next()) {
+                chunk.add(rows.get());
+                if (chunk.size() == chunkSize) {
+                    count += writeChunk(format, chunk, writer);
+                    session.clear();
+                }
+            }
+            count += writeChunk(format, chunk, writer);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int writeChunk(Format format, List<BookExportRow> chunk, Writer writer) throws IOException {
+        if (chunk.isEmpty()) {
+            writer.flush();
+            return 0;
+        }
+        List<Long> bookIds = chunk.stream().map(BookExportRow::getBookId).toList();
+        Map<Long, List<String>> authors = namesByBook(bookRepository.findAuthorsForBooks(bookIds));
+        Map<Long, List<String>> categories = namesByBook(bookRepository.findCategoriesForBooks(bookIds));
+
+        for (BookExportRow row : chunk) {
+            row.setAuthors(authors.getOrDefault(row.getBookId(), List.of()));
+            row.setCategories(categories.getOrDefault(row.getBookId(), List.of()));
+            if (format == Format.CSV) {
+                writeCsv(row, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        int written = chunk.size();
+        chunk.clear();
+        return written;
+    }
+
+    private Map<Long, List<String>> namesByBook(List<BookAssociationView> rows) {
+        return rows.stream().collect(Collectors.groupingBy(BookAssociationView::getBookId,
+                Collectors.mapping(BookAssociationView::getName, Collectors.toList())));
+    }
+
+    private void writeCsv(BookExportRow row, Writer writer) throws IOException {
+        writer.write(String.join(",",
+                csv(row.getBookId()), csv(row.getTitle()), csv(row.getIsbn()), csv(row.getPublicationYear()),
+                csv(row.getEdition()), csv(row.getLanguage()), csv(row.getPageCount()), csv(row.getCoverImageUrl()),
+                csv(row.getIsAvailable()), csv(row.getTotalBorrows()), csv(row.getOpenLoans()),
+                csv(row.getPublisherId()), csv(row.getPublisherName()),
+                csv(String.join("; ", row.getAuthors())), csv(String.join("; ", row.getCategories())),
+                csv(row.getCreatedAt()), csv(row.getUpdatedAt())));
+        writer.write('\n');
+    }
+
+    public static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,444 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BookImportReport;
+import com.library.management.dto.BookImportRow;
+import com.library.management.entity.Author;
+import com.library.management.entity.Category;
+import com.library.management.entity.Publisher;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.BookSnapshot;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.PublisherRepository;
+import com.library.management.util.CsvReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk book import from an NDJSON or CSV stream.
+ *
+ * Rows are validated and de-duplicated by ISBN in memory as they are read, then
+ * written in chunks of {@code library.import.chunk-size}, one transaction per chunk:
+ * one query for ISBNs already in the catalog, at most one lookup each for authors,
+ * categories and publishers not seen in earlier chunks, and JDBC batch inserts for the
+ * books and their join rows. Books keep their IDENTITY ids; the batch returns all
+ * generated keys at once, and with {@code rewriteBatchedStatements=true} MySQL receives
+ * each batch as a single multi-row INSERT.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookImportService {
+
+    private static final String INSERT_BOOK = "INSERT INTO books (title, isbn, publication_year, edition, summary, " +
+            "language, page_count, cover_image_url, is_available, total_borrows, open_loans, publisher_id, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?, ?)";
+    private static final String INSERT_BOOK_AUTHOR = "INSERT INTO book_authors (book_id, author_id) VALUES (?, ?)";
+    private static final String INSERT_BOOK_CATEGORY = "INSERT INTO book_categories (book_id, category_id) VALUES (?, ?)";
+
+    private static final Long MISSING = -1L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final PublisherRepository publisherRepository;
+    private final ActivityLogService activityLogService;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${library.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private record Candidate(long row, BookImportRow book, String error) {
+    }
+
+    private interface RowSource {
+        Candidate next() throws IOException;
+    }
+
+    /** State that lives for one import: the report, seen ISBNs and resolved names. */
+    private class ImportRun {
+        final BookImportReport report = new BookImportReport();
+        final Set<String> seenIsbns = new HashSet<>();
+        final Map<String, Long> authorIds = new HashMap<>();
+        final Map<String, Long> categoryIds = new HashMap<>();
+        final Map<String, Long> publisherIds = new HashMap<>();
+
+        void reject(Candidate candidate, String message) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < maxReportedErrors) {
+                String isbn = candidate.book() != null ? candidate.book().getIsbn() : null;
+                report.getErrors().add(new BookImportReport.RowError(candidate.row(), isbn, message));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    public BookImportReport importBooks(BookExportService.Format format, InputStream in) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource source = format == BookExportService.Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+
+        ImportRun run = new ImportRun();
+        BookImportReport report = run.report;
+        List<Candidate> chunk = new ArrayList<>(chunkSize);
+        Candidate candidate;
+        while ((candidate = source.next()) != null) {
+            report.setRowsRead(report.getRowsRead() + 1);
+            String problem = candidate.error() != null ? candidate.error() : validate(candidate.book(), run);
+            if (problem != null) {
+                run.reject(candidate, problem);
+                continue;
+            }
+            chunk.add(candidate);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        writeChunk(chunk, run);
+        report.getErrors().sort(Comparator.comparingLong(BookImportReport.RowError::getRow));
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        report.setElapsedMs(elapsedMs);
+        report.setRowsPerSecond(elapsedMs == 0 ? report.getImported() : report.getImported() * 1000.0 / elapsedMs);
+
+        activityLogService.logActivity("IMPORT", "Book", null,
+                "Imported " + report.getImported() + " books, rejected " + report.getFailed() + " rows");
+        log.info("Book import: {} rows read, {} imported, {} rejected in {} ms ({} rows/s)", report.getRowsRead(),
+                report.getImported(), report.getFailed(), elapsedMs, Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private void writeChunk(List<Candidate> chunk, ImportRun run) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Candidate, String> rejected = new LinkedHashMap<>();
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            int inserted = transaction.execute(status -> insertChunk(chunk, run, rejected));
+            run.report.setImported(run.report.getImported() + inserted);
+            rejected.forEach(run::reject);
+        } catch (DataAccessException | TransactionException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Book import chunk of {} rows rolled back: {}", chunk.size(), cause);
+            chunk.forEach(candidate -> run.reject(candidate, "Chunk rolled back: " + cause));
+        }
+    }
+
+    private int insertChunk(List<Candidate> chunk, ImportRun run, Map<Candidate, String> rejected) {
+        Set<String> existing = new HashSet<>(bookRepository.findExistingIsbns(
+                chunk.stream().map(candidate -> candidate.book().getIsbn()).toList()));
+
+        resolve(run.authorIds, chunk.stream().flatMap(c -> c.book().getAuthors().stream()).toList(),
+                names -> authorRepository.findByFullNameIn(names).stream()
+                        .collect(Collectors.toMap(a -> key(a.getFullName()), Author::getAuthorId, (a, b) -> a)));
+        resolve(run.categoryIds, chunk.stream().flatMap(c -> c.book().getCategories().stream()).toList(),
+                names -> categoryRepository.findByNameIn(names).stream()
+                        .collect(Collectors.toMap(c -> key(c.getName()), Category::getCategoryId, (a, b) -> a)));
+        resolve(run.publisherIds, chunk.stream().map(c -> c.book().getPublisherName()).filter(this::present).toList(),
+                names -> publisherRepository.findByNameIn(names).stream()
+                        .collect(Collectors.toMap(p -> key(p.getName()), Publisher::getPublisherId, (a, b) -> a)));
+
+        List<Candidate> accepted = new ArrayList<>(chunk.size());
+        for (Candidate candidate : chunk) {
+            String problem = existing.contains(candidate.book().getIsbn())
+                    ? "Book with ISBN " + candidate.book().getIsbn() + " already exists"
+                    : unresolvedReference(candidate.book(), run);
+            if (problem != null) {
+                rejected.put(candidate, problem);
+            } else {
+                accepted.add(candidate);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_BOOK, new String[]{"book_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        BookImportRow book = accepted.get(i).book();
+                        ps.setString(1, book.getTitle());
+                        ps.setString(2, book.getIsbn());
+                        ps.setObject(3, book.getPublicationYear(), Types.INTEGER);
+                        ps.setString(4, book.getEdition());
+                        ps.setString(5, book.getSummary());
+                        ps.setString(6, book.getLanguage());
+                        ps.setObject(7, book.getPageCount(), Types.INTEGER);
+                        ps.setString(8, book.getCoverImageUrl());
+                        ps.setBoolean(9, !Boolean.FALSE.equals(book.getIsAvailable()));
+                        ps.setObject(10, present(book.getPublisherName())
+                                ? run.publisherIds.get(key(book.getPublisherName())) : null, Types.BIGINT);
+                        ps.setTimestamp(11, now);
+                        ps.setTimestamp(12, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accepted.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<Object[]> authorLinks = new ArrayList<>();
+        List<Object[]> categoryLinks = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            BookImportRow book = accepted.get(i).book();
+            long bookId = ((Number) generated.get(i).values().iterator().next()).longValue();
+            Map<Long, String> authors = idsByName(book.getAuthors(), run.authorIds);
+            Map<Long, String> categories = idsByName(book.getCategories(), run.categoryIds);
+            authors.keySet().forEach(authorId -> authorLinks.add(new Object[]{bookId, authorId}));
+            categories.keySet().forEach(categoryId -> categoryLinks.add(new Object[]{bookId, categoryId}));
+            eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, bookId, null,
+                    snapshot(bookId, book, authors, categories, run)));
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOK_AUTHOR, authorLinks);
+        jdbcTemplate.batchUpdate(INSERT_BOOK_CATEGORY, categoryLinks);
+        return accepted.size();
+    }
+
+    private void resolve(Map<String, Long> cache, Collection<String> names,
+                         Function<Collection<String>, Map<String, Long>> lookup) {
+        List<String> unresolved = names.stream()
+                .filter(name -> !cache.containsKey(key(name)))
+                .distinct()
+                .toList();
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        Map<String, Long> found = lookup.apply(unresolved);
+        unresolved.forEach(name -> cache.put(key(name), found.getOrDefault(key(name), MISSING)));
+    }
+
+    private String unresolvedReference(BookImportRow book, ImportRun run) {
+        if (present(book.getPublisherName()) && MISSING.equals(run.publisherIds.get(key(book.getPublisherName())))) {
+            return "Unknown publisher: " + book.getPublisherName();
+        }
+        for (String author : book.getAuthors()) {
+            if (MISSING.equals(run.authorIds.get(key(author)))) {
+                return "Unknown author: " + author;
+            }
+        }
+        for (String category : book.getCategories()) {
+            if (MISSING.equals(run.categoryIds.get(key(category)))) {
+                return "Unknown category: " + category;
+            }
+        }
+        return null;
+    }
+
+    private Map<Long, String> idsByName(List<String> names, Map<String, Long> cache) {
+        Map<Long, String> ids = new LinkedHashMap<>();
+        names.forEach(name -> ids.putIfAbsent(cache.get(key(name)), name));
+        return ids;
+    }
+
+    private BookSnapshot snapshot(long bookId, BookImportRow book, Map<Long, String> authors,
+                                  Map<Long, String> categories, ImportRun run) {
+        return BookSnapshot.builder()
+                .bookId(bookId)
+                .title(book.getTitle())
+                .isbn(book.getIsbn())
+                .summary(book.getSummary())
+                .language(book.getLanguage())
+                .publicationYear(book.getPublicationYear())
+                .publisherId(present(book.getPublisherName()) ? run.publisherIds.get(key(book.getPublisherName())) : null)
+                .publisherName(book.getPublisherName())
+                .isAvailable(!Boolean.FALSE.equals(book.getIsAvailable()))
+                .totalBorrows(0L)
+                .authors(authors)
+                .categories(categories)
+                .build();
+    }
+
+    private String validate(BookImportRow book, ImportRun run) {
+        book.setTitle(trim(book.getTitle()));
+        book.setIsbn(trim(book.getIsbn()));
+        book.setPublisherName(trim(book.getPublisherName()));
+        book.setAuthors(names(book.getAuthors()));
+        book.setCategories(names(book.getCategories()));
+
+        if (!present(book.getTitle())) {
+            return "Title is required";
+        }
+        if (!present(book.getIsbn())) {
+            return "ISBN is required";
+        }
+        if (book.getTitle().length() > 500) {
+            return "Title exceeds 500 characters";
+        }
+        if (book.getIsbn().length() > 20) {
+            return "ISBN exceeds 20 characters";
+        }
+        if (book.getPublicationYear() != null
+                && (book.getPublicationYear() < 1000 || book.getPublicationYear() > 2100)) {
+            return "Publication year must be between 1000 and 2100";
+        }
+        if (book.getPageCount() != null && book.getPageCount() < 1) {
+            return "Page count must be at least 1";
+        }
+        if ((book.getEdition() != null && book.getEdition().length() > 50)
+                || (book.getLanguage() != null && book.getLanguage().length() > 50)
+                || (book.getCoverImageUrl() != null && book.getCoverImageUrl().length() > 500)) {
+            return "Edition, language or cover URL exceeds its column length";
+        }
+        if (!run.seenIsbns.add(book.getIsbn())) {
+            return "Duplicate ISBN " + book.getIsbn() + " earlier in this import";
+        }
+        return null;
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Candidate(lineNumber[0], objectMapper.readValue(line, BookImportRow.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Candidate(lineNumber[0], null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("isbn")) {
+            throw new RuntimeException("CSV header must include title and isbn columns");
+        }
+
+        long[] rowNumber = {0};
+        return () -> {
+            List<String> fields;
+            while ((fields = csv.next()) != null) {
+                rowNumber[0]++;
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Candidate(rowNumber[0], toRow(fields, columns), null);
+                } catch (NumberFormatException e) {
+                    return new Candidate(rowNumber[0], null, "Invalid number: " + e.getMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private BookImportRow toRow(List<String> fields, Map<String, Integer> columns) {
+        BookImportRow row = new BookImportRow();
+        row.setTitle(field(fields, columns, "title"));
+        row.setIsbn(field(fields, columns, "isbn"));
+        String year = field(fields, columns, "publicationyear");
+        row.setPublicationYear(year != null ? Integer.valueOf(year.trim()) : null);
+        row.setEdition(field(fields, columns, "edition"));
+        row.setSummary(field(fields, columns, "summary"));
+        row.setLanguage(field(fields, columns, "language"));
+        String pages = field(fields, columns, "pagecount");
+        row.setPageCount(pages != null ? Integer.valueOf(pages.trim()) : null);
+        row.setCoverImageUrl(field(fields, columns, "coverimageurl"));
+        String available = field(fields, columns, "isavailable");
+        row.setIsAvailable(available == null || Boolean.parseBoolean(available.trim()));
+        row.setPublisherName(field(fields, columns, "publishername"));
+        String authors = field(fields, columns, "authors");
+        row.setAuthors(authors != null ? Arrays.asList(authors.split(";")) : new ArrayList<>());
+        String categories = field(fields, columns, "categories");
+        row.setCategories(categories != null ? Arrays.asList(categories.split(";")) : new ArrayList<>());
+        return row;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private List<String> names(List<String> names) {
+        if (names == null) {
+            return new ArrayList<>();
+        }
+        return names.stream()
+                .map(this::trim)
+                .filter(this::present)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private boolean present(String value) {
+        return value != null && !value.isBlank();
+    }
+}
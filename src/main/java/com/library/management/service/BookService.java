@@ -1,31 +1,45 @@
 package com.library.management.service;
 
 import com.library.management.dto.BookDTO;
+import com.library.management.dto.CursorPage;
+import com.library.management.dto.FacetedSearchResultDTO;
 import com.library.management.entity.Book;
 import com.library.management.entity.Author;
 import com.library.management.entity.Category;
 import com.library.management.entity.Publisher;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.BookSnapshot;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.AuthorRepository;
 import com.library.management.repository.CategoryRepository;
 import com.library.management.repository.PublisherRepository;
+import com.library.management.repository.projection.BookAssociationView;
+import com.library.management.repository.projection.BookListView;
+import com.library.management.repository.projection.BookSummaryView;
+import com.library.management.search.BookSearchIndex;
+import com.library.management.search.FacetFilter;
+import com.library.management.search.FacetIndex;
+import com.library.management.search.FacetResult;
+import com.library.management.search.SearchHits;
+import com.library.management.util.Cursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,22 +51,43 @@ public class BookService {
     private final CategoryRepository categoryRepository;
     private final PublisherRepository publisherRepository;
     private final ActivityLogService activityLogService;
-
-    @Value("${file.upload.book-covers-dir:${user.home}/library-management/uploads/book-covers}")
-    private String uploadDir;
-
-
-    public Page<BookDTO> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable).map(this::convertToDTO);
+    private final BookSearchIndex searchIndex;
+    private final FacetIndex facetIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CoverImageService coverImageService;
+
+
+    /*
+     * List endpoints below use the projection read path and cost a fixed number of
+     * queries per page, independent of page size:
+     *   1 page query (narrow columns, publisher joined in)
+     *   1 count query (skipped by Spring Data when the first page is not full)
+     *   1 query for the authors of every book on the page
+     *   1 query for the categories of every book on the page
+     *   + 1 query for summaries, only when includeSummary is set
+     * An empty page stops after the page/count queries.
+     */
+
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getAllBooks(Pageable pageable, boolean includeSummary) {
+        return toListPage(bookRepository.findListViews(pageable), includeSummary);
     }
 
-
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    /**
+     * Keyset variant of the title-ordered listing: cost stays flat however deep the
+     * client scrolls, and rows inserted meanwhile cannot shift the next slice.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookDTO> getBooksAfter(String after, int size, boolean includeSummary) {
+        Cursor cursor = Cursor.decode(after);
+        List<BookListView> rows = cursor == null
+                ? bookRepository.findListViewsAfterTitle("", 0L, Limit.of(size + 1))
+                : bookRepository.findListViewsAfterTitle(cursor.key(), cursor.id(), Limit.of(size + 1));
+        return Cursor.page(rows, size, view -> new Cursor(view.getTitle(), view.getBookId()),
+                views -> toListDTOs(views, includeSummary));
     }
 
+
     public BookDTO getBookById(Long id) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
@@ -60,14 +95,9 @@ public class BookService {
     }
 
 
-    public Page<BookDTO> getAvailableBooks(Pageable pageable) {
-        return bookRepository.findByIsAvailable(true, pageable).map(this::convertToDTO);
-    }
-
-    public List<BookDTO> getAvailableBooks() {
-        return bookRepository.findAvailableBooks().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getAvailableBooks(Pageable pageable, boolean includeSummary) {
+        return toListPage(bookRepository.findListViewsByAvailability(true, pageable), includeSummary);
     }
 
     @Transactional
@@ -81,6 +111,8 @@ public class BookService {
 
         activityLogService.logActivity("CREATE", "Book", savedBook.getBookId(),
                 "Created book: " + savedBook.getTitle());
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED,
+                savedBook.getBookId(), null, BookSnapshot.from(savedBook)));
 
         return convertToDTO(savedBook);
     }
@@ -95,6 +127,7 @@ public class BookService {
             throw new RuntimeException("Book with ISBN " + bookDTO.getIsbn() + " already exists");
         }
 
+        BookSnapshot previous = BookSnapshot.from(existingBook);
         String oldTitle = existingBook.getTitle();
         existingBook.setTitle(bookDTO.getTitle());
         existingBook.setIsbn(bookDTO.getIsbn());
@@ -103,7 +136,7 @@ public class BookService {
         existingBook.setSummary(bookDTO.getSummary());
         existingBook.setLanguage(bookDTO.getLanguage());
         existingBook.setPageCount(bookDTO.getPageCount());
-        existingBook.setIsAvailable(bookDTO.getIsAvailable());
+        // Availability belongs to circulation; a form loaded before a checkout must not reshelve the copy
 
         if (bookDTO.getPublisherId() != null) {
             Publisher publisher = publisherRepository.findById(bookDTO.getPublisherId())
@@ -125,6 +158,8 @@ public class BookService {
 
         activityLogService.logActivity("UPDATE", "Book", id,
                 "Updated book: " + oldTitle + " -> " + updatedBook.getTitle());
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED,
+                id, previous, BookSnapshot.from(updatedBook)));
 
         return convertToDTO(updatedBook);
     }
@@ -134,39 +169,63 @@ public class BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
 
-
-        if (book.getBorrowRecords().stream().anyMatch(record -> record.getReturnDate() == null)) {
+        if (book.getOpenLoans() > 0) {
             throw new RuntimeException("Cannot delete book that is currently borrowed");
         }
 
+        BookSnapshot previous = BookSnapshot.from(book);
         String bookTitle = book.getTitle();
         bookRepository.delete(book);
 
         activityLogService.logActivity("DELETE", "Book", id,
                 "Deleted book: " + bookTitle);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, id, previous, null));
     }
 
 
+    /**
+     * Ranked search served from the in-memory index (title, ISBN, summary, authors,
+     * categories); the page is then hydrated with the list-view queries. Falls back to
+     * the LIKE query only while the index is still being built at startup.
+     */
+    @Transactional(readOnly = true)
     public Page<BookDTO> searchBooks(String query, Pageable pageable) {
-        return bookRepository.findByTitleContainingIgnoreCaseOrIsbnContaining(query, query, pageable)
-                .map(this::convertToDTO);
+        if (!searchIndex.isReady()) {
+            return bookRepository.findByTitleContainingIgnoreCaseOrIsbnContaining(query, query, pageable)
+                    .map(this::convertToDTO);
+        }
+
+        SearchHits hits = searchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(getListViewsInOrder(hits.bookIds(), false), pageable, hits.totalHits());
     }
 
 
+    @Transactional(readOnly = true)
+    public FacetedSearchResultDTO facetedSearch(FacetFilter filter, Pageable pageable, boolean includeSummary,
+                                                int facetLimit) {
+        if (!facetIndex.isReady()) {
+            throw new RuntimeException("Faceted search is still loading, please retry shortly");
+        }
+        FacetResult result = facetIndex.search(filter, (int) pageable.getOffset(), pageable.getPageSize(), facetLimit);
+        Page<BookDTO> books = new PageImpl<>(getListViewsInOrder(result.bookIds(), includeSummary),
+                pageable, result.totalHits());
+        return new FacetedSearchResultDTO(books, result.facets());
+    }
+
     public List<BookDTO> searchBooks(String query) {
         return bookRepository.searchBooks(query).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
-    public Page<BookDTO> getBooksByCategory(Long categoryId, Pageable pageable) {
-        return bookRepository.findByCategoriesCategoryId(categoryId, pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getBooksByCategory(Long categoryId, Pageable pageable, boolean includeSummary) {
+        return toListPage(bookRepository.findListViewsByCategory(categoryId, pageable), includeSummary);
     }
 
-    public Page<BookDTO> getBooksByAuthor(Long authorId, Pageable pageable) {
-        return bookRepository.findByAuthorsAuthorId(authorId, pageable)
-                .map(this::convertToDTO);
+    @Transactional(readOnly = true)
+    public Page<BookDTO> getBooksByAuthor(Long authorId, Pageable pageable, boolean includeSummary) {
+        return toListPage(bookRepository.findListViewsByAuthor(authorId, pageable), includeSummary);
     }
 
     @Transactional
@@ -190,21 +249,7 @@ public class BookService {
         }
 
         try {
-
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-
-
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = getFileExtension(originalFilename);
-            String fileName = "book_" + bookId + "_" + System.currentTimeMillis() + fileExtension;
-
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-            String imageUrl = "/uploads/book-covers/" + fileName;
+            String imageUrl = CoverImageService.URL_PREFIX + coverImageService.store(file);
             book.setCoverImageUrl(imageUrl);
             bookRepository.save(book);
 
@@ -217,30 +262,98 @@ public class BookService {
         }
     }
 
-    public Map<String, Object> getBookStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        long totalBooks = bookRepository.count();
-        long availableBooks = bookRepository.countByIsAvailable(true);
-        long borrowedBooks = bookRepository.countByIsAvailable(false);
+    private void setCoverVariants(BookDTO dto) {
+        dto.setCoverThumbnailUrl(CoverImageService.variantUrl(dto.getCoverImageUrl(), CoverImageService.Variant.THUMB));
+        dto.setCoverMediumUrl(CoverImageService.variantUrl(dto.getCoverImageUrl(), CoverImageService.Variant.MEDIUM));
+    }
+
+    private Page<BookDTO> toListPage(Page<BookListView> page, boolean includeSummary) {
+        return new PageImpl<>(toListDTOs(page.getContent(), includeSummary),
+                page.getPageable(), page.getTotalElements());
+    }
+
+    private List<BookDTO> getListViewsInOrder(List<Long> bookIds, boolean includeSummary) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookListView> byId = new HashMap<>();
+        for (BookListView view : bookRepository.findListViewsByIds(bookIds)) {
+            byId.put(view.getBookId(), view);
+        }
+        List<BookListView> ordered = bookIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return toListDTOs(ordered, includeSummary);
+    }
+
+    private List<BookDTO> toListDTOs(List<BookListView> views, boolean includeSummary) {
+        if (views.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> bookIds = views.stream().map(BookListView::getBookId).toList();
+        Map<Long, List<BookAssociationView>> authors = groupByBook(bookRepository.findAuthorsForBooks(bookIds));
+        Map<Long, List<BookAssociationView>> categories = groupByBook(bookRepository.findCategoriesForBooks(bookIds));
 
-        stats.put("totalBooks", totalBooks);
-        stats.put("availableBooks", availableBooks);
-        stats.put("borrowedBooks", borrowedBooks);
-        stats.put("borrowedPercentage", totalBooks > 0 ? (double) borrowedBooks / totalBooks * 100 : 0);
+        Map<Long, String> summaries = new HashMap<>();
+        if (includeSummary) {
+            for (BookSummaryView row : bookRepository.findSummariesForBooks(bookIds)) {
+                summaries.put(row.getBookId(), row.getSummary());
+            }
+        }
 
-        // Additional statistics
-        stats.put("totalAuthors", authorRepository.count());
-        stats.put("totalCategories", categoryRepository.count());
-        stats.put("totalPublishers", publisherRepository.count());
+        return views.stream()
+                .map(view -> convertToDTO(view, authors.get(view.getBookId()), categories.get(view.getBookId()),
+                        summaries.get(view.getBookId())))
+                .collect(Collectors.toList());
+    }
 
-        return stats;
+    private Map<Long, List<BookAssociationView>> groupByBook(List<BookAssociationView> rows) {
+        return rows.stream().collect(Collectors.groupingBy(BookAssociationView::getBookId));
     }
 
-    private String getFileExtension(String filename) {
-        if (filename == null || !filename.contains(".")) {
-            return ".jpg"; // default extension
+    private BookDTO convertToDTO(BookListView view, Collection<BookAssociationView> authors,
+                                 Collection<BookAssociationView> categories, String summary) {
+        BookDTO dto = new BookDTO();
+        dto.setBookId(view.getBookId());
+        dto.setTitle(view.getTitle());
+        dto.setIsbn(view.getIsbn());
+        dto.setPublicationYear(view.getPublicationYear());
+        dto.setEdition(view.getEdition());
+        dto.setSummary(summary);
+        dto.setLanguage(view.getLanguage());
+        dto.setPageCount(view.getPageCount());
+        dto.setCoverImageUrl(view.getCoverImageUrl());
+        setCoverVariants(dto);
+        dto.setIsAvailable(view.getIsAvailable());
+        dto.setCreatedAt(view.getCreatedAt());
+        dto.setUpdatedAt(view.getUpdatedAt());
+        dto.setPublisherId(view.getPublisherId());
+        dto.setPublisherName(view.getPublisherName());
+
+        if (authors != null && !authors.isEmpty()) {
+            dto.setAuthorIds(idsOf(authors));
+            dto.setAuthorNames(namesOf(authors));
+        }
+
+        if (categories != null && !categories.isEmpty()) {
+            dto.setCategoryIds(idsOf(categories));
+            dto.setCategoryNames(namesOf(categories));
         }
-        return filename.substring(filename.lastIndexOf("."));
+
+        dto.setTotalBorrows(view.getTotalBorrows());
+        dto.setIsCurrentlyBorrowed(view.getOpenLoans() > 0);
+
+        return dto;
+    }
+
+    private Set<Long> idsOf(Collection<BookAssociationView> rows) {
+        return rows.stream().map(BookAssociationView::getId).collect(Collectors.toSet());
+    }
+
+    private Set<String> namesOf(Collection<BookAssociationView> rows) {
+        return rows.stream().map(BookAssociationView::getName).collect(Collectors.toSet());
     }
 
     private BookDTO convertToDTO(Book book) {
@@ -254,6 +367,7 @@ public class BookService {
         dto.setLanguage(book.getLanguage());
         dto.setPageCount(book.getPageCount());
         dto.setCoverImageUrl(book.getCoverImageUrl());
+        setCoverVariants(dto);
         dto.setIsAvailable(book.getIsAvailable());
         dto.setCreatedAt(book.getCreatedAt());
         dto.setUpdatedAt(book.getUpdatedAt());
@@ -281,12 +395,8 @@ public class BookService {
                     .collect(Collectors.toSet()));
         }
 
-        // Calculate statistics
-        if (book.getBorrowRecords() != null) {
-            dto.setTotalBorrows((long) book.getBorrowRecords().size());
-            dto.setIsCurrentlyBorrowed(book.getBorrowRecords().stream()
-                    .anyMatch(record -> record.getReturnDate() == null));
-        }
+        dto.setTotalBorrows(book.getTotalBorrows());
+        dto.setIsCurrentlyBorrowed(book.getOpenLoans() > 0);
 
         return dto;
     }
@@ -1,123 +1,444 @@
 package com.library.management.service;
 
+import com.library.management.dto.BorrowBatchResultDTO;
 import com.library.management.dto.BorrowDTO;
 import com.library.management.entity.*;
+import com.library.management.event.LoanEvent;
 import com.library.management.repository.BookRepository;
 import com.library.management.repository.BorrowRepository;
+import com.library.management.repository.MemberBalanceRepository;
 import com.library.management.repository.MemberRepository;
 import com.library.management.repository.UserRepository;
+import com.library.management.repository.projection.BookAvailabilityView;
+import com.library.management.repository.projection.BorrowListView;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class BorrowService {
 
     private final BorrowRepository borrowRepository;
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final FinePolicyService finePolicyService;
+    private final MemberBalanceRepository memberBalanceRepository;
+    private final HoldService holdService;
+    private final CirculationLedgerService circulationLedgerService;
 
-    private static final double DAILY_FINE_RATE = 1.0;
+    private static final int MAX_ACTIVE_LOANS = 5;
 
-    public List<BorrowDTO> getAllBorrowRecords() {
-        return borrowRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    private static final String BOOK_UNAVAILABLE = "Book is not available for borrowing";
+    private static final String LIMIT_REACHED = "Member has reached the maximum number of borrowed books";
+    private static final String ALREADY_RETURNED = "Book has already been returned";
+
+    private static final String INSERT_LOAN = "INSERT INTO borrow_records (book_id, member_id, user_id, borrow_date, " +
+            "due_date, fine_amount, status) VALUES (?, ?, ?, ?, ?, 0, 'BORROWED')";
+    private static final String MARK_RETURNED = "UPDATE borrow_records SET status = 'RETURNED', return_date = ?, " +
+            "fine_amount = ? WHERE borrow_id = ? AND status <> 'RETURNED'";
+
+    @Value("${library.circulation.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * Checkout is a pair of conditional updates rather than read-check-write: the book row is
+     * claimed only while available and the member's loan counter only moves while under the
+     * limit, so concurrent desks can neither lend the same copy twice nor exceed the limit.
+     * Both rows are always locked book first, then member (returns too), and a transaction
+     * that still loses to a deadlock or lock timeout is retried.
+     */
+    public BorrowDTO borrowBook(Long bookId, Long memberId, Long userId, int days) {
+        return withRetry(() -> checkout(bookId, memberId, userId, days));
+    }
+
+    private BorrowDTO checkout(Long bookId, Long memberId, Long userId, int days) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+
+        // Plain read first: a book already out fails without queueing for its row lock
+        boolean available = bookRepository.findAvailability(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        LocalDateTime now = LocalDateTime.now();
+        boolean claimed = available
+                ? bookRepository.claimForLoan(bookId, now) == 1
+                : pickUpHold(bookId, memberId, now);
+        if (!claimed) {
+            throw new RuntimeException(BOOK_UNAVAILABLE);
+        }
+
+        if (memberRepository.reserveLoanSlots(memberId, 1, MAX_ACTIVE_LOANS) == 0) {
+            Member member = memberRepository.findById(memberId)
+                    .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
+            if (!member.getIsActive()) {
+                throw new RuntimeException("Member account is deactivated");
+            }
+            throw new RuntimeException(LIMIT_REACHED);
+        }
+
+        BorrowRecord record = new BorrowRecord();
+        record.setBook(bookRepository.getReferenceById(bookId));
+        record.setMember(memberRepository.getReferenceById(memberId));
+        record.setUser(userRepository.getReferenceById(userId));
+        record.setDueDate(LocalDate.now().plusDays(days));
+        record.setStatus(BorrowStatus.BORROWED);
+
+        BorrowRecord savedRecord = borrowRepository.save(record);
+        BorrowDTO loan = convertToDTO(savedRecord);
+        circulationLedgerService.recordBorrowed(List.of(loan));
+        eventPublisher.publishEvent(new LoanEvent(LoanEvent.Type.BORROWED, savedRecord.getBorrowId(),
+                bookId, memberId, savedRecord.getDueDate()));
+        return loan;
     }
 
-    public BorrowDTO getBorrowRecordById(Long id) {
-        BorrowRecord record = borrowRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Borrow record not found with id: " + id));
-        return convertToDTO(record);
+    // An unavailable copy can still be waiting on the hold shelf for this member
+    private boolean pickUpHold(Long bookId, Long memberId, LocalDateTime now) {
+        if (!holdService.hasReadyHold(bookId, memberId, now)) {
+            return false;
+        }
+        bookRepository.lockAvailability(List.of(bookId));
+        if (!holdService.pickUp(bookId, memberId, now)) {
+            return false;
+        }
+        if (bookRepository.claimFromHoldShelf(bookId, now) == 0) {
+            throw new IllegalStateException("Held book " + bookId + " is on the open shelf");
+        }
+        return true;
     }
 
-    public List<BorrowDTO> getBorrowRecordsByMember(Long memberId) {
-        return borrowRepository.findByMemberMemberId(memberId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public BorrowDTO returnBook(Long borrowId) {
+        return withRetry(() -> checkin(borrowId));
     }
 
-    public List<BorrowDTO> getOverdueRecords() {
-        return borrowRepository.findOverdueRecords(LocalDate.now()).stream()
+    private BorrowDTO checkin(Long borrowId) {
+        BorrowDTO loan = borrowRepository.findListViewsByIds(List.of(borrowId)).stream()
+                .findFirst()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
-    }
+                .orElseThrow(() -> new RuntimeException("Borrow record not found with id: " + borrowId));
 
-    @Transactional
-    public BorrowDTO borrowBook(Long bookId, Long memberId, Long userId, int days) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        if (loan.getStatus() == BorrowStatus.RETURNED) {
+            throw new RuntimeException(ALREADY_RETURNED);
+        }
 
-        if (!book.getIsAvailable()) {
-            throw new RuntimeException("Book is not available for borrowing");
+        LocalDateTime returnDate = LocalDateTime.now();
+        Long bookId = loan.getBookId();
+        Long memberId = loan.getMemberId();
+        double fine = finePolicyService.finesFor(List.of(loan), returnDate.toLocalDate()).get(borrowId);
+        if (borrowRepository.markReturned(borrowId, returnDate, fine) == 0) {
+            throw new RuntimeException(ALREADY_RETURNED);
         }
+        // Published ahead of any hold allocation, so listeners see the copy leave the shelf last
+        eventPublisher.publishEvent(new LoanEvent(LoanEvent.Type.RETURNED, borrowId,
+                bookId, memberId, loan.getDueDate()));
+        releaseBooks(List.of(bookId), returnDate);
+        memberRepository.releaseLoanSlots(memberId, 1);
+        settleFines(memberId, fine, loan.getFineAmount(), returnDate);
+
+        // The row was read before the conditional update; report what was written
+        loan.setReturnDate(returnDate);
+        loan.setFineAmount(fine);
+        loan.setStatus(BorrowStatus.RETURNED);
+        circulationLedgerService.recordReturned(List.of(loan));
+        return loan;
+    }
 
+    /**
+     * Checks out several books for one member in a single transaction. The member and user
+     * are validated once and the book rows are locked together in id order, then claimed
+     * with one UPDATE, the member's counter moves once and the records are written as one
+     * JDBC batch. Copies waiting on the hold shelf for this member are picked up as in
+     * borrowBook. Books that cannot be lent fail individually; the rest go through.
+     */
+    public BorrowBatchResultDTO borrowBooks(List<Long> bookIds, Long memberId, Long userId, int days) {
+        return withRetry(() -> batchCheckout(bookIds, memberId, userId, days));
+    }
+
+    private BorrowBatchResultDTO batchCheckout(List<Long> bookIds, Long memberId, Long userId, int days) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
-
         if (!member.getIsActive()) {
             throw new RuntimeException("Member account is deactivated");
         }
 
-        long activeBorrows = borrowRepository.countActiveBorrowsByMember(memberId);
-        if (activeBorrows >= 5) {
-            throw new RuntimeException("Member has reached the maximum number of borrowed books");
+        Map<Long, Boolean> available = new HashMap<>();
+        for (BookAvailabilityView row : bookRepository.lockAvailability(new TreeSet<>(bookIds))) {
+            available.put(row.getBookId(), row.getIsAvailable());
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        int allowance = MAX_ACTIVE_LOANS - member.getActiveLoans();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> errors = new HashMap<>();
+        Set<Long> claimed = new LinkedHashSet<>();
+        Set<Long> fromHoldShelf = new TreeSet<>();
+        for (Long bookId : bookIds) {
+            Boolean onShelf = available.get(bookId);
+            if (claimed.contains(bookId) || errors.containsKey(bookId)) {
+                errors.putIfAbsent(bookId, "Book appears more than once in the batch");
+            } else if (onShelf == null) {
+                errors.put(bookId, "Book not found with id: " + bookId);
+            } else if (!onShelf && !holdService.hasReadyHold(bookId, memberId, now)) {
+                errors.put(bookId, BOOK_UNAVAILABLE);
+            } else if (claimed.size() >= allowance) {
+                errors.put(bookId, LIMIT_REACHED);
+            } else if (onShelf) {
+                claimed.add(bookId);
+            } else if (holdService.pickUp(bookId, memberId, now)) {
+                claimed.add(bookId);
+                fromHoldShelf.add(bookId);
+            } else {
+                errors.put(bookId, BOOK_UNAVAILABLE);
+            }
+        }
 
-        BorrowRecord record = new BorrowRecord();
-        record.setBook(book);
-        record.setMember(member);
-        record.setUser(user);
-        record.setDueDate(LocalDate.now().plusDays(days));
-        record.setStatus(BorrowStatus.BORROWED);
+        Map<Long, BorrowDTO> records = new HashMap<>();
+        if (!claimed.isEmpty()) {
+            Set<Long> fromShelf = new LinkedHashSet<>(claimed);
+            fromShelf.removeAll(fromHoldShelf);
+            if (!fromShelf.isEmpty() && bookRepository.claimAllForLoan(fromShelf, now) != fromShelf.size()) {
+                throw new ConcurrencyFailureException("Locked books changed during batch checkout");
+            }
+            for (Long bookId : fromHoldShelf) {
+                if (bookRepository.claimFromHoldShelf(bookId, now) == 0) {
+                    throw new IllegalStateException("Held book " + bookId + " is on the open shelf");
+                }
+            }
+            // Read without a lock above; a concurrent checkout for the same member sends us round again
+            if (memberRepository.reserveLoanSlots(memberId, claimed.size(), MAX_ACTIVE_LOANS) == 0) {
+                throw new ConcurrencyFailureException("Member loan count changed during batch checkout");
+            }
+            for (BorrowDTO record : insertLoans(new ArrayList<>(claimed), memberId, userId, now, now.toLocalDate().plusDays(days))) {
+                records.put(record.getBookId(), record);
+                eventPublisher.publishEvent(new LoanEvent(LoanEvent.Type.BORROWED, record.getBorrowId(),
+                        record.getBookId(), memberId, record.getDueDate()));
+            }
+            circulationLedgerService.recordBorrowed(records.values());
+        }
+        return batchResult(bookIds, records, errors);
+    }
 
-        book.setIsAvailable(false);
-        bookRepository.save(book);
+    private List<BorrowDTO> insertLoans(List<Long> bookIds, Long memberId, Long userId,
+                                        LocalDateTime borrowDate, LocalDate dueDate) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_LOAN, new String[]{"borrow_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, bookIds.get(i));
+                        ps.setLong(2, memberId);
+                        ps.setLong(3, userId);
+                        ps.setTimestamp(4, Timestamp.valueOf(borrowDate));
+                        ps.setDate(5, Date.valueOf(dueDate));
+                    }
 
-        BorrowRecord savedRecord = borrowRepository.save(record);
-        return convertToDTO(savedRecord);
+                    @Override
+                    public int getBatchSize() {
+                        return bookIds.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<BorrowDTO> records = new ArrayList<>(bookIds.size());
+        for (int i = 0; i < bookIds.size(); i++) {
+            BorrowDTO dto = new BorrowDTO();
+            dto.setBorrowId(((Number) generated.get(i).values().iterator().next()).longValue());
+            dto.setBookId(bookIds.get(i));
+            dto.setMemberId(memberId);
+            dto.setUserId(userId);
+            dto.setBorrowDate(borrowDate);
+            dto.setDueDate(dueDate);
+            dto.setFineAmount(0.0);
+            dto.setStatus(BorrowStatus.BORROWED);
+            records.add(dto);
+        }
+        return records;
     }
 
-    @Transactional
-    public BorrowDTO returnBook(Long borrowId) {
-        BorrowRecord record = borrowRepository.findById(borrowId)
-                .orElseThrow(() -> new RuntimeException("Borrow record not found with id: " + borrowId));
+    /**
+     * Returns several loans in one transaction: one read for all records, one JDBC batch of
+     * conditional updates (a record returned concurrently fails on its own), one UPDATE for
+     * the books and one per member.
+     */
+    public BorrowBatchResultDTO returnBooks(List<Long> borrowIds) {
+        return withRetry(() -> batchCheckin(borrowIds));
+    }
 
-        if (record.getStatus() == BorrowStatus.RETURNED) {
-            throw new RuntimeException("Book has already been returned");
+    private BorrowBatchResultDTO batchCheckin(List<Long> borrowIds) {
+        Map<Long, BorrowListView> views = new HashMap<>();
+        for (BorrowListView view : borrowRepository.findListViewsByIds(new HashSet<>(borrowIds))) {
+            views.put(view.getBorrowId(), view);
         }
 
-        record.setReturnDate(LocalDateTime.now());
-        record.setStatus(BorrowStatus.RETURNED);
+        Map<Long, String> errors = new HashMap<>();
+        TreeMap<Long, BorrowDTO> pending = new TreeMap<>();
+        for (Long borrowId : borrowIds) {
+            BorrowListView view = views.get(borrowId);
+            if (pending.containsKey(borrowId) || errors.containsKey(borrowId)) {
+                errors.putIfAbsent(borrowId, "Borrow record appears more than once in the batch");
+            } else if (view == null) {
+                errors.put(borrowId, "Borrow record not found with id: " + borrowId);
+            } else if (view.getStatus() == BorrowStatus.RETURNED) {
+                errors.put(borrowId, ALREADY_RETURNED);
+            } else {
+                pending.put(borrowId, convertToDTO(view));
+            }
+        }
 
-        if (record.getDueDate().isBefore(LocalDate.now())) {
-            long daysOverdue = LocalDate.now().toEpochDay() - record.getDueDate().toEpochDay();
-            record.setFineAmount(daysOverdue * DAILY_FINE_RATE);
+        Map<Long, BorrowDTO> records = new HashMap<>();
+        if (!pending.isEmpty()) {
+            LocalDateTime returnDate = LocalDateTime.now();
+            List<BorrowDTO> loans = new ArrayList<>(pending.values());
+            Map<Long, Double> fines = finePolicyService.finesFor(loans, returnDate.toLocalDate());
+            // Record rows are locked in id order, ahead of books and members as in returnBook
+            int[] updated = jdbcTemplate.batchUpdate(MARK_RETURNED, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    BorrowDTO loan = loans.get(i);
+                    ps.setTimestamp(1, Timestamp.valueOf(returnDate));
+                    ps.setDouble(2, fines.get(loan.getBorrowId()));
+                    ps.setLong(3, loan.getBorrowId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return loans.size();
+                }
+            });
+
+            TreeMap<Long, Integer> returnsByMember = new TreeMap<>();
+            // Per member: fines assessed now, and what the accrual run had counted for these loans
+            TreeMap<Long, double[]> finesByMember = new TreeMap<>();
+            TreeSet<Long> bookIds = new TreeSet<>();
+            for (int i = 0; i < loans.size(); i++) {
+                BorrowDTO loan = loans.get(i);
+                if (updated[i] == 0) {
+                    errors.put(loan.getBorrowId(), ALREADY_RETURNED);
+                    continue;
+                }
+                double[] memberFines = finesByMember.computeIfAbsent(loan.getMemberId(), id -> new double[2]);
+                memberFines[0] += fines.get(loan.getBorrowId());
+                memberFines[1] += loan.getFineAmount() == null ? 0 : loan.getFineAmount();
+                loan.setReturnDate(returnDate);
+                loan.setFineAmount(fines.get(loan.getBorrowId()));
+                loan.setStatus(BorrowStatus.RETURNED);
+                records.put(loan.getBorrowId(), loan);
+                bookIds.add(loan.getBookId());
+                returnsByMember.merge(loan.getMemberId(), 1, Integer::sum);
+            }
+            circulationLedgerService.recordReturned(records.values());
+            for (BorrowDTO loan : records.values()) {
+                eventPublisher.publishEvent(new LoanEvent(LoanEvent.Type.RETURNED, loan.getBorrowId(),
+                        loan.getBookId(), loan.getMemberId(), loan.getDueDate()));
+            }
+            if (!bookIds.isEmpty()) {
+                releaseBooks(bookIds, returnDate);
+            }
+            returnsByMember.forEach(memberRepository::releaseLoanSlots);
+            finesByMember.forEach((memberId, memberFines) ->
+                    settleFines(memberId, memberFines[0], memberFines[1], returnDate));
         }
+        return batchResult(borrowIds, records, errors);
+    }
 
-        Book book = record.getBook();
-        book.setIsAvailable(true);
-        bookRepository.save(book);
+    private BorrowBatchResultDTO batchResult(List<Long> ids, Map<Long, BorrowDTO> records, Map<Long, String> errors) {
+        BorrowBatchResultDTO result = new BorrowBatchResultDTO();
+        Set<Long> reported = new HashSet<>();
+        for (Long id : ids) {
+            // A duplicated id reports its outcome once, the repeat as an error
+            BorrowDTO record = reported.add(id) ? records.get(id) : null;
+            if (record != null) {
+                result.getItems().add(new BorrowBatchResultDTO.Item(id, true, record, null));
+                result.setSucceeded(result.getSucceeded() + 1);
+            } else {
+                result.getItems().add(new BorrowBatchResultDTO.Item(id, false, null, errors.get(id)));
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+        return result;
+    }
 
-        BorrowRecord updatedRecord = borrowRepository.save(record);
-        return convertToDTO(updatedRecord);
+    /**
+     * Closes the loans on returned copies. Each copy goes to the next hold in its queue if
+     * anyone is waiting, otherwise back on the shelf. The book rows are locked (in id order)
+     * before their queues are read, which is what makes placing a hold race-free.
+     */
+    private void releaseBooks(Collection<Long> bookIds, LocalDateTime now) {
+        bookRepository.lockAvailability(bookIds);
+        List<Long> toShelf = new ArrayList<>();
+        List<Long> toHoldShelf = new ArrayList<>();
+        for (Long bookId : new TreeSet<>(bookIds)) {
+            (holdService.allocateNext(bookId, now) ? toHoldShelf : toShelf).add(bookId);
+        }
+        if (!toShelf.isEmpty()) {
+            bookRepository.releaseLoans(toShelf, now);
+        }
+        if (!toHoldShelf.isEmpty()) {
+            bookRepository.releaseLoansToHoldShelf(toHoldShelf, now);
+        }
     }
 
-    @Transactional
-    public void updateOverdueStatus() {
-        List<BorrowRecord> overdueRecords = borrowRepository.findOverdueRecords(LocalDate.now());
-        for (BorrowRecord record : overdueRecords) {
-            record.setStatus(BorrowStatus.OVERDUE);
-            borrowRepository.save(record);
+    // Moves returned loans' fines into the member's balance, replacing what accrual had counted for them
+    private void settleFines(Long memberId, double fine, Double accrued, LocalDateTime now) {
+        double counted = accrued == null ? 0 : accrued;
+        if (fine > 0 || counted > 0) {
+            memberBalanceRepository.applyReturn(memberId, fine, counted, now);
+        }
+    }
+
+    private <T> T withRetry(Supplier<T> operation) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> operation.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt > maxRetries) {
+                    throw new RuntimeException("Circulation desk is busy, please retry", e);
+                }
+                log.debug("Circulation transaction lost a lock race (attempt {}), retrying", attempt);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while retrying circulation transaction", interrupted);
+                }
+            }
         }
     }
 
@@ -134,4 +455,18 @@ public class BorrowService {
         dto.setStatus(record.getStatus());
         return dto;
     }
+
+    private BorrowDTO convertToDTO(BorrowListView view) {
+        BorrowDTO dto = new BorrowDTO();
+        dto.setBorrowId(view.getBorrowId());
+        dto.setBookId(view.getBookId());
+        dto.setMemberId(view.getMemberId());
+        dto.setUserId(view.getUserId());
+        dto.setBorrowDate(view.getBorrowDate());
+        dto.setDueDate(view.getDueDate());
+        dto.setReturnDate(view.getReturnDate());
+        dto.setFineAmount(view.getFineAmount());
+        dto.setStatus(view.getStatus());
+        return dto;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package com.library.management.service;
+
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.BookSnapshot;
+import com.library.management.event.CatalogChangedEvent;
+import com.library.management.event.HoldEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.PublisherRepository;
+import com.library.management.repository.projection.LabelCountView;
+import com.library.management.repository.projection.NamedCountView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Catalog statistics kept in memory and adjusted by domain events after each commit,
+ * so /api/books/statistics returns a prebuilt map instead of running COUNT queries.
+ *
+ * A scheduled recompute reloads everything from the database to correct drift, e.g.
+ * from rows changed outside the application or a mutation that raced a recompute.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogStatisticsService {
+
+    private static final String UNKNOWN_LANGUAGE = "Unknown";
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final PublisherRepository publisherRepository;
+
+    // Mutable state, guarded by this
+    private long totalBooks;
+    private long availableBooks;
+    private long activeLoans;
+    private long totalAuthors;
+    private long totalCategories;
+    private long totalPublishers;
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, Long> categoryCounts = new HashMap<>();
+    private final Map<String, Long> languageCounts = new HashMap<>();
+
+    private volatile Map<String, Object> snapshot;
+
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> current = snapshot;
+        if (current == null) {
+            recompute();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recomputeOnStartup() {
+        recompute();
+    }
+
+    @Scheduled(cron = "${library.statistics.recompute-cron:0 */15 * * * *}")
+    public void recompute() {
+        long startedAt = System.currentTimeMillis();
+        long books = bookRepository.count();
+        long available = bookRepository.countByIsAvailable(true);
+        long loans = bookRepository.sumOpenLoans();
+        long authors = authorRepository.count();
+        long categories = categoryRepository.count();
+        long publishers = publisherRepository.count();
+        List<NamedCountView> byCategory = categoryRepository.countBooksByCategory();
+        List<LabelCountView> byLanguage = bookRepository.countBooksByLanguage();
+
+        synchronized (this) {
+            if (snapshot != null && (books != totalBooks || available != availableBooks || loans != activeLoans)) {
+                log.info("Statistics drift corrected: books {} -> {}, available {} -> {}, active loans {} -> {}",
+                        totalBooks, books, availableBooks, available, activeLoans, loans);
+            }
+            totalBooks = books;
+            availableBooks = available;
+            activeLoans = loans;
+            totalAuthors = authors;
+            totalCategories = categories;
+            totalPublishers = publishers;
+
+            categoryNames.clear();
+            categoryCounts.clear();
+            for (NamedCountView row : byCategory) {
+                categoryNames.put(row.getId(), row.getName());
+                categoryCounts.put(row.getId(), row.getCount());
+            }
+            languageCounts.clear();
+            for (LabelCountView row : byLanguage) {
+                languageCounts.merge(languageKey(row.getLabel()), row.getCount(), Long::sum);
+            }
+            publish();
+        }
+        log.debug("Statistics recomputed in {} ms", System.currentTimeMillis() - startedAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        if (event.getPrevious() != null) {
+            applyBook(event.getPrevious(), -1);
+        }
+        if (event.getCurrent() != null) {
+            applyBook(event.getCurrent(), 1);
+        }
+        publish();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onLoan(LoanEvent event) {
+        int sign = event.getType() == LoanEvent.Type.BORROWED ? 1 : -1;
+        activeLoans += sign;
+        availableBooks -= sign;
+        publish();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onHold(HoldEvent event) {
+        availableBooks += event.getType() == HoldEvent.Type.RELEASED ? 1 : -1;
+        publish();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        int delta = switch (event.getType()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            case UPDATED -> 0;
+        };
+        switch (event.getEntityType()) {
+            case AUTHOR -> totalAuthors += delta;
+            case PUBLISHER -> totalPublishers += delta;
+            case CATEGORY -> {
+                totalCategories += delta;
+                if (event.getType() == CatalogChangedEvent.Type.DELETED) {
+                    categoryNames.remove(event.getEntityId());
+                    categoryCounts.remove(event.getEntityId());
+                } else {
+                    categoryNames.put(event.getEntityId(), event.getName());
+                    categoryCounts.putIfAbsent(event.getEntityId(), 0L);
+                }
+            }
+        }
+        publish();
+    }
+
+    private void applyBook(BookSnapshot book, int sign) {
+        totalBooks += sign;
+        if (Boolean.TRUE.equals(book.getIsAvailable())) {
+            availableBooks += sign;
+        }
+        adjust(languageCounts, languageKey(book.getLanguage()), sign);
+        book.getCategories().forEach((categoryId, name) -> {
+            categoryNames.putIfAbsent(categoryId, name);
+            categoryCounts.merge(categoryId, (long) sign, Long::sum);
+        });
+    }
+
+    private <K> void adjust(Map<K, Long> counts, K key, int sign) {
+        long updated = counts.getOrDefault(key, 0L) + sign;
+        if (updated <= 0) {
+            counts.remove(key);
+        } else {
+            counts.put(key, updated);
+        }
+    }
+
+    private void publish() {
+        long borrowedBooks = totalBooks - availableBooks;
+
+        List<Map<String, Object>> byCategory = new ArrayList<>(categoryCounts.size());
+        categoryCounts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(entry -> categoryNames.getOrDefault(entry.getKey(), "")))
+                .forEach(entry -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("categoryId", entry.getKey());
+                    row.put("name", categoryNames.get(entry.getKey()));
+                    row.put("bookCount", entry.getValue());
+                    byCategory.add(row);
+                });
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalBooks", totalBooks);
+        stats.put("availableBooks", availableBooks);
+        stats.put("borrowedBooks", borrowedBooks);
+        stats.put("borrowedPercentage", totalBooks > 0 ? (double) borrowedBooks / totalBooks * 100 : 0);
+        stats.put("activeLoans", activeLoans);
+        stats.put("totalAuthors", totalAuthors);
+        stats.put("totalCategories", totalCategories);
+        stats.put("totalPublishers", totalPublishers);
+        stats.put("booksByCategory", Collections.unmodifiableList(byCategory));
+        stats.put("booksByLanguage", Collections.unmodifiableMap(new TreeMap<>(languageCounts)));
+        stats.put("generatedAt", LocalDateTime.now());
+        snapshot = Collections.unmodifiableMap(stats);
+    }
+
+    private String languageKey(String language) {
+        return language == null || language.isBlank() ? UNKNOWN_LANGUAGE : language.trim();
+    }
+}
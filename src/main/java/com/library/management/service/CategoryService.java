@@ -2,8 +2,10 @@ package com.library.management.service;
 
 import com.library.management.dto.CategoryDTO;
 import com.library.management.entity.Category;
+import com.library.management.event.CatalogChangedEvent;
 import com.library.management.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
@@ -16,6 +18,7 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ActivityLogService activityLogService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<CategoryDTO> getAllCategories() {
         return categoryRepository.findAll().stream()
@@ -47,6 +50,8 @@ public class CategoryService {
 
         activityLogService.logActivity("CREATE", "Category", savedCategory.getCategoryId(),
                 "Created category: " + savedCategory.getName());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CREATED,
+                CatalogChangedEvent.EntityType.CATEGORY, savedCategory.getCategoryId(), savedCategory.getName()));
 
         return convertToDTO(savedCategory);
     }
@@ -84,6 +89,8 @@ public class CategoryService {
 
         activityLogService.logActivity("UPDATE", "Category", id,
                 "Updated category: " + oldName + " -> " + updatedCategory.getName());
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.UPDATED,
+                CatalogChangedEvent.EntityType.CATEGORY, id, updatedCategory.getName()));
 
         return convertToDTO(updatedCategory);
     }
@@ -106,6 +113,8 @@ public class CategoryService {
 
         activityLogService.logActivity("DELETE", "Category", id,
                 "Deleted category: " + categoryName);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.DELETED,
+                CatalogChangedEvent.EntityType.CATEGORY, id, categoryName));
     }
 
     public List<CategoryDTO> getCategoryChildren(Long parentId) {
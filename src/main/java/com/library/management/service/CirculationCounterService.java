@@ -0,0 +1,64 @@
+package com.library.management.service;
+
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rebuilds the denormalized circulation counters on {@code books} (total borrows,
+ * open loans, last borrowed at) and {@code members} (active loans) from
+ * {@code borrow_records}. BorrowService keeps them current on every checkout and
+ * return; this job only corrects drift, one id range per transaction so it never
+ * holds long locks on the books or members table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CirculationCounterService {
+
+    private final BookRepository bookRepository;
+    private final MemberRepository memberRepository;
+
+    @Value("${library.circulation.reconcile-chunk-size:1000}")
+    private int chunkSize;
+
+    // Counters added to existing rows start at zero, so don't wait for the nightly run
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        Thread.ofPlatform().name("circulation-reconcile").daemon().start(() -> {
+            try {
+                reconcileCounters();
+            } catch (RuntimeException e) {
+                log.error("Startup reconciliation of circulation counters failed", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${library.circulation.reconcile-cron:0 30 3 * * *}")
+    public void reconcileCounters() {
+        long startedAt = System.currentTimeMillis();
+        long minId = bookRepository.findMinBookId();
+        long maxId = bookRepository.findMaxBookId();
+        long rows = 0;
+
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            rows += bookRepository.reconcileCirculationCounters(fromId, fromId + chunkSize - 1);
+        }
+
+        long minMemberId = memberRepository.findMinMemberId();
+        long maxMemberId = memberRepository.findMaxMemberId();
+        long memberRows = 0;
+        for (long fromId = minMemberId; fromId <= maxMemberId; fromId += chunkSize) {
+            memberRows += memberRepository.reconcileActiveLoans(fromId, fromId + chunkSize - 1);
+        }
+
+        log.info("Reconciled circulation counters for {} books and {} members in {} ms",
+                rows, memberRows, System.currentTimeMillis() - startedAt);
+    }
+}
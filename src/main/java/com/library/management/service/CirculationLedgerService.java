@@ -0,0 +1,110 @@
+package com.library.management.service;
+
+import com.library.management.dto.BorrowDTO;
+import com.library.management.dto.CirculationEventDTO;
+import com.library.management.dto.CursorPage;
+import com.library.management.entity.CirculationEvent;
+import com.library.management.entity.CirculationEventType;
+import com.library.management.repository.CirculationEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the append-only circulation ledger. Every method joins the caller's transaction,
+ * so an entry exists exactly when the change it records commits. Entries are inserted with
+ * plain JDBC (batched where there are several), never updated or deleted.
+ */
+@Service
+@RequiredArgsConstructor
+public class CirculationLedgerService {
+
+    private static final String INSERT_EVENT = "INSERT INTO circulation_events " +
+            "(type, borrow_id, book_id, member_id, hold_id, amount, occurred_at, recorded_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final CirculationEventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void recordBorrowed(Collection<BorrowDTO> loans) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(loans.size());
+        for (BorrowDTO loan : loans) {
+            rows.add(row(CirculationEventType.BORROWED, loan, null, Timestamp.valueOf(loan.getBorrowDate()), now));
+        }
+        append(rows);
+    }
+
+    /**
+     * RETURNED for each loan, carrying its fine, plus FINE_ASSESSED for those returned late.
+     */
+    public void recordReturned(Collection<BorrowDTO> loans) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(loans.size());
+        for (BorrowDTO loan : loans) {
+            Timestamp returnedAt = Timestamp.valueOf(loan.getReturnDate());
+            rows.add(row(CirculationEventType.RETURNED, loan, loan.getFineAmount(), returnedAt, now));
+            if (loan.getFineAmount() != null && loan.getFineAmount() > 0) {
+                rows.add(row(CirculationEventType.FINE_ASSESSED, loan, loan.getFineAmount(), returnedAt, now));
+            }
+        }
+        append(rows);
+    }
+
+    public void recordOverdue(Collection<Long> borrowIds, LocalDateTime now) {
+        if (!borrowIds.isEmpty()) {
+            eventRepository.appendOverdue(borrowIds, now);
+        }
+    }
+
+    public void recordHoldPlaced(Long holdId, Long bookId, Long memberId, LocalDateTime placedAt) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_EVENT, CirculationEventType.HOLD_PLACED.name(), null, bookId, memberId, holdId,
+                null, Timestamp.valueOf(placedAt), now);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<CirculationEventDTO> getEvents(long afterSeq, Long borrowId, Long memberId, Long bookId,
+                                                     int size) {
+        List<CirculationEvent> rows = eventRepository.findPage(afterSeq, borrowId, memberId, bookId, Limit.of(size + 1));
+        boolean hasNext = rows.size() > size;
+        List<CirculationEvent> slice = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? String.valueOf(slice.get(slice.size() - 1).getSeq()) : null;
+        return new CursorPage<>(slice.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                slice.size(), next, hasNext);
+    }
+
+    private void append(List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+        }
+    }
+
+    private Object[] row(CirculationEventType type, BorrowDTO loan, Double amount, Timestamp occurredAt,
+                         Timestamp recordedAt) {
+        return new Object[]{type.name(), loan.getBorrowId(), loan.getBookId(), loan.getMemberId(), null,
+                amount, occurredAt, recordedAt};
+    }
+
+    private CirculationEventDTO convertToDTO(CirculationEvent event) {
+        CirculationEventDTO dto = new CirculationEventDTO();
+        dto.setSeq(event.getSeq());
+        dto.setType(event.getType());
+        dto.setBorrowId(event.getBorrowId());
+        dto.setBookId(event.getBookId());
+        dto.setMemberId(event.getMemberId());
+        dto.setHoldId(event.getHoldId());
+        dto.setAmount(event.getAmount());
+        dto.setOccurredAt(event.getOccurredAt());
+        dto.setRecordedAt(event.getRecordedAt());
+        return dto;
+    }
+}
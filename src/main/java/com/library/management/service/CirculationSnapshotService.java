@@ -0,0 +1,341 @@
+package com.library.management.service;
+
+import com.library.management.entity.CirculationEventType;
+import com.library.management.entity.CirculationSnapshot;
+import com.library.management.repository.CirculationEventRepository;
+import com.library.management.repository.CirculationSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Periodic snapshots of the circulation read models, so a rebuild loads the newest
+ * snapshot and replays only the ledger tail after it instead of rescanning every table.
+ *
+ * Sequence numbers come from an auto-increment column, so a transaction still in flight
+ * can leave a gap that fills in later. A snapshot therefore stops at the first gap whose
+ * next entry was written less than {@code settle-seconds} ago. Older gaps are passed over
+ * but kept in the snapshot, and each replay applies those that have filled in since; a gap
+ * still empty after {@code gap-retention-hours} was a rollback and is forgotten. The first snapshot backfills the ledger from borrow_records and holds,
+ * so history from before the ledger counts too. Runs under the "circulation-snapshot" lease.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CirculationSnapshotService {
+
+    private static final String LEASE = "circulation-snapshot";
+
+    private static final String SELECT_TAIL = "SELECT seq, type, book_id, member_id, amount, recorded_at " +
+            "FROM circulation_events WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    private static final String SELECT_SEQS = "SELECT seq, type, book_id, member_id, amount, recorded_at " +
+            "FROM circulation_events WHERE seq IN (%s)";
+
+    private final CirculationEventRepository eventRepository;
+    private final CirculationSnapshotRepository snapshotRepository;
+    private final SchedulerLeaseService leaseService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${library.ledger.replay-batch-size:10000}")
+    private int replayBatchSize;
+
+    @Value("${library.ledger.settle-seconds:60}")
+    private long settleSeconds;
+
+    @Value("${library.ledger.gap-retention-hours:24}")
+    private long gapRetentionHours;
+
+    @Value("${library.ledger.snapshots-retained:3}")
+    private int snapshotsRetained;
+
+    @Value("${library.ledger.backfill-chunk-size:5000}")
+    private int backfillChunkSize;
+
+    @Value("${library.ledger.lease-minutes:10}")
+    private long leaseMinutes;
+
+    private record Rebuild(CirculationState state, CirculationSnapshot snapshot, long replayed, long durationMs) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void snapshotOnStartup() {
+        if (snapshotRepository.count() > 0) {
+            return;
+        }
+        Thread.ofPlatform().name("circulation-backfill").daemon().start(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                log.error("Initial circulation snapshot failed; the scheduled run will retry", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${library.ledger.snapshot-cron:0 30 * * * *}")
+    public void scheduledSnapshot() {
+        snapshot();
+    }
+
+    /**
+     * Takes a snapshot if the ledger moved since the last one. Returns the ledger position
+     * it covers, or -1 when another node holds the lease.
+     */
+    public long snapshot() {
+        Duration ttl = Duration.ofMinutes(leaseMinutes);
+        if (!leaseService.tryAcquire(LEASE, ttl)) {
+            log.info("Circulation snapshot skipped: lease held by another node");
+            return -1;
+        }
+        try {
+            Optional<CirculationSnapshot> latest = snapshotRepository.findFirstByOrderByLastSeqDesc();
+            if (latest.isEmpty() && !backfill(ttl)) {
+                return -1;
+            }
+            long startedAt = System.currentTimeMillis();
+            CirculationState state = latest.map(this::load).orElseGet(CirculationState::new);
+            LocalDateTime now = LocalDateTime.now();
+            long replayed = replay(state, now.minusSeconds(settleSeconds));
+            int expiredGaps = expireGaps(state, now.minusHours(gapRetentionHours));
+            if (expiredGaps > 0) {
+                log.warn("Circulation ledger: {} sequence numbers still missing after {} h, treated as rolled back",
+                        expiredGaps, gapRetentionHours);
+            }
+            if (latest.isPresent() && replayed == 0 && expiredGaps == 0) {
+                return state.lastSeq();
+            }
+
+            CirculationSnapshot snapshot = new CirculationSnapshot();
+            snapshot.setLastSeq(state.lastSeq());
+            snapshot.setBookCount(state.books().size());
+            snapshot.setMemberCount(state.members().size());
+            snapshot.setPayload(serialize(state));
+            snapshot.setCreatedAt(LocalDateTime.now());
+            snapshotRepository.save(snapshot);
+
+            List<Long> ids = snapshotRepository.findIdsNewestFirst();
+            if (ids.size() > snapshotsRetained) {
+                snapshotRepository.deleteAllByIdInBatch(ids.subList(snapshotsRetained, ids.size()));
+            }
+            log.info("Circulation snapshot at seq {} ({} entries replayed, {} bytes) in {} ms", state.lastSeq(),
+                    replayed, snapshot.getPayload().length, System.currentTimeMillis() - startedAt);
+            return state.lastSeq();
+        } finally {
+            leaseService.release(LEASE);
+        }
+    }
+
+    /**
+     * Summary of the read models rebuilt from the newest snapshot plus the whole tail.
+     */
+    public Map<String, Object> getState(int top) {
+        Rebuild rebuild = rebuild();
+        CirculationState state = rebuild.state();
+        List<Map<String, Object>> popular = new ArrayList<>();
+        for (Map.Entry<Long, CirculationState.BookCounts> entry : state.mostPopular(top)) {
+            Map<String, Object> book = new LinkedHashMap<>();
+            book.put("bookId", entry.getKey());
+            book.put("borrows", entry.getValue().borrows);
+            book.put("holdsPlaced", entry.getValue().holdsPlaced);
+            book.put("available", entry.getValue().openLoans <= 0);
+            popular.add(book);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lastSeq", state.lastSeq());
+        result.put("snapshotSeq", rebuild.snapshot() == null ? null : rebuild.snapshot().getLastSeq());
+        result.put("snapshotAt", rebuild.snapshot() == null ? null : rebuild.snapshot().getCreatedAt());
+        result.put("replayed", rebuild.replayed());
+        result.put("rebuildMs", rebuild.durationMs());
+        result.put("openLoans", state.openLoans());
+        result.put("booksOnLoan", state.books().values().stream().filter(book -> book.openLoans > 0).count());
+        result.put("membersWithLoans", state.members().values().stream().filter(member -> member.openLoans > 0).count());
+        result.put("mostPopular", popular);
+        return result;
+    }
+
+    /**
+     * Compares the rebuilt open-loan counts with books.open_loans and members.active_loans.
+     */
+    public Map<String, Object> verify(int limit) {
+        Rebuild rebuild = rebuild();
+        Map<Long, Long> ledgerBooks = new HashMap<>();
+        rebuild.state().books().forEach((id, book) -> ledgerBooks.put(id, book.openLoans));
+        Map<Long, Long> ledgerMembers = new HashMap<>();
+        rebuild.state().members().forEach((id, member) -> ledgerMembers.put(id, member.openLoans));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lastSeq", rebuild.state().lastSeq());
+        result.put("books", mismatches(ledgerBooks,
+                "SELECT book_id, open_loans FROM books WHERE open_loans <> 0", "bookId", limit));
+        result.put("members", mismatches(ledgerMembers,
+                "SELECT member_id, active_loans FROM members WHERE active_loans <> 0", "memberId", limit));
+        return result;
+    }
+
+    private Rebuild rebuild() {
+        long startedAt = System.currentTimeMillis();
+        CirculationSnapshot snapshot = snapshotRepository.findFirstByOrderByLastSeqDesc().orElse(null);
+        CirculationState state = snapshot == null ? new CirculationState() : load(snapshot);
+        long replayed = replay(state, null);
+        return new Rebuild(state, snapshot, replayed, System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Applies entries that filled gaps the state passed over, then the ledger entries after
+     * the state's position in sequence order. With a settle cutoff it stops at a gap followed
+     * by an entry written after the cutoff.
+     */
+    private long replay(CirculationState state, LocalDateTime settledBefore) {
+        long replayed = replayGaps(state);
+        while (true) {
+            long[] batch = new long[2]; // rows applied, stopped at a gap
+            jdbcTemplate.query(SELECT_TAIL, rs -> {
+                if (batch[1] != 0) {
+                    return;
+                }
+                long seq = rs.getLong(1);
+                if (settledBefore != null && seq != state.lastSeq() + 1
+                        && rs.getTimestamp(6).toLocalDateTime().isAfter(settledBefore)) {
+                    batch[1] = 1;
+                    return;
+                }
+                apply(state, rs);
+                batch[0]++;
+            }, state.lastSeq(), replayBatchSize);
+            replayed += batch[0];
+            if (batch[1] != 0 || batch[0] < replayBatchSize) {
+                return replayed;
+            }
+        }
+    }
+
+    private long replayGaps(CirculationState state) {
+        List<Long> gaps = new ArrayList<>(state.gaps().keySet());
+        long replayed = 0;
+        for (int from = 0; from < gaps.size(); from += replayBatchSize) {
+            List<Long> chunk = gaps.subList(from, Math.min(from + replayBatchSize, gaps.size()));
+            long[] applied = new long[1];
+            jdbcTemplate.query(String.format(SELECT_SEQS, String.join(",", Collections.nCopies(chunk.size(), "?"))),
+                    rs -> {
+                        apply(state, rs);
+                        applied[0]++;
+                    }, chunk.toArray());
+            replayed += applied[0];
+        }
+        return replayed;
+    }
+
+    private int expireGaps(CirculationState state, LocalDateTime before) {
+        long cutoff = before.toEpochSecond(ZoneOffset.UTC);
+        int size = state.gaps().size();
+        state.gaps().values().removeIf(seenAt -> seenAt < cutoff);
+        return size - state.gaps().size();
+    }
+
+    private void apply(CirculationState state, ResultSet rs) throws SQLException {
+        state.apply(rs.getLong(1), CirculationEventType.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4),
+                rs.getDouble(5), rs.getTimestamp(6).toLocalDateTime().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Writes ledger entries for loans and holds that predate the ledger, one borrow_id range
+     * per transaction. Returns false if the lease was lost part way; a rerun picks up where
+     * it stopped since every statement skips entries that already exist.
+     */
+    private boolean backfill(Duration ttl) {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(borrow_id), 0) FROM borrow_records", Long.class);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long written = 0;
+        for (long afterId = 0; afterId < maxId; afterId += backfillChunkSize) {
+            long start = afterId;
+            long end = Math.min(afterId + backfillChunkSize, maxId);
+            written += transaction.execute(status -> (long) eventRepository.backfillBorrowed(start, end, now)
+                    + eventRepository.backfillReturned(start, end, now)
+                    + eventRepository.backfillFines(start, end, now)
+                    + eventRepository.backfillOverdue(start, end, now));
+            if (!leaseService.tryAcquire(LEASE, ttl)) {
+                log.warn("Circulation backfill lost its lease at borrow id {}, stopping", end);
+                return false;
+            }
+        }
+        written += transaction.execute(status -> eventRepository.backfillHolds(now));
+        log.info("Backfilled {} circulation ledger entries up to borrow id {} in {} ms", written, maxId,
+                System.currentTimeMillis() - startedAt);
+        return true;
+    }
+
+    private List<Map<String, Object>> mismatches(Map<Long, Long> ledger, String tableQuery, String idName, int limit) {
+        Map<Long, Long> table = new HashMap<>();
+        jdbcTemplate.query(tableQuery, rs -> {
+            table.put(rs.getLong(1), rs.getLong(2));
+        });
+        Set<Long> ids = new HashSet<>(table.keySet());
+        ledger.forEach((id, count) -> {
+            if (count != 0) {
+                ids.add(id);
+            }
+        });
+
+        List<Map<String, Object>> mismatches = new ArrayList<>();
+        for (Long id : ids.stream().sorted().toList()) {
+            long expected = ledger.getOrDefault(id, 0L);
+            long actual = table.getOrDefault(id, 0L);
+            if (expected != actual && mismatches.size() < limit) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put(idName, id);
+                row.put("ledger", expected);
+                row.put("table", actual);
+                mismatches.add(row);
+            }
+        }
+        return mismatches;
+    }
+
+    private CirculationState load(CirculationSnapshot snapshot) {
+        try {
+            return CirculationState.readFrom(new ByteArrayInputStream(snapshot.getPayload()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable circulation snapshot " + snapshot.getSnapshotId(), e);
+        }
+    }
+
+    private byte[] serialize(CirculationState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            state.writeTo(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
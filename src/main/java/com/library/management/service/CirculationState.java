@@ -0,0 +1,168 @@
+package com.library.management.service;
+
+import com.library.management.entity.CirculationEventType;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read models derived from the circulation ledger: open loans and popularity per book,
+ * open loans and assessed fines per member. Every entry only adds to or subtracts from
+ * counters, so the result does not depend on the order entries are applied in (backfilled
+ * history lands after newer live entries), and a sequence gap skipped earlier can still be
+ * applied once its entry commits. Not thread-safe; each rebuild owns its own.
+ */
+final class CirculationState {
+
+    private static final int FORMAT_VERSION = 2;
+
+    // In-flight transactions leave a few missing numbers; a wider jump is not worth tracking
+    private static final long MAX_TRACKED_GAP = 10_000;
+
+    static final class BookCounts {
+        long openLoans;
+        long borrows;
+        long holdsPlaced;
+
+        long popularity() {
+            return borrows + holdsPlaced;
+        }
+    }
+
+    static final class MemberCounts {
+        long openLoans;
+        double finesAssessed;
+    }
+
+    private long lastSeq;
+    private final Map<Long, BookCounts> books = new HashMap<>();
+    private final Map<Long, MemberCounts> members = new HashMap<>();
+    // Sequence numbers passed over while missing, with the epoch second they were first seen missing
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    long lastSeq() {
+        return lastSeq;
+    }
+
+    Map<Long, Long> gaps() {
+        return gaps;
+    }
+
+    void apply(long seq, CirculationEventType type, long bookId, long memberId, double amount, long recordedAt) {
+        for (long missing = Math.max(lastSeq + 1, seq - MAX_TRACKED_GAP); missing < seq; missing++) {
+            gaps.put(missing, recordedAt);
+        }
+        gaps.remove(seq);
+        switch (type) {
+            case BORROWED -> {
+                BookCounts book = book(bookId);
+                book.openLoans++;
+                book.borrows++;
+                member(memberId).openLoans++;
+            }
+            case RETURNED -> {
+                book(bookId).openLoans--;
+                member(memberId).openLoans--;
+            }
+            case FINE_ASSESSED -> member(memberId).finesAssessed += amount;
+            case HOLD_PLACED -> book(bookId).holdsPlaced++;
+            case OVERDUE -> {
+                // Audit only; no read model counts it
+            }
+        }
+        lastSeq = Math.max(lastSeq, seq);
+    }
+
+    Map<Long, BookCounts> books() {
+        return books;
+    }
+
+    Map<Long, MemberCounts> members() {
+        return members;
+    }
+
+    long openLoans() {
+        return books.values().stream().mapToLong(book -> book.openLoans).sum();
+    }
+
+    List<Map.Entry<Long, BookCounts>> mostPopular(int limit) {
+        return books.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, BookCounts> entry) -> entry.getValue().popularity())
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .toList();
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        DataOutputStream data = new DataOutputStream(gzip);
+        data.writeInt(FORMAT_VERSION);
+        data.writeLong(lastSeq);
+        data.writeInt(books.size());
+        for (Map.Entry<Long, BookCounts> entry : books.entrySet()) {
+            data.writeLong(entry.getKey());
+            data.writeLong(entry.getValue().openLoans);
+            data.writeLong(entry.getValue().borrows);
+            data.writeLong(entry.getValue().holdsPlaced);
+        }
+        data.writeInt(members.size());
+        for (Map.Entry<Long, MemberCounts> entry : members.entrySet()) {
+            data.writeLong(entry.getKey());
+            data.writeLong(entry.getValue().openLoans);
+            data.writeDouble(entry.getValue().finesAssessed);
+        }
+        data.writeInt(gaps.size());
+        for (Map.Entry<Long, Long> entry : gaps.entrySet()) {
+            data.writeLong(entry.getKey());
+            data.writeLong(entry.getValue());
+        }
+        data.flush();
+        gzip.finish();
+    }
+
+    static CirculationState readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(in, 64 * 1024));
+        int version = data.readInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported circulation snapshot format " + version);
+        }
+        CirculationState state = new CirculationState();
+        state.lastSeq = data.readLong();
+        int bookCount = data.readInt();
+        for (int i = 0; i < bookCount; i++) {
+            BookCounts book = state.book(data.readLong());
+            book.openLoans = data.readLong();
+            book.borrows = data.readLong();
+            book.holdsPlaced = data.readLong();
+        }
+        int memberCount = data.readInt();
+        for (int i = 0; i < memberCount; i++) {
+            MemberCounts member = state.member(data.readLong());
+            member.openLoans = data.readLong();
+            member.finesAssessed = data.readDouble();
+        }
+        int gapCount = version < 2 ? 0 : data.readInt();
+        for (int i = 0; i < gapCount; i++) {
+            state.gaps.put(data.readLong(), data.readLong());
+        }
+        return state;
+    }
+
+    private BookCounts book(long bookId) {
+        return books.computeIfAbsent(bookId, id -> new BookCounts());
+    }
+
+    private MemberCounts member(long memberId) {
+        return members.computeIfAbsent(memberId, id -> new MemberCounts());
+    }
+}
@@ -0,0 +1,409 @@
+package com.library.management.service;
+
+import com.library.management.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed storage for book covers.
+ *
+ * An upload is streamed to a temporary file while its SHA-256 is computed, forced to
+ * disk and atomically renamed to {@code <sha256>.<ext>}, so identical images share one
+ * file and a half-written file is never visible under its final name. Resized JPEG
+ * variants ({@code <sha256>-thumb.jpg} etc.) are produced afterwards on a small bounded
+ * executor; when its queue is full the job is dropped and the nightly sweep, which also
+ * deletes files no book references any more, generates the missing variants.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CoverImageService {
+
+    public static final String URL_PREFIX = "/uploads/book-covers/";
+
+    private static final Pattern ORIGINAL = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif|webp|bmp)");
+    private static final Pattern STORED = Pattern.compile("([0-9a-f]{64})[.-].*");
+    private static final Pattern VARIANT = Pattern.compile("([0-9a-f]{64})-(thumb|medium|full)\\.jpg");
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9_.-]*");
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg", "image/jpg", "jpg", "image/png", "png", "image/gif", "gif",
+            "image/webp", "webp", "image/bmp", "bmp");
+    private static final String TEMP_DIR = ".tmp";
+
+    // Refuse to decode anything larger than this, whatever the file size
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    @Getter
+    public enum Variant {
+        THUMB("thumb", 160),
+        MEDIUM("medium", 480),
+        FULL("full", 1200);
+
+        private final String suffix;
+        private final int maxWidth;
+
+        Variant(String suffix, int maxWidth) {
+            this.suffix = suffix;
+            this.maxWidth = maxWidth;
+        }
+
+        public String fileName(String hash) {
+            return hash + "-" + suffix + ".jpg";
+        }
+    }
+
+    private final BookRepository bookRepository;
+
+    @Value("${file.upload.book-covers-dir:${user.home}/library-management/uploads/book-covers}")
+    private String coversDir;
+
+    @Value("${library.covers.variant-threads:2}")
+    private int variantThreads;
+
+    @Value("${library.covers.variant-queue-size:200}")
+    private int variantQueueSize;
+
+    @Value("${library.covers.gc-grace-minutes:60}")
+    private long gcGraceMinutes;
+
+    private ThreadPoolExecutor variantExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        variantExecutor = new ThreadPoolExecutor(variantThreads, variantThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(variantQueueSize),
+                Thread.ofPlatform().name("cover-variants-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        variantExecutor.shutdown();
+    }
+
+    /**
+     * URL of a resized variant, or null when the cover was not stored by this service.
+     */
+    public static String variantUrl(String coverImageUrl, Variant variant) {
+        if (coverImageUrl == null || !coverImageUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        Matcher matcher = ORIGINAL.matcher(coverImageUrl.substring(URL_PREFIX.length()));
+        return matcher.matches() ? URL_PREFIX + variant.fileName(matcher.group(1)) : null;
+    }
+
+    /**
+     * A file ready to be served. Content-addressed files carry their hash as a strong ETag and
+     * never change; anything else (legacy uploads, an original standing in for a variant that
+     * is not generated yet) gets a validator from size and mtime and must be revalidated.
+     */
+    public record StoredCover(Path path, long length, String etag, boolean immutable) {
+    }
+
+    /**
+     * Resolves a name under the covers directory, or null when there is nothing to serve.
+     */
+    public StoredCover lookup(String fileName) throws IOException {
+        if (!SAFE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path dir = Paths.get(coversDir);
+        Path file = dir.resolve(fileName);
+        if (Files.isRegularFile(file)) {
+            Matcher matcher = STORED.matcher(fileName);
+            if (matcher.matches()) {
+                String tag = fileName.substring(0, fileName.lastIndexOf('.'));
+                return new StoredCover(file, Files.size(file), "\"" + tag + "\"", true);
+            }
+            return mutable(file);
+        }
+        Matcher variant = VARIANT.matcher(fileName);
+        if (variant.matches()) {
+            for (String extension : new HashSet<>(EXTENSIONS.values())) {
+                Path original = dir.resolve(variant.group(1) + "." + extension);
+                if (Files.isRegularFile(original)) {
+                    return mutable(original);
+                }
+            }
+        }
+        return null;
+    }
+
+    private StoredCover mutable(Path file) throws IOException {
+        long length = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        return new StoredCover(file, length, "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(modified) + "\"", false);
+    }
+
+    /**
+     * Stores the upload durably and queues its variants. Returns the stored file name.
+     */
+    public String store(MultipartFile file) throws IOException {
+        Path dir = Paths.get(coversDir);
+        Path tempDir = dir.resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+
+        String extension = EXTENSIONS.getOrDefault(String.valueOf(file.getContentType()).toLowerCase(), "img");
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".part");
+        MessageDigest sha256 = sha256();
+        try {
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256);
+                 FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 OutputStream out = Channels.newOutputStream(channel)) {
+                in.transferTo(out);
+                channel.force(true);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String fileName = hash + "." + extension;
+            Path target = dir.resolve(fileName);
+            if (Files.exists(target)) {
+                // Refresh the mtime so the sweep's grace period covers the new reference too
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                log.debug("Cover {} already stored, reusing it", fileName);
+            } else {
+                moveIntoPlace(temp, target);
+            }
+            queueVariants(hash, target);
+            return fileName;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Scheduled(cron = "${library.covers.gc-cron:0 45 3 * * *}")
+    public void collectGarbage() {
+        Path dir = Paths.get(coversDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Set<String> referencedHashes = new HashSet<>();
+        Set<String> referencedFiles = new HashSet<>();
+        for (String url : bookRepository.findCoverImageUrls()) {
+            if (url.startsWith(URL_PREFIX)) {
+                String name = url.substring(URL_PREFIX.length());
+                referencedFiles.add(name);
+                Matcher matcher = ORIGINAL.matcher(name);
+                if (matcher.matches()) {
+                    referencedHashes.add(matcher.group(1));
+                }
+            }
+        }
+
+        Instant cutoff = Instant.now().minus(gcGraceMinutes, ChronoUnit.MINUTES);
+        int deleted = 0;
+        try {
+            deleted += deleteOlderThan(dir, cutoff, name -> {
+                Matcher matcher = STORED.matcher(name);
+                return !referencedFiles.contains(name) && !(matcher.matches() && referencedHashes.contains(matcher.group(1)));
+            });
+            if (Files.isDirectory(dir.resolve(TEMP_DIR))) {
+                deleted += deleteOlderThan(dir.resolve(TEMP_DIR), cutoff, name -> true);
+            }
+        } catch (IOException e) {
+            log.error("Cover garbage collection failed", e);
+            return;
+        }
+
+        int queued = 0;
+        for (String name : referencedFiles) {
+            Matcher matcher = ORIGINAL.matcher(name);
+            Path original = dir.resolve(name);
+            if (matcher.matches() && Files.exists(original) && missingVariant(dir, matcher.group(1))) {
+                queueVariants(matcher.group(1), original);
+                queued++;
+            }
+        }
+        log.info("Cover sweep: {} orphaned files deleted, {} covers queued for missing variants", deleted, queued);
+    }
+
+    private int deleteOlderThan(Path dir, Instant cutoff, Predicate<String> orphaned) throws IOException {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                if (!Files.isRegularFile(file) || !orphaned.test(file.getFileName().toString())
+                        || Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                if (Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private boolean missingVariant(Path dir, String hash) {
+        for (Variant variant : Variant.values()) {
+            if (!Files.exists(dir.resolve(variant.fileName(hash)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void queueVariants(String hash, Path original) {
+        try {
+            variantExecutor.execute(() -> generateVariants(hash, original));
+        } catch (RejectedExecutionException e) {
+            log.warn("Cover variant queue full, {} left for the nightly sweep", hash);
+        }
+    }
+
+    private void generateVariants(String hash, Path original) {
+        Path dir = original.getParent();
+        if (!missingVariant(dir, hash)) {
+            return;
+        }
+        try {
+            BufferedImage source = read(original);
+            if (source == null) {
+                log.warn("Cover {} is not a decodable image, no variants generated", original.getFileName());
+                return;
+            }
+            for (Variant variant : Variant.values()) {
+                Path target = dir.resolve(variant.fileName(hash));
+                if (!Files.exists(target)) {
+                    writeJpeg(resize(source, variant.getMaxWidth()), dir.resolve(TEMP_DIR), target);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to generate variants for cover {}", original.getFileName(), e);
+        }
+    }
+
+    private BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IOException("Image exceeds " + MAX_PIXELS + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscales to maxWidth (never upscales), halving in steps so large reductions keep detail,
+     * and flattens transparency onto white since the output is JPEG.
+     */
+    private BufferedImage resize(BufferedImage source, int maxWidth) {
+        int targetWidth = Math.min(maxWidth, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = step;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path tempDir, Path target) throws IOException {
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 ImageOutputStream out = ImageIO.createImageOutputStream(Channels.newOutputStream(channel))) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(0.85f);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+                out.flush();
+                channel.force(true);
+            }
+            moveIntoPlace(temp, target);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Same content stored concurrently; either copy is fine
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.library.management.service;
+
+import com.library.management.event.LoanEvent;
+import com.library.management.event.OverdueEvent;
+import com.library.management.repository.BorrowRepository;
+import com.library.management.repository.projection.LoanDueView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Open loans bucketed by due date, so they turn OVERDUE (and an OverdueEvent is published)
+ * at the first tick after their due date instead of waiting for the nightly sweep.
+ *
+ * Due dates are whole days, so the wheel has one slot per day: a ring of 64 slots covers
+ * the days from {@code baseDay}, later dates wait in an overflow map and cascade into the
+ * ring as it turns. Each slot is a compressed bitmap of borrow ids, a couple of bytes per
+ * loan for dense ids, and a return finds its slot from the due date carried by the event.
+ * The wheel is loaded from the open loans at startup and fed by checkout/return events;
+ * an entry that went stale is harmless because the transition re-checks the status.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DueDateWheel {
+
+    private static final int SLOTS = 64;
+    private static final String LEASE = "overdue-wheel";
+
+    private final BorrowRepository borrowRepository;
+    private final SchedulerLeaseService leaseService;
+    private final CirculationLedgerService circulationLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${library.overdue.wheel-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${library.overdue.wheel-load-batch-size:10000}")
+    private int loadBatchSize;
+
+    @Value("${library.overdue.lease-minutes:10}")
+    private long leaseMinutes;
+
+    // Guarded by this
+    private long baseDay = LocalDate.now().toEpochDay();
+    private final Roaring64Bitmap[] slots = new Roaring64Bitmap[SLOTS];
+    private final TreeMap<Long, Roaring64Bitmap> overflow = new TreeMap<>();
+    private Roaring64Bitmap expired = new Roaring64Bitmap();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofPlatform().name("due-date-wheel-load").daemon().start(() -> {
+            try {
+                load();
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Loading the due-date wheel failed; the nightly overdue sweep still applies", e);
+            }
+        });
+    }
+
+    private void load() {
+        long startedAt = System.currentTimeMillis();
+        long afterId = 0;
+        long loaded = 0;
+        while (true) {
+            List<LoanDueView> batch = borrowRepository.findOpenLoansAfter(afterId, Limit.of(loadBatchSize));
+            for (LoanDueView loan : batch) {
+                schedule(loan.getBorrowId(), loan.getDueDate());
+            }
+            loaded += batch.size();
+            if (batch.size() < loadBatchSize) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getBorrowId();
+        }
+        log.info("Due-date wheel loaded {} open loans in {} ms, {} bytes of bitmaps",
+                loaded, System.currentTimeMillis() - startedAt, sizeInBytes());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoan(LoanEvent event) {
+        if (event.getType() == LoanEvent.Type.BORROWED) {
+            schedule(event.getBorrowId(), event.getDueDate());
+        } else {
+            cancel(event.getBorrowId(), event.getDueDate());
+        }
+    }
+
+    public synchronized void schedule(long borrowId, LocalDate dueDate) {
+        slotFor(dueDate.toEpochDay(), true).addLong(borrowId);
+    }
+
+    public synchronized void cancel(long borrowId, LocalDate dueDate) {
+        Roaring64Bitmap slot = slotFor(dueDate.toEpochDay(), false);
+        if (slot != null) {
+            slot.removeLong(borrowId);
+        }
+    }
+
+    public synchronized long size() {
+        long size = expired.getLongCardinality();
+        for (Roaring64Bitmap slot : slots) {
+            size += slot == null ? 0 : slot.getLongCardinality();
+        }
+        for (Roaring64Bitmap slot : overflow.values()) {
+            size += slot.getLongCardinality();
+        }
+        return size;
+    }
+
+    /**
+     * Turns the wheel to today and moves everything due before today to OVERDUE, in
+     * batches of {@code library.overdue.wheel-batch-size}, each in its own transaction.
+     */
+    @Scheduled(cron = "${library.overdue.wheel-tick-cron:1 0 0 * * *}")
+    public void tick() {
+        LocalDate today = LocalDate.now();
+        Roaring64Bitmap due = advance(today.toEpochDay());
+        if (due.isEmpty()) {
+            return;
+        }
+        // With several nodes each wheel holds the same loans; one of them does the updates.
+        // Loans not transitioned here go back on the wheel for the next tick.
+        boolean acquired;
+        try {
+            acquired = leaseService.tryAcquire(LEASE, Duration.ofMinutes(leaseMinutes));
+        } catch (RuntimeException e) {
+            requeue(due);
+            throw e;
+        }
+        if (!acquired) {
+            requeue(due);
+            log.debug("Due-date wheel tick skipped: lease held by another node");
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        long marked = 0;
+        Roaring64Bitmap done = new Roaring64Bitmap();
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            LongIterator ids = due.getLongIterator();
+            List<Long> batch = new ArrayList<>(batchSize);
+            while (ids.hasNext()) {
+                batch.add(ids.next());
+                if (batch.size() == batchSize || !ids.hasNext()) {
+                    List<Long> ready = List.copyOf(batch);
+                    batch.clear();
+                    Integer updated = transaction.execute(status -> transition(ready, today));
+                    marked += updated == null ? 0 : updated;
+                    ready.forEach(done::addLong);
+                }
+            }
+        } catch (RuntimeException e) {
+            Roaring64Bitmap remaining = due.clone();
+            remaining.andNot(done);
+            requeue(remaining);
+            throw e;
+        } finally {
+            leaseService.release(LEASE);
+        }
+        log.info("Due-date wheel moved {} of {} due loans to OVERDUE in {} ms",
+                marked, due.getLongCardinality(), System.currentTimeMillis() - startedAt);
+    }
+
+    private int transition(List<Long> borrowIds, LocalDate today) {
+        List<Long> stillBorrowed = borrowRepository.lockBorrowed(borrowIds);
+        if (stillBorrowed.isEmpty()) {
+            return 0;
+        }
+        borrowRepository.markOverdueByIds(stillBorrowed);
+        circulationLedgerService.recordOverdue(stillBorrowed, LocalDateTime.now());
+        eventPublisher.publishEvent(new OverdueEvent(
+                stillBorrowed.stream().mapToLong(Long::longValue).toArray(), today));
+        return stillBorrowed.size();
+    }
+
+    private synchronized Roaring64Bitmap advance(long today) {
+        Roaring64Bitmap due = expired;
+        expired = new Roaring64Bitmap();
+        for (long day = baseDay; day < today && day < baseDay + SLOTS; day++) {
+            int index = (int) Math.floorMod(day, (long) SLOTS);
+            if (slots[index] != null) {
+                due.or(slots[index]);
+                slots[index] = null;
+            }
+        }
+        Map<Long, Roaring64Bitmap> passed = overflow.headMap(today);
+        passed.values().forEach(due::or);
+        passed.clear();
+        if (today > baseDay) {
+            baseDay = today;
+        }
+
+        // Cascade overflow days that now fall inside the ring
+        Iterator<Map.Entry<Long, Roaring64Bitmap>> entries = overflow.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, Roaring64Bitmap> entry = entries.next();
+            if (entry.getKey() >= baseDay + SLOTS) {
+                break;
+            }
+            slotFor(entry.getKey(), true).or(entry.getValue());
+            entries.remove();
+        }
+        return due;
+    }
+
+    private synchronized void requeue(Roaring64Bitmap borrowIds) {
+        expired.or(borrowIds);
+    }
+
+    private Roaring64Bitmap slotFor(long day, boolean create) {
+        if (day < baseDay) {
+            return expired;
+        }
+        if (day >= baseDay + SLOTS) {
+            return create ? overflow.computeIfAbsent(day, d -> new Roaring64Bitmap()) : overflow.get(day);
+        }
+        int index = (int) Math.floorMod(day, (long) SLOTS);
+        if (slots[index] == null && create) {
+            slots[index] = new Roaring64Bitmap();
+        }
+        return slots[index];
+    }
+
+    private synchronized long sizeInBytes() {
+        long bytes = expired.getLongSizeInBytes();
+        for (Roaring64Bitmap slot : slots) {
+            bytes += slot == null ? 0 : slot.getLongSizeInBytes();
+        }
+        for (Roaring64Bitmap slot : overflow.values()) {
+            bytes += slot.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,416 @@
+package com.library.management.service;
+
+import com.library.management.dto.MemberBalanceDTO;
+import com.library.management.entity.MemberBalance;
+import com.library.management.entity.MemberType;
+import com.library.management.repository.MemberBalanceRepository;
+import com.library.management.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Nightly fine accrual: prices every open overdue loan with the current policies, writes
+ * the running fine onto the loan and each member's total onto {@code member_balances}.
+ *
+ * The borrow id range is cut into chunks that a pool of workers prices in parallel, each
+ * chunk in its own transaction. A chunk is read into primitive columns, priced in one
+ * pass over them, and only loans whose fine changed are written back, as one JDBC batch.
+ * Member totals are summed again from the still-open loans, under their row locks, in the
+ * transaction that writes them, so a loan returned mid-run is never counted in both
+ * accrued and assessed fines. The run holds the "fine-accrual" lease, renewed as chunks
+ * complete.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FineAccrualService {
+
+    private static final String LEASE = "fine-accrual";
+
+    private static final String OVERDUE_RANGE = "SELECT MIN(borrow_id), MAX(borrow_id) FROM borrow_records " +
+            "WHERE status <> 'RETURNED' AND due_date < ? AND borrow_id BETWEEN ? AND ?";
+    private static final String SELECT_CHUNK = "SELECT br.borrow_id, br.member_id, br.book_id, br.due_date, " +
+            "br.fine_amount, m.member_type FROM borrow_records br JOIN members m ON m.member_id = br.member_id " +
+            "WHERE br.borrow_id BETWEEN ? AND ? AND br.status <> 'RETURNED' AND br.due_date < ?";
+    private static final String UPDATE_FINE = "UPDATE borrow_records SET fine_amount = ? " +
+            "WHERE borrow_id = ? AND status <> 'RETURNED'";
+    // Locks the loans so a return still in flight commits first, or waits for the balance write
+    private static final String LOCK_OPEN_FINES = "SELECT member_id, fine_amount FROM borrow_records " +
+            "WHERE member_id IN (%s) AND status <> 'RETURNED' AND due_date < ? AND borrow_id BETWEEN ? AND ? FOR UPDATE";
+    private static final String UPSERT_ACCRUED = "INSERT INTO member_balances (member_id, assessed_fines, " +
+            "accrued_fines, accrued_as_of, updated_at) VALUES (?, 0, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "accrued_fines = VALUES(accrued_fines), accrued_as_of = VALUES(accrued_as_of), updated_at = VALUES(updated_at)";
+    private static final String PRICED_BOOKS = "SELECT book_id, category_id FROM book_categories WHERE category_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final FinePolicyService finePolicyService;
+    private final SchedulerLeaseService leaseService;
+    private final MemberBalanceRepository memberBalanceRepository;
+    private final MemberRepository memberRepository;
+
+    @Value("${library.fines.accrual-chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${library.fines.accrual-workers:4}")
+    private int workers;
+
+    @Value("${library.fines.lease-minutes:10}")
+    private long leaseMinutes;
+
+    @Value("${library.circulation.max-retries:3}")
+    private int maxRetries;
+
+    // Metrics, guarded by this
+    private long runs;
+    private long skippedRuns;
+    private LocalDateTime lastRunAt;
+    private long lastLoans;
+    private long lastUpdated;
+    private long lastMembers;
+    private long lastDurationMs;
+
+    @Scheduled(cron = "${library.fines.accrual-cron:0 15 0 * * *}")
+    public void scheduledAccrual() {
+        accrue();
+    }
+
+    /**
+     * Runs one accrual unless another node holds the lease. Returns the open overdue loans
+     * priced, or -1 when the run was skipped.
+     */
+    public long accrue() {
+        return accrue(1, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Accrues only the loans with borrow ids in [fromId, toId], and writes accrued totals only
+     * for their members, leaving every other balance alone. Each member's open loans must all
+     * lie in the range, or that member's total covers only part of them.
+     */
+    long accrue(long fromId, long toId) {
+        return accrue(fromId, toId, false);
+    }
+
+    private long accrue(long fromId, long toId, boolean allLoans) {
+        Duration ttl = Duration.ofMinutes(leaseMinutes);
+        if (!leaseService.tryAcquire(LEASE, ttl)) {
+            log.info("Fine accrual skipped: lease held by another node");
+            synchronized (this) {
+                skippedRuns++;
+            }
+            return -1;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        LocalDate asOf = LocalDate.now();
+        long loans = 0;
+        long updated = 0;
+        MemberFineTotals totals = new MemberFineTotals(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                Thread.ofPlatform().name("fine-accrual-", 0).daemon().factory());
+        try {
+            FineSchedule schedule = finePolicyService.reload();
+            FineSchedule.Books books = indexPricedBooks(schedule);
+            long[] range = jdbcTemplate.queryForObject(OVERDUE_RANGE, (rs, row) ->
+                    rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)}, Date.valueOf(asOf),
+                    fromId, toId);
+            List<Future<ChunkResult>> chunks = new ArrayList<>();
+            if (range != null) {
+                long minId = range[0];
+                long maxId = range[1];
+                for (long chunkFrom = minId; chunkFrom <= maxId; chunkFrom += chunkSize) {
+                    long start = chunkFrom;
+                    long end = Math.min(maxId, chunkFrom + chunkSize - 1);
+                    chunks.add(pool.submit(() -> accrueChunk(start, end, asOf, schedule, books)));
+                }
+            }
+
+            for (Future<ChunkResult> chunk : chunks) {
+                ChunkResult result = chunk.get();
+                loans += result.loans();
+                updated += result.updated();
+                totals.addAll(result.totals());
+                if (!leaseService.tryAcquire(LEASE, ttl)) {
+                    log.warn("Fine accrual lost its lease, stopping");
+                    chunks.forEach(pending -> pending.cancel(true));
+                    return loans;
+                }
+            }
+            writeBalances(totals, asOf, fromId, toId, allLoans);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during fine accrual", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Fine accrual failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            leaseService.release(LEASE);
+        }
+
+        long duration = System.currentTimeMillis() - startedAt;
+        synchronized (this) {
+            runs++;
+            lastRunAt = LocalDateTime.now();
+            lastLoans = loans;
+            lastUpdated = updated;
+            lastMembers = totals.size();
+            lastDurationMs = duration;
+        }
+        log.info("Fine accrual priced {} overdue loans ({} fines changed) for {} members in {} ms",
+                loans, updated, totals.size(), duration);
+        return loans;
+    }
+
+    private FineSchedule.Books indexPricedBooks(FineSchedule schedule) {
+        long[] categoryIds = schedule.pricedCategoryIds();
+        if (categoryIds.length == 0) {
+            return schedule.indexBooks(new long[0], new long[0]);
+        }
+        String placeholders = String.join(",", Collections.nCopies(categoryIds.length, "?"));
+        LongColumn books = new LongColumn();
+        LongColumn categories = new LongColumn();
+        jdbcTemplate.query(String.format(PRICED_BOOKS, placeholders), rs -> {
+            books.add(rs.getLong(1));
+            categories.add(rs.getLong(2));
+        }, Arrays.stream(categoryIds).boxed().toArray());
+        return schedule.indexBooks(books.toArray(), categories.toArray());
+    }
+
+    private record ChunkResult(int loans, int updated, MemberFineTotals totals) {
+    }
+
+    private ChunkResult accrueChunk(long fromId, long toId, LocalDate asOf, FineSchedule schedule,
+                                    FineSchedule.Books books) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            LoanColumns loans = new LoanColumns(Math.min(chunkSize, 1024));
+            jdbcTemplate.query(SELECT_CHUNK, rs -> {
+                String type = rs.getString(6);
+                loans.add(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getDate(4).toLocalDate().toEpochDay(),
+                        rs.getDouble(5), type == null ? 0 : MemberType.valueOf(type).ordinal());
+            }, fromId, toId, Date.valueOf(asOf));
+
+            double[] fines = new double[loans.size];
+            price(schedule, books, asOf.toEpochDay(), loans.size, loans.memberTypes, loans.bookIds, loans.dueDays, fines);
+
+            int[] changed = new int[loans.size];
+            int changedCount = 0;
+            for (int i = 0; i < loans.size; i++) {
+                if (fines[i] != loans.currentFines[i]) {
+                    changed[changedCount++] = i;
+                }
+            }
+            if (changedCount > 0) {
+                int count = changedCount;
+                jdbcTemplate.batchUpdate(UPDATE_FINE, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setDouble(1, fines[changed[i]]);
+                        ps.setLong(2, loans.borrowIds[changed[i]]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+            }
+
+            MemberFineTotals totals = new MemberFineTotals(loans.size);
+            for (int i = 0; i < loans.size; i++) {
+                totals.add(loans.memberIds[i], fines[i]);
+            }
+            return new ChunkResult(loans.size, changedCount, totals);
+        });
+    }
+
+    /**
+     * The pricing pass: fills {@code fines} for {@code count} loans given as columns.
+     */
+    static void price(FineSchedule schedule, FineSchedule.Books books, long asOfDay, int count,
+                      int[] memberTypes, long[] bookIds, long[] dueDays, double[] fines) {
+        for (int i = 0; i < count; i++) {
+            int policy = books.policyFor(memberTypes[i], bookIds[i]);
+            fines[i] = schedule.fine(policy, asOfDay - dueDays[i]);
+        }
+    }
+
+    private void writeBalances(MemberFineTotals totals, LocalDate asOf, long fromId, long toId, boolean allLoans) {
+        long[] memberIds = new long[totals.size()];
+        int count = totals.drainTo(memberIds, new double[totals.size()]);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < count; from += chunkSize) {
+            long[] batch = Arrays.copyOfRange(memberIds, from, Math.min(count, from + chunkSize));
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transaction.executeWithoutResult(status -> upsertAccrued(batch, asOf, fromId, toId, now));
+                    break;
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt > maxRetries) {
+                        throw e;
+                    }
+                    log.debug("Fine accrual balance write lost a lock race (attempt {}), retrying", attempt);
+                }
+            }
+        }
+        if (allLoans) {
+            memberBalanceRepository.clearAccruedBefore(asOf);
+        }
+    }
+
+    /**
+     * Writes each member's accrued total as the sum of their loans that are still open now.
+     * The chunk totals only say which members to write: a loan returned after its chunk was
+     * read has already moved its fine to assessed_fines, and a member left with no open
+     * overdue loans is written as zero.
+     */
+    private void upsertAccrued(long[] memberIds, LocalDate asOf, long fromId, long toId, Timestamp now) {
+        MemberFineTotals open = new MemberFineTotals(memberIds.length);
+        Object[] args = new Object[memberIds.length + 3];
+        for (int i = 0; i < memberIds.length; i++) {
+            open.add(memberIds[i], 0);
+            args[i] = memberIds[i];
+        }
+        args[memberIds.length] = Date.valueOf(asOf);
+        args[memberIds.length + 1] = fromId;
+        args[memberIds.length + 2] = toId;
+        String placeholders = String.join(",", Collections.nCopies(memberIds.length, "?"));
+        jdbcTemplate.query(String.format(LOCK_OPEN_FINES, placeholders),
+                rs -> {
+                    open.add(rs.getLong(1), rs.getDouble(2));
+                }, args);
+
+        long[] ids = new long[open.size()];
+        double[] amounts = new double[open.size()];
+        int count = open.drainTo(ids, amounts);
+        jdbcTemplate.batchUpdate(UPSERT_ACCRUED, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids[i]);
+                ps.setDouble(2, Math.round(amounts[i] * 100) / 100.0);
+                ps.setDate(3, Date.valueOf(asOf));
+                ps.setTimestamp(4, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        });
+    }
+
+    public MemberBalanceDTO getBalance(Long memberId) {
+        if (!memberRepository.existsById(memberId)) {
+            throw new RuntimeException("Member not found with id: " + memberId);
+        }
+        MemberBalance balance = memberBalanceRepository.findById(memberId).orElseGet(() -> {
+            MemberBalance empty = new MemberBalance();
+            empty.setMemberId(memberId);
+            return empty;
+        });
+        MemberBalanceDTO dto = new MemberBalanceDTO();
+        dto.setMemberId(memberId);
+        dto.setAssessedFines(balance.getAssessedFines());
+        dto.setAccruedFines(balance.getAccruedFines());
+        dto.setTotalFines(Math.round((balance.getAssessedFines() + balance.getAccruedFines()) * 100) / 100.0);
+        dto.setAccruedAsOf(balance.getAccruedAsOf());
+        return dto;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs);
+        stats.put("skippedRuns", skippedRuns);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastLoans", lastLoans);
+        stats.put("lastUpdated", lastUpdated);
+        stats.put("lastMembers", lastMembers);
+        stats.put("lastDurationMs", lastDurationMs);
+        stats.put("loansPerSecond", lastDurationMs == 0 ? 0 : lastLoans * 1000 / lastDurationMs);
+        stats.put("workers", workers);
+        stats.put("node", leaseService.getOwner());
+        return stats;
+    }
+
+    private static final class LongColumn {
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class LoanColumns {
+        private long[] borrowIds;
+        private long[] memberIds;
+        private long[] bookIds;
+        private long[] dueDays;
+        private double[] currentFines;
+        private int[] memberTypes;
+        private int size;
+
+        LoanColumns(int capacity) {
+            borrowIds = new long[capacity];
+            memberIds = new long[capacity];
+            bookIds = new long[capacity];
+            dueDays = new long[capacity];
+            currentFines = new double[capacity];
+            memberTypes = new int[capacity];
+        }
+
+        void add(long borrowId, long memberId, long bookId, long dueDay, double currentFine, int memberType) {
+            if (size == borrowIds.length) {
+                int capacity = size * 2;
+                borrowIds = Arrays.copyOf(borrowIds, capacity);
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                bookIds = Arrays.copyOf(bookIds, capacity);
+                dueDays = Arrays.copyOf(dueDays, capacity);
+                currentFines = Arrays.copyOf(currentFines, capacity);
+                memberTypes = Arrays.copyOf(memberTypes, capacity);
+            }
+            borrowIds[size] = borrowId;
+            memberIds[size] = memberId;
+            bookIds[size] = bookId;
+            dueDays[size] = dueDay;
+            currentFines[size] = currentFine;
+            memberTypes[size] = memberType;
+            size++;
+        }
+    }
+}
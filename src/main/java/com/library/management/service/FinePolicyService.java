@@ -0,0 +1,168 @@
+package com.library.management.service;
+
+import com.library.management.dto.BorrowDTO;
+import com.library.management.dto.FinePolicyDTO;
+import com.library.management.entity.Category;
+import com.library.management.entity.FinePolicy;
+import com.library.management.entity.MemberType;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.FinePolicyRepository;
+import com.library.management.repository.MemberRepository;
+import com.library.management.repository.projection.BookAssociationView;
+import com.library.management.repository.projection.MemberTypeView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Fine policies and the pricing of individual loans. The policies are compiled into a
+ * {@link FineSchedule} on first use and recompiled after every change on this node; other
+ * nodes pick changes up at the next accrual run or restart.
+ */
+@Service
+@RequiredArgsConstructor
+public class FinePolicyService {
+
+    private final FinePolicyRepository finePolicyRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookRepository bookRepository;
+    private final MemberRepository memberRepository;
+
+    @Value("${library.fines.daily-rate:1.0}")
+    private double defaultDailyRate;
+
+    @Value("${library.fines.grace-days:0}")
+    private int defaultGraceDays;
+
+    // 0 means uncapped
+    @Value("${library.fines.max-amount:0}")
+    private double defaultMaxFine;
+
+    private volatile FineSchedule schedule;
+
+    public FineSchedule getSchedule() {
+        FineSchedule current = schedule;
+        if (current == null) {
+            current = reload();
+        }
+        return current;
+    }
+
+    public FineSchedule reload() {
+        FineSchedule compiled = new FineSchedule(defaultDailyRate, defaultGraceDays, defaultMaxFine,
+                finePolicyRepository.findAllWithCategory());
+        schedule = compiled;
+        return compiled;
+    }
+
+    /**
+     * Fines for several loans, with one query for the members' types and one for the
+     * books' categories. Keyed by borrow id.
+     */
+    public Map<Long, Double> finesFor(Collection<BorrowDTO> loans, LocalDate asOf) {
+        Map<Long, Double> fines = new HashMap<>();
+        List<BorrowDTO> overdue = loans.stream().filter(loan -> loan.getDueDate().isBefore(asOf)).toList();
+        loans.forEach(loan -> fines.put(loan.getBorrowId(), 0.0));
+        if (overdue.isEmpty()) {
+            return fines;
+        }
+
+        FineSchedule current = getSchedule();
+        Map<Long, MemberType> types = memberRepository.findMemberTypes(
+                        overdue.stream().map(BorrowDTO::getMemberId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(MemberTypeView::getMemberId, MemberTypeView::getMemberType));
+        Map<Long, long[]> categories = new HashMap<>();
+        if (current.hasCategoryPolicies()) {
+            Set<Long> bookIds = overdue.stream().map(BorrowDTO::getBookId).collect(Collectors.toSet());
+            for (BookAssociationView row : bookRepository.findCategoriesForBooks(bookIds)) {
+                categories.merge(row.getBookId(), new long[]{row.getId()}, (a, b) -> {
+                    long[] merged = Arrays.copyOf(a, a.length + 1);
+                    merged[a.length] = b[0];
+                    return merged;
+                });
+            }
+        }
+        for (BorrowDTO loan : overdue) {
+            MemberType type = types.getOrDefault(loan.getMemberId(), MemberType.STANDARD);
+            long[] bookCategories = categories.getOrDefault(loan.getBookId(), new long[0]);
+            fines.put(loan.getBorrowId(), current.fine(type, bookCategories, loan.getDueDate(), asOf));
+        }
+        return fines;
+    }
+
+    public List<FinePolicyDTO> getAllPolicies() {
+        return finePolicyRepository.findAllWithCategory().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    public FinePolicyDTO createPolicy(FinePolicyDTO dto) {
+        if (finePolicyRepository.findByMemberTypeAndCategoryCategoryId(dto.getMemberType(), dto.getCategoryId()).isPresent()) {
+            throw new RuntimeException("A fine policy already exists for this member type and category");
+        }
+        FinePolicy policy = new FinePolicy();
+        apply(policy, dto);
+        FinePolicy saved = finePolicyRepository.save(policy);
+        reload();
+        return convertToDTO(saved);
+    }
+
+    public FinePolicyDTO updatePolicy(Long id, FinePolicyDTO dto) {
+        FinePolicy policy = finePolicyRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Fine policy not found with id: " + id));
+        finePolicyRepository.findByMemberTypeAndCategoryCategoryId(dto.getMemberType(), dto.getCategoryId())
+                .filter(other -> !other.getPolicyId().equals(id))
+                .ifPresent(other -> {
+                    throw new RuntimeException("A fine policy already exists for this member type and category");
+                });
+        apply(policy, dto);
+        FinePolicy saved = finePolicyRepository.save(policy);
+        reload();
+        return convertToDTO(saved);
+    }
+
+    public void deletePolicy(Long id) {
+        if (!finePolicyRepository.existsById(id)) {
+            throw new RuntimeException("Fine policy not found with id: " + id);
+        }
+        finePolicyRepository.deleteById(id);
+        reload();
+    }
+
+    private void apply(FinePolicy policy, FinePolicyDTO dto) {
+        Category category = null;
+        if (dto.getCategoryId() != null) {
+            category = categoryRepository.findById(dto.getCategoryId())
+                    .orElseThrow(() -> new RuntimeException("Category not found with id: " + dto.getCategoryId()));
+        }
+        policy.setMemberType(dto.getMemberType());
+        policy.setCategory(category);
+        policy.setDailyRate(dto.getDailyRate());
+        policy.setGraceDays(dto.getGraceDays() == null ? 0 : dto.getGraceDays());
+        policy.setMaxFine(dto.getMaxFine());
+    }
+
+    private FinePolicyDTO convertToDTO(FinePolicy policy) {
+        FinePolicyDTO dto = new FinePolicyDTO();
+        dto.setPolicyId(policy.getPolicyId());
+        dto.setMemberType(policy.getMemberType());
+        if (policy.getCategory() != null) {
+            dto.setCategoryId(policy.getCategory().getCategoryId());
+            dto.setCategoryName(policy.getCategory().getName());
+        }
+        dto.setDailyRate(policy.getDailyRate());
+        dto.setGraceDays(policy.getGraceDays());
+        dto.setMaxFine(policy.getMaxFine());
+        dto.setUpdatedAt(policy.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,197 @@
+package com.library.management.service;
+
+import com.library.management.entity.FinePolicy;
+import com.library.management.entity.MemberType;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The fine policies compiled into flat arrays, so pricing a loan is a table lookup and
+ * some arithmetic with no allocation. Immutable; FinePolicyService swaps in a new one
+ * whenever a policy changes.
+ *
+ * Resolution for a member type and a category, most specific first: that type in that
+ * category, any type in that category, that type anywhere, any type anywhere, then the
+ * configured default. A book in several priced categories takes the highest daily rate.
+ */
+public final class FineSchedule {
+
+    private static final int ANY = -1;
+    private static final MemberType[] TYPES = MemberType.values();
+
+    // Policy 0 is the configured default
+    private final double[] dailyRates;
+    private final int[] graceDays;
+    private final double[] caps;
+
+    // Categories that have a policy of their own, sorted for binary search
+    private final long[] categoryIds;
+    // Resolved policy per (member type, category slot); the last slot is "no priced category"
+    private final int[] table;
+
+    public FineSchedule(double defaultRate, int defaultGraceDays, double defaultCap, List<FinePolicy> policies) {
+        int count = policies.size() + 1;
+        dailyRates = new double[count];
+        graceDays = new int[count];
+        caps = new double[count];
+        int[] policyTypes = new int[count];
+        long[] policyCategories = new long[count];
+
+        dailyRates[0] = defaultRate;
+        graceDays[0] = defaultGraceDays;
+        caps[0] = defaultCap > 0 ? defaultCap : Double.POSITIVE_INFINITY;
+        policyTypes[0] = ANY;
+        policyCategories[0] = ANY;
+        for (int i = 1; i < count; i++) {
+            FinePolicy policy = policies.get(i - 1);
+            dailyRates[i] = policy.getDailyRate();
+            graceDays[i] = policy.getGraceDays() == null ? 0 : policy.getGraceDays();
+            caps[i] = policy.getMaxFine() == null ? Double.POSITIVE_INFINITY : policy.getMaxFine();
+            policyTypes[i] = policy.getMemberType() == null ? ANY : policy.getMemberType().ordinal();
+            policyCategories[i] = policy.getCategory() == null ? ANY : policy.getCategory().getCategoryId();
+        }
+
+        categoryIds = Arrays.stream(policyCategories).filter(id -> id != ANY).distinct().sorted().toArray();
+        int slots = categoryIds.length + 1;
+        table = new int[TYPES.length * slots];
+        for (int type = 0; type < TYPES.length; type++) {
+            for (int slot = 0; slot < slots; slot++) {
+                long category = slot < categoryIds.length ? categoryIds[slot] : ANY;
+                table[type * slots + slot] = resolve(type, category, policyTypes, policyCategories);
+            }
+        }
+    }
+
+    private static int resolve(int type, long category, int[] policyTypes, long[] policyCategories) {
+        int best = 0;
+        int bestRank = 0;
+        for (int i = 1; i < policyTypes.length; i++) {
+            boolean typeMatches = policyTypes[i] == ANY || policyTypes[i] == type;
+            boolean categoryMatches = policyCategories[i] == ANY || policyCategories[i] == category;
+            if (!typeMatches || !categoryMatches) {
+                continue;
+            }
+            int rank = 1 + (policyTypes[i] != ANY ? 1 : 0) + (policyCategories[i] != ANY ? 2 : 0);
+            if (rank > bestRank) {
+                best = i;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Ids of the categories some policy names; a book outside all of them is priced by
+     * member type alone.
+     */
+    public long[] pricedCategoryIds() {
+        return categoryIds.clone();
+    }
+
+    public boolean hasCategoryPolicies() {
+        return categoryIds.length > 0;
+    }
+
+    public int policyFor(MemberType type, long[] bookCategoryIds) {
+        return policyFor(type.ordinal(), bookCategoryIds, 0, bookCategoryIds.length);
+    }
+
+    int policyFor(int type, long[] bookCategoryIds, int from, int to) {
+        int slots = categoryIds.length + 1;
+        int row = type * slots;
+        int best = -1;
+        for (int i = from; i < to; i++) {
+            int slot = Arrays.binarySearch(categoryIds, bookCategoryIds[i]);
+            if (slot >= 0) {
+                int candidate = table[row + slot];
+                if (best < 0 || dailyRates[candidate] > dailyRates[best]) {
+                    best = candidate;
+                }
+            }
+        }
+        return best >= 0 ? best : table[row + categoryIds.length];
+    }
+
+    /**
+     * Fine in currency units (rounded to cents) for a loan {@code daysLate} days past due.
+     */
+    public double fine(int policy, long daysLate) {
+        long chargeable = daysLate - graceDays[policy];
+        if (chargeable <= 0) {
+            return 0.0;
+        }
+        double fine = Math.min(chargeable * dailyRates[policy], caps[policy]);
+        return Math.round(fine * 100) / 100.0;
+    }
+
+    public double fine(MemberType type, long[] bookCategoryIds, LocalDate dueDate, LocalDate asOf) {
+        return fine(policyFor(type, bookCategoryIds), asOf.toEpochDay() - dueDate.toEpochDay());
+    }
+
+    /**
+     * Resolves every priced book once per member type, so a batch run prices each loan
+     * with one binary search over book ids.
+     *
+     * @param bookIds     book side of the (book, priced category) pairs
+     * @param categoryIds category side, same length
+     */
+    public Books indexBooks(long[] bookIds, long[] categoryIds) {
+        Integer[] order = new Integer[bookIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(bookIds[a], bookIds[b]));
+        long[] sortedBooks = new long[bookIds.length];
+        long[] sortedCategories = new long[bookIds.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedBooks[i] = bookIds[order[i]];
+            sortedCategories[i] = categoryIds[order[i]];
+        }
+
+        int distinct = 0;
+        for (int i = 0; i < sortedBooks.length; i++) {
+            if (i == 0 || sortedBooks[i] != sortedBooks[i - 1]) {
+                distinct++;
+            }
+        }
+        long[] books = new long[distinct];
+        int[] policies = new int[distinct * TYPES.length];
+        int book = 0;
+        for (int start = 0; start < sortedBooks.length; book++) {
+            int end = start;
+            while (end < sortedBooks.length && sortedBooks[end] == sortedBooks[start]) {
+                end++;
+            }
+            books[book] = sortedBooks[start];
+            for (int type = 0; type < TYPES.length; type++) {
+                policies[book * TYPES.length + type] = policyFor(type, sortedCategories, start, end);
+            }
+            start = end;
+        }
+        return new Books(books, policies);
+    }
+
+    public final class Books {
+        private final long[] bookIds;
+        private final int[] policies;
+
+        private Books(long[] bookIds, int[] policies) {
+            this.bookIds = bookIds;
+            this.policies = policies;
+        }
+
+        public int policyFor(int memberType, long bookId) {
+            int index = Arrays.binarySearch(bookIds, bookId);
+            if (index < 0) {
+                return table[memberType * (categoryIds.length + 1) + categoryIds.length];
+            }
+            return policies[index * TYPES.length + memberType];
+        }
+
+        public int size() {
+            return bookIds.length;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.library.management.service;
+
+import com.library.management.dto.HoldDTO;
+import com.library.management.entity.BorrowStatus;
+import com.library.management.entity.Hold;
+import com.library.management.entity.HoldStatus;
+import com.library.management.entity.Member;
+import com.library.management.event.HoldEvent;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.BorrowRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.repository.MemberRepository;
+import com.library.management.repository.projection.BookAvailabilityView;
+import com.library.management.repository.projection.HoldQueueView;
+import com.library.management.repository.projection.HoldRefView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * FIFO hold queues per book. Every change to a book's queue or hold shelf (placing a
+ * hold, a return, a cancellation, an expiry, a pickup) first locks the book row, so they
+ * serialize per title and a return can never miss a hold placed while it ran. The next
+ * hold is found with one seek on idx_hold_queue, however many members are waiting.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldService {
+
+    private static final Set<HoldStatus> OPEN = EnumSet.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final MemberRepository memberRepository;
+    private final BorrowRepository borrowRepository;
+    private final CirculationLedgerService circulationLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${library.holds.pickup-days:3}")
+    private int pickupDays;
+
+    @Value("${library.holds.max-per-member:10}")
+    private int maxHoldsPerMember;
+
+    @Value("${library.holds.expiry-batch-size:500}")
+    private int expiryBatchSize;
+
+    @Transactional
+    public HoldDTO placeHold(Long bookId, Long memberId) {
+        List<BookAvailabilityView> book = bookRepository.lockAvailability(List.of(bookId));
+        if (book.isEmpty()) {
+            throw new RuntimeException("Book not found with id: " + bookId);
+        }
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
+        if (!member.getIsActive()) {
+            throw new RuntimeException("Member account is deactivated");
+        }
+        if (Boolean.TRUE.equals(book.get(0).getIsAvailable())) {
+            throw new RuntimeException("Book is available for borrowing, no hold needed");
+        }
+        if (holdRepository.existsByBookBookIdAndMemberMemberIdAndStatusIn(bookId, memberId, OPEN)) {
+            throw new RuntimeException("Member already has a hold on this book");
+        }
+        if (borrowRepository.existsByBookBookIdAndMemberMemberIdAndStatusNot(bookId, memberId, BorrowStatus.RETURNED)) {
+            throw new RuntimeException("Member already has this book on loan");
+        }
+        if (holdRepository.countByMemberMemberIdAndStatusIn(memberId, OPEN) >= maxHoldsPerMember) {
+            throw new RuntimeException("Member has reached the maximum number of holds");
+        }
+
+        Hold hold = new Hold();
+        hold.setBook(bookRepository.getReferenceById(bookId));
+        hold.setMember(member);
+        Hold saved = holdRepository.save(hold);
+        circulationLedgerService.recordHoldPlaced(saved.getHoldId(), bookId, memberId, saved.getPlacedAt());
+        return convertToDTO(saved, holdRepository.countWaitingAhead(bookId, saved.getHoldId()) + 1);
+    }
+
+    @Transactional
+    public HoldDTO cancelHold(Long holdId) {
+        Hold hold = holdRepository.findWithBookAndMember(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found with id: " + holdId));
+        Long bookId = hold.getBook().getBookId();
+        bookRepository.lockAvailability(List.of(bookId));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (holdRepository.close(holdId, HoldStatus.WAITING, HoldStatus.CANCELLED, now) == 0) {
+            if (holdRepository.close(holdId, HoldStatus.READY, HoldStatus.CANCELLED, now) == 0) {
+                throw new RuntimeException("Hold is no longer open");
+            }
+            eventPublisher.publishEvent(new HoldEvent(HoldEvent.Type.RELEASED, holdId, bookId,
+                    hold.getMember().getMemberId()));
+            passOn(bookId, now);
+        }
+
+        // The managed hold predates the conditional update; report what was written
+        HoldDTO dto = convertToDTO(hold, null);
+        dto.setStatus(HoldStatus.CANCELLED);
+        dto.setClosedAt(now);
+        return dto;
+    }
+
+    /**
+     * Puts a just-returned copy on the hold shelf for the next active member in line, if
+     * anyone is waiting. The caller must hold the book row lock. Holds of deactivated
+     * members at the head of the queue are cancelled on the way.
+     */
+    public boolean allocateNext(Long bookId, LocalDateTime now) {
+        while (true) {
+            List<HoldQueueView> head = holdRepository.findQueueHead(bookId, Limit.of(1));
+            if (head.isEmpty()) {
+                return false;
+            }
+            HoldQueueView next = head.get(0);
+            if (!Boolean.TRUE.equals(next.getIsActive())) {
+                holdRepository.close(next.getHoldId(), HoldStatus.WAITING, HoldStatus.CANCELLED, now);
+                continue;
+            }
+            if (holdRepository.markReady(next.getHoldId(), now, now.plusDays(pickupDays)) == 1) {
+                eventPublisher.publishEvent(new HoldEvent(HoldEvent.Type.ALLOCATED, next.getHoldId(), bookId,
+                        next.getMemberId()));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Plain read, so checkouts of unavailable books that are not waiting for this member
+     * fail without touching the book row lock.
+     */
+    public boolean hasReadyHold(Long bookId, Long memberId, LocalDateTime now) {
+        return holdRepository.existsReady(bookId, memberId, now);
+    }
+
+    /**
+     * Closes the member's READY hold on this copy for checkout. The caller must hold the
+     * book row lock.
+     */
+    public boolean pickUp(Long bookId, Long memberId, LocalDateTime now) {
+        Optional<HoldRefView> ready = holdRepository.findReady(bookId, memberId, now);
+        if (ready.isEmpty()
+                || holdRepository.close(ready.get().getHoldId(), HoldStatus.READY, HoldStatus.FULFILLED, now) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new HoldEvent(HoldEvent.Type.RELEASED, ready.get().getHoldId(), bookId, memberId));
+        return true;
+    }
+
+    /**
+     * Expires holds not picked up in time and passes each copy to the next member in line,
+     * one hold per transaction. Safe to run on every node: each expiry is a conditional
+     * update under the book row lock.
+     */
+    @Scheduled(cron = "${library.holds.expiry-cron:0 */5 * * * *}")
+    public int expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int expired = 0;
+        List<HoldRefView> due;
+        do {
+            due = holdRepository.findExpired(now, Limit.of(expiryBatchSize));
+            for (HoldRefView hold : due) {
+                if (Boolean.TRUE.equals(transaction.execute(status -> expire(hold, now)))) {
+                    expired++;
+                }
+            }
+        } while (due.size() == expiryBatchSize);
+        if (expired > 0) {
+            log.info("Expired {} holds not picked up in time", expired);
+        }
+        return expired;
+    }
+
+    private boolean expire(HoldRefView hold, LocalDateTime now) {
+        bookRepository.lockAvailability(List.of(hold.getBookId()));
+        if (holdRepository.close(hold.getHoldId(), HoldStatus.READY, HoldStatus.EXPIRED, now) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new HoldEvent(HoldEvent.Type.RELEASED, hold.getHoldId(), hold.getBookId(),
+                hold.getMemberId()));
+        passOn(hold.getBookId(), now);
+        return true;
+    }
+
+    private void passOn(Long bookId, LocalDateTime now) {
+        if (!allocateNext(bookId, now) && bookRepository.returnToShelf(bookId, now) == 0) {
+            log.warn("Book {} left the hold shelf but is on loan or already on the shelf; availability not changed",
+                    bookId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public HoldDTO getHoldById(Long holdId) {
+        Hold hold = holdRepository.findWithBookAndMember(holdId)
+                .orElseThrow(() -> new RuntimeException("Hold not found with id: " + holdId));
+        return convertToDTO(hold, positionOf(hold));
+    }
+
+    /**
+     * Open holds on a book in queue order: the READY hold (if any), then the waiting line.
+     */
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getHoldsForBook(Long bookId) {
+        List<HoldDTO> holds = new ArrayList<>();
+        long position = 0;
+        for (Hold hold : holdRepository.findOpenByBook(bookId)) {
+            holds.add(convertToDTO(hold, hold.getStatus() == HoldStatus.WAITING ? ++position : null));
+        }
+        holds.sort((a, b) -> Boolean.compare(a.getStatus() != HoldStatus.READY, b.getStatus() != HoldStatus.READY));
+        return holds;
+    }
+
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getHoldsForMember(Long memberId) {
+        return holdRepository.findByMember(memberId).stream()
+                .map(hold -> convertToDTO(hold, positionOf(hold)))
+                .collect(Collectors.toList());
+    }
+
+    private Long positionOf(Hold hold) {
+        if (hold.getStatus() != HoldStatus.WAITING) {
+            return null;
+        }
+        return holdRepository.countWaitingAhead(hold.getBook().getBookId(), hold.getHoldId()) + 1;
+    }
+
+    private HoldDTO convertToDTO(Hold hold, Long position) {
+        HoldDTO dto = new HoldDTO();
+        dto.setHoldId(hold.getHoldId());
+        dto.setBookId(hold.getBook().getBookId());
+        dto.setBookTitle(hold.getBook().getTitle());
+        dto.setMemberId(hold.getMember().getMemberId());
+        dto.setMemberName(hold.getMember().getFirstName() + " " + hold.getMember().getLastName());
+        dto.setStatus(hold.getStatus());
+        dto.setPosition(position);
+        dto.setPlacedAt(hold.getPlacedAt());
+        dto.setReadyAt(hold.getReadyAt());
+        dto.setExpiresAt(hold.getExpiresAt());
+        dto.setClosedAt(hold.getClosedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,450 @@
+package com.library.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.management.dto.BorrowDTO;
+import com.library.management.dto.BorrowFilter;
+import com.library.management.dto.CursorPage;
+import com.library.management.entity.BorrowStatus;
+import com.library.management.entity.LoanArchiveSegment;
+import com.library.management.repository.BorrowRepository;
+import com.library.management.repository.CirculationSnapshotRepository;
+import com.library.management.repository.LoanArchiveSegmentRepository;
+import com.library.management.repository.projection.BorrowListView;
+import com.library.management.util.Cursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Moves loans returned more than {@code retention-days} ago out of borrow_records into
+ * immutable segment files (see LoanSegment), so the live table holds only open and recent
+ * loans. Each segment is written to a temporary file, forced to disk and renamed, and only
+ * then are its catalog row, the books' archived_borrows and the deletion committed in one
+ * transaction; a crash in between leaves an uncatalogued file that the next run removes.
+ *
+ * The circulation ledger is never pruned, so its rebuilt state is unaffected, and archiving
+ * waits until the first circulation snapshot exists, since the ledger backfill reads
+ * borrow_records. Runs under the "loan-archive" lease. Segment files live on local disk;
+ * with several nodes, {@code library.archive.dir} must be shared storage.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanArchiveService {
+
+    private static final String LEASE = "loan-archive";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String ADD_ARCHIVED = "UPDATE books SET archived_borrows = archived_borrows + ?, " +
+            "version = version + 1 WHERE book_id = ?";
+
+    private final BorrowRepository borrowRepository;
+    private final LoanArchiveSegmentRepository segmentRepository;
+    private final CirculationSnapshotRepository snapshotRepository;
+    private final SchedulerLeaseService leaseService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.archive.dir:${user.home}/library-management/archive}")
+    private String archiveDir;
+
+    @Value("${library.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${library.archive.segment-rows:100000}")
+    private int segmentRows;
+
+    @Value("${library.archive.lease-minutes:30}")
+    private long leaseMinutes;
+
+    @Value("${library.export.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${library.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    /**
+     * Archives every loan returned before the retention cutoff, one segment per
+     * {@code segment-rows} loans. Returns the loans archived, or -1 when another node
+     * holds the lease.
+     */
+    public long archive() {
+        Duration ttl = Duration.ofMinutes(leaseMinutes);
+        if (!leaseService.tryAcquire(LEASE, ttl)) {
+            log.info("Loan archiving skipped: lease held by another node");
+            return -1;
+        }
+        try {
+            if (snapshotRepository.count() == 0) {
+                log.info("Loan archiving skipped: the circulation ledger has not been backfilled yet");
+                return 0;
+            }
+            Path dir = directory();
+            removeOrphans(dir);
+
+            long startedAt = System.currentTimeMillis();
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            long archived = 0;
+            int segments = 0;
+            long afterId = 0;
+            while (true) {
+                List<BorrowListView> rows = borrowRepository.findArchivable(cutoff, afterId, Limit.of(segmentRows));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                LoanArchiveSegment segment = writeSegment(dir, rows);
+                Path file = dir.resolve(segment.getFileName());
+                try {
+                    transaction.executeWithoutResult(status -> commitSegment(segment, rows));
+                } catch (RuntimeException e) {
+                    deleteQuietly(file);
+                    throw e;
+                }
+                archived += rows.size();
+                segments++;
+                afterId = segment.getMaxBorrowId();
+                if (rows.size() < segmentRows) {
+                    break;
+                }
+                if (!leaseService.tryAcquire(LEASE, ttl)) {
+                    log.warn("Loan archiving lost its lease after {} segments, stopping", segments);
+                    break;
+                }
+            }
+            log.info("Archived {} loans returned before {} into {} segments in {} ms", archived, cutoff, segments,
+                    System.currentTimeMillis() - startedAt);
+            return archived;
+        } finally {
+            leaseService.release(LEASE);
+        }
+    }
+
+    /**
+     * One page of archived loans matching the filter, in archive order: segment by segment,
+     * borrow id order within each. Segments whose stats rule the filter out are not opened.
+     */
+    public CursorPage<BorrowDTO> findPage(BorrowFilter filter, String after, int size) {
+        Cursor cursor = Cursor.decode(after);
+        long fromSegment = cursor == null ? 0 : parseSegment(cursor);
+        long afterId = cursor == null ? 0 : cursor.id();
+
+        List<BorrowDTO> rows = new ArrayList<>(size + 1);
+        Map<Long, Long> segmentOf = new LinkedHashMap<>();
+        scan(filter, fromSegment, afterId, (segmentId, row) -> {
+            rows.add(row);
+            segmentOf.put(row.getBorrowId(), segmentId);
+            return rows.size() <= size;
+        });
+        return Cursor.page(rows, size,
+                row -> new Cursor(String.valueOf(segmentOf.get(row.getBorrowId())), row.getBorrowId()),
+                slice -> slice);
+    }
+
+    /**
+     * Streams every archived loan matching the filter, in the same order as the paged listing.
+     */
+    public void export(BorrowFilter filter, BookExportService.Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long started = System.currentTimeMillis();
+        long[] count = new long[1];
+        try {
+            if (format == BookExportService.Format.CSV) {
+                writer.write(BorrowQueryService.CSV_HEADER);
+                writer.write('\n');
+            }
+            scan(filter, 0, 0, (segmentId, row) -> {
+                try {
+                    writer.write(format == BookExportService.Format.CSV
+                            ? BorrowQueryService.csvLine(row)
+                            : objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                    if (++count[0] % chunkSize == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            writer.flush();
+            log.info("Exported {} archived loans as {} in {} ms", count[0], format, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            log.info("Archived loan export aborted after {} ms: {}", System.currentTimeMillis() - started,
+                    e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    public Map<String, Object> getSegments() {
+        List<Map<String, Object>> segments = new ArrayList<>();
+        long rows = 0;
+        long bytes = 0;
+        for (LoanArchiveSegment segment : segmentRepository.findAllByOrderBySegmentId()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("segmentId", segment.getSegmentId());
+            entry.put("fileName", segment.getFileName());
+            entry.put("rows", segment.getRowCount());
+            entry.put("bytes", segment.getFileBytes());
+            entry.put("borrowIds", List.of(segment.getMinBorrowId(), segment.getMaxBorrowId()));
+            entry.put("borrowDates", List.of(segment.getMinBorrowDate(), segment.getMaxBorrowDate()));
+            entry.put("returnDates", List.of(segment.getMinReturnDate(), segment.getMaxReturnDate()));
+            entry.put("createdAt", segment.getCreatedAt());
+            segments.add(entry);
+            rows += segment.getRowCount();
+            bytes += segment.getFileBytes();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("segments", segments.size());
+        result.put("rows", rows);
+        result.put("bytes", bytes);
+        result.put("retentionDays", retentionDays);
+        result.put("details", segments);
+        return result;
+    }
+
+    private interface RowSink {
+        boolean accept(long segmentId, BorrowDTO row);
+    }
+
+    private void scan(BorrowFilter filter, long fromSegment, long afterId, RowSink sink) {
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()
+                && !filter.getStatus().contains(BorrowStatus.RETURNED)) {
+            return;
+        }
+        LocalDateTime borrowedFrom = filter.getBorrowedFrom() == null ? null : filter.getBorrowedFrom().atStartOfDay();
+        LocalDateTime borrowedBefore = filter.getBorrowedTo() == null ? null
+                : filter.getBorrowedTo().plusDays(1).atStartOfDay();
+        List<LoanArchiveSegment> candidates = segmentRepository.findCandidates(fromSegment, filter.getBookId(),
+                filter.getMemberId(), borrowedFrom, borrowedBefore, filter.getDueFrom(), filter.getDueTo());
+
+        Path dir = Paths.get(archiveDir);
+        for (LoanArchiveSegment segment : candidates) {
+            long skipThrough = segment.getSegmentId() == fromSegment ? afterId : 0;
+            try (LoanSegment.Reader reader = LoanSegment.Reader.open(dir.resolve(segment.getFileName()))) {
+                Predicate<Integer> matches = rowFilter(reader, filter, borrowedFrom, borrowedBefore, skipThrough);
+                long[] borrowIds = reader.column(LoanSegment.Column.BORROW_ID);
+                for (int i = 0; i < reader.rows(); i++) {
+                    if (matches.test(i) && !sink.accept(segment.getSegmentId(), toDTO(reader, borrowIds, i))) {
+                        return;
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                throw new RuntimeException("Archive segment " + segment.getFileName() + " is missing from " + dir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable archive segment " + segment.getFileName(), e);
+            }
+        }
+    }
+
+    // Decodes only the columns the filter refers to
+    private Predicate<Integer> rowFilter(LoanSegment.Reader reader, BorrowFilter filter, LocalDateTime borrowedFrom,
+                                         LocalDateTime borrowedBefore, long afterId) throws IOException {
+        Predicate<Integer> matches = row -> true;
+        if (afterId > 0) {
+            long[] borrowIds = reader.column(LoanSegment.Column.BORROW_ID);
+            matches = matches.and(row -> borrowIds[row] > afterId);
+        }
+        if (filter.getBookId() != null) {
+            long[] bookIds = reader.column(LoanSegment.Column.BOOK_ID);
+            long bookId = filter.getBookId();
+            matches = matches.and(row -> bookIds[row] == bookId);
+        }
+        if (filter.getMemberId() != null) {
+            long[] memberIds = reader.column(LoanSegment.Column.MEMBER_ID);
+            long memberId = filter.getMemberId();
+            matches = matches.and(row -> memberIds[row] == memberId);
+        }
+        if (filter.getUserId() != null) {
+            long[] userIds = reader.column(LoanSegment.Column.USER_ID);
+            long userId = filter.getUserId();
+            matches = matches.and(row -> userIds[row] == userId);
+        }
+        if (borrowedFrom != null || borrowedBefore != null) {
+            reader.column(LoanSegment.Column.BORROW_DATE);
+            matches = matches.and(row -> {
+                LocalDateTime borrowed = uncheck(() -> reader.borrowDate(row));
+                return (borrowedFrom == null || !borrowed.isBefore(borrowedFrom))
+                        && (borrowedBefore == null || borrowed.isBefore(borrowedBefore));
+            });
+        }
+        if (filter.getDueFrom() != null || filter.getDueTo() != null) {
+            reader.column(LoanSegment.Column.DUE_DATE);
+            matches = matches.and(row -> {
+                LocalDate due = uncheck(() -> reader.dueDate(row));
+                return (filter.getDueFrom() == null || !due.isBefore(filter.getDueFrom()))
+                        && (filter.getDueTo() == null || !due.isAfter(filter.getDueTo()));
+            });
+        }
+        return matches;
+    }
+
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private static <T> T uncheck(IOSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BorrowDTO toDTO(LoanSegment.Reader reader, long[] borrowIds, int row) throws IOException {
+        return new BorrowDTO(borrowIds[row], reader.column(LoanSegment.Column.BOOK_ID)[row],
+                reader.column(LoanSegment.Column.MEMBER_ID)[row], reader.userId(row), reader.borrowDate(row),
+                reader.dueDate(row), reader.returnDate(row), reader.fineAmount(row), BorrowStatus.RETURNED);
+    }
+
+    private LoanArchiveSegment writeSegment(Path dir, List<BorrowListView> rows) {
+        try {
+            LoanSegment.Encoded encoded = LoanSegment.encode(rows);
+            LoanSegment.Stats stats = encoded.stats();
+            String fileName = String.format("loans-%012d-%012d-%d%s", stats.minBorrowId(), stats.maxBorrowId(),
+                    System.currentTimeMillis(), SEGMENT_SUFFIX);
+            Path temp = dir.resolve(fileName + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(encoded.bytes());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Path target = dir.resolve(fileName);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target);
+            }
+            target.toFile().setReadOnly();
+
+            LoanArchiveSegment segment = new LoanArchiveSegment();
+            segment.setFileName(fileName);
+            segment.setRowCount(stats.rows());
+            segment.setFileBytes((long) encoded.bytes().length);
+            segment.setSha256(HexFormat.of().formatHex(sha256().digest(encoded.bytes())));
+            segment.setMinBorrowId(stats.minBorrowId());
+            segment.setMaxBorrowId(stats.maxBorrowId());
+            segment.setMinBookId(stats.minBookId());
+            segment.setMaxBookId(stats.maxBookId());
+            segment.setMinMemberId(stats.minMemberId());
+            segment.setMaxMemberId(stats.maxMemberId());
+            segment.setMinBorrowDate(stats.minBorrowDate());
+            segment.setMaxBorrowDate(stats.maxBorrowDate());
+            segment.setMinDueDate(stats.minDueDate());
+            segment.setMaxDueDate(stats.maxDueDate());
+            segment.setMinReturnDate(stats.minReturnDate());
+            segment.setMaxReturnDate(stats.maxReturnDate());
+            segment.setCreatedAt(LocalDateTime.now());
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment", e);
+        }
+    }
+
+    private void commitSegment(LoanArchiveSegment segment, List<BorrowListView> rows) {
+        List<Long> borrowIds = rows.stream().map(BorrowListView::getBorrowId).toList();
+        int deleted = borrowRepository.deleteReturned(borrowIds);
+        if (deleted != rows.size()) {
+            throw new IllegalStateException("Archive segment " + segment.getFileName() + " expected to remove "
+                    + rows.size() + " loans but removed " + deleted);
+        }
+        Map<Long, Long> perBook = new TreeMap<>();
+        rows.forEach(row -> perBook.merge(row.getBookId(), 1L, Long::sum));
+        List<Object[]> updates = new ArrayList<>(perBook.size());
+        perBook.forEach((bookId, count) -> updates.add(new Object[]{count, bookId}));
+        jdbcTemplate.batchUpdate(ADD_ARCHIVED, updates);
+        segmentRepository.save(segment);
+    }
+
+    // Files left by a run that died before its commit; no other run is active under the lease
+    private void removeOrphans(Path dir) {
+        Set<String> catalogued = new HashSet<>(segmentRepository.findAllFileNames());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "loans-*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!catalogued.contains(name)) {
+                    log.warn("Removing uncommitted archive segment {}", name);
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list archive directory " + dir, e);
+        }
+    }
+
+    private Path directory() {
+        Path dir = Paths.get(archiveDir);
+        try {
+            return Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create archive directory " + dir, e);
+        }
+    }
+
+    private static long parseSegment(Cursor cursor) {
+        try {
+            return Long.parseLong(cursor.key());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor.encode());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete archive file {}", file, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
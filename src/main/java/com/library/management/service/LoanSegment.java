@@ -0,0 +1,365 @@
+package com.library.management.service;
+
+import com.library.management.repository.projection.BorrowListView;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Columnar file layout of one archive segment: closed loans sorted by borrow id, every
+ * column stored as its own deflate block so a scan decompresses only the columns it reads.
+ *
+ * <pre>
+ * header : magic, version, row count, min/max stats, then per column its offset, length, CRC32
+ * blocks : one deflated block per {@link Column}, in declaration order
+ * </pre>
+ *
+ * Values are zig-zag varints and times are microseconds since the epoch. Borrow ids and
+ * borrow times are delta-coded against the previous row, due and return dates against the
+ * row's own borrow date, fines are stored in cents.
+ * Every archived loan is RETURNED, so status is not stored.
+ */
+final class LoanSegment {
+
+    private static final int MAGIC = 0x4C4E5347; // "LNSG"
+    private static final int FORMAT_VERSION = 1;
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    enum Column {
+        BORROW_ID, BOOK_ID, MEMBER_ID, USER_ID, BORROW_DATE, DUE_DATE, RETURN_DATE, FINE_CENTS
+    }
+
+    record Stats(int rows, long minBorrowId, long maxBorrowId, long minBookId, long maxBookId,
+                 long minMemberId, long maxMemberId, LocalDateTime minBorrowDate, LocalDateTime maxBorrowDate,
+                 LocalDate minDueDate, LocalDate maxDueDate, LocalDateTime minReturnDate,
+                 LocalDateTime maxReturnDate) {
+    }
+
+    record Encoded(byte[] bytes, Stats stats) {
+    }
+
+    private record Header(Stats stats, long[] offsets, int[] lengths, int[] crcs) {
+    }
+
+    private LoanSegment() {
+    }
+
+    /**
+     * Encodes rows already sorted by borrow id; they must all be closed loans.
+     */
+    static Encoded encode(List<BorrowListView> rows) throws IOException {
+        int n = rows.size();
+        Map<Column, long[]> columns = new EnumMap<>(Column.class);
+        for (Column column : Column.values()) {
+            columns.put(column, new long[n]);
+        }
+        for (int i = 0; i < n; i++) {
+            BorrowListView row = rows.get(i);
+            columns.get(Column.BORROW_ID)[i] = row.getBorrowId();
+            columns.get(Column.BOOK_ID)[i] = row.getBookId();
+            columns.get(Column.MEMBER_ID)[i] = row.getMemberId();
+            columns.get(Column.USER_ID)[i] = row.getUserId() == null ? 0 : row.getUserId();
+            columns.get(Column.BORROW_DATE)[i] = micros(row.getBorrowDate());
+            columns.get(Column.DUE_DATE)[i] = row.getDueDate().toEpochDay();
+            columns.get(Column.RETURN_DATE)[i] = micros(row.getReturnDate());
+            columns.get(Column.FINE_CENTS)[i] = row.getFineAmount() == null ? 0 : Math.round(row.getFineAmount() * 100);
+        }
+        Stats stats = stats(columns, n);
+
+        byte[][] blocks = new byte[Column.values().length][];
+        for (Column column : Column.values()) {
+            blocks[column.ordinal()] = deflate(column, columns);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeStats(out, stats);
+        out.writeInt(blocks.length);
+        long offset = headerSize(blocks.length);
+        for (byte[] block : blocks) {
+            CRC32 crc = new CRC32();
+            crc.update(block);
+            out.writeLong(offset);
+            out.writeInt(block.length);
+            out.writeInt((int) crc.getValue());
+            offset += block.length;
+        }
+        for (byte[] block : blocks) {
+            out.write(block);
+        }
+        out.flush();
+        return new Encoded(bytes.toByteArray(), stats);
+    }
+
+    /**
+     * Open segment file; columns are read and decoded on first use, then cached. Not thread-safe.
+     */
+    static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final Header header;
+        private final Map<Column, long[]> decoded = new EnumMap<>(Column.class);
+
+        private Reader(FileChannel channel, Header header) {
+            this.channel = channel;
+            this.header = header;
+        }
+
+        static Reader open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer header = ByteBuffer.allocate(headerSize(Column.values().length));
+                readFully(channel, header, 0);
+                return new Reader(channel, readHeader(header.flip()));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        Stats stats() {
+            return header.stats();
+        }
+
+        int rows() {
+            return header.stats().rows();
+        }
+
+        long[] column(Column column) throws IOException {
+            long[] values = decoded.get(column);
+            if (values == null) {
+                values = inflate(column);
+                decoded.put(column, values);
+            }
+            return values;
+        }
+
+        LocalDateTime borrowDate(int row) throws IOException {
+            return dateTime(column(Column.BORROW_DATE)[row]);
+        }
+
+        LocalDate dueDate(int row) throws IOException {
+            return LocalDate.ofEpochDay(column(Column.DUE_DATE)[row]);
+        }
+
+        LocalDateTime returnDate(int row) throws IOException {
+            return dateTime(column(Column.RETURN_DATE)[row]);
+        }
+
+        Long userId(int row) throws IOException {
+            long userId = column(Column.USER_ID)[row];
+            return userId == 0 ? null : userId;
+        }
+
+        double fineAmount(int row) throws IOException {
+            return column(Column.FINE_CENTS)[row] / 100.0;
+        }
+
+        private long[] inflate(Column column) throws IOException {
+            int index = column.ordinal();
+            ByteBuffer block = ByteBuffer.allocate(header.lengths()[index]);
+            readFully(channel, block, header.offsets()[index]);
+            CRC32 crc = new CRC32();
+            crc.update(block.array());
+            if ((int) crc.getValue() != header.crcs()[index]) {
+                throw new IOException("Checksum mismatch in column " + column);
+            }
+
+            long[] values = new long[rows()];
+            long[] borrowedAt = column == Column.DUE_DATE || column == Column.RETURN_DATE
+                    ? column(Column.BORROW_DATE) : null;
+            try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(block.array()))) {
+                DataInputStream data = new DataInputStream(in);
+                long previous = 0;
+                for (int i = 0; i < values.length; i++) {
+                    long value = readVarLong(data);
+                    switch (column) {
+                        case BORROW_ID, BORROW_DATE -> {
+                            previous += value;
+                            values[i] = previous;
+                        }
+                        case DUE_DATE -> values[i] = epochDay(borrowedAt[i]) + value;
+                        case RETURN_DATE -> values[i] = borrowedAt[i] + value;
+                        default -> values[i] = value;
+                    }
+                }
+            }
+            return values;
+        }
+
+        private static Header readHeader(ByteBuffer header) throws IOException {
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a loan archive segment");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported loan archive segment format " + version);
+            }
+            Stats stats = readStats(header);
+            int columnCount = header.getInt();
+            if (columnCount != Column.values().length) {
+                throw new IOException("Unexpected column count " + columnCount);
+            }
+            long[] offsets = new long[columnCount];
+            int[] lengths = new int[columnCount];
+            int[] crcs = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                offsets[i] = header.getLong();
+                lengths[i] = header.getInt();
+                crcs[i] = header.getInt();
+            }
+            return new Header(stats, offsets, lengths, crcs);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Row count, then six ids and six dates as longs
+    private static final int STATS_BYTES = Integer.BYTES + 12 * Long.BYTES;
+
+    private static int headerSize(int columnCount) {
+        return 2 * Integer.BYTES + STATS_BYTES + Integer.BYTES + columnCount * (Long.BYTES + 2 * Integer.BYTES);
+    }
+
+    private static byte[] deflate(Column column, Map<Column, long[]> columns) throws IOException {
+        long[] values = columns.get(column);
+        long[] borrowedAt = columns.get(Column.BORROW_DATE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 64 * 1024))) {
+            long previous = 0;
+            for (int i = 0; i < values.length; i++) {
+                long value = switch (column) {
+                    case BORROW_ID, BORROW_DATE -> values[i] - previous;
+                    case DUE_DATE -> values[i] - epochDay(borrowedAt[i]);
+                    case RETURN_DATE -> values[i] - borrowedAt[i];
+                    default -> values[i];
+                };
+                previous = values[i];
+                writeVarLong(out, value);
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Stats stats(Map<Column, long[]> columns, int n) {
+        long[] borrowIds = columns.get(Column.BORROW_ID);
+        long[] books = columns.get(Column.BOOK_ID);
+        long[] members = columns.get(Column.MEMBER_ID);
+        long[] borrowed = columns.get(Column.BORROW_DATE);
+        long[] due = columns.get(Column.DUE_DATE);
+        long[] returned = columns.get(Column.RETURN_DATE);
+        return new Stats(n, borrowIds[0], borrowIds[n - 1], min(books), max(books), min(members), max(members),
+                dateTime(min(borrowed)), dateTime(max(borrowed)), LocalDate.ofEpochDay(min(due)),
+                LocalDate.ofEpochDay(max(due)), dateTime(min(returned)), dateTime(max(returned)));
+    }
+
+    private static void writeStats(DataOutputStream out, Stats stats) throws IOException {
+        out.writeInt(stats.rows());
+        out.writeLong(stats.minBorrowId());
+        out.writeLong(stats.maxBorrowId());
+        out.writeLong(stats.minBookId());
+        out.writeLong(stats.maxBookId());
+        out.writeLong(stats.minMemberId());
+        out.writeLong(stats.maxMemberId());
+        out.writeLong(micros(stats.minBorrowDate()));
+        out.writeLong(micros(stats.maxBorrowDate()));
+        out.writeLong(stats.minDueDate().toEpochDay());
+        out.writeLong(stats.maxDueDate().toEpochDay());
+        out.writeLong(micros(stats.minReturnDate()));
+        out.writeLong(micros(stats.maxReturnDate()));
+    }
+
+    private static Stats readStats(ByteBuffer in) {
+        return new Stats(in.getInt(), in.getLong(), in.getLong(), in.getLong(), in.getLong(), in.getLong(),
+                in.getLong(), dateTime(in.getLong()), dateTime(in.getLong()), LocalDate.ofEpochDay(in.getLong()),
+                LocalDate.ofEpochDay(in.getLong()), dateTime(in.getLong()), dateTime(in.getLong()));
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Truncated loan archive segment");
+            }
+        }
+    }
+
+    // DATETIME(6) precision
+    private static long micros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long epochDay(long micros) {
+        return Math.floorDiv(micros, MICROS_PER_DAY);
+    }
+
+    private static long min(long[] values) {
+        long min = Long.MAX_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+        }
+        return min;
+    }
+
+    private static long max(long[] values) {
+        long max = Long.MIN_VALUE;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,87 @@
+package com.library.management.service;
+
+import java.util.Arrays;
+
+/**
+ * Fine totals keyed by member id in an open-addressing table of parallel primitive
+ * arrays, so summing millions of loans allocates nothing per loan. Not thread-safe;
+ * each accrual chunk fills its own and the run merges them.
+ */
+final class MemberFineTotals {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private double[] values;
+    private int size;
+
+    MemberFineTotals(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new double[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    void add(long memberId, double amount) {
+        int mask = keys.length - 1;
+        int slot = mix(memberId) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != memberId) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = memberId;
+            if (++size * 2 > keys.length) {
+                values[slot] = amount;
+                grow();
+                return;
+            }
+        }
+        values[slot] += amount;
+    }
+
+    void addAll(MemberFineTotals other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the entries out as {@code memberIds} / {@code amounts}, in no particular order.
+     */
+    int drainTo(long[] memberIds, double[] amounts) {
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                memberIds[n] = keys[i];
+                amounts[n] = values[i];
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new double[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
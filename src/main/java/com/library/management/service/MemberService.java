@@ -54,6 +54,9 @@ public class MemberService {
         existingMember.setPhone(memberDTO.getPhone());
         existingMember.setAddress(memberDTO.getAddress());
         existingMember.setIsActive(memberDTO.getIsActive());
+        if (memberDTO.getMemberType() != null) {
+            existingMember.setMemberType(memberDTO.getMemberType());
+        }
 
         Member updatedMember = memberRepository.save(existingMember);
         return convertToDTO(updatedMember);
@@ -87,6 +90,7 @@ public class MemberService {
         dto.setPhone(member.getPhone());
         dto.setAddress(member.getAddress());
         dto.setIsActive(member.getIsActive());
+        dto.setMemberType(member.getMemberType());
         return dto;
     }
 
@@ -98,6 +102,9 @@ public class MemberService {
         member.setPhone(dto.getPhone());
         member.setAddress(dto.getAddress());
         member.setIsActive(dto.getIsActive());
+        if (dto.getMemberType() != null) {
+            member.setMemberType(dto.getMemberType());
+        }
         return member;
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.library.management.service;
+
+import com.library.management.repository.BorrowRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Marks loans past their due date as OVERDUE in bounded chunks, one transaction each: the
+ * chunk's rows are locked, marked with one set-based UPDATE and recorded in the circulation
+ * ledger, so row locks are held briefly and at most one chunk of ids is in memory however
+ * many loans are open. Each run holds the "overdue-sweep" lease,
+ * renewed between chunks, so only one node sweeps at a time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueSweepService {
+
+    private static final String LEASE = "overdue-sweep";
+
+    private final BorrowRepository borrowRepository;
+    private final SchedulerLeaseService leaseService;
+    private final CirculationLedgerService circulationLedgerService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${library.overdue.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${library.overdue.lease-minutes:10}")
+    private long leaseMinutes;
+
+    // Metrics, guarded by this
+    private long runs;
+    private long skippedRuns;
+    private long totalMarked;
+    private LocalDateTime lastRunAt;
+    private long lastMarked;
+    private int lastChunks;
+    private long lastDurationMs;
+
+    @Scheduled(cron = "${library.overdue.sweep-cron:0 5 0 * * *}")
+    public void scheduledSweep() {
+        sweep();
+    }
+
+    /**
+     * Runs one sweep unless another node holds the lease. Returns the loans marked by this
+     * run, or -1 when it was skipped.
+     */
+    public long sweep() {
+        Duration ttl = Duration.ofMinutes(leaseMinutes);
+        if (!leaseService.tryAcquire(LEASE, ttl)) {
+            log.info("Overdue sweep skipped: lease held by another node");
+            synchronized (this) {
+                skippedRuns++;
+            }
+            return -1;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long marked = 0;
+        int chunks = 0;
+        try {
+            while (true) {
+                int updated = transaction.execute(status -> markChunk(today));
+                marked += updated;
+                chunks++;
+                if (updated < chunkSize) {
+                    break;
+                }
+                if (!leaseService.tryAcquire(LEASE, ttl)) {
+                    log.warn("Overdue sweep lost its lease after {} chunks, stopping", chunks);
+                    break;
+                }
+            }
+        } finally {
+            leaseService.release(LEASE);
+        }
+
+        long duration = System.currentTimeMillis() - startedAt;
+        synchronized (this) {
+            runs++;
+            totalMarked += marked;
+            lastRunAt = LocalDateTime.now();
+            lastMarked = marked;
+            lastChunks = chunks;
+            lastDurationMs = duration;
+        }
+        log.info("Overdue sweep marked {} loans in {} chunks, {} ms", marked, chunks, duration);
+        return marked;
+    }
+
+    private int markChunk(LocalDate today) {
+        List<Long> borrowIds = borrowRepository.lockOverdue(today, chunkSize);
+        if (borrowIds.isEmpty()) {
+            return 0;
+        }
+        borrowRepository.markOverdueByIds(borrowIds);
+        circulationLedgerService.recordOverdue(borrowIds, LocalDateTime.now());
+        return borrowIds.size();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs);
+        stats.put("skippedRuns", skippedRuns);
+        stats.put("totalMarked", totalMarked);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastMarked", lastMarked);
+        stats.put("lastChunks", lastChunks);
+        stats.put("lastDurationMs", lastDurationMs);
+        stats.put("chunkSize", chunkSize);
+        stats.put("node", leaseService.getOwner());
+        return stats;
+    }
+}
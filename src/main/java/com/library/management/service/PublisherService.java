@@ -2,8 +2,10 @@ package com.library.management.service;
 
 import com.library.management.dto.PublisherDTO;
 import com.library.management.entity.Publisher;
+import com.library.management.event.CatalogChangedEvent;
 import com.library.management.repository.PublisherRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -14,6 +16,7 @@ import java.util.stream.Collectors;
 public class PublisherService {
 
     private final PublisherRepository publisherRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<PublisherDTO> getAllPublishers() {
         return publisherRepository.findAll().stream()
@@ -41,6 +44,8 @@ public class PublisherService {
 
         Publisher publisher = convertToEntity(publisherDTO);
         Publisher savedPublisher = publisherRepository.save(publisher);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.CREATED,
+                CatalogChangedEvent.EntityType.PUBLISHER, savedPublisher.getPublisherId(), savedPublisher.getName()));
         return convertToDTO(savedPublisher);
     }
 
@@ -59,6 +64,8 @@ public class PublisherService {
         existingPublisher.setWebsite(publisherDTO.getWebsite());
 
         Publisher updatedPublisher = publisherRepository.save(existingPublisher);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.UPDATED,
+                CatalogChangedEvent.EntityType.PUBLISHER, id, updatedPublisher.getName()));
         return convertToDTO(updatedPublisher);
     }
 
@@ -72,6 +79,8 @@ public class PublisherService {
         }
 
         publisherRepository.delete(publisher);
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Type.DELETED,
+                CatalogChangedEvent.EntityType.PUBLISHER, id, publisher.getName()));
     }
 
     private PublisherDTO convertToDTO(Publisher publisher) {
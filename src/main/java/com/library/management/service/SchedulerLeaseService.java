@@ -0,0 +1,59 @@
+package com.library.management.service;
+
+import com.library.management.repository.SchedulerLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database leases for scheduled jobs, so that with several application nodes each job
+ * runs on one of them. Acquiring is a conditional UPDATE on the job's row, which the
+ * database serializes; a holder renews by acquiring again before its lease runs out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLeaseService {
+
+    private static final LocalDateTime NEVER_HELD = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final SchedulerLeaseRepository leaseRepository;
+
+    private final String owner = hostName() + ":" + ProcessHandle.current().pid() + ":"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    public boolean tryAcquire(String name, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        if (leaseRepository.acquire(name, owner, now, now.plus(ttl)) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(name)) {
+            return false;
+        }
+        // INSERT IGNORE rather than save(): a merge could overwrite a lease another node just took
+        leaseRepository.createIfAbsent(name, NEVER_HELD);
+        return leaseRepository.acquire(name, owner, now, now.plus(ttl)) == 1;
+    }
+
+    public void release(String name) {
+        leaseRepository.release(name, owner, LocalDateTime.now());
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
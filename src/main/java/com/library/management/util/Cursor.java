@@ -0,0 +1,79 @@
+package com.library.management.util;
+
+import com.library.management.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor: the sort key of the last row returned plus its id as a
+ * tie-breaker, base64url-encoded so clients treat it as a token.
+ */
+public record Cursor(String key, long id) {
+
+    private static final char SEPARATOR = '\n';
+
+    /** Upper bound for newest-first listings; stays inside the DATETIME range. */
+    public static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    public static Cursor of(LocalDateTime timestamp, long id) {
+        return new Cursor(timestamp.toString(), id);
+    }
+
+    public static Cursor of(LocalDate date, long id) {
+        return new Cursor(date.toString(), id);
+    }
+
+    public LocalDateTime timestamp() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + encode());
+        }
+    }
+
+    public LocalDate date() {
+        try {
+            return LocalDate.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + encode());
+        }
+    }
+
+    public String encode() {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for an empty token, which means "first page".
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new Cursor(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Trims a size + 1 fetch down to size and derives the next cursor from the last row kept.
+     */
+    public static <T, R> CursorPage<R> page(List<T> rows, int size, Function<T, Cursor> cursorOf,
+                                            Function<List<T>, List<R>> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<T> slice = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? cursorOf.apply(slice.get(slice.size() - 1)).encode() : null;
+        return new CursorPage<>(mapper.apply(slice), slice.size(), next, hasNext);
+    }
+}
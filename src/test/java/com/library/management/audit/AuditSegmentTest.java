@@ -0,0 +1,180 @@
+package com.library.management.audit;
+
+import com.library.management.event.ActivityEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditSegmentTest {
+
+    private static final int CAPACITY = 64 * 1024;
+    private static final int INDEX_INTERVAL = 4;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final MessageDigest digest = AuditSegment.sha256();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasAppended() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 1, AuditSegment.GENESIS, CAPACITY, INDEX_INTERVAL);
+        append(segment, 1, 10);
+
+        List<AuditRecord> records = read(segment, 0);
+
+        assertEquals(10, records.size());
+        assertEquals(1, records.get(0).sequence());
+        assertEquals("user1", records.get(0).username());
+        assertEquals(START.plusSeconds(10), records.get(9).recordedAt());
+        assertNull(records.get(1).entityId());
+        assertEquals(List.of(8L, 9L, 10L), read(segment, 7).stream().map(AuditRecord::sequence).toList());
+        assertOk(segment.verify(AuditSegment.GENESIS), 10, 10);
+        segment.close();
+    }
+
+    @Test
+    void chainContinuesAcrossSegments() throws IOException {
+        AuditSegment first = AuditSegment.create(dir, 1, AuditSegment.GENESIS, CAPACITY, INDEX_INTERVAL);
+        append(first, 1, 5);
+        first.seal();
+        AuditSegment second = AuditSegment.create(dir, 6, first.lastHash(), CAPACITY, INDEX_INTERVAL);
+        append(second, 6, 3);
+
+        AuditSegment sealed = AuditSegment.open(first.file, false, CAPACITY, INDEX_INTERVAL);
+        assertTrue(sealed.isSealed());
+        AuditSegment.Check check = sealed.verify(AuditSegment.GENESIS);
+        assertOk(check, 5, 5);
+        assertOk(second.verify(check.lastHash()), 3, 8);
+
+        AuditSegment.Check broken = second.verify(AuditSegment.GENESIS);
+        assertEquals("chain broken before sequence 6", broken.problem());
+        second.close();
+    }
+
+    @Test
+    void verifyFindsAChangedRecord() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 1, AuditSegment.GENESIS, CAPACITY, INDEX_INTERVAL);
+        append(segment, 1, 2);
+        int third = segment.end();
+        append(segment, 3, 4);
+        segment.seal();
+
+        // Last byte of the third record's payload
+        int payloadEnd = third + Integer.BYTES + 2 * Long.BYTES + payload(3).length - 1;
+        overwrite(segment.file, payloadEnd, new byte[]{(byte) 0x7F});
+
+        AuditSegment.Check check = AuditSegment.open(segment.file, false, CAPACITY, INDEX_INTERVAL)
+                .verify(AuditSegment.GENESIS);
+        assertEquals("hash mismatch at sequence 3", check.problem());
+        assertEquals(2, check.lastSequence());
+    }
+
+    @Test
+    void reopeningCutsATornRecordAndKeepsAppending() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 1, AuditSegment.GENESIS, CAPACITY, INDEX_INTERVAL);
+        append(segment, 1, 5);
+        int goodEnd = segment.end();
+        byte[] goodHash = segment.lastHash();
+        segment.close();
+
+        // A crash mid-append: length and sequence reached the file, the hash did not
+        ByteBuffer torn = ByteBuffer.allocate(AuditSegment.RECORD_OVERHEAD + 40);
+        torn.putInt(40).putLong(6).putLong(AuditRecord.micros(START)).put(new byte[40]);
+        overwrite(segment.file, goodEnd, torn.array());
+
+        AuditSegment reopened = AuditSegment.open(segment.file, true, CAPACITY, INDEX_INTERVAL);
+        assertEquals(5, reopened.lastSequence());
+        assertEquals(goodEnd, reopened.end());
+        assertArrayEquals(goodHash, reopened.lastHash());
+        assertEquals(0, ByteBuffer.wrap(Files.readAllBytes(segment.file)).getInt(goodEnd));
+
+        append(reopened, 6, 2);
+        assertOk(reopened.verify(AuditSegment.GENESIS), 7, 7);
+        assertEquals(7, read(reopened, 0).size());
+        reopened.close();
+    }
+
+    @Test
+    void reopeningCutsARecordLongerThanTheFile() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 1, AuditSegment.GENESIS, CAPACITY, INDEX_INTERVAL);
+        append(segment, 1, 3);
+        int goodEnd = segment.end();
+        segment.close();
+        overwrite(segment.file, goodEnd, ByteBuffer.allocate(Integer.BYTES).putInt(CAPACITY).array());
+
+        AuditSegment reopened = AuditSegment.open(segment.file, true, CAPACITY, INDEX_INTERVAL);
+
+        assertEquals(3, reopened.lastSequence());
+        assertEquals(goodEnd, reopened.end());
+        append(reopened, 4, 1);
+        assertOk(reopened.verify(AuditSegment.GENESIS), 4, 4);
+        reopened.close();
+    }
+
+    @Test
+    void sealedSegmentWithoutItsIndexIsRescanned() throws IOException {
+        AuditSegment segment = AuditSegment.create(dir, 1, AuditSegment.GENESIS, CAPACITY, INDEX_INTERVAL);
+        append(segment, 1, 9);
+        segment.seal();
+        Files.delete(AuditSegment.indexFile(segment.file));
+
+        AuditSegment reopened = AuditSegment.open(segment.file, true, CAPACITY, INDEX_INTERVAL);
+
+        assertEquals(9, reopened.lastSequence());
+        assertTrue(Files.exists(AuditSegment.indexFile(segment.file)));
+        assertEquals(List.of(9L), read(reopened, 8).stream().map(AuditRecord::sequence).toList());
+        assertOk(reopened.verify(AuditSegment.GENESIS), 9, 9);
+    }
+
+    private void append(AuditSegment segment, long firstSequence, int count) throws IOException {
+        for (long sequence = firstSequence; sequence < firstSequence + count; sequence++) {
+            long recordedAt = AuditRecord.micros(START.plusSeconds(sequence));
+            assertNotNull(segment.append(sequence, recordedAt, payload(sequence), digest));
+        }
+        segment.force();
+    }
+
+    private static List<AuditRecord> read(AuditSegment segment, long afterSequence) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        segment.read(segment.startPosition(afterSequence, Long.MIN_VALUE), afterSequence, Long.MIN_VALUE,
+                Long.MAX_VALUE, records::add);
+        return records;
+    }
+
+    private static byte[] payload(long sequence) {
+        return AuditRecord.encode(new ActivityEvent("user" + sequence, "UPDATE", "Book",
+                sequence % 2 == 0 ? null : sequence, "record " + sequence, "127.0.0.1", "test", START));
+    }
+
+    private static void assertOk(AuditSegment.Check check, long records, long lastSequence) {
+        assertNull(check.problem());
+        assertEquals(records, check.records());
+        assertEquals(lastSequence, check.lastSequence());
+    }
+
+    private static void overwrite(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.library.management.search;
+
+import com.library.management.dto.FacetCountDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.BookSnapshot;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.projection.CategoryNodeView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FacetIndexTest {
+
+    private static final FacetFilter NO_FILTER = filter(null, null, null, null, null, null);
+
+    private record Node(Long getId, Long getParentId, String getName) implements CategoryNodeView {
+    }
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findCategoryNodes()).thenReturn(List.of(
+                new Node(1L, null, "Fiction"), new Node(2L, 1L, "Fantasy"), new Node(3L, null, "Science")));
+
+        List<BookSnapshot> books = List.of(
+                book(1, Set.of(2L), "English", 1997, 100L, true),
+                book(2, Set.of(1L), "English", 2005, 100L, false),
+                book(3, Set.of(3L), "French", 2005, 200L, true),
+                book(4, Set.of(2L, 3L), "english ", 2010, null, true));
+        BookSnapshotLoader loader = mock(BookSnapshotLoader.class);
+        doAnswer(invocation -> {
+            Consumer<List<BookSnapshot>> consumer = invocation.getArgument(2);
+            consumer.accept(books);
+            return (long) books.size();
+        }).when(loader).forEachBatch(anyInt(), anyBoolean(), any());
+
+        index = new FacetIndex(loader, categoryRepository);
+        ReflectionTestUtils.setField(index, "rebuildBatchSize", 1000);
+        index.rebuild();
+    }
+
+    @Test
+    void countsEveryValueWithoutFilters() {
+        FacetResult result = index.search(NO_FILTER, 0, 10, 10);
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.bookIds());
+        assertEquals(4, result.totalHits());
+        // Category counts roll subcategories up into their parents
+        assertEquals(Map.of("1", 3L, "2", 2L, "3", 2L), counts(result, FacetIndex.CATEGORY));
+        assertEquals(Map.of("English", 3L, "French", 1L), counts(result, FacetIndex.LANGUAGE));
+        assertEquals(Map.of("100", 2L, "200", 1L), counts(result, FacetIndex.PUBLISHER));
+        assertEquals(Map.of("true", 3L, "false", 1L), counts(result, FacetIndex.AVAILABILITY));
+        assertEquals(List.of("1997", "2005", "2010"),
+                result.facets().get(FacetIndex.YEAR).stream().map(FacetCountDTO::getValue).toList());
+    }
+
+    @Test
+    void dimensionCountsIgnoreTheirOwnFilter() {
+        FacetResult result = index.search(filter(Set.of(2L), null, null, null, null, null), 0, 10, 10);
+
+        assertEquals(List.of(1L, 4L), result.bookIds());
+        assertEquals(Map.of("1", 3L, "2", 2L, "3", 2L), counts(result, FacetIndex.CATEGORY));
+        assertEquals(Map.of("English", 2L), counts(result, FacetIndex.LANGUAGE));
+        assertEquals(Map.of("true", 2L, "false", 0L), counts(result, FacetIndex.AVAILABILITY));
+    }
+
+    @Test
+    void ordersValuesWithinADimensionAndAndsDimensions() {
+        FacetResult either = index.search(filter(null, Set.of("FRENCH", "english"), null, null, null, null), 0, 10, 10);
+        FacetResult both = index.search(filter(Set.of(1L), Set.of("French", "English"), 2005, 2010, null, true), 0, 10, 10);
+
+        assertEquals(4, either.totalHits());
+        assertEquals(List.of(4L), both.bookIds());
+    }
+
+    @Test
+    void unknownValuesMatchNothing() {
+        FacetResult result = index.search(filter(Set.of(99L), null, null, null, null, null), 0, 10, 10);
+
+        assertEquals(0, result.totalHits());
+        assertEquals(Map.of("true", 0L, "false", 0L), counts(result, FacetIndex.AVAILABILITY));
+    }
+
+    @Test
+    void pagesAndTruncatesFacets() {
+        FacetResult result = index.search(NO_FILTER, 1, 2, 1);
+
+        assertEquals(List.of(2L, 3L), result.bookIds());
+        assertEquals(1, result.facets().get(FacetIndex.CATEGORY).size());
+        assertEquals("1", result.facets().get(FacetIndex.CATEGORY).get(0).getValue());
+        assertEquals(3, result.facets().get(FacetIndex.YEAR).size());
+        assertTrue(index.search(NO_FILTER, 4, 2, 1).bookIds().isEmpty());
+    }
+
+    @Test
+    void followsLoansAndBookChanges() {
+        index.onLoan(new LoanEvent(LoanEvent.Type.BORROWED, 1L, 1L, 1L, LocalDate.now()));
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, 3L,
+                book(3, Set.of(3L), "French", 2005, 200L, true), book(3, Set.of(3L), "German", 2006, 200L, true)));
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, 2L,
+                book(2, Set.of(1L), "English", 2005, 100L, false), null));
+
+        FacetResult result = index.search(NO_FILTER, 0, 10, 10);
+
+        assertEquals(List.of(1L, 3L, 4L), result.bookIds());
+        assertEquals(Map.of("true", 2L, "false", 1L), counts(result, FacetIndex.AVAILABILITY));
+        assertEquals(Map.of("English", 2L, "German", 1L), counts(result, FacetIndex.LANGUAGE));
+        assertEquals(List.of("1997", "2006", "2010"),
+                result.facets().get(FacetIndex.YEAR).stream().map(FacetCountDTO::getValue).toList());
+    }
+
+    private static Map<String, Long> counts(FacetResult result, String dimension) {
+        return result.facets().get(dimension).stream()
+                .collect(Collectors.toMap(FacetCountDTO::getValue, FacetCountDTO::getCount));
+    }
+
+    private static FacetFilter filter(Set<Long> categoryIds, Set<String> languages, Integer yearFrom, Integer yearTo,
+                                      Set<Long> publisherIds, Boolean available) {
+        return new FacetFilter(categoryIds, languages, yearFrom, yearTo, publisherIds, available);
+    }
+
+    private static BookSnapshot book(long id, Set<Long> categoryIds, String language, int year, Long publisherId,
+                                     boolean available) {
+        return BookSnapshot.builder()
+                .bookId(id)
+                .title("Book " + id)
+                .language(language)
+                .publicationYear(year)
+                .publisherId(publisherId)
+                .publisherName(publisherId == null ? null : "Publisher " + publisherId)
+                .isAvailable(available)
+                .categories(categoryIds.stream().collect(Collectors.toMap(c -> c, c -> "Category " + c)))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.management.search;
+
+import com.library.management.event.BookSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(book(1, "Harry Potter and the Philosopher's Stone", "A boy wizard goes to school", "J.K. Rowling", "Fantasy"));
+        index.put(book(2, "The Hobbit", "A wizard and a dragon", "J.R.R. Tolkien", "Fantasy"));
+        index.put(book(3, "Dragon Cooking", "Recipes for stone ovens", "Ann Baker", "Cooking"));
+        index.put(book(4, "Murder on the Orient Express", "A detective story", "Agatha Christie", "Mystery"));
+    }
+
+    @Test
+    void titleMatchOutranksSummaryMatch() {
+        assertEquals(List.of(3L, 2L), index.search("dragon", 0, 10).bookIds());
+    }
+
+    @Test
+    void booksMatchingEveryWordComeFirst() {
+        SearchHits hits = index.search("wizard stone", 0, 10);
+
+        assertEquals(3, hits.totalHits());
+        assertEquals(1L, hits.bookIds().get(0));
+    }
+
+    @Test
+    void lastWordMatchesAsPrefix() {
+        assertEquals(List.of(1L), index.search("harr", 0, 10).bookIds());
+        assertEquals(List.of(4L), index.search("agatha chri", 0, 10).bookIds());
+    }
+
+    @Test
+    void isbnIsOneToken() {
+        index.put(BookSnapshot.builder().bookId(5L).title("Dune").isbn("978-0-441-17271-9").build());
+
+        assertEquals(List.of(5L), index.search("9780441172719", 0, 10).bookIds());
+    }
+
+    @Test
+    void pagesThroughRankedHits() {
+        SearchHits all = index.search("fantasy", 0, 10);
+        SearchHits second = index.search("fantasy", 1, 1);
+
+        assertEquals(2, all.bookIds().size());
+        assertEquals(2, second.totalHits());
+        assertEquals(List.of(all.bookIds().get(1)), second.bookIds());
+    }
+
+    @Test
+    void removedBookIsNoLongerFound() {
+        index.remove(2);
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(3L), index.search("dragon", 0, 10).bookIds());
+        assertTrue(index.search("hobbit", 0, 10).bookIds().isEmpty());
+        assertEquals(0, index.search("tolkien", 0, 10).totalHits());
+    }
+
+    @Test
+    void removingUnknownBookIsHarmless() {
+        index.remove(99);
+
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void putReplacesPreviousTerms() {
+        index.put(book(4, "Murder on the Orient Express", "A detective story", "Mary Westmacott", "Mystery"));
+
+        assertEquals(4, index.size());
+        assertEquals(0, index.search("agatha", 0, 10).totalHits());
+        assertEquals(List.of(4L), index.search("westmacott", 0, 10).bookIds());
+    }
+
+    @Test
+    void emptyQueryFindsNothing() {
+        assertEquals(0, index.search("the of", 0, 10).totalHits());
+        assertEquals(0, new InvertedIndex().search("dragon", 0, 10).totalHits());
+    }
+
+    private static BookSnapshot book(long id, String title, String summary, String author, String category) {
+        return BookSnapshot.builder()
+                .bookId(id)
+                .title(title)
+                .summary(summary)
+                .authors(Map.of(id * 10, author))
+                .categories(Map.of(id * 100, category))
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.management.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RadixTreeTest {
+
+    private final RadixTree tree = new RadixTree();
+
+    @Test
+    void returnsPrefixMatchesMostPopularFirst() {
+        Suggestion harry = add("harry potter", 50);
+        Suggestion hardy = add("hardy boys", 80);
+        Suggestion hamlet = add("hamlet", 10);
+        add("dune", 500);
+
+        assertEquals(List.of(hardy, harry, hamlet), tree.top("h", 10, all()));
+        assertEquals(List.of(hardy, harry), tree.top("har", 10, all()));
+        assertEquals(List.of(harry), tree.top("harry p", 10, all()));
+    }
+
+    @Test
+    void prefixEndingInsideAnEdgeStillMatches() {
+        Suggestion tolkien = add("tolkien", 5);
+
+        assertEquals(List.of(tolkien), tree.top("tolk", 10, all()));
+        assertTrue(tree.top("tolx", 10, all()).isEmpty());
+        assertTrue(tree.top("tolkiens", 10, all()).isEmpty());
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        for (int i = 0; i < 100; i++) {
+            add("book " + i, i);
+        }
+
+        List<Suggestion> top = tree.top("book", 3, all());
+
+        assertEquals(List.of(99L, 98L, 97L), top.stream().map(s -> s.popularity).toList());
+    }
+
+    @Test
+    void appliesTheFilterAndDeduplicatesInstances() {
+        Suggestion book = new Suggestion(Suggestion.Type.BOOK, 1, "The Stand", 7);
+        tree.insert("the stand", book);
+        tree.insert("stand", book);
+        Suggestion author = new Suggestion(Suggestion.Type.AUTHOR, 2, "Stan Lee", 9);
+        tree.insert("stan lee", author);
+
+        assertEquals(List.of(author, book), tree.top("stan", 10, all()));
+        assertEquals(List.of(book), tree.top("stan", 10, s -> s.type == Suggestion.Type.BOOK));
+        assertEquals(List.of(book), tree.top("", 10, s -> s.type == Suggestion.Type.BOOK));
+    }
+
+    @Test
+    void removeRecompressesAndKeepsSiblings() {
+        Suggestion team = add("team", 3);
+        Suggestion tea = add("tea", 2);
+        Suggestion teapot = add("teapot", 1);
+
+        tree.remove("tea", tea);
+        assertEquals(List.of(team, teapot), tree.top("te", 10, all()));
+
+        tree.remove("team", team);
+        assertEquals(List.of(teapot), tree.top("tea", 10, all()));
+        assertEquals(List.of(teapot), tree.top("teap", 10, all()));
+
+        tree.remove("teapot", teapot);
+        assertTrue(tree.top("t", 10, all()).isEmpty());
+    }
+
+    @Test
+    void removeOnlyDropsTheGivenInstance() {
+        Suggestion first = add("it", 1);
+        Suggestion second = new Suggestion(Suggestion.Type.BOOK, 99, "It", 2);
+        tree.insert("it", second);
+
+        tree.remove("it", first);
+        tree.remove("missing", first);
+
+        assertEquals(List.of(second), tree.top("it", 10, all()));
+    }
+
+    private Suggestion add(String key, long popularity) {
+        Suggestion suggestion = new Suggestion(Suggestion.Type.BOOK, key.hashCode(), key, popularity);
+        tree.insert(key, suggestion);
+        return suggestion;
+    }
+
+    private static Predicate<Suggestion> all() {
+        return suggestion -> true;
+    }
+}
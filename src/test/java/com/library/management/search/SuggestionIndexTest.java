@@ -0,0 +1,95 @@
+package com.library.management.search;
+
+import com.library.management.dto.SuggestionDTO;
+import com.library.management.event.BookChangedEvent;
+import com.library.management.event.BookSnapshot;
+import com.library.management.event.CatalogChangedEvent;
+import com.library.management.event.LoanEvent;
+import com.library.management.repository.AuthorRepository;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.PublisherRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex(mock(BookSnapshotLoader.class), mock(AuthorRepository.class),
+                mock(PublisherRepository.class), mock(CategoryRepository.class));
+        book(1, "Harry Potter and the Chamber of Secrets");
+        book(2, "The Hobbit");
+        index.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Type.CREATED,
+                CatalogChangedEvent.EntityType.AUTHOR, 10L, "Thomas Hardy"));
+    }
+
+    @Test
+    void matchesLabelStartAndLaterWords() {
+        assertEquals(List.of("Harry Potter and the Chamber of Secrets"), labels("harr"));
+        assertEquals(List.of("Harry Potter and the Chamber of Secrets"), labels("chamber"));
+        assertEquals(List.of("Thomas Hardy"), labels("hardy"));
+        assertTrue(labels("xyz").isEmpty());
+        assertTrue(labels("  ").isEmpty());
+    }
+
+    @Test
+    void prefixIsNormalized() {
+        assertEquals(List.of("The Hobbit"), labels("HÓBB"));
+    }
+
+    @Test
+    void borrowsRaiseABookAboveOthers() {
+        book(3, "Hobbies for Everyone");
+        assertEquals(List.of("The Hobbit", "Hobbies for Everyone"), labels("hobb"));
+
+        borrow(3);
+        borrow(3);
+
+        List<SuggestionDTO> results = index.suggest("hobb", 10, null);
+        assertEquals("Hobbies for Everyone", results.get(0).getLabel());
+        assertEquals(2, results.get(0).getPopularity());
+    }
+
+    @Test
+    void filtersByType() {
+        List<SuggestionDTO> authors = index.suggest("h", 10, Set.of("author"));
+
+        assertEquals(1, authors.size());
+        assertEquals("AUTHOR", authors.get(0).getType());
+        assertEquals(10L, authors.get(0).getId());
+    }
+
+    @Test
+    void renamesAndDeletesAreReflected() {
+        index.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Type.UPDATED,
+                CatalogChangedEvent.EntityType.AUTHOR, 10L, "Tom Sharpe"));
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, 2L, null, null));
+
+        assertTrue(labels("hardy").isEmpty());
+        assertEquals(List.of("Tom Sharpe"), labels("sharpe"));
+        assertTrue(labels("hobbit").isEmpty());
+    }
+
+    private void book(long id, String title) {
+        BookSnapshot snapshot = BookSnapshot.builder().bookId(id).title(title).build();
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, id, null, snapshot));
+    }
+
+    private void borrow(long bookId) {
+        index.onLoan(new LoanEvent(LoanEvent.Type.BORROWED, 1L, bookId, 1L, LocalDate.now()));
+    }
+
+    private List<String> labels(String prefix) {
+        return index.suggest(prefix, 10, null).stream().map(SuggestionDTO::getLabel).toList();
+    }
+}
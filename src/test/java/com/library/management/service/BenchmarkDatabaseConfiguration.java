@@ -0,0 +1,24 @@
+package com.library.management.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * A throwaway MySQL for the benchmarks, so they never write to the configured database.
+ * The schema is created by Hibernate on startup and the container is removed when the
+ * test JVM exits.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class BenchmarkDatabaseConfiguration {
+
+    @Bean
+    @ServiceConnection
+    MySQLContainer<?> benchmarkMySql() {
+        return new MySQLContainer<>("mysql:8.4")
+                .withDatabaseName("library_benchmark")
+                .withUrlParam("useCursorFetch", "true")
+                .withUrlParam("rewriteBatchedStatements", "true");
+    }
+}
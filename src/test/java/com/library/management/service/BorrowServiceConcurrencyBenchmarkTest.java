@@ -0,0 +1,285 @@
+package com.library.management.service;
+
+import com.library.management.dto.BorrowBatchResultDTO;
+import com.library.management.dto.BorrowDTO;
+import com.library.management.entity.Book;
+import com.library.management.entity.Member;
+import com.library.management.entity.User;
+import com.library.management.entity.UserRole;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.MemberRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers checkout from many threads against a throwaway MySQL container and logs
+ * throughput. Opt-in because it is slow, and skipped where Docker is unavailable:
+ *
+ *   mvn test -Dtest=BorrowServiceConcurrencyBenchmarkTest -Dbenchmark=true
+ *            [-Dbenchmark.threads=32] [-Dbenchmark.seconds=10]
+ *
+ * Also checks a batch checkout that picks up held copies, which needs the same database.
+ */
+@SpringBootTest
+@Import(BenchmarkDatabaseConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BorrowServiceConcurrencyBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowServiceConcurrencyBenchmarkTest.class);
+
+    private static final String UNAVAILABLE = "Book is not available for borrowing";
+    private static final String LIMIT_REACHED = "Member has reached the maximum number of borrowed books";
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int threads = Integer.getInteger("benchmark.threads", 32);
+    private final int seconds = Integer.getInteger("benchmark.seconds", 10);
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> memberIds = new ArrayList<>();
+    private User user;
+
+    @BeforeEach
+    void createDesk() {
+        User desk = new User();
+        desk.setUsername("bench-" + runId);
+        desk.setPasswordHash("-");
+        desk.setEmail("bench-" + runId + "@example.invalid");
+        desk.setRole(UserRole.LIBRARIAN);
+        user = userRepository.save(desk);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long bookId : bookIds) {
+            jdbcTemplate.update("DELETE FROM holds WHERE book_id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM borrow_records WHERE book_id = ?", bookId);
+        }
+        bookRepository.deleteAllById(bookIds);
+        memberRepository.deleteAllById(memberIds);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void hotBookIsNeverLentTwice() throws InterruptedException {
+        Long bookId = createBook(0);
+        for (int i = 0; i < threads; i++) {
+            createMember(i);
+        }
+
+        AtomicLong checkouts = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        ConcurrentLinkedQueue<String> unexpected = new ConcurrentLinkedQueue<>();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long elapsed = runConcurrently(index -> {
+            Long memberId = memberIds.get(index);
+            while (System.nanoTime() < deadline) {
+                BorrowDTO loan;
+                try {
+                    loan = borrowService.borrowBook(bookId, memberId, user.getUserId(), 14);
+                } catch (RuntimeException e) {
+                    if (UNAVAILABLE.equals(e.getMessage())) {
+                        rejected.incrementAndGet();
+                    } else {
+                        unexpected.add(e.toString());
+                    }
+                    continue;
+                }
+                checkouts.incrementAndGet();
+                borrowService.returnBook(loan.getBorrowId());
+            }
+        });
+
+        Map<String, Object> loans = jdbcTemplate.queryForMap(
+                "SELECT COUNT(*) AS total, COALESCE(SUM(CASE WHEN return_date IS NULL THEN 1 ELSE 0 END), 0) AS open_count " +
+                        "FROM borrow_records WHERE book_id = ?", bookId);
+        Book book = bookRepository.findById(bookId).orElseThrow();
+        // Each loan starts only after the previous one was returned
+        List<Map<String, Object>> intervals = jdbcTemplate.queryForList(
+                "SELECT borrow_id, borrow_date, return_date FROM borrow_records WHERE book_id = ? " +
+                        "ORDER BY borrow_date, borrow_id", bookId);
+
+        log.info("Hot book: {} threads, {} checkouts in {} s = {} checkouts/sec, {} rejected as unavailable",
+                threads, checkouts.get(), String.format("%.2f", elapsed / 1e9),
+                Math.round(checkouts.get() / (elapsed / 1e9)), rejected.get());
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        for (int i = 1; i < intervals.size(); i++) {
+            Map<String, Object> previous = intervals.get(i - 1);
+            Map<String, Object> loan = intervals.get(i);
+            assertNotNull(previous.get("return_date"), () -> "loan " + previous.get("borrow_id") + " was never returned");
+            assertFalse(((Timestamp) loan.get("borrow_date")).before((Timestamp) previous.get("return_date")),
+                    () -> "book was lent to two members at once: loans " + previous.get("borrow_id") +
+                            " and " + loan.get("borrow_id") + " overlap");
+        }
+        assertEquals(checkouts.get(), ((Number) loans.get("total")).longValue());
+        assertEquals(0L, ((Number) loans.get("open_count")).longValue());
+        assertEquals(checkouts.get(), book.getTotalBorrows());
+        assertEquals(0, book.getOpenLoans());
+        assertTrue(book.getIsAvailable());
+        for (Long memberId : memberIds) {
+            assertEquals(0, memberRepository.findById(memberId).orElseThrow().getActiveLoans());
+        }
+    }
+
+    @Test
+    void memberLimitHoldsUnderContention() throws InterruptedException {
+        Long memberId = createMember(0);
+        for (int i = 0; i < threads; i++) {
+            createBook(i);
+        }
+
+        AtomicInteger granted = new AtomicInteger();
+        ConcurrentLinkedQueue<String> unexpected = new ConcurrentLinkedQueue<>();
+        runConcurrently(index -> {
+            try {
+                borrowService.borrowBook(bookIds.get(index), memberId, user.getUserId(), 14);
+                granted.incrementAndGet();
+            } catch (RuntimeException e) {
+                if (!LIMIT_REACHED.equals(e.getMessage())) {
+                    unexpected.add(e.toString());
+                }
+            }
+        });
+
+        long open = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM borrow_records WHERE member_id = ? AND return_date IS NULL", Long.class, memberId);
+        log.info("Member limit: {} concurrent checkouts for one member, {} granted", threads, granted.get());
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(Math.min(5, threads), granted.get());
+        assertEquals(granted.get(), open);
+        assertEquals(granted.get(), memberRepository.findById(memberId).orElseThrow().getActiveLoans());
+    }
+
+    @Test
+    void batchCheckoutPicksUpHeldCopies() {
+        Long lender = createMember(0);
+        Long reader = createMember(1);
+        Long other = createMember(2);
+        Long heldForReader = createBook(0);
+        Long alsoHeldForReader = createBook(1);
+        Long heldForOther = createBook(2);
+        Long onShelf = createBook(3);
+
+        BorrowBatchResultDTO lent = borrowService.borrowBooks(
+                List.of(heldForReader, alsoHeldForReader, heldForOther), lender, user.getUserId(), 14);
+        holdService.placeHold(heldForReader, reader);
+        holdService.placeHold(alsoHeldForReader, reader);
+        holdService.placeHold(heldForOther, other);
+        borrowService.returnBooks(lent.getItems().stream().map(item -> item.getRecord().getBorrowId()).toList());
+
+        BorrowBatchResultDTO result = borrowService.borrowBooks(
+                List.of(heldForReader, onShelf, alsoHeldForReader, heldForOther), reader, user.getUserId(), 14);
+
+        assertEquals(3, result.getSucceeded());
+        assertEquals(List.of(true, true, true, false),
+                result.getItems().stream().map(BorrowBatchResultDTO.Item::isSuccess).toList());
+        assertEquals(UNAVAILABLE, result.getItems().get(3).getError());
+        assertEquals(List.of("FULFILLED", "FULFILLED"), jdbcTemplate.queryForList(
+                "SELECT status FROM holds WHERE member_id = ? ORDER BY hold_id", String.class, reader));
+        for (Long bookId : List.of(heldForReader, alsoHeldForReader)) {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            assertFalse(book.getIsAvailable());
+            assertEquals(1, book.getOpenLoans());
+            assertEquals(2, book.getTotalBorrows());
+        }
+        assertEquals(3, memberRepository.findById(reader).orElseThrow().getActiveLoans());
+        assertEquals("READY", jdbcTemplate.queryForObject(
+                "SELECT status FROM holds WHERE member_id = ?", String.class, other));
+    }
+
+    private interface Worker {
+        void run(int index);
+    }
+
+    private long runConcurrently(Worker worker) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    worker.run(index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - startedAt;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private Long createBook(int index) {
+        Book book = new Book();
+        book.setTitle("Benchmark " + runId + " #" + index);
+        book.setIsbn("B" + runId + index);
+        Long bookId = bookRepository.save(book).getBookId();
+        bookIds.add(bookId);
+        return bookId;
+    }
+
+    private Long createMember(int index) {
+        Member member = new Member();
+        member.setFirstName("Bench");
+        member.setLastName(runId + "-" + index);
+        member.setEmail("bench-" + runId + "-" + index + "@example.invalid");
+        Long memberId = memberRepository.save(member).getMemberId();
+        memberIds.add(memberId);
+        return memberId;
+    }
+}
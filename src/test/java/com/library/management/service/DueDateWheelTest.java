@@ -0,0 +1,175 @@
+package com.library.management.service;
+
+import com.library.management.event.OverdueEvent;
+import com.library.management.repository.BorrowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DueDateWheelTest {
+
+    private static final long BASE_DAY = LocalDate.of(2025, 1, 1).toEpochDay();
+
+    private BorrowRepository borrowRepository;
+    private SchedulerLeaseService leaseService;
+    private ApplicationEventPublisher eventPublisher;
+    private DueDateWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        borrowRepository = mock(BorrowRepository.class);
+        leaseService = mock(SchedulerLeaseService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        wheel = new DueDateWheel(borrowRepository, leaseService, mock(CirculationLedgerService.class),
+                eventPublisher, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(wheel, "batchSize", 1000);
+        ReflectionTestUtils.setField(wheel, "leaseMinutes", 10L);
+        ReflectionTestUtils.setField(wheel, "baseDay", BASE_DAY);
+        when(borrowRepository.lockBorrowed(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void loansFallDueTheDayAfterTheirDueDate() {
+        wheel.schedule(1, day(3));
+        wheel.schedule(2, day(3));
+        wheel.schedule(3, day(5));
+
+        assertEquals(3, wheel.size());
+        assertEquals(List.of(), advance(3));
+        assertEquals(List.of(1L, 2L), advance(4));
+        assertEquals(List.of(3L), advance(10));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void overflowCascadesIntoTheRingAsItTurns() {
+        wheel.schedule(1, day(63));  // last ring slot
+        wheel.schedule(2, day(64));  // first overflow day
+        wheel.schedule(3, day(200));
+        wheel.schedule(4, day(127));
+
+        assertEquals(List.of(1L), advance(64));
+        assertEquals(List.of(2L), advance(65));
+        // Day 127 cascaded into the ring on an earlier turn; day 200 is still in overflow
+        assertEquals(List.of(4L), advance(128));
+        assertEquals(List.of(3L), advance(300));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void ringSlotsAreReusedAfterAFullTurn() {
+        wheel.schedule(1, day(2));
+        assertEquals(List.of(1L), advance(3));
+
+        // Same slot index as day 2, one turn later
+        wheel.schedule(2, day(66));
+        assertEquals(List.of(), advance(66));
+        assertEquals(List.of(2L), advance(67));
+    }
+
+    @Test
+    void pastDueAndCancelledLoans() {
+        wheel.schedule(1, day(-5));
+        wheel.schedule(2, day(10));
+        wheel.schedule(3, day(100));
+        wheel.cancel(2, day(10));
+        wheel.cancel(3, day(100));
+        wheel.cancel(4, day(20));
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L), advance(0));
+        assertEquals(List.of(), advance(200));
+    }
+
+    @Test
+    void tickMovesDueLoansAndPublishesThem() {
+        startWheelDaysAgo(10);
+        wheel.schedule(7, LocalDate.now().minusDays(5));
+        wheel.schedule(8, LocalDate.now().plusDays(5));
+        when(leaseService.tryAcquire(any(), any())).thenReturn(true);
+
+        wheel.tick();
+
+        verify(borrowRepository).markOverdueByIds(List.of(7L));
+        assertArrayEquals(new long[]{7}, publishedIds());
+        verify(leaseService).release(any());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void loansStayOnTheWheelWhileAnotherNodeHoldsTheLease() {
+        startWheelDaysAgo(10);
+        wheel.schedule(7, LocalDate.now().minusDays(5));
+        when(leaseService.tryAcquire(any(), any())).thenReturn(false, true);
+
+        wheel.tick();
+        assertEquals(1, wheel.size());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        wheel.tick();
+        assertArrayEquals(new long[]{7}, publishedIds());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void failedBatchGoesBackOnTheWheel() {
+        startWheelDaysAgo(10);
+        ReflectionTestUtils.setField(wheel, "batchSize", 2);
+        for (long id = 1; id <= 5; id++) {
+            wheel.schedule(id, LocalDate.now().minusDays(3));
+        }
+        when(leaseService.tryAcquire(any(), any())).thenReturn(true);
+        when(borrowRepository.lockBorrowed(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        assertThrows(QueryTimeoutException.class, wheel::tick);
+        verify(leaseService).release(any());
+        assertEquals(3, wheel.size());
+
+        doAnswer(invocation -> invocation.getArgument(0)).when(borrowRepository).lockBorrowed(anyList());
+        wheel.tick();
+        verify(eventPublisher, times(3)).publishEvent(any(OverdueEvent.class));
+        assertEquals(0, wheel.size());
+    }
+
+    private void startWheelDaysAgo(int days) {
+        ReflectionTestUtils.setField(wheel, "baseDay", LocalDate.now().minusDays(days).toEpochDay());
+    }
+
+    private long[] publishedIds() {
+        ArgumentCaptor<OverdueEvent> events = ArgumentCaptor.forClass(OverdueEvent.class);
+        verify(eventPublisher).publishEvent(events.capture());
+        return events.getValue().getBorrowIds();
+    }
+
+    private List<Long> advance(long offset) {
+        Roaring64Bitmap due = ReflectionTestUtils.invokeMethod(wheel, "advance", BASE_DAY + offset);
+        return Arrays.stream(due.toArray()).boxed().toList();
+    }
+
+    private static LocalDate day(long offset) {
+        return LocalDate.ofEpochDay(BASE_DAY + offset);
+    }
+}
@@ -0,0 +1,303 @@
+package com.library.management.service;
+
+import com.library.management.dto.FinePolicyDTO;
+import com.library.management.entity.Book;
+import com.library.management.entity.Category;
+import com.library.management.entity.FinePolicy;
+import com.library.management.entity.Member;
+import com.library.management.entity.MemberType;
+import com.library.management.entity.User;
+import com.library.management.entity.UserRole;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.CategoryRepository;
+import com.library.management.repository.MemberBalanceRepository;
+import com.library.management.repository.MemberRepository;
+import com.library.management.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fine accrual throughput: the pricing pass over synthetic loans in memory (10M by
+ * default), then a nightly run over seeded loans in a throwaway MySQL container, accruing
+ * only the seeded borrow ids. Opt-in because it is slow, and skipped where Docker is
+ * unavailable:
+ *
+ *   mvn test -Dtest=FineAccrualBenchmarkTest -Dbenchmark=true
+ *            [-Dbenchmark.loans=10000000] [-Dbenchmark.db-loans=100000] [-Dbenchmark.workers=4]
+ */
+@SpringBootTest
+@Import(BenchmarkDatabaseConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FineAccrualBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FineAccrualBenchmarkTest.class);
+
+    private static final int CHUNK = 5000;
+
+    @Autowired
+    private FineAccrualService fineAccrualService;
+
+    @Autowired
+    private FinePolicyService finePolicyService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MemberBalanceRepository memberBalanceRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final int loans = Integer.getInteger("benchmark.loans", 10_000_000);
+    private final int dbLoans = Integer.getInteger("benchmark.db-loans", 100_000);
+    private final int workers = Integer.getInteger("benchmark.workers", 4);
+    private final String runId = Long.toString(System.nanoTime(), 36);
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> policyIds = new ArrayList<>();
+    private Category category;
+    private User user;
+
+    @AfterEach
+    void cleanUp() {
+        policyIds.forEach(finePolicyService::deletePolicy);
+        for (Long bookId : bookIds) {
+            jdbcTemplate.update("DELETE FROM borrow_records WHERE book_id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM book_categories WHERE book_id = ?", bookId);
+        }
+        bookRepository.deleteAllById(bookIds);
+        memberBalanceRepository.deleteAllById(memberIds);
+        memberRepository.deleteAllById(memberIds);
+        if (category != null) {
+            categoryRepository.delete(category);
+        }
+        if (user != null) {
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    void pricesTenMillionLoansInMemory() throws Exception {
+        List<FinePolicy> policies = new ArrayList<>();
+        for (long categoryId = 1; categoryId <= 20; categoryId++) {
+            policies.add(policy(null, categoryId, 0.5 + categoryId / 10.0, 1, 40.0));
+            policies.add(policy(MemberType.STUDENT, categoryId, 0.25, 3, 10.0));
+        }
+        policies.add(policy(MemberType.SENIOR, null, 0.5, 2, 25.0));
+        policies.add(policy(MemberType.STAFF, null, 0.0, 0, null));
+        FineSchedule schedule = new FineSchedule(1.0, 0, 0, policies);
+
+        // 100k books, every tenth in one or two priced categories
+        int books = 100_000;
+        SplittableRandom random = new SplittableRandom(42);
+        List<long[]> pairs = new ArrayList<>();
+        for (long bookId = 1; bookId <= books; bookId += 10) {
+            pairs.add(new long[]{bookId, 1 + random.nextInt(20)});
+            if (random.nextInt(4) == 0) {
+                pairs.add(new long[]{bookId, 1 + random.nextInt(20)});
+            }
+        }
+        Map<Long, long[]> categoriesByBook = new HashMap<>();
+        for (long[] pair : pairs) {
+            categoriesByBook.merge(pair[0], new long[]{pair[1]}, (a, b) -> new long[]{a[0], b[0]});
+        }
+        FineSchedule.Books index = schedule.indexBooks(
+                pairs.stream().mapToLong(pair -> pair[0]).toArray(),
+                pairs.stream().mapToLong(pair -> pair[1]).toArray());
+
+        long asOfDay = LocalDate.now().toEpochDay();
+        int chunks = (loans + CHUNK - 1) / CHUNK;
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<double[]>> results = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            results.add(pool.submit(() -> {
+                int size = Math.min(CHUNK, loans - chunk * CHUNK);
+                SplittableRandom chunkRandom = new SplittableRandom(chunk);
+                int[] types = new int[size];
+                long[] chunkBooks = new long[size];
+                long[] dueDays = new long[size];
+                long[] members = new long[size];
+                for (int i = 0; i < size; i++) {
+                    types[i] = chunkRandom.nextInt(MemberType.values().length);
+                    chunkBooks[i] = 1 + chunkRandom.nextInt(books);
+                    dueDays[i] = asOfDay - 1 - chunkRandom.nextInt(120);
+                    members[i] = 1 + chunkRandom.nextInt(1_000_000);
+                }
+
+                long pricingStartedAt = System.nanoTime();
+                double[] fines = new double[size];
+                FineAccrualService.price(schedule, index, asOfDay, size, types, chunkBooks, dueDays, fines);
+                MemberFineTotals totals = new MemberFineTotals(size);
+                double sum = 0;
+                for (int i = 0; i < size; i++) {
+                    totals.add(members[i], fines[i]);
+                    sum += fines[i];
+                }
+                long pricingNanos = System.nanoTime() - pricingStartedAt;
+
+                // Spot-check against the per-loan path used at check-in
+                int probe = chunkRandom.nextInt(size);
+                long[] bookCategories = categoriesByBook.getOrDefault(chunkBooks[probe], new long[0]);
+                assertEquals(schedule.fine(MemberType.values()[types[probe]], bookCategories,
+                        LocalDate.ofEpochDay(dueDays[probe]), LocalDate.ofEpochDay(asOfDay)), fines[probe]);
+                return new double[]{sum, pricingNanos, totals.size()};
+            }));
+        }
+
+        double totalFines = 0;
+        long pricingNanos = 0;
+        for (Future<double[]> result : results) {
+            double[] chunk = result.get();
+            totalFines += chunk[0];
+            pricingNanos += (long) chunk[1];
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        log.info("In-memory accrual: {} loans, {} workers, {} s wall = {} loans/sec " +
+                        "(pricing + member totals alone: {} loans/sec per worker), total fines {}",
+                loans, workers, String.format("%.2f", elapsed / 1e9), Math.round(loans / (elapsed / 1e9)),
+                Math.round(loans / (pricingNanos / 1e9)), String.format("%.2f", totalFines));
+        assertTrue(totalFines > 0);
+    }
+
+    @Test
+    void nightlyRunAgainstDatabase() {
+        User desk = new User();
+        desk.setUsername("fines-" + runId);
+        desk.setPasswordHash("-");
+        desk.setEmail("fines-" + runId + "@example.invalid");
+        desk.setRole(UserRole.LIBRARIAN);
+        user = userRepository.save(desk);
+
+        Category pricedCategory = new Category();
+        pricedCategory.setName("Fines " + runId);
+        category = categoryRepository.save(pricedCategory);
+
+        int memberCount = Math.max(1, dbLoans / 20);
+        for (int i = 0; i < memberCount; i++) {
+            Member member = new Member();
+            member.setFirstName("Fines");
+            member.setLastName(runId + "-" + i);
+            member.setEmail("fines-" + runId + "-" + i + "@example.invalid");
+            member.setMemberType(i % 2 == 0 ? MemberType.STANDARD : MemberType.STUDENT);
+            memberIds.add(memberRepository.save(member).getMemberId());
+        }
+        for (int i = 0; i < 100; i++) {
+            Book book = new Book();
+            book.setTitle("Fines " + runId + " #" + i);
+            book.setIsbn("F" + runId + i);
+            bookIds.add(bookRepository.save(book).getBookId());
+            if (i % 2 == 0) {
+                jdbcTemplate.update("INSERT INTO book_categories (book_id, category_id) VALUES (?, ?)",
+                        bookIds.get(i), category.getCategoryId());
+            }
+        }
+        policyIds.add(finePolicyService.createPolicy(dto(null, category.getCategoryId(), 2.0, 0, 30.0)).getPolicyId());
+        policyIds.add(finePolicyService.createPolicy(dto(MemberType.STUDENT, null, 0.5, 1, null)).getPolicyId());
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(dbLoans);
+        for (int i = 0; i < dbLoans; i++) {
+            LocalDate due = today.minusDays(1 + i % 60);
+            rows.add(new Object[]{bookIds.get(i % bookIds.size()), memberIds.get(i % memberCount), user.getUserId(),
+                    Date.valueOf(due.minusDays(14)), Date.valueOf(due)});
+        }
+        long seededAt = System.nanoTime();
+        long firstId = maxBorrowId() + 1;
+        for (int from = 0; from < rows.size(); from += CHUNK) {
+            jdbcTemplate.batchUpdate("INSERT INTO borrow_records (book_id, member_id, user_id, borrow_date, due_date, " +
+                    "fine_amount, status) VALUES (?, ?, ?, ?, ?, 0, 'OVERDUE')", rows.subList(from, Math.min(rows.size(), from + CHUNK)));
+        }
+        long lastId = maxBorrowId();
+        log.info("Seeded {} overdue loans in {} s", dbLoans, String.format("%.2f", (System.nanoTime() - seededAt) / 1e9));
+
+        long startedAt = System.nanoTime();
+        long priced = fineAccrualService.accrue(firstId, lastId);
+        long elapsed = System.nanoTime() - startedAt;
+        log.info("Nightly accrual: {} loans priced in {} s = {} loans/sec",
+                priced, String.format("%.2f", elapsed / 1e9), Math.round(priced / (elapsed / 1e9)));
+
+        assertEquals(dbLoans, priced);
+        // Category policy wins for priced books, student policy elsewhere for students, default otherwise
+        for (int i = 0; i < Math.min(dbLoans, 200); i++) {
+            long days = 1 + i % 60;
+            boolean pricedBook = (i % bookIds.size()) % 2 == 0;
+            boolean student = (i % memberCount) % 2 == 1;
+            double expected = pricedBook ? Math.min(30.0, 2.0 * days) : student ? 0.5 * (days - 1) : days;
+            Double fine = jdbcTemplate.queryForObject("SELECT MAX(fine_amount) FROM borrow_records WHERE book_id = ? " +
+                            "AND member_id = ? AND due_date = ?", Double.class,
+                    rows.get(i)[0], rows.get(i)[1], rows.get(i)[4]);
+            assertEquals(expected, fine, 0.001);
+        }
+        Double loanTotal = jdbcTemplate.queryForObject("SELECT SUM(fine_amount) FROM borrow_records WHERE member_id = ?",
+                Double.class, memberIds.get(0));
+        assertEquals(loanTotal, memberBalanceRepository.findById(memberIds.get(0)).orElseThrow().getAccruedFines(), 0.01);
+    }
+
+    private long maxBorrowId() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(borrow_id), 0) FROM borrow_records", Long.class);
+    }
+
+    private static FinePolicy policy(MemberType type, Long categoryId, double rate, int graceDays, Double cap) {
+        FinePolicy policy = new FinePolicy();
+        policy.setMemberType(type);
+        if (categoryId != null) {
+            Category category = new Category();
+            category.setCategoryId(categoryId);
+            policy.setCategory(category);
+        }
+        policy.setDailyRate(rate);
+        policy.setGraceDays(graceDays);
+        policy.setMaxFine(cap);
+        return policy;
+    }
+
+    private static FinePolicyDTO dto(MemberType type, Long categoryId, double rate, int graceDays, Double cap) {
+        FinePolicyDTO dto = new FinePolicyDTO();
+        dto.setMemberType(type);
+        dto.setCategoryId(categoryId);
+        dto.setDailyRate(rate);
+        dto.setGraceDays(graceDays);
+        dto.setMaxFine(cap);
+        return dto;
+    }
+}
@@ -0,0 +1,122 @@
+package com.library.management.service;
+
+import com.library.management.entity.Category;
+import com.library.management.entity.FinePolicy;
+import com.library.management.entity.MemberType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FineScheduleTest {
+
+    private static final long[] NO_CATEGORIES = new long[0];
+    private static final LocalDate AS_OF = LocalDate.of(2025, 3, 31);
+
+    // Default 1.00/day, no grace, capped at 50
+    private final FineSchedule schedule = new FineSchedule(1.0, 0, 50.0, List.of(
+            policy(MemberType.STUDENT, null, 0.5, 2, null),
+            policy(null, 7L, 2.0, 0, 30.0),
+            policy(MemberType.STUDENT, 7L, 1.5, 1, null),
+            policy(null, 9L, 3.0, 0, null),
+            policy(MemberType.STAFF, null, 0.0, 0, null)));
+
+    @Test
+    void fallsBackToTheConfiguredDefault() {
+        assertEquals(10.0, fine(MemberType.STANDARD, NO_CATEGORIES, 10));
+        assertEquals(50.0, fine(MemberType.SENIOR, NO_CATEGORIES, 90));
+        assertEquals(0.0, fine(MemberType.STANDARD, NO_CATEGORIES, 0));
+        assertEquals(0.0, fine(MemberType.STANDARD, NO_CATEGORIES, -3));
+    }
+
+    @Test
+    void mostSpecificPolicyWins() {
+        // Type anywhere
+        assertEquals(4.0, fine(MemberType.STUDENT, new long[]{1}, 10));
+        // Category for any type
+        assertEquals(20.0, fine(MemberType.STANDARD, new long[]{7}, 10));
+        // Type in category beats both
+        assertEquals(13.5, fine(MemberType.STUDENT, new long[]{7}, 10));
+        assertEquals(0.0, fine(MemberType.STAFF, NO_CATEGORIES, 10));
+    }
+
+    @Test
+    void appliesGraceDaysAndCaps() {
+        assertEquals(0.0, fine(MemberType.STUDENT, NO_CATEGORIES, 2));
+        assertEquals(0.5, fine(MemberType.STUDENT, NO_CATEGORIES, 3));
+        assertEquals(30.0, fine(MemberType.STANDARD, new long[]{7}, 40));
+    }
+
+    @Test
+    void bookInSeveralPricedCategoriesTakesTheHighestRate() {
+        assertEquals(30.0, fine(MemberType.STANDARD, new long[]{7, 9}, 10));
+        assertEquals(30.0, fine(MemberType.STUDENT, new long[]{9, 7, 4}, 10));
+    }
+
+    @Test
+    void roundsToCents() {
+        FineSchedule thirds = new FineSchedule(1.0 / 3, 0, 0, List.of());
+
+        assertEquals(0.33, thirds.fine(MemberType.STANDARD, NO_CATEGORIES, AS_OF.minusDays(1), AS_OF));
+        assertEquals(3.33, thirds.fine(MemberType.STANDARD, NO_CATEGORIES, AS_OF.minusDays(10), AS_OF));
+        // A cap of zero means uncapped
+        assertEquals(333.33, thirds.fine(MemberType.STANDARD, NO_CATEGORIES, AS_OF.minusDays(1000), AS_OF));
+    }
+
+    @Test
+    void listsPricedCategories() {
+        assertArrayEquals(new long[]{7, 9}, schedule.pricedCategoryIds());
+        assertTrue(schedule.hasCategoryPolicies());
+        assertFalse(new FineSchedule(1.0, 0, 0, List.of()).hasCategoryPolicies());
+    }
+
+    @Test
+    void bookIndexMatchesPerLoanPricing() {
+        // Book 100 in categories 7 and 9, book 200 in 7, book 300 unpriced
+        FineSchedule.Books books = schedule.indexBooks(new long[]{200, 100, 100}, new long[]{7, 9, 7});
+
+        assertEquals(2, books.size());
+        for (MemberType type : MemberType.values()) {
+            assertEquals(schedule.policyFor(type, new long[]{7, 9}), books.policyFor(type.ordinal(), 100));
+            assertEquals(schedule.policyFor(type, new long[]{7}), books.policyFor(type.ordinal(), 200));
+            assertEquals(schedule.policyFor(type, NO_CATEGORIES), books.policyFor(type.ordinal(), 300));
+        }
+    }
+
+    @Test
+    void batchPricingFillsEveryLoan() {
+        FineSchedule.Books books = schedule.indexBooks(new long[]{100}, new long[]{7});
+        long asOfDay = AS_OF.toEpochDay();
+        int[] types = {MemberType.STANDARD.ordinal(), MemberType.STUDENT.ordinal(), MemberType.STAFF.ordinal()};
+        long[] bookIds = {100, 300, 300};
+        long[] dueDays = {asOfDay - 5, asOfDay - 5, asOfDay - 5};
+        double[] fines = new double[3];
+
+        FineAccrualService.price(schedule, books, asOfDay, 3, types, bookIds, dueDays, fines);
+
+        assertArrayEquals(new double[]{10.0, 1.5, 0.0}, fines);
+    }
+
+    private double fine(MemberType type, long[] categories, int daysLate) {
+        return schedule.fine(type, categories, AS_OF.minusDays(daysLate), AS_OF);
+    }
+
+    private static FinePolicy policy(MemberType type, Long categoryId, double rate, int graceDays, Double cap) {
+        FinePolicy policy = new FinePolicy();
+        policy.setMemberType(type);
+        if (categoryId != null) {
+            Category category = new Category();
+            category.setCategoryId(categoryId);
+            policy.setCategory(category);
+        }
+        policy.setDailyRate(rate);
+        policy.setGraceDays(graceDays);
+        policy.setMaxFine(cap);
+        return policy;
+    }
+}
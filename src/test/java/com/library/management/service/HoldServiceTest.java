@@ -0,0 +1,261 @@
+package com.library.management.service;
+
+import com.library.management.entity.HoldStatus;
+import com.library.management.event.HoldEvent;
+import com.library.management.repository.BookRepository;
+import com.library.management.repository.BorrowRepository;
+import com.library.management.repository.HoldRepository;
+import com.library.management.repository.MemberRepository;
+import com.library.management.repository.projection.HoldQueueView;
+import com.library.management.repository.projection.HoldRefView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HoldServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    private record QueueEntry(Long getHoldId, Long getMemberId, Boolean getIsActive) implements HoldQueueView {
+    }
+
+    private record Ref(Long getHoldId, Long getBookId, Long getMemberId) implements HoldRefView {
+    }
+
+    private static final class Row {
+        final long bookId;
+        final long memberId;
+        final boolean active;
+        HoldStatus status = HoldStatus.WAITING;
+        LocalDateTime expiresAt;
+
+        Row(long bookId, long memberId, boolean active) {
+            this.bookId = bookId;
+            this.memberId = memberId;
+            this.active = active;
+        }
+    }
+
+    // Stands in for the holds table; the stubs below apply the repository's conditional updates to it
+    private final Map<Long, Row> holds = new TreeMap<>();
+
+    private HoldRepository holdRepository;
+    private BookRepository bookRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private HoldService service;
+
+    @BeforeEach
+    void setUp() {
+        holdRepository = mock(HoldRepository.class);
+        bookRepository = mock(BookRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new HoldService(holdRepository, bookRepository, mock(MemberRepository.class),
+                mock(BorrowRepository.class), mock(CirculationLedgerService.class), eventPublisher,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "pickupDays", 3);
+        ReflectionTestUtils.setField(service, "expiryBatchSize", 2);
+
+        when(bookRepository.returnToShelf(anyLong(), any())).thenReturn(1);
+        when(holdRepository.findQueueHead(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long bookId = invocation.getArgument(0);
+            return holds.entrySet().stream()
+                    .filter(e -> e.getValue().bookId == bookId && e.getValue().status == HoldStatus.WAITING)
+                    .limit(1)
+                    .map(e -> (HoldQueueView) new QueueEntry(e.getKey(), e.getValue().memberId, e.getValue().active))
+                    .toList();
+        });
+        when(holdRepository.markReady(anyLong(), any(), any())).thenAnswer(invocation -> {
+            Row row = holds.get(invocation.<Long>getArgument(0));
+            if (row == null || row.status != HoldStatus.WAITING) {
+                return 0;
+            }
+            row.status = HoldStatus.READY;
+            row.expiresAt = invocation.getArgument(2);
+            return 1;
+        });
+        when(holdRepository.close(anyLong(), any(), any(), any())).thenAnswer(invocation -> {
+            Row row = holds.get(invocation.<Long>getArgument(0));
+            if (row == null || row.status != invocation.getArgument(1)) {
+                return 0;
+            }
+            row.status = invocation.getArgument(2);
+            return 1;
+        });
+        when(holdRepository.findExpired(any(), any(Limit.class))).thenAnswer(invocation -> {
+            LocalDateTime now = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(1);
+            return holds.entrySet().stream()
+                    .filter(e -> e.getValue().status == HoldStatus.READY && e.getValue().expiresAt.isBefore(now))
+                    .limit(limit.max())
+                    .map(e -> (HoldRefView) new Ref(e.getKey(), e.getValue().bookId, e.getValue().memberId))
+                    .toList();
+        });
+    }
+
+    @Test
+    void allocatesTheOldestWaitingHold() {
+        place(11, 1, 100, true);
+        place(12, 1, 101, true);
+        place(13, 2, 102, true);
+
+        assertTrue(service.allocateNext(1L, NOW));
+
+        assertEquals(HoldStatus.READY, holds.get(11L).status);
+        assertEquals(NOW.plusDays(3), holds.get(11L).expiresAt);
+        assertEquals(HoldStatus.WAITING, holds.get(12L).status);
+        assertEquals(HoldStatus.WAITING, holds.get(13L).status);
+        assertEquals(List.of("ALLOCATED 11 100"), events());
+    }
+
+    @Test
+    void cancelsDeactivatedMembersAtTheHeadOfTheQueue() {
+        place(11, 1, 100, false);
+        place(12, 1, 101, false);
+        place(13, 1, 102, true);
+
+        assertTrue(service.allocateNext(1L, NOW));
+
+        assertEquals(HoldStatus.CANCELLED, holds.get(11L).status);
+        assertEquals(HoldStatus.CANCELLED, holds.get(12L).status);
+        assertEquals(HoldStatus.READY, holds.get(13L).status);
+        assertEquals(List.of("ALLOCATED 13 102"), events());
+    }
+
+    @Test
+    void emptyQueueAllocatesNothing() {
+        place(11, 1, 100, false);
+
+        assertFalse(service.allocateNext(1L, NOW));
+
+        assertEquals(HoldStatus.CANCELLED, holds.get(11L).status);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void queueIsServedInOrderAsCopiesComeBack() {
+        place(11, 1, 100, true);
+        place(12, 1, 101, true);
+        place(13, 1, 102, true);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.allocateNext(1L, NOW));
+            holds.values().stream().filter(row -> row.status == HoldStatus.READY)
+                    .forEach(row -> row.status = HoldStatus.FULFILLED);
+        }
+
+        assertFalse(service.allocateNext(1L, NOW));
+        assertEquals(List.of("ALLOCATED 11 100", "ALLOCATED 12 101", "ALLOCATED 13 102"), events());
+    }
+
+    @Test
+    void expiredHoldPassesTheCopyToTheNextMember() {
+        ready(11, 1, 100, LocalDateTime.now().minusHours(1));
+        place(12, 1, 101, true);
+
+        assertEquals(1, service.expireHolds());
+
+        assertEquals(HoldStatus.EXPIRED, holds.get(11L).status);
+        assertEquals(HoldStatus.READY, holds.get(12L).status);
+        assertEquals(List.of("RELEASED 11 100", "ALLOCATED 12 101"), events());
+        verify(bookRepository).lockAvailability(List.of(1L));
+        verify(bookRepository, never()).returnToShelf(anyLong(), any());
+    }
+
+    @Test
+    void expiredHoldWithNobodyWaitingReturnsTheCopyToTheShelf() {
+        ready(11, 1, 100, LocalDateTime.now().minusHours(1));
+        place(12, 1, 101, false);
+
+        assertEquals(1, service.expireHolds());
+
+        assertEquals(HoldStatus.EXPIRED, holds.get(11L).status);
+        assertEquals(HoldStatus.CANCELLED, holds.get(12L).status);
+        verify(bookRepository).returnToShelf(eq(1L), any());
+        assertEquals(List.of("RELEASED 11 100"), events());
+    }
+
+    @Test
+    void copyAlreadyOnLoanStaysOffTheShelf() {
+        ready(11, 1, 100, LocalDateTime.now().minusHours(1));
+        // The guarded UPDATE matches nothing while the copy is lent out
+        when(bookRepository.returnToShelf(eq(1L), any())).thenReturn(0);
+
+        assertEquals(1, service.expireHolds());
+
+        assertEquals(HoldStatus.EXPIRED, holds.get(11L).status);
+        verify(bookRepository).returnToShelf(eq(1L), any());
+        assertEquals(List.of("RELEASED 11 100"), events());
+    }
+
+    @Test
+    void expiresEveryDueHoldAcrossBatches() {
+        LocalDateTime past = LocalDateTime.now().minusHours(1);
+        ready(11, 1, 100, past);
+        ready(12, 2, 100, past);
+        ready(13, 3, 100, past);
+        ready(14, 4, 100, LocalDateTime.now().plusDays(1));
+
+        assertEquals(3, service.expireHolds());
+
+        assertEquals(HoldStatus.READY, holds.get(14L).status);
+        verify(bookRepository, atLeastOnce()).returnToShelf(eq(3L), any());
+        verify(bookRepository, never()).returnToShelf(eq(4L), any());
+    }
+
+    @Test
+    void holdPickedUpMeanwhileIsNotExpired() {
+        ready(11, 1, 100, LocalDateTime.now().minusHours(1));
+        when(holdRepository.findExpired(any(), any(Limit.class)))
+                .thenReturn(List.of(new Ref(11L, 1L, 100L)))
+                .thenReturn(List.of());
+        holds.get(11L).status = HoldStatus.FULFILLED;
+
+        assertEquals(0, service.expireHolds());
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(bookRepository, never()).returnToShelf(anyLong(), any());
+    }
+
+    private void place(long holdId, long bookId, long memberId, boolean active) {
+        holds.put(holdId, new Row(bookId, memberId, active));
+    }
+
+    private void ready(long holdId, long bookId, long memberId, LocalDateTime expiresAt) {
+        Row row = new Row(bookId, memberId, true);
+        row.status = HoldStatus.READY;
+        row.expiresAt = expiresAt;
+        holds.put(holdId, row);
+    }
+
+    private List<String> events() {
+        ArgumentCaptor<HoldEvent> captor = ArgumentCaptor.forClass(HoldEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(captor.capture());
+        List<String> events = new ArrayList<>();
+        for (HoldEvent event : captor.getAllValues()) {
+            events.add(event.getType() + " " + event.getHoldId() + " " + event.getMemberId());
+        }
+        return events;
+    }
+}
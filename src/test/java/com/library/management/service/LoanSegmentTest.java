@@ -0,0 +1,130 @@
+package com.library.management.service;
+
+import com.library.management.entity.BorrowStatus;
+import com.library.management.repository.projection.BorrowListView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoanSegmentTest {
+
+    private record Loan(Long getBorrowId, Long getBookId, Long getMemberId, Long getUserId,
+                        LocalDateTime getBorrowDate, LocalDate getDueDate, LocalDateTime getReturnDate,
+                        Double getFineAmount, BorrowStatus getStatus) implements BorrowListView {
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryColumn() throws IOException {
+        List<BorrowListView> loans = loans(2_000, 11);
+
+        LoanSegment.Encoded encoded = LoanSegment.encode(loans);
+        try (LoanSegment.Reader reader = LoanSegment.Reader.open(write(encoded))) {
+            assertEquals(loans.size(), reader.rows());
+            long[] borrowIds = reader.column(LoanSegment.Column.BORROW_ID);
+            long[] bookIds = reader.column(LoanSegment.Column.BOOK_ID);
+            long[] memberIds = reader.column(LoanSegment.Column.MEMBER_ID);
+            for (int i = 0; i < loans.size(); i++) {
+                BorrowListView loan = loans.get(i);
+                assertEquals(loan.getBorrowId(), borrowIds[i]);
+                assertEquals(loan.getBookId(), bookIds[i]);
+                assertEquals(loan.getMemberId(), memberIds[i]);
+                assertEquals(loan.getUserId(), reader.userId(i));
+                assertEquals(loan.getBorrowDate(), reader.borrowDate(i));
+                assertEquals(loan.getDueDate(), reader.dueDate(i));
+                assertEquals(loan.getReturnDate(), reader.returnDate(i));
+                assertEquals(loan.getFineAmount() == null ? 0.0 : loan.getFineAmount(), reader.fineAmount(i));
+            }
+        }
+    }
+
+    @Test
+    void headerCarriesColumnStats() throws IOException {
+        LocalDateTime borrowed = LocalDateTime.of(2024, 5, 1, 9, 30, 15, 123_456_000);
+        List<BorrowListView> loans = List.of(
+                loan(10, 7, 3, borrowed, 14, borrowed.plusDays(20), 6.0),
+                loan(12, 2, 9, borrowed.minusDays(40), 21, borrowed.plusDays(1), null),
+                loan(30, 5, 1, borrowed.plusDays(2), 7, borrowed.plusDays(3), 0.25));
+
+        LoanSegment.Encoded encoded = LoanSegment.encode(loans);
+        LoanSegment.Stats stats = encoded.stats();
+
+        assertEquals(new LoanSegment.Stats(3, 10, 30, 2, 7, 1, 9,
+                borrowed.minusDays(40), borrowed.plusDays(2),
+                borrowed.minusDays(40).toLocalDate().plusDays(21), borrowed.toLocalDate().plusDays(14),
+                borrowed.plusDays(1), borrowed.plusDays(20)), stats);
+        try (LoanSegment.Reader reader = LoanSegment.Reader.open(write(encoded))) {
+            assertEquals(stats, reader.stats());
+            assertNull(reader.userId(0));
+        }
+    }
+
+    @Test
+    void corruptColumnFailsItsChecksum() throws IOException {
+        byte[] bytes = LoanSegment.encode(loans(500, 3)).bytes();
+        // Fines are the last block in the file
+        bytes[bytes.length - 2] ^= 0x5A;
+        Path file = Files.write(dir.resolve("corrupt.seg"), bytes);
+
+        try (LoanSegment.Reader reader = LoanSegment.Reader.open(file)) {
+            IOException error = assertThrows(IOException.class, () -> reader.fineAmount(0));
+            assertTrue(error.getMessage().contains("FINE_CENTS"));
+            // Other columns are checked and decoded on their own
+            assertEquals(500, reader.column(LoanSegment.Column.BORROW_ID).length);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSegments() throws IOException {
+        byte[] bytes = LoanSegment.encode(loans(10, 5)).bytes();
+        bytes[0] ^= 0x01;
+        Path notASegment = Files.write(dir.resolve("other.seg"), bytes);
+        Path truncated = Files.write(dir.resolve("short.seg"), new byte[12]);
+
+        assertThrows(IOException.class, () -> LoanSegment.Reader.open(notASegment));
+        assertThrows(IOException.class, () -> LoanSegment.Reader.open(truncated));
+    }
+
+    private Path write(LoanSegment.Encoded encoded) throws IOException {
+        return Files.write(dir.resolve("loans.seg"), encoded.bytes());
+    }
+
+    private static List<BorrowListView> loans(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<BorrowListView> loans = new ArrayList<>();
+        long borrowId = 1;
+        LocalDateTime borrowed = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            borrowId += 1 + random.nextInt(50);
+            borrowed = borrowed.plusSeconds(random.nextInt(7_200)).plusNanos(random.nextInt(1_000_000) * 1_000L);
+            LocalDateTime returned = borrowed.plusMinutes(random.nextInt(60 * 24 * 60));
+            Double fine = random.nextInt(4) == 0 ? null : random.nextInt(5_000) / 100.0;
+            Long userId = random.nextBoolean() ? null : (long) (1 + random.nextInt(50));
+            loans.add(new Loan(borrowId, (long) (1 + random.nextInt(10_000)), (long) (1 + random.nextInt(2_000)),
+                    userId, borrowed, borrowed.toLocalDate().plusDays(7 + random.nextInt(21)), returned, fine,
+                    BorrowStatus.RETURNED));
+        }
+        return loans;
+    }
+
+    private static Loan loan(long borrowId, long bookId, long memberId, LocalDateTime borrowed, int loanDays,
+                             LocalDateTime returned, Double fine) {
+        return new Loan(borrowId, bookId, memberId, null, borrowed, borrowed.toLocalDate().plusDays(loanDays),
+                returned, fine, BorrowStatus.RETURNED);
+    }
+}
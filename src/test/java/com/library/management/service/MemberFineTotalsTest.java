@@ -0,0 +1,69 @@
+package com.library.management.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MemberFineTotalsTest {
+
+    @Test
+    void sumsPerMember() {
+        MemberFineTotals totals = new MemberFineTotals(4);
+        totals.add(1, 2.5);
+        totals.add(2, 1.0);
+        totals.add(1, 0.5);
+        totals.add(3, 0.0);
+
+        assertEquals(3, totals.size());
+        assertEquals(Map.of(1L, 3.0, 2L, 1.0, 3L, 0.0), drain(totals));
+    }
+
+    @Test
+    void growsPastItsExpectedSize() {
+        MemberFineTotals totals = new MemberFineTotals(1);
+        Map<Long, Double> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20_000; i++) {
+            // Sparse and negative ids too, so probing wraps around the table
+            long memberId = random.nextInt(5_000) * 1_000_003L - 2_000_000_000L;
+            double amount = random.nextInt(100) / 4.0;
+            totals.add(memberId, amount);
+            expected.merge(memberId, amount, Double::sum);
+        }
+
+        assertEquals(expected.size(), totals.size());
+        assertEquals(expected, drain(totals));
+    }
+
+    @Test
+    void mergesChunkTotals() {
+        MemberFineTotals first = new MemberFineTotals(2);
+        first.add(1, 1.0);
+        first.add(2, 2.0);
+        MemberFineTotals second = new MemberFineTotals(2);
+        second.add(2, 3.0);
+        second.add(3, 4.0);
+
+        MemberFineTotals run = new MemberFineTotals(1);
+        run.addAll(first);
+        run.addAll(second);
+
+        assertEquals(Map.of(1L, 1.0, 2L, 5.0, 3L, 4.0), drain(run));
+    }
+
+    private static Map<Long, Double> drain(MemberFineTotals totals) {
+        long[] memberIds = new long[totals.size()];
+        double[] amounts = new double[totals.size()];
+        int count = totals.drainTo(memberIds, amounts);
+        assertEquals(totals.size(), count);
+        Map<Long, Double> result = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            result.put(memberIds[i], amounts[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+package com.library.management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(2, new RingBuffer<>(2).capacity());
+        assertEquals(8, new RingBuffer<>(5).capacity());
+        assertEquals(8, new RingBuffer<>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>((1 << 30) + 1));
+    }
+
+    @Test
+    void offerFailsWhenFullAndPollReturnsNullWhenEmpty() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertNull(buffer.poll());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void staysFifoAcrossManyWraps() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        int next = 0;
+        for (int round = 0; round < 1_000; round++) {
+            int batch = 1 + round % 4;
+            for (int i = 0; i < batch; i++) {
+                assertTrue(buffer.offer(round * 4 + i));
+            }
+            for (int i = 0; i < batch; i++) {
+                assertEquals(round * 4 + i, buffer.poll());
+                next++;
+            }
+            assertNull(buffer.poll());
+        }
+        assertEquals(2_500, next);
+    }
+
+    @Test
+    void everyItemIsTakenExactlyOnceUnderContention() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 50_000;
+        RingBuffer<long[]> buffer = new RingBuffer<>(64);
+        AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < perProducer; i++) {
+                        long[] item = {producer, i};
+                        while (!buffer.offer(item)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            List<Future<long[][]>> taken = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                taken.add(executor.submit(() -> {
+                    start.await();
+                    long[][] seen = new long[producers][perProducer];
+                    int[] counts = new int[producers];
+                    while (remaining.get() > 0) {
+                        long[] item = buffer.poll();
+                        if (item == null) {
+                            Thread.yield();
+                            continue;
+                        }
+                        int producer = (int) item[0];
+                        seen[producer][counts[producer]++] = item[1];
+                        remaining.decrementAndGet();
+                    }
+                    long[][] result = new long[producers][];
+                    for (int p = 0; p < producers; p++) {
+                        result[p] = Arrays.copyOf(seen[p], counts[p]);
+                    }
+                    return result;
+                }));
+            }
+            start.countDown();
+
+            boolean[][] delivered = new boolean[producers][perProducer];
+            for (Future<long[][]> future : taken) {
+                long[][] seen = future.get(60, TimeUnit.SECONDS);
+                for (int p = 0; p < producers; p++) {
+                    long previous = -1;
+                    for (long i : seen[p]) {
+                        // One producer's items reach any single consumer in the order they were offered
+                        assertTrue(i > previous);
+                        previous = i;
+                        assertFalse(delivered[p][(int) i]);
+                        delivered[p][(int) i] = true;
+                    }
+                }
+            }
+            for (boolean[] producer : delivered) {
+                for (boolean item : producer) {
+                    assertTrue(item);
+                }
+            }
+            assertNull(buffer.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}